@@ -159,4 +159,43 @@ CREATE TABLE IF NOT EXISTS mobile_app_settings (
     CONSTRAINT mobile_app_settings_tenant_id_unq_key UNIQUE (tenant_id)
 );
 
--- MOBILE APP SETTINGS TABLE CREATE END
\ No newline at end of file
+-- MOBILE APP SETTINGS TABLE CREATE END
+
+-- TS ROLLUP TABLES CREATE START
+
+CREATE TABLE IF NOT EXISTS ts_rollup
+(
+    entity_id   uuid   NOT NULL,
+    key         int    NOT NULL,
+    granularity bigint NOT NULL,
+    ts          bigint NOT NULL,
+    long_cnt    bigint,
+    long_sum    bigint,
+    long_min    bigint,
+    long_max    bigint,
+    dbl_cnt     bigint,
+    dbl_sum     double precision,
+    dbl_min     double precision,
+    dbl_max     double precision,
+    bool_cnt    bigint,
+    str_cnt     bigint,
+    json_cnt    bigint,
+    last_ts     bigint,
+    CONSTRAINT ts_rollup_pkey PRIMARY KEY (entity_id, key, granularity, ts)
+);
+
+CREATE TABLE IF NOT EXISTS ts_rollup_state
+(
+    id       int    NOT NULL,
+    start_ts bigint NOT NULL,
+    CONSTRAINT ts_rollup_state_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS ts_rollup_node
+(
+    node_id      varchar(64) NOT NULL,
+    heartbeat_ts bigint      NOT NULL,
+    CONSTRAINT ts_rollup_node_pkey PRIMARY KEY (node_id)
+);
+
+-- TS ROLLUP TABLES CREATE END
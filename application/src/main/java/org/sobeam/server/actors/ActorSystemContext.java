@@ -104,6 +104,7 @@ import org.sobeam.server.service.executors.DbCallbackExecutorService;
 import org.sobeam.server.service.executors.ExternalCallExecutorService;
 import org.sobeam.server.service.executors.NotificationExecutorService;
 import org.sobeam.server.service.executors.PubSubRuleNodeExecutorProvider;
+import org.sobeam.server.service.executors.RuleNodeParallelExecutorService;
 import org.sobeam.server.service.executors.SharedEventLoopGroupService;
 import org.sobeam.server.service.mail.MailExecutorService;
 import org.sobeam.server.service.profile.TbAssetProfileCache;
@@ -325,6 +326,10 @@ public class ActorSystemContext {
     @Getter
     private NotificationExecutorService notificationExecutor;
 
+    @Autowired
+    @Getter
+    private RuleNodeParallelExecutorService ruleNodeParallelExecutor;
+
     @Lazy
     @Autowired
     @Getter
@@ -483,6 +488,14 @@ public class ActorSystemContext {
     @Getter
     private long ruleNodeErrorPersistFrequency;
 
+    @Value("${actors.rule.node.max_parallelism:16}")
+    @Getter
+    private int ruleNodeMaxParallelism;
+
+    @Value("${actors.rule.node.parallel_drain_timeout_ms:10000}")
+    @Getter
+    private long ruleNodeParallelDrainTimeoutMs;
+
     @Value("${actors.statistics.enabled:true}")
     @Getter
     private boolean statisticsEnabled;
@@ -113,6 +113,6 @@ public abstract class RuleChainManagerActor extends ContextAwareActor {
     }
 
     protected void broadcast(TbActorMsg msg) {
-        ctx.broadcastToChildren(msg, new TbEntityTypeActorIdPredicate(EntityType.RULE_CHAIN));
+        ctx.broadcastToChildren(msg, new TbEntityTypeActorIdPredicate(EntityType.RULE_CHAIN), true);
     }
 }
@@ -63,7 +63,7 @@ public class RuleNodeActor extends RuleEngineComponentActor<RuleNodeId, RuleNode
                 onRuleNodeToSelfMsg((RuleNodeToSelfMsg) msg);
                 break;
             case STATS_PERSIST_TICK_MSG:
-                onStatsPersistTick(id);
+                onRuleNodeStatsPersistTick();
                 break;
             case PARTITION_CHANGE_MSG:
                 onClusterEventMsg((PartitionChangeMsg) msg);
@@ -74,6 +74,14 @@ public class RuleNodeActor extends RuleEngineComponentActor<RuleNodeId, RuleNode
         return true;
     }
 
+    private void onRuleNodeStatsPersistTick() {
+        if (processor != null && processor.getParallelism() > 1) {
+            log.debug("[{}][{}][{}] Parallelism: {}, pending messages: {}", ruleChainId, id, processor.getComponentName(),
+                    processor.getParallelism(), processor.getPendingCount());
+        }
+        onStatsPersistTick(id);
+    }
+
     private void onRuleNodeToSelfMsg(RuleNodeToSelfMsg msg) {
         if (log.isDebugEnabled()) {
             log.debug("[{}][{}][{}] Going to process rule msg: {}", ruleChainId, id, processor.getComponentName(), msg.getMsg());
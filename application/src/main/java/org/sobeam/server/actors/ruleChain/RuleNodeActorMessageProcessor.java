@@ -16,6 +16,7 @@
 package org.sobeam.server.actors.ruleChain;
 
 import lombok.extern.slf4j.Slf4j;
+import org.sobeam.rule.engine.api.TbContext;
 import org.sobeam.rule.engine.api.TbNode;
 import org.sobeam.rule.engine.api.TbNodeConfiguration;
 import org.sobeam.server.actors.ActorSystemContext;
@@ -43,12 +44,15 @@ import org.sobeam.server.gen.transport.TransportProtos;
 @Slf4j
 public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNodeId> {
 
+    static final String PARALLELISM = "parallelism";
+
     private final String ruleChainName;
     private final TbApiUsageReportClient apiUsageClient;
     private final DefaultTbContext defaultCtx;
     private RuleNode ruleNode;
-    private TbNode tbNode;
+    private volatile TbNode tbNode;
     private RuleNodeInfo info;
+    private RuleNodeParallelLanes lanes;
 
     RuleNodeActorMessageProcessor(TenantId tenantId, String ruleChainName, RuleNodeId ruleNodeId, ActorSystemContext systemContext
             , TbActorRef parent, TbActorRef self) {
@@ -57,7 +61,8 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
         this.ruleChainName = ruleChainName;
         this.ruleNode = systemContext.getRuleChainService().findRuleNodeById(tenantId, entityId);
         this.defaultCtx = new DefaultTbContext(systemContext, ruleChainName, new RuleNodeCtx(tenantId, parent, self, ruleNode));
-        this.info = new RuleNodeInfo(ruleNodeId, ruleChainName, ruleNode != null ? ruleNode.getName() : "Unknown");
+        updateLanes(ruleNode);
+        this.info = new RuleNodeInfo(ruleNodeId, ruleChainName, ruleNode != null ? ruleNode.getName() : "Unknown", getParallelism());
     }
 
     @Override
@@ -75,13 +80,15 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
     public void onUpdate(TbActorCtx context) throws Exception {
         RuleNode newRuleNode = systemContext.getRuleChainService().findRuleNodeById(tenantId, entityId);
         if (isMyNodePartition(newRuleNode)) {
-            this.info = new RuleNodeInfo(entityId, ruleChainName, newRuleNode != null ? newRuleNode.getName() : "Unknown");
+            updateLanes(newRuleNode);
+            this.info = new RuleNodeInfo(entityId, ruleChainName, newRuleNode != null ? newRuleNode.getName() : "Unknown", getParallelism());
             boolean restartRequired = state != ComponentLifecycleState.ACTIVE ||
                     !(ruleNode.getType().equals(newRuleNode.getType()) && ruleNode.getConfiguration().equals(newRuleNode.getConfiguration()));
             this.ruleNode = newRuleNode;
             this.defaultCtx.updateSelf(newRuleNode);
             if (restartRequired) {
                 if (tbNode != null) {
+                    drainLanes();
                     tbNode.destroy();
                 }
                 try {
@@ -100,7 +107,9 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
     public void stop(TbActorCtx context) {
         log.debug("[{}][{}] Stopping", tenantId, entityId);
         if (tbNode != null) {
+            drainLanes();
             tbNode.destroy();
+            tbNode = null;
             state = ComponentLifecycleState.SUSPENDED;
         }
     }
@@ -130,11 +139,7 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
             if (ruleNode.isDebugMode()) {
                 systemContext.persistDebugInput(tenantId, entityId, msg.getMsg(), "Self");
             }
-            try {
-                tbNode.onMsg(defaultCtx, msg.getMsg());
-            } catch (Exception e) {
-                defaultCtx.tellFailure(msg.getMsg(), e);
-            }
+            invokeNode(defaultCtx, msg.getMsg(), false);
         } else {
             tbMsg.getCallback().onFailure(new RuleNodeException("Message is processed by more then " + maxRuleNodeExecutionsPerMessage + " rule nodes!", ruleChainName, ruleNode));
         }
@@ -144,7 +149,9 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
         if (!isMyNodePartition()) {
             putToNodePartition(msg.getMsg());
         } else {
-            msg.getMsg().getCallback().onProcessingStart(info);
+            if (lanes == null) {
+                msg.getMsg().getCallback().onProcessingStart(info);
+            }
             checkComponentStateActive(msg.getMsg());
             TbMsg tbMsg = msg.getMsg();
             int ruleNodeCount = tbMsg.getAndIncrementRuleNodeCounter();
@@ -154,17 +161,94 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
                 if (ruleNode.isDebugMode()) {
                     systemContext.persistDebugInput(tenantId, entityId, msg.getMsg(), msg.getFromRelationType());
                 }
-                try {
-                    tbNode.onMsg(msg.getCtx(), msg.getMsg());
-                } catch (Exception e) {
-                    msg.getCtx().tellFailure(msg.getMsg(), e);
-                }
+                invokeNode(msg.getCtx(), msg.getMsg(), true);
             } else {
                 tbMsg.getCallback().onFailure(new RuleNodeException("Message is processed by more then " + maxRuleNodeExecutionsPerMessage + " rule nodes!", ruleChainName, ruleNode));
             }
         }
     }
 
+    /**
+     * Without parallelism the node is invoked right away on the actor thread. Otherwise the invocation is handed over
+     * to the lane of the message originator; the processing start is reported from the lane, so the time spent
+     * waiting in the lane is not accounted as the rule node execution time.
+     */
+    private void invokeNode(TbContext ctx, TbMsg msg, boolean reportProcessingStart) {
+        TbNode node = tbNode;
+        if (lanes == null) {
+            onMsg(node, ctx, msg);
+        } else {
+            RuleNodeInfo nodeInfo = this.info;
+            lanes.execute(msg.getOriginator(), () -> {
+                if (node != tbNode) {
+                    msg.getCallback().onFailure(getInactiveException());
+                    return;
+                }
+                if (reportProcessingStart) {
+                    msg.getCallback().onProcessingStart(nodeInfo);
+                }
+                onMsg(node, ctx, msg);
+            });
+        }
+    }
+
+    private static void onMsg(TbNode node, TbContext ctx, TbMsg msg) {
+        try {
+            node.onMsg(ctx, msg);
+        } catch (Exception e) {
+            ctx.tellFailure(msg, e);
+        }
+    }
+
+    int getParallelism() {
+        return lanes != null ? lanes.getParallelism() : 1;
+    }
+
+    int getPendingCount() {
+        return lanes != null ? lanes.getPendingCount() : 0;
+    }
+
+    private void updateLanes(RuleNode ruleNode) {
+        int parallelism = 1;
+        if (ruleNode != null && ruleNode.getAdditionalInfo() != null) {
+            parallelism = Math.max(1, Math.min(ruleNode.getAdditionalInfo().path(PARALLELISM).asInt(1), systemContext.getRuleNodeMaxParallelism()));
+            if (parallelism > 1 && !isThreadSafe(ruleNode)) {
+                log.warn("[{}][{}] Ignoring parallelism {} of the rule node '{}': {} is not thread-safe", tenantId, entityId,
+                        parallelism, ruleNode.getName(), ruleNode.getType());
+                parallelism = 1;
+            }
+        }
+        if (parallelism != getParallelism()) {
+            log.debug("[{}][{}] Updating parallelism from {} to {}", tenantId, entityId, getParallelism(), parallelism);
+            // The messages queued in the previous lanes must be processed first to keep the order per originator.
+            drainLanes();
+            this.lanes = parallelism > 1 ? new RuleNodeParallelLanes(systemContext.getRuleNodeParallelExecutor(), parallelism) : null;
+        }
+    }
+
+    private void drainLanes() {
+        if (lanes == null) {
+            return;
+        }
+        long timeoutMs = systemContext.getRuleNodeParallelDrainTimeoutMs();
+        try {
+            if (!lanes.awaitDrained(timeoutMs)) {
+                log.warn("[{}][{}] {} messages are still pending in the rule node lanes after {} ms", tenantId, entityId, lanes.getPendingCount(), timeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isThreadSafe(RuleNode ruleNode) {
+        try {
+            var annotation = Class.forName(ruleNode.getType()).getAnnotation(org.sobeam.rule.engine.api.RuleNode.class);
+            return annotation != null && annotation.threadSafe();
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
     @Override
     public String getComponentName() {
         return ruleNode.getName();
@@ -0,0 +1,88 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.actors.ruleChain;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.Getter;
+import org.sobeam.server.common.data.id.EntityId;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs rule node tasks on a fixed number of sequential lanes backed by a shared thread pool.
+ * Tasks of the same originator always land in the same lane, so they are executed one at a time and in order,
+ * while tasks of different originators may be executed concurrently.
+ */
+class RuleNodeParallelLanes {
+
+    @Getter
+    private final int parallelism;
+    private final Executor[] lanes;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    RuleNodeParallelLanes(Executor executor, int parallelism) {
+        this.parallelism = parallelism;
+        this.lanes = new Executor[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            lanes[i] = MoreExecutors.newSequentialExecutor(executor);
+        }
+    }
+
+    void execute(EntityId originator, Runnable task) {
+        pending.incrementAndGet();
+        lanes[laneOf(originator)].execute(() -> {
+            try {
+                task.run();
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    synchronized (pending) {
+                        pending.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until all the tasks submitted so far are executed. Must be called before the lanes are replaced
+     * or the rule node is destroyed, otherwise queued tasks could overtake each other or run against a destroyed node.
+     *
+     * @return false if the tasks are still pending after the timeout
+     */
+    boolean awaitDrained(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (pending) {
+            while (pending.get() > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                pending.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    int getPendingCount() {
+        return pending.get();
+    }
+
+    int laneOf(EntityId originator) {
+        return originator != null ? Math.floorMod(originator.getId().hashCode(), parallelism) : 0;
+    }
+
+}
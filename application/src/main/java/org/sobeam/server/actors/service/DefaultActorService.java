@@ -19,25 +19,44 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.sobeam.common.util.SoBeamExecutors;
 import org.sobeam.common.util.SoBeamThreadFactory;
 import org.sobeam.server.actors.ActorSystemContext;
 import org.sobeam.server.actors.DefaultTbActorSystem;
+import org.sobeam.server.actors.TbActorDispatcherStats;
+import org.sobeam.server.actors.TbActorDispatcherType;
+import org.sobeam.server.actors.TbActorId;
+import org.sobeam.server.actors.TbActorMailboxOverflowStrategy;
 import org.sobeam.server.actors.TbActorRef;
 import org.sobeam.server.actors.TbActorSystem;
 import org.sobeam.server.actors.TbActorSystemSettings;
 import org.sobeam.server.actors.app.AppActor;
 import org.sobeam.server.actors.app.AppInitMsg;
+import org.sobeam.server.actors.ruleChain.TbToRuleNodeActorMsg;
 import org.sobeam.server.actors.stats.StatsActor;
+import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.data.rule.RuleNode;
+import org.sobeam.server.common.msg.TbActorMsg;
+import org.sobeam.server.common.msg.TbMsg;
 import org.sobeam.server.common.msg.queue.PartitionChangeMsg;
+import org.sobeam.server.common.msg.queue.QueueToRuleEngineMsg;
+import org.sobeam.server.common.msg.queue.RuleEngineException;
 import org.sobeam.server.common.msg.queue.ServiceType;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.common.stats.StatsFactory;
+import org.sobeam.server.gen.transport.TransportProtos;
+import org.sobeam.server.queue.common.SimpleTbQueueCallback;
 import org.sobeam.server.queue.discovery.TbApplicationEventListener;
 import org.sobeam.server.queue.discovery.event.PartitionChangeEvent;
 import org.sobeam.server.queue.util.AfterStartUp;
+import org.sobeam.server.service.stats.DefaultTbActorDispatcherStats;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -53,8 +72,13 @@ public class DefaultActorService extends TbApplicationEventListener<PartitionCha
     @Autowired
     private ActorSystemContext actorContext;
 
+    @Autowired
+    private StatsFactory statsFactory;
+
     private TbActorSystem system;
 
+    private final Map<String, DefaultTbActorDispatcherStats> dispatcherStats = new ConcurrentHashMap<>();
+
     private TbActorRef appActor;
 
     @Value("${actors.system.throughput:5}")
@@ -78,17 +102,46 @@ public class DefaultActorService extends TbApplicationEventListener<PartitionCha
     @Value("${actors.system.rule_dispatcher_pool_size:8}")
     private int ruleDispatcherSize;
 
+    @Value("${actors.system.app_dispatcher_type:PLATFORM}")
+    private TbActorDispatcherType appDispatcherType;
+
+    @Value("${actors.system.tenant_dispatcher_type:PLATFORM}")
+    private TbActorDispatcherType tenantDispatcherType;
+
+    @Value("${actors.system.device_dispatcher_type:PLATFORM}")
+    private TbActorDispatcherType deviceDispatcherType;
+
+    @Value("${actors.system.rule_dispatcher_type:PLATFORM}")
+    private TbActorDispatcherType ruleDispatcherType;
+
+    @Value("${actors.system.mailbox.capacity:0}")
+    private int mailboxCapacity;
+
+    @Value("${actors.system.mailbox.overflow_strategy:REJECT}")
+    private TbActorMailboxOverflowStrategy mailboxOverflowStrategy;
+
+    @Value("${actors.statistics.enabled:true}")
+    private boolean statisticsEnabled;
+
+    @Value("${metrics.enabled:false}")
+    private boolean metricsEnabled;
+
     @PostConstruct
     public void initActorSystem() {
         log.info("Initializing actor system.");
         actorContext.setActorService(this);
-        TbActorSystemSettings settings = new TbActorSystemSettings(actorThroughput, schedulerPoolSize, maxActorInitAttempts);
-        system = new DefaultTbActorSystem(settings);
+        TbActorSystemSettings settings = new TbActorSystemSettings(actorThroughput, schedulerPoolSize, maxActorInitAttempts,
+                mailboxCapacity, mailboxOverflowStrategy);
+        DefaultTbActorSystem actorSystem = new DefaultTbActorSystem(settings);
+        actorSystem.setMailboxOverflowHandler(this::spillToRuleEngineQueue);
+        actorSystem.setDispatcherStatsFactory(this::createDispatcherStats);
+        system = actorSystem;
 
-        system.createDispatcher(APP_DISPATCHER_NAME, initDispatcherExecutor(APP_DISPATCHER_NAME, appDispatcherSize));
-        system.createDispatcher(TENANT_DISPATCHER_NAME, initDispatcherExecutor(TENANT_DISPATCHER_NAME, tenantDispatcherSize));
-        system.createDispatcher(DEVICE_DISPATCHER_NAME, initDispatcherExecutor(DEVICE_DISPATCHER_NAME, deviceDispatcherSize));
-        system.createDispatcher(RULE_DISPATCHER_NAME, initDispatcherExecutor(RULE_DISPATCHER_NAME, ruleDispatcherSize));
+        system.createDispatcher(APP_DISPATCHER_NAME, initDispatcherExecutor(APP_DISPATCHER_NAME, appDispatcherType, appDispatcherSize));
+        system.createDispatcher(TENANT_DISPATCHER_NAME, initDispatcherExecutor(TENANT_DISPATCHER_NAME, tenantDispatcherType, tenantDispatcherSize));
+        system.createDispatcher(DEVICE_DISPATCHER_NAME, initDispatcherExecutor(DEVICE_DISPATCHER_NAME, deviceDispatcherType, deviceDispatcherSize));
+        // only the rule engine messages fail their callback or go back to the queue on overflow, so the other dispatchers stay unbounded
+        system.createDispatcher(RULE_DISPATCHER_NAME, initDispatcherExecutor(RULE_DISPATCHER_NAME, ruleDispatcherType, ruleDispatcherSize), true);
 
         actorContext.setActorSystem(system);
 
@@ -101,7 +154,76 @@ public class DefaultActorService extends TbApplicationEventListener<PartitionCha
         log.info("Actor system initialized.");
     }
 
-    private ExecutorService initDispatcherExecutor(String dispatcherName, int poolSize) {
+    private TbActorDispatcherStats createDispatcherStats(String dispatcherId) {
+        if (!metricsEnabled && !statisticsEnabled) {
+            return TbActorDispatcherStats.NONE;
+        }
+        return dispatcherStats.computeIfAbsent(dispatcherId, id -> new DefaultTbActorDispatcherStats(id, statsFactory));
+    }
+
+    /**
+     * Returns the message to the rule engine queue: the messages from the queue are returned as they are,
+     * the messages to the rule node are returned addressed to that rule node, so the processing resumes there.
+     * Other messages can't be returned and are rejected.
+     */
+    private boolean spillToRuleEngineQueue(TbActorId actorId, TbActorMsg actorMsg) {
+        TenantId tenantId;
+        TbMsg source;
+        TbMsg tbMsg;
+        TransportProtos.ToRuleEngineMsg.Builder msg = TransportProtos.ToRuleEngineMsg.newBuilder();
+        if (actorMsg instanceof QueueToRuleEngineMsg queueMsg) {
+            tenantId = queueMsg.getTenantId();
+            source = queueMsg.getMsg();
+            tbMsg = source;
+            if (queueMsg.getRelationTypes() != null) {
+                msg.addAllRelationTypes(queueMsg.getRelationTypes());
+            }
+            if (queueMsg.getFailureMessage() != null) {
+                msg.setFailureMessage(queueMsg.getFailureMessage());
+            }
+        } else if (actorMsg instanceof TbToRuleNodeActorMsg nodeMsg) {
+            RuleNode ruleNode = nodeMsg.getCtx().getSelf();
+            tenantId = nodeMsg.getCtx().getTenantId();
+            source = nodeMsg.getMsg();
+            tbMsg = source.isValid() ? TbMsg.newMsg(source, source.getQueueName(), ruleNode.getRuleChainId(), ruleNode.getId()) : source;
+        } else {
+            return false;
+        }
+        if (!source.isValid()) {
+            return false;
+        }
+        TopicPartitionInfo tpi = actorContext.resolve(ServiceType.TB_RULE_ENGINE, tbMsg.getQueueName(), tenantId, tbMsg.getOriginator());
+        msg.setTenantIdMSB(tenantId.getId().getMostSignificantBits())
+                .setTenantIdLSB(tenantId.getId().getLeastSignificantBits())
+                .setTbMsg(TbMsg.toByteString(tbMsg));
+        log.trace("[{}] Mailbox is full, returning message [{}] to the queue", actorId, source.getId());
+        actorContext.getClusterService().pushMsgToRuleEngine(tpi, tbMsg.getId(), msg.build(), new SimpleTbQueueCallback(
+                metadata -> source.getCallback().onSuccess(),
+                t -> source.getCallback().onFailure(new RuleEngineException("Failed to return message to the queue: " + t.getMessage()))));
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${actors.statistics.dispatcher_print_interval_ms:60000}")
+    public void printDispatcherStats() {
+        if (statisticsEnabled) {
+            dispatcherStats.values().forEach(stats -> {
+                if (!stats.isEmpty()) {
+                    log.info("Actor Dispatcher Stats: {}", stats.getStatsSummary());
+                    stats.reset();
+                }
+            });
+        }
+    }
+
+    private ExecutorService initDispatcherExecutor(String dispatcherName, TbActorDispatcherType type, int poolSize) {
+        if (type == TbActorDispatcherType.VIRTUAL) {
+            if (SoBeamExecutors.isVirtualThreadsSupported()) {
+                log.info("[{}] Using virtual threads dispatcher", dispatcherName);
+                return SoBeamExecutors.newVirtualThreadPerTaskExecutor(dispatcherName);
+            }
+            log.warn("[{}] Virtual threads are not supported by the current JVM ({}), falling back to the platform threads dispatcher",
+                    dispatcherName, Runtime.version());
+        }
         if (poolSize == 0) {
             int cores = Runtime.getRuntime().availableProcessors();
             poolSize = Math.max(1, cores / 2);
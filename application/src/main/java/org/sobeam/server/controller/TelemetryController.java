@@ -15,6 +15,8 @@
  */
 package org.sobeam.server.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.FutureCallback;
@@ -35,6 +37,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -45,6 +48,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.sobeam.common.util.JacksonUtil;
 import org.sobeam.common.util.SoBeamThreadFactory;
 import org.sobeam.server.common.adaptor.JsonConverter;
@@ -82,6 +86,7 @@ import org.sobeam.server.common.msg.rule.engine.DeviceAttributesEventNotificatio
 import org.sobeam.server.config.annotations.ApiOperation;
 import org.sobeam.server.dao.timeseries.TimeseriesService;
 import org.sobeam.server.exception.InvalidParametersException;
+import org.sobeam.server.exception.ResponseAbortedException;
 import org.sobeam.server.exception.UncheckedApiException;
 import org.sobeam.server.queue.util.TbCoreComponent;
 import org.sobeam.server.service.security.AccessValidator;
@@ -90,6 +95,10 @@ import org.sobeam.server.service.security.permission.Operation;
 import org.sobeam.server.service.telemetry.AttributeData;
 import org.sobeam.server.service.telemetry.TsData;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -154,11 +163,19 @@ public class TelemetryController extends BaseController {
     @Value("${transport.json.max_string_value_length:0}")
     private int maxStringValueLength;
 
+    @Value("${server.rest.telemetry_export.timeout_ms:600000}")
+    private long exportTimeoutMs;
+
+    @Value("${server.rest.telemetry_export.pool_size:4}")
+    private int exportPoolSize;
+
     private ExecutorService executor;
+    private ExecutorService exportExecutor;
 
     @PostConstruct
     public void initExecutor() {
         executor = Executors.newSingleThreadExecutor(SoBeamThreadFactory.forName("telemetry-controller"));
+        exportExecutor = Executors.newFixedThreadPool(exportPoolSize, SoBeamThreadFactory.forName("telemetry-export"));
     }
 
     @PreDestroy
@@ -166,6 +183,9 @@ public class TelemetryController extends BaseController {
         if (executor != null) {
             executor.shutdownNow();
         }
+        if (exportExecutor != null) {
+            exportExecutor.shutdownNow();
+        }
     }
 
     @ApiOperation(value = "Get all attribute keys (getAttributeKeys)",
@@ -335,6 +355,106 @@ public class TelemetryController extends BaseController {
                 });
     }
 
+    @ApiOperation(value = "Export time-series data (exportTimeseries)",
+            notes = "Streams all raw time-series values of the specified keys within the time range as newline-delimited JSON " +
+                    "('application/x-ndjson'), one '{\"key\": ..., \"ts\": ..., \"value\": ...}' object per line. " +
+                    "Values of each key are ordered by timestamp ascending. Unlike 'getTimeseries', the result is not limited " +
+                    "and is read from the database page by page, so the export of a large range does not have to fit into memory. " +
+                    "If the export fails or exceeds the configured timeout, the connection is closed without completing the response, " +
+                    "so an incomplete file is never received as a successful one. \n\n"
+                    + INVALID_ENTITY_ID_OR_ENTITY_TYPE_DESCRIPTION + TENANT_OR_CUSTOMER_AUTHORITY_PARAGRAPH)
+    @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN', 'CUSTOMER_USER')")
+    @RequestMapping(value = "/{entityType}/{entityId}/values/timeseries/export", method = RequestMethod.GET, params = {"keys", "startTs", "endTs"})
+    public ResponseEntity<ResponseBodyEmitter> exportTimeseries(
+            @Parameter(description = ENTITY_TYPE_PARAM_DESCRIPTION, required = true, schema = @Schema(defaultValue = "DEVICE")) @PathVariable("entityType") String entityType,
+            @Parameter(description = ENTITY_ID_PARAM_DESCRIPTION, required = true) @PathVariable("entityId") String entityIdStr,
+            @Parameter(description = TELEMETRY_KEYS_BASE_DESCRIPTION, required = true) @RequestParam(name = "keys") String keys,
+            @Parameter(description = "A long value representing the start timestamp of the time range in milliseconds, UTC.")
+            @RequestParam(name = "startTs") Long startTs,
+            @Parameter(description = "A long value representing the end timestamp of the time range in milliseconds, UTC.")
+            @RequestParam(name = "endTs") Long endTs,
+            @Parameter(description = STRICT_DATA_TYPES_DESCRIPTION)
+            @RequestParam(name = "useStrictDataTypes", required = false, defaultValue = "false") Boolean useStrictDataTypes) throws SobeamException {
+        checkParameter("entityType", entityType);
+        checkParameter("entityId", entityIdStr);
+        EntityId entityId = EntityIdFactory.getByTypeAndId(entityType, entityIdStr);
+        checkEntityId(entityId, Operation.READ_TELEMETRY);
+        TenantId tenantId = getCurrentUser().getTenantId();
+        List<String> keysList = toKeysList(keys);
+        MediaType mediaType = MediaType.parseMediaType("application/x-ndjson");
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeoutMs);
+        emitter.onTimeout(() -> emitter.completeWithError(new ResponseAbortedException("Time series export timed out after " + exportTimeoutMs + " ms")));
+        exportExecutor.execute(() -> {
+            try (JsonGenerator generator = JacksonUtil.OBJECT_MAPPER.getFactory().createGenerator(new EmitterOutputStream(emitter, mediaType))) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                tsService.streamAll(tenantId, entityId, keysList, startTs, endTs, entry -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeStringField("key", entry.getKey());
+                        generator.writeNumberField("ts", entry.getTs());
+                        generator.writeObjectField("value", useStrictDataTypes ? getKvValue(entry) : entry.getValueAsString());
+                        generator.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeRaw('\n');
+            } catch (Throwable e) {
+                log.debug("[{}][{}] Failed to export time series", tenantId, entityId, e);
+                emitter.completeWithError(new ResponseAbortedException("Failed to export time series", e));
+                return;
+            }
+            emitter.complete();
+        });
+        return ResponseEntity.ok().contentType(mediaType).body(emitter);
+    }
+
+    /**
+     * Buffers the streamed bytes and sends them to the emitter in chunks, since every send is flushed to the client.
+     */
+    private static class EmitterOutputStream extends OutputStream {
+
+        private static final int CHUNK_SIZE = 64 * 1024;
+
+        private final ResponseBodyEmitter emitter;
+        private final MediaType mediaType;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE);
+
+        EmitterOutputStream(ResponseBodyEmitter emitter, MediaType mediaType) {
+            this.emitter = emitter;
+            this.mediaType = mediaType;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer.write(b);
+            if (buffer.size() >= CHUNK_SIZE) {
+                send();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            buffer.write(b, off, len);
+            if (buffer.size() >= CHUNK_SIZE) {
+                send();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (buffer.size() > 0) {
+                send();
+            }
+        }
+
+        private void send() throws IOException {
+            emitter.send(buffer.toByteArray(), mediaType);
+            buffer.reset();
+        }
+
+    }
+
     @ApiOperation(value = "Save device attributes (saveDeviceAttributes)",
             notes = "Creates or updates the device attributes based on device id and specified attribute scope. " +
                     SAVE_ATTRIBUTES_REQUEST_PAYLOAD
@@ -512,6 +512,13 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
         }
     }
 
+    @Override
+    public int getPendingMsgCount(WebSocketSessionRef sessionRef) {
+        String internalId = externalSessionMap.get(sessionRef.getSessionId());
+        SessionMetaData sessionMd = internalId != null ? internalSessionMap.get(internalId) : null;
+        return sessionMd != null ? sessionMd.outboundMsgQueueSize.get() : 0;
+    }
+
     @Override
     public void sendPing(WebSocketSessionRef sessionRef, long currentTime) throws IOException {
         String externalId = sessionRef.getSessionId();
@@ -0,0 +1,32 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.exception;
+
+/**
+ * Signals that a streamed response failed after it was committed. It is propagated to the servlet container,
+ * which closes the connection without completing the response, so the client sees a broken transfer instead of a successful one.
+ */
+public class ResponseAbortedException extends RuntimeException {
+
+    public ResponseAbortedException(String message) {
+        super(message);
+    }
+
+    public ResponseAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
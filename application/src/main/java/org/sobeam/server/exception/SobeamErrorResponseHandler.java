@@ -129,6 +129,10 @@ public class SobeamErrorResponseHandler extends ResponseEntityExceptionHandler i
     @ExceptionHandler(Exception.class)
     public void handle(Exception exception, HttpServletResponse response) {
         log.debug("Processing exception {}", exception.getMessage(), exception);
+        if (exception instanceof ResponseAbortedException && response.isCommitted()) {
+            // rethrown to the container that closes the connection without completing the response
+            throw (ResponseAbortedException) exception;
+        }
         if (!response.isCommitted()) {
             try {
                 response.setContentType(MediaType.APPLICATION_JSON_VALUE);
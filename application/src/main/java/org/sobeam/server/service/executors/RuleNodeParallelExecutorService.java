@@ -0,0 +1,33 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.sobeam.common.util.AbstractListeningExecutor;
+
+@Component
+public class RuleNodeParallelExecutorService extends AbstractListeningExecutor {
+
+    @Value("${actors.rule.node.parallel_thread_pool_size:16}")
+    private int parallelThreadPoolSize;
+
+    @Override
+    protected int getThreadPollSize() {
+        return parallelThreadPoolSize;
+    }
+
+}
@@ -48,6 +48,7 @@ import org.sobeam.server.common.data.rpc.RpcError;
 import org.sobeam.server.common.msg.MsgType;
 import org.sobeam.server.common.msg.TbActorMsg;
 import org.sobeam.server.common.msg.notification.NotificationRuleProcessor;
+import org.sobeam.server.common.msg.queue.MultipleTbCallback;
 import org.sobeam.server.common.msg.queue.ServiceType;
 import org.sobeam.server.common.msg.queue.TbCallback;
 import org.sobeam.server.common.msg.rpc.FromDeviceRpcResponse;
@@ -98,10 +99,12 @@ import org.sobeam.server.service.resource.TbImageService;
 import org.sobeam.server.service.rpc.TbCoreDeviceRpcService;
 import org.sobeam.server.service.security.auth.jwt.settings.JwtSettingsService;
 import org.sobeam.server.service.state.DeviceStateService;
+import org.sobeam.server.service.subscription.EntityDataChangeTracker;
 import org.sobeam.server.service.subscription.SubscriptionManagerService;
 import org.sobeam.server.service.subscription.TbLocalSubscriptionService;
 import org.sobeam.server.service.subscription.TbSubscriptionUtils;
 import org.sobeam.server.service.sync.vc.GitVersionControlQueueService;
+import org.sobeam.server.service.telemetry.AttributesCacheInvalidationListener;
 import org.sobeam.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
 import org.sobeam.server.service.ws.notification.sub.NotificationRequestUpdate;
 import org.sobeam.server.service.ws.notification.sub.NotificationUpdate;
@@ -150,6 +153,9 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
     private final TbCoreQueueFactory queueFactory;
     private final TbImageService imageService;
     private final TbCoreConsumerStats stats;
+    private final AttributesCacheInvalidationListener attributesCacheInvalidationListener;
+    private final EntityDataChangeTracker entityDataChangeTracker;
+
 
     private MainQueueConsumerManager<TbProtoQueueMsg<ToCoreMsg>, CoreQueueConfig> mainConsumer;
     private QueueConsumerManager<TbProtoQueueMsg<ToUsageStatsServiceMsg>> usageStatsConsumer;
@@ -177,7 +183,9 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
                                         JwtSettingsService jwtSettingsService,
                                         NotificationSchedulerService notificationSchedulerService,
                                         NotificationRuleProcessor notificationRuleProcessor,
-                                        TbImageService imageService) {
+                                        TbImageService imageService,
+                                        AttributesCacheInvalidationListener attributesCacheInvalidationListener,
+                                        EntityDataChangeTracker entityDataChangeTracker) {
         super(actorContext, tenantProfileCache, deviceProfileCache, assetProfileCache, apiUsageStateService, partitionService,
                 eventPublisher, jwtSettingsService);
         this.stateService = stateService;
@@ -193,6 +201,8 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
         this.notificationRuleProcessor = notificationRuleProcessor;
         this.imageService = imageService;
         this.queueFactory = tbCoreQueueFactory;
+        this.attributesCacheInvalidationListener = attributesCacheInvalidationListener;
+        this.entityDataChangeTracker = entityDataChangeTracker;
     }
 
     @PostConstruct
@@ -276,6 +286,9 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
                     } else if (toCoreMsg.hasToDeviceActorMsg()) {
                         log.trace("[{}] Forwarding message to device actor {}", id, toCoreMsg.getToDeviceActorMsg());
                         forwardToDeviceActor(toCoreMsg.getToDeviceActorMsg(), callback);
+                    } else if (toCoreMsg.hasSessionActivityBatchMsg()) {
+                        log.trace("[{}] Forwarding activity of {} sessions to device actors", id, toCoreMsg.getSessionActivityBatchMsg().getSessionsCount());
+                        forwardToDeviceActors(toCoreMsg.getSessionActivityBatchMsg(), callback);
                     } else if (toCoreMsg.hasDeviceStateServiceMsg()) {
                         log.trace("[{}] Forwarding message to device state service {}", id, toCoreMsg.getDeviceStateServiceMsg());
                         forwardToStateService(toCoreMsg.getDeviceStateServiceMsg(), callback);
@@ -407,6 +420,11 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
             callback.onSuccess();
         } else if (toCoreNotification.hasResourceCacheInvalidateMsg()) {
             forwardToResourceService(toCoreNotification.getResourceCacheInvalidateMsg(), callback);
+        } else if (toCoreNotification.hasAttributesCacheInvalidateMsg()) {
+            forwardToAttributesNearCache(toCoreNotification.getAttributesCacheInvalidateMsg(), callback);
+        } else if (toCoreNotification.hasEntityDataChangeMsg()) {
+            entityDataChangeTracker.onEntityDataChangeMsg(toCoreNotification.getEntityDataChangeMsg());
+            callback.onSuccess();
         }
         if (statsEnabled) {
             stats.log(toCoreNotification);
@@ -525,6 +543,11 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
         callback.onSuccess();
     }
 
+    private void forwardToAttributesNearCache(TransportProtos.AttributesCacheInvalidateMsg msg, TbCallback callback) {
+        attributesCacheInvalidationListener.onInvalidateMsg(msg);
+        callback.onSuccess();
+    }
+
     private void forwardToSubMgrService(SubscriptionMgrMsgProto msg, TbCallback callback) {
         if (msg.hasSubEvent()) {
             TbEntitySubEventProto subEvent = msg.getSubEvent();
@@ -694,6 +717,20 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
         actorContext.tell(new TransportToDeviceActorMsgWrapper(toDeviceActorMsg, callback));
     }
 
+    private void forwardToDeviceActors(TransportProtos.SessionActivityBatchProto batch, TbCallback callback) {
+        if (batch.getSessionsCount() == 0) {
+            callback.onSuccess();
+            return;
+        }
+        TbCallback sessionCallback = new MultipleTbCallback(batch.getSessionsCount(), callback);
+        for (TransportProtos.SessionSubscriptionInfoProto session : batch.getSessionsList()) {
+            forwardToDeviceActor(TransportToDeviceActorMsg.newBuilder()
+                    .setSessionInfo(session.getSessionInfo())
+                    .setSubscriptionInfo(session.getSubscriptionInfo())
+                    .build(), sessionCallback);
+        }
+    }
+
     private void forwardToAppActor(UUID id, Optional<TbActorMsg> actorMsg, TbCallback callback) {
         if (actorMsg.isPresent()) {
             forwardToAppActor(id, actorMsg.get());
@@ -53,6 +53,7 @@ import org.sobeam.server.service.queue.ruleengine.TbRuleEngineConsumerContext;
 import org.sobeam.server.service.queue.ruleengine.TbRuleEngineQueueConsumerManager;
 import org.sobeam.server.service.rpc.TbRuleEngineDeviceRpcService;
 import org.sobeam.server.service.security.auth.jwt.settings.JwtSettingsService;
+import org.sobeam.server.service.telemetry.AttributesCacheInvalidationListener;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -70,6 +71,7 @@ public class DefaultTbRuleEngineConsumerService extends AbstractConsumerService<
     private final TbRuleEngineConsumerContext ctx;
     private final QueueService queueService;
     private final TbRuleEngineDeviceRpcService tbDeviceRpcService;
+    private final AttributesCacheInvalidationListener attributesCacheInvalidationListener;
 
     private final ConcurrentMap<QueueKey, TbRuleEngineQueueConsumerManager> consumers = new ConcurrentHashMap<>();
 
@@ -83,11 +85,13 @@ public class DefaultTbRuleEngineConsumerService extends AbstractConsumerService<
                                               TbApiUsageStateService apiUsageStateService,
                                               PartitionService partitionService,
                                               ApplicationEventPublisher eventPublisher,
-                                              JwtSettingsService jwtSettingsService) {
+                                              JwtSettingsService jwtSettingsService,
+                                              AttributesCacheInvalidationListener attributesCacheInvalidationListener) {
         super(actorContext, tenantProfileCache, deviceProfileCache, assetProfileCache, apiUsageStateService, partitionService, eventPublisher, jwtSettingsService);
         this.ctx = ctx;
         this.tbDeviceRpcService = tbDeviceRpcService;
         this.queueService = queueService;
+        this.attributesCacheInvalidationListener = attributesCacheInvalidationListener;
     }
 
     @PostConstruct
@@ -183,6 +187,9 @@ public class DefaultTbRuleEngineConsumerService extends AbstractConsumerService<
         } else if (nfMsg.getQueueDeleteMsgsCount() > 0) {
             deleteQueues(nfMsg.getQueueDeleteMsgsList());
             callback.onSuccess();
+        } else if (nfMsg.hasAttributesCacheInvalidateMsg()) {
+            attributesCacheInvalidationListener.onInvalidateMsg(nfMsg.getAttributesCacheInvalidateMsg());
+            callback.onSuccess();
         } else {
             log.trace("Received notification with missing handler");
             callback.onSuccess();
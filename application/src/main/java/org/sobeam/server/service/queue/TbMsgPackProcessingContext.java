@@ -44,6 +44,8 @@ public class TbMsgPackProcessingContext {
     private final boolean profilerEnabled;
     private final AtomicInteger pendingCount;
     private final CountDownLatch processingTimeoutLatch = new CountDownLatch(1);
+    private final CountDownLatch tailLatch = new CountDownLatch(1);
+    private volatile int tailSize = -1;
     @Getter
     private final ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> pendingMap;
     @Getter
@@ -74,12 +76,31 @@ public class TbMsgPackProcessingContext {
         return success;
     }
 
+    /**
+     * Waits until at most {@code tailSize} messages of the pack are still pending.
+     */
+    public boolean awaitTail(int tailSize, long timeout, TimeUnit unit) throws InterruptedException {
+        this.tailSize = tailSize;
+        if (pendingCount.get() <= tailSize) {
+            return true;
+        }
+        return tailLatch.await(timeout, unit);
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
     public void onSuccess(UUID id) {
         TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg> msg;
         boolean empty = false;
         msg = pendingMap.remove(id);
         if (msg != null) {
-            empty = pendingCount.decrementAndGet() == 0;
+            int pending = pendingCount.decrementAndGet();
+            empty = pending == 0;
+            if (pending <= tailSize) {
+                tailLatch.countDown();
+            }
             successMap.put(id, msg);
             submitStrategy.onSuccess(id);
         }
@@ -93,7 +114,11 @@ public class TbMsgPackProcessingContext {
         boolean empty = false;
         msg = pendingMap.remove(id);
         if (msg != null) {
-            empty = pendingCount.decrementAndGet() == 0;
+            int pending = pendingCount.decrementAndGet();
+            empty = pending == 0;
+            if (pending <= tailSize) {
+                tailLatch.countDown();
+            }
             failedMap.put(id, msg);
             exceptionsMap.putIfAbsent(tenantId, e);
         }
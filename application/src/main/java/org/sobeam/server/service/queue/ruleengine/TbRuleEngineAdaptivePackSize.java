@@ -0,0 +1,59 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.queue.ruleengine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pack size of a rule engine queue that follows the observed pack latency and ack rate:
+ * halved when a pack times out or exceeds the target latency, and grown by a quarter
+ * when a full pack is acked completely within half of the target latency.
+ */
+public class TbRuleEngineAdaptivePackSize {
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetLatencyMs;
+    private final AtomicInteger packSize;
+
+    public TbRuleEngineAdaptivePackSize(int minSize, int maxSize, long targetLatencyMs) {
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.targetLatencyMs = targetLatencyMs;
+        this.packSize = new AtomicInteger(this.maxSize);
+    }
+
+    public int get() {
+        return packSize.get();
+    }
+
+    /**
+     * @param size       number of messages in the pack
+     * @param latencyMs  time from the first submit of the pack till the decision to commit it
+     * @param timeout    whether the first attempt to process the pack timed out
+     * @param ackRate    part of the pack that was acked successfully on the first attempt
+     */
+    public void onPackProcessed(int size, long latencyMs, boolean timeout, double ackRate) {
+        packSize.updateAndGet(current -> {
+            if (timeout || latencyMs > targetLatencyMs) {
+                return Math.max(minSize, current / 2);
+            } else if (size >= current && ackRate >= 1.0 && latencyMs < targetLatencyMs / 2) {
+                return Math.min(maxSize, current + Math.max(1, current / 4));
+            }
+            return current;
+        });
+    }
+}
@@ -49,6 +49,18 @@ public class TbRuleEngineConsumerContext {
     private int topicDeletionDelayInSec;
     @Value("${queue.rule-engine.management-thread-pool-size:12}")
     private int mgmtThreadPoolSize;
+    @Value("${queue.rule-engine.adaptive-pack.enabled:false}")
+    private boolean adaptivePackEnabled;
+    @Value("${queue.rule-engine.adaptive-pack.min-size:10}")
+    private int adaptivePackMinSize;
+    @Value("${queue.rule-engine.adaptive-pack.max-size:1000}")
+    private int adaptivePackMaxSize;
+    @Value("${queue.rule-engine.adaptive-pack.target-latency-ms:500}")
+    private long adaptivePackTargetLatencyMs;
+    @Value("${queue.rule-engine.adaptive-pack.pipelining-enabled:true}")
+    private boolean packPipeliningEnabled;
+    @Value("${queue.rule-engine.adaptive-pack.pipelining-tail-ratio:0.1}")
+    private double packPipeliningTailRatio;
 
     private final ActorSystemContext actorContext;
     private final StatsFactory statsFactory;
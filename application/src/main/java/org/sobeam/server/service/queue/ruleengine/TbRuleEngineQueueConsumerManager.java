@@ -22,6 +22,7 @@ import org.sobeam.server.common.data.id.EntityId;
 import org.sobeam.server.common.data.id.EntityIdFactory;
 import org.sobeam.server.common.data.id.TenantId;
 import org.sobeam.server.common.data.queue.Queue;
+import org.sobeam.server.common.data.queue.SubmitStrategyType;
 import org.sobeam.server.common.msg.TbMsg;
 import org.sobeam.server.common.msg.gen.MsgProtos;
 import org.sobeam.server.common.msg.queue.QueueToRuleEngineMsg;
@@ -62,6 +63,7 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
 
     private final TbRuleEngineConsumerContext ctx;
     private final TbRuleEngineConsumerStats stats;
+    private final TbRuleEngineAdaptivePackSize adaptivePackSize;
 
     @Builder(builderMethodName = "create") // not to conflict with super.builder()
     public TbRuleEngineQueueConsumerManager(TbRuleEngineConsumerContext ctx,
@@ -72,6 +74,8 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
         super(queueKey, null, null, ctx.getQueueFactory()::createToRuleEngineMsgConsumer, consumerExecutor, scheduler, taskExecutor);
         this.ctx = ctx;
         this.stats = new TbRuleEngineConsumerStats(queueKey, ctx.getStatsFactory());
+        this.adaptivePackSize = ctx.isAdaptivePackEnabled() ?
+                new TbRuleEngineAdaptivePackSize(ctx.getAdaptivePackMinSize(), ctx.getAdaptivePackMaxSize(), ctx.getAdaptivePackTargetLatencyMs()) : null;
     }
 
     public void delete(boolean drainQueue) {
@@ -119,41 +123,54 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
     protected void processMsgs(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs,
                                TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer,
                                Queue queue) throws Exception {
-        TbRuleEngineSubmitStrategy submitStrategy = getSubmitStrategy(queue);
-        TbRuleEngineProcessingStrategy ackStrategy = getProcessingStrategy(queue);
-        submitStrategy.init(msgs);
-        while (!stopped && !consumer.isStopped()) {
-            TbMsgPackProcessingContext packCtx = new TbMsgPackProcessingContext(queue.getName(), submitStrategy, ackStrategy.isSkipTimeoutMsgs());
-            submitStrategy.submitAttempt((id, msg) -> submitMessage(packCtx, id, msg));
-
-            final boolean timeout = !packCtx.await(queue.getPackProcessingTimeout(), TimeUnit.MILLISECONDS);
-
-            TbRuleEngineProcessingResult result = new TbRuleEngineProcessingResult(queue.getName(), timeout, packCtx);
-            if (timeout) {
-                printFirstOrAll(packCtx, packCtx.getPendingMap(), "Timeout");
+        if (stopped || consumer.isStopped()) {
+            return;
+        }
+        if (adaptivePackSize == null) {
+            MsgPack pack = new MsgPack(msgs, queue);
+            pack.submit();
+            if (pack.process(consumer)) {
+                consumer.commit();
             }
-            if (!packCtx.getFailedMap().isEmpty()) {
-                printFirstOrAll(packCtx, packCtx.getFailedMap(), "Failed");
+            return;
+        }
+        boolean pipelining = ctx.isPackPipeliningEnabled() && isPipeliningSupported(queue);
+        MsgPack previous = null;
+        int offset = 0;
+        while (offset < msgs.size()) {
+            if (stopped || consumer.isStopped()) {
+                return;
             }
-            packCtx.printProfilerStats();
-
-            TbRuleEngineProcessingDecision decision = ackStrategy.analyze(result);
-            if (ctx.isStatsEnabled()) {
-                stats.log(result, decision.isCommit());
+            int packSize = Math.min(adaptivePackSize.get(), msgs.size() - offset);
+            MsgPack pack = new MsgPack(msgs.subList(offset, offset + packSize), queue);
+            offset += packSize;
+            if (previous != null) {
+                if (pipelining) {
+                    previous.awaitTail((int) (previous.size() * ctx.getPackPipeliningTailRatio()));
+                } else {
+                    if (!previous.process(consumer)) {
+                        return;
+                    }
+                    previous = null;
+                }
             }
-
-            packCtx.cleanup();
-
-            if (decision.isCommit()) {
-                submitStrategy.stop();
-                consumer.commit();
-                break;
-            } else {
-                submitStrategy.update(decision.getReprocessMap());
+            pack.submit();
+            if (previous != null && !previous.process(consumer)) {
+                return;
             }
+            previous = pack;
+        }
+        if (previous != null && previous.process(consumer)) {
+            // offsets are committed only once all packs of the poll are processed, so the commit order is preserved
+            consumer.commit();
         }
     }
 
+    private boolean isPipeliningSupported(Queue queue) {
+        SubmitStrategyType type = queue.getSubmitStrategy().getType();
+        return type == SubmitStrategyType.BURST || type == SubmitStrategyType.BATCH;
+    }
+
     private TbRuleEngineSubmitStrategy getSubmitStrategy(Queue queue) {
         return ctx.getSubmitStrategyFactory().newInstance(queue.getName(), queue.getSubmitStrategy());
     }
@@ -212,10 +229,100 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
 
     public void printStats(long ts) {
         stats.printStats();
+        if (adaptivePackSize != null) {
+            log.info("[{}] Adaptive pack size: {}", queueKey, adaptivePackSize.get());
+        }
         ctx.getStatisticsService().reportQueueStats(ts, stats);
         stats.reset();
     }
 
+    private class MsgPack {
+
+        private final List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs;
+        private final Queue queue;
+        private final TbRuleEngineSubmitStrategy submitStrategy;
+        private final TbRuleEngineProcessingStrategy ackStrategy;
+        private TbMsgPackProcessingContext packCtx;
+        private long submitTs;
+        private long attemptTs;
+
+        MsgPack(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs, Queue queue) {
+            this.msgs = msgs;
+            this.queue = queue;
+            this.submitStrategy = getSubmitStrategy(queue);
+            this.ackStrategy = getProcessingStrategy(queue);
+        }
+
+        int size() {
+            return msgs.size();
+        }
+
+        void submit() {
+            submitStrategy.init(msgs);
+            submitTs = System.currentTimeMillis();
+            submitAttempt();
+        }
+
+        private void submitAttempt() {
+            TbMsgPackProcessingContext packCtx = new TbMsgPackProcessingContext(queue.getName(), submitStrategy, ackStrategy.isSkipTimeoutMsgs());
+            this.packCtx = packCtx;
+            this.attemptTs = System.currentTimeMillis();
+            submitStrategy.submitAttempt((id, msg) -> submitMessage(packCtx, id, msg));
+        }
+
+        void awaitTail(int tailSize) throws InterruptedException {
+            packCtx.awaitTail(tailSize, getRemainingTimeout(), TimeUnit.MILLISECONDS);
+        }
+
+        private long getRemainingTimeout() {
+            return Math.max(0, queue.getPackProcessingTimeout() - (System.currentTimeMillis() - attemptTs));
+        }
+
+        /**
+         * Waits for the submitted attempt and reprocesses the pack according to the processing strategy.
+         *
+         * @return true if the pack may be committed, false if the consumer was stopped before the pack was processed
+         */
+        boolean process(TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer) throws InterruptedException {
+            boolean firstAttempt = true;
+            while (true) {
+                final boolean timeout = !packCtx.await(getRemainingTimeout(), TimeUnit.MILLISECONDS);
+
+                TbRuleEngineProcessingResult result = new TbRuleEngineProcessingResult(queue.getName(), timeout, packCtx);
+                if (timeout) {
+                    printFirstOrAll(packCtx, packCtx.getPendingMap(), "Timeout");
+                }
+                if (!packCtx.getFailedMap().isEmpty()) {
+                    printFirstOrAll(packCtx, packCtx.getFailedMap(), "Failed");
+                }
+                packCtx.printProfilerStats();
+
+                TbRuleEngineProcessingDecision decision = ackStrategy.analyze(result);
+                if (ctx.isStatsEnabled()) {
+                    stats.log(result, decision.isCommit());
+                }
+                if (firstAttempt && adaptivePackSize != null) {
+                    double ackRate = msgs.isEmpty() ? 1.0 : (double) packCtx.getSuccessMap().size() / msgs.size();
+                    adaptivePackSize.onPackProcessed(msgs.size(), System.currentTimeMillis() - submitTs, timeout, ackRate);
+                }
+                packCtx.cleanup();
+
+                if (decision.isCommit()) {
+                    submitStrategy.stop();
+                    return true;
+                } else {
+                    submitStrategy.update(decision.getReprocessMap());
+                    firstAttempt = false;
+                }
+                if (stopped || consumer.isStopped()) {
+                    return false;
+                }
+                submitAttempt();
+            }
+        }
+
+    }
+
     private void drainQueue(List<TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>>> consumers) {
         long finishTs = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ctx.getTopicDeletionDelayInSec());
         try {
@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.sobeam.common.util.JacksonUtil;
+import org.sobeam.script.api.PreparsedScriptArg;
 import org.sobeam.script.api.RuleNodeScriptFactory;
 import org.sobeam.script.api.tbel.TbelInvokeService;
 import org.sobeam.server.common.data.StringUtils;
@@ -122,23 +123,36 @@ public class RuleNodeTbelScriptEngine extends RuleNodeScriptEngine<TbelInvokeSer
 
     @Override
     protected Object[] prepareArgs(TbMsg msg) {
+        // The parsed data tree and the metadata map are shared with the message: the TBEL engine copies them
+        // into its own structures, so the scripts never modify them.
         Object[] args = new Object[3];
         if (msg.getData() != null) {
-            args[0] = JacksonUtil.fromString(msg.getData(), Object.class);
+            args[0] = new PreparsedScriptArg(msg.getDataAsJsonNode(), msg.getData().length());
         } else {
             args[0] = new HashMap<>();
         }
-        args[1] = new HashMap<>(msg.getMetaData().getData());
+        Map<String, String> metadata = msg.getMetaData().getData();
+        args[1] = new PreparsedScriptArg(Collections.unmodifiableMap(metadata), metadataSize(metadata));
         args[2] = msg.getType();
         return args;
     }
 
+    private static long metadataSize(Map<String, String> metadata) {
+        // Length of the metadata serialized as JSON object, without escaping of the special characters
+        long size = 2;
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            size += entry.getKey().length() + entry.getValue().length() + 6;
+        }
+        return size;
+    }
+
     private static TbMsg unbindMsg(Map msgData, TbMsg msg) {
-        String data = null;
+        JsonNode data = null;
         Map<String, String> metadata = null;
         String messageType = null;
-        if (msgData.containsKey(RuleNodeScriptFactory.MSG)) {
-            data = JacksonUtil.toString(msgData.get(RuleNodeScriptFactory.MSG));
+        Object msgDataObj = msgData.get(RuleNodeScriptFactory.MSG);
+        if (msgDataObj != null) {
+            data = JacksonUtil.valueToTree(msgDataObj);
         }
         if (msgData.containsKey(RuleNodeScriptFactory.METADATA)) {
             Object msgMetadataObj = msgData.get(RuleNodeScriptFactory.METADATA);
@@ -153,10 +167,11 @@ public class RuleNodeTbelScriptEngine extends RuleNodeScriptEngine<TbelInvokeSer
         if (msgData.containsKey(RuleNodeScriptFactory.MSG_TYPE)) {
             messageType = msgData.get(RuleNodeScriptFactory.MSG_TYPE).toString();
         }
-        String newData = data != null ? data : msg.getData();
         TbMsgMetaData newMetadata = metadata != null ? new TbMsgMetaData(metadata) : msg.getMetaData().copy();
         String newMessageType = !StringUtils.isEmpty(messageType) ? messageType : msg.getType();
-        return TbMsg.transformMsg(msg, newMessageType, msg.getOriginator(), newMetadata, newData);
+        TbMsg result = TbMsg.transformMsg(msg, newMessageType, msg.getOriginator(), newMetadata, msg.getData());
+        // Keeps the tree of the script result as the parsed data, so the next rule nodes do not parse it again
+        return data != null ? TbMsg.transformMsgData(result, data) : result;
     }
 
     private static <T> ListenableFuture<T> wrongResultType(Object result) {
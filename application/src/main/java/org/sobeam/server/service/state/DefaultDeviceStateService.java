@@ -47,6 +47,7 @@ import org.sobeam.server.common.data.id.EntityId;
 import org.sobeam.server.common.data.id.TenantId;
 import org.sobeam.server.common.data.id.UUIDBased;
 import org.sobeam.server.common.data.kv.AttributeKvEntry;
+import org.sobeam.server.common.data.kv.BaseAttributeKvEntry;
 import org.sobeam.server.common.data.kv.BasicTsKvEntry;
 import org.sobeam.server.common.data.kv.BooleanDataEntry;
 import org.sobeam.server.common.data.kv.KvEntry;
@@ -69,6 +70,7 @@ import org.sobeam.server.common.msg.notification.NotificationRuleProcessor;
 import org.sobeam.server.common.msg.queue.ServiceType;
 import org.sobeam.server.common.msg.queue.TbCallback;
 import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.common.stats.StatsFactory;
 import org.sobeam.server.common.stats.TbApiUsageReportClient;
 import org.sobeam.server.dao.attributes.AttributesService;
 import org.sobeam.server.dao.device.DeviceService;
@@ -89,7 +91,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -159,6 +160,8 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
     private final NotificationRuleProcessor notificationRuleProcessor;
     @Autowired @Lazy
     private TelemetrySubscriptionService tsSubService;
+    @Autowired
+    private StatsFactory statsFactory;
 
     @Value("${state.defaultInactivityTimeoutInSec}")
     @Getter
@@ -191,10 +194,21 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
     @Getter
     private int telemetryTtl;
 
+    @Value("${state.persistBatching.enabled:false}")
+    private boolean persistBatchingEnabled;
+
+    @Value("${state.persistBatching.flushIntervalMs:1000}")
+    private long persistBatchingFlushIntervalMs;
+
+    @Value("${state.persistBatching.maxPendingDevices:100000}")
+    private int persistBatchingMaxPendingDevices;
+
     private ListeningExecutorService deviceStateExecutor;
     private ListeningExecutorService deviceStateCallbackExecutor;
 
     final ConcurrentMap<DeviceId, DeviceStateData> deviceStates = new ConcurrentHashMap<>();
+    final DeviceInactivityDeadlines inactivityDeadlines = new DeviceInactivityDeadlines();
+    private DeviceStatePersistBuffer persistBuffer;
 
     @PostConstruct
     public void init() {
@@ -205,10 +219,17 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
                 Math.max(4, Runtime.getRuntime().availableProcessors()), "device-state-callback"));
         scheduledExecutor.scheduleWithFixedDelay(this::checkStates, new Random().nextInt(defaultStateCheckIntervalInSec), defaultStateCheckIntervalInSec, TimeUnit.SECONDS);
         scheduledExecutor.scheduleWithFixedDelay(this::reportActivityStats, defaultActivityStatsIntervalInSec, defaultActivityStatsIntervalInSec, TimeUnit.SECONDS);
+        if (persistBatchingEnabled) {
+            persistBuffer = new DeviceStatePersistBuffer(persistBatchingMaxPendingDevices, this::persist, statsFactory);
+            scheduledExecutor.scheduleWithFixedDelay(this::flushPersistBuffer, persistBatchingFlushIntervalMs, persistBatchingFlushIntervalMs, TimeUnit.MILLISECONDS);
+        }
     }
 
     @PreDestroy
     public void stop() {
+        if (persistBuffer != null) {
+            flushPersistBuffer();
+        }
         super.stop();
         if (deviceStateExecutor != null) {
             deviceStateExecutor.shutdownNow();
@@ -278,6 +299,7 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
                 }
                 onDeviceActivityStatusChange(deviceId, true, stateData);
             }
+            scheduleInactivityCheck(deviceId, stateData);
         } else {
             log.debug("updateActivityState - fetched state IS NULL for device {}, lastReportedActivity {}", deviceId, lastReportedActivity);
             cleanupEntity(deviceId);
@@ -473,13 +495,27 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
                 }
             }
         }
+        scheduleInactivityCheck(deviceId, state);
+    }
+
+    /**
+     * Schedules the next inactivity check unless the inactivity of the device was already reported.
+     * The device may expire only after both its last activity and its creation are older than the inactivity timeout.
+     */
+    void scheduleInactivityCheck(DeviceId deviceId, DeviceStateData stateData) {
+        DeviceState state = stateData.getState();
+        if (state.getLastInactivityAlarmTime() == 0L || state.getLastInactivityAlarmTime() <= state.getLastActivityTime()) {
+            long deadline = Math.max(state.getLastActivityTime(), stateData.getDeviceCreationTime()) + state.getInactivityTimeout();
+            inactivityDeadlines.schedule(deviceId, deadline);
+        }
     }
 
     private boolean addDeviceUsingState(TopicPartitionInfo tpi, DeviceStateData state) {
         Set<DeviceId> deviceIds = partitionedEntities.get(tpi);
         if (deviceIds != null) {
             deviceIds.add(state.getDeviceId());
-            deviceStates.putIfAbsent(state.getDeviceId(), state);
+            DeviceStateData current = deviceStates.putIfAbsent(state.getDeviceId(), state);
+            scheduleInactivityCheck(state.getDeviceId(), current != null ? current : state);
             return true;
         } else {
             log.debug("[{}] Device belongs to external partition {}", state.getDeviceId(), tpi.getFullTopicName());
@@ -490,29 +526,29 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
     void checkStates() {
         try {
             final long ts = getCurrentTimeMillis();
-            partitionedEntities.forEach((tpi, deviceIds) -> {
-                log.debug("Calculating state updates. tpi {} for {} devices", tpi.getFullTopicName(), deviceIds.size());
-                Set<DeviceId> idsFromRemovedTenant = new HashSet<>();
-                for (DeviceId deviceId : deviceIds) {
-                    DeviceStateData stateData;
-                    try {
-                        stateData = getOrFetchDeviceStateData(deviceId);
-                    } catch (Exception e) {
-                        log.error("[{}] Failed to get or fetch device state data", deviceId, e);
-                        continue;
+            List<DeviceId> expiredDeviceIds = inactivityDeadlines.pollExpired(ts);
+            log.debug("Calculating state updates for {} devices, {} devices are waiting for the inactivity timeout",
+                    expiredDeviceIds.size(), inactivityDeadlines.size());
+            for (DeviceId deviceId : expiredDeviceIds) {
+                DeviceStateData stateData = deviceStates.get(deviceId);
+                if (stateData == null) {
+                    continue;
+                }
+                try {
+                    updateInactivityStateIfExpired(ts, deviceId, stateData);
+                    if (deviceStates.containsKey(deviceId)) {
+                        scheduleInactivityCheck(deviceId, stateData);
                     }
-                    try {
-                        updateInactivityStateIfExpired(ts, deviceId, stateData);
-                    } catch (Exception e) {
-                        if (e instanceof TenantNotFoundException) {
-                            idsFromRemovedTenant.add(deviceId);
-                        } else {
-                            log.warn("[{}] Failed to update inactivity state [{}]", deviceId, e.getMessage());
-                        }
+                } catch (Exception e) {
+                    if (e instanceof TenantNotFoundException) {
+                        partitionedEntities.values().forEach(deviceIds -> deviceIds.remove(deviceId));
+                        cleanupEntity(deviceId);
+                    } else {
+                        log.warn("[{}] Failed to update inactivity state [{}]", deviceId, e.getMessage());
+                        inactivityDeadlines.schedule(deviceId, ts + TimeUnit.SECONDS.toMillis(defaultStateCheckIntervalInSec));
                     }
                 }
-                deviceIds.removeAll(idsFromRemovedTenant);
-            });
+            }
         } catch (Throwable t) {
             log.warn("Failed to check devices states", t);
         }
@@ -635,6 +671,7 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
 
     private void cleanupEntity(DeviceId deviceId) {
         deviceStates.remove(deviceId);
+        inactivityDeadlines.cancel(deviceId);
     }
 
 
@@ -862,7 +899,9 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
     }
 
     private void save(DeviceId deviceId, String key, long value) {
-        if (persistToTelemetry) {
+        if (persistBuffer != null) {
+            persistBuffer.put(deviceId, getCurrentTimeMillis(), new LongDataEntry(key, value));
+        } else if (persistToTelemetry) {
             tsSubService.saveAndNotifyInternal(
                     TenantId.SYS_TENANT_ID, deviceId,
                     Collections.singletonList(new BasicTsKvEntry(getCurrentTimeMillis(), new LongDataEntry(key, value))),
@@ -873,7 +912,9 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
     }
 
     private void save(DeviceId deviceId, String key, boolean value) {
-        if (persistToTelemetry) {
+        if (persistBuffer != null) {
+            persistBuffer.put(deviceId, getCurrentTimeMillis(), new BooleanDataEntry(key, value));
+        } else if (persistToTelemetry) {
             tsSubService.saveAndNotifyInternal(
                     TenantId.SYS_TENANT_ID, deviceId,
                     Collections.singletonList(new BasicTsKvEntry(getCurrentTimeMillis(), new BooleanDataEntry(key, value))),
@@ -883,6 +924,26 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
         }
     }
 
+    private void persist(DeviceId deviceId, List<TsKvEntry> entries) {
+        String keys = entries.stream().map(KvEntry::getKey).collect(Collectors.joining(","));
+        if (persistToTelemetry) {
+            tsSubService.saveAndNotifyInternal(TenantId.SYS_TENANT_ID, deviceId, entries, telemetryTtl, new TelemetrySaveCallback<>(deviceId, keys, entries));
+        } else {
+            List<AttributeKvEntry> attributes = entries.stream()
+                    .map(entry -> (AttributeKvEntry) new BaseAttributeKvEntry(entry, entry.getTs()))
+                    .collect(Collectors.toList());
+            tsSubService.saveAndNotify(TenantId.SYS_TENANT_ID, deviceId, AttributeScope.SERVER_SCOPE, attributes, new TelemetrySaveCallback<>(deviceId, keys, entries));
+        }
+    }
+
+    private void flushPersistBuffer() {
+        try {
+            persistBuffer.flush(getCurrentTimeMillis());
+        } catch (Throwable t) {
+            log.warn("Failed to flush device states", t);
+        }
+    }
+
     long getCurrentTimeMillis() {
         return System.currentTimeMillis();
     }
@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.state;
+
+import org.sobeam.server.common.data.id.DeviceId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Deadline index of the device inactivity checks, so the state check only touches the devices that may expire
+ * instead of sweeping all of them.
+ * <p>
+ * Each device has at most one effective deadline. Entries are not moved when the device reports activity:
+ * the activity only postpones the expiration, so the device is re-evaluated when the old deadline is reached
+ * and scheduled again if it is still active. Moving the deadline to an earlier time or cancelling it leaves
+ * a stale entry behind, which is skipped when polled.
+ */
+class DeviceInactivityDeadlines {
+
+    private final TreeMap<Long, List<DeviceId>> deadlines = new TreeMap<>();
+    private final ConcurrentMap<DeviceId, Long> scheduled = new ConcurrentHashMap<>();
+    private final Lock lock = new ReentrantLock();
+
+    void schedule(DeviceId deviceId, long deadline) {
+        Long current = scheduled.get(deviceId);
+        if (current != null && current <= deadline) {
+            return;
+        }
+        lock.lock();
+        try {
+            current = scheduled.get(deviceId);
+            if (current != null && current <= deadline) {
+                return;
+            }
+            scheduled.put(deviceId, deadline);
+            deadlines.computeIfAbsent(deadline, ts -> new ArrayList<>()).add(deviceId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void cancel(DeviceId deviceId) {
+        scheduled.remove(deviceId);
+    }
+
+    List<DeviceId> pollExpired(long ts) {
+        List<DeviceId> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            Map.Entry<Long, List<DeviceId>> entry;
+            while ((entry = deadlines.firstEntry()) != null && entry.getKey() <= ts) {
+                deadlines.pollFirstEntry();
+                for (DeviceId deviceId : entry.getValue()) {
+                    if (scheduled.remove(deviceId, entry.getKey())) {
+                        expired.add(deviceId);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return expired;
+    }
+
+    int size() {
+        return scheduled.size();
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.state;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.kv.BasicTsKvEntry;
+import org.sobeam.server.common.data.kv.KvEntry;
+import org.sobeam.server.common.data.kv.TsKvEntry;
+import org.sobeam.server.common.stats.DefaultCounter;
+import org.sobeam.server.common.stats.StatsFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Write-behind buffer of the device state keys. Only the newest value of each (device, key) is kept until the next flush,
+ * so a device that reports activity many times per flush interval causes a single write of 'lastActivityTime'.
+ * All pending keys of a device are flushed together as one batch.
+ * <p>
+ * Pending writes are lost if the node crashes, so the loss is bounded by the flush interval and by the max number
+ * of pending devices: once the limit is reached, the values of new devices are written through immediately.
+ */
+@Slf4j
+class DeviceStatePersistBuffer {
+
+    private static final String STATS_NAME = "deviceStatePersist";
+
+    private final ConcurrentMap<DeviceId, PendingWrites> pending = new ConcurrentHashMap<>();
+    private final int maxPendingDevices;
+    private final BiConsumer<DeviceId, List<TsKvEntry>> persister;
+
+    private final AtomicInteger pendingDevices;
+    private final AtomicLong lastFlushLagMs;
+    private final DefaultCounter coalescedCounter;
+    private final DefaultCounter writeThroughCounter;
+
+    DeviceStatePersistBuffer(int maxPendingDevices, BiConsumer<DeviceId, List<TsKvEntry>> persister, StatsFactory statsFactory) {
+        this.maxPendingDevices = maxPendingDevices;
+        this.persister = persister;
+        this.pendingDevices = statsFactory.createGauge(STATS_NAME + "PendingDevices", new AtomicInteger());
+        this.lastFlushLagMs = statsFactory.createGauge(STATS_NAME + "FlushLagMs", new AtomicLong());
+        this.coalescedCounter = statsFactory.createDefaultCounter(STATS_NAME, "result", "coalesced");
+        this.writeThroughCounter = statsFactory.createDefaultCounter(STATS_NAME, "result", "write_through");
+    }
+
+    void put(DeviceId deviceId, long ts, KvEntry entry) {
+        if (pending.size() >= maxPendingDevices && !pending.containsKey(deviceId)) {
+            writeThroughCounter.increment();
+            persister.accept(deviceId, List.of(new BasicTsKvEntry(ts, entry)));
+            return;
+        }
+        pending.compute(deviceId, (id, writes) -> {
+            if (writes == null) {
+                writes = new PendingWrites(ts);
+            }
+            if (writes.entries.put(entry.getKey(), new BasicTsKvEntry(ts, entry)) != null) {
+                coalescedCounter.increment();
+            }
+            return writes;
+        });
+        pendingDevices.set(pending.size());
+    }
+
+    void flush(long now) {
+        long maxLag = 0;
+        for (DeviceId deviceId : pending.keySet()) {
+            PendingWrites writes = pending.remove(deviceId);
+            if (writes == null) {
+                continue;
+            }
+            maxLag = Math.max(maxLag, now - writes.firstUpdateTs);
+            try {
+                persister.accept(deviceId, new ArrayList<>(writes.entries.values()));
+            } catch (Exception e) {
+                log.warn("[{}] Failed to persist device state: {}", deviceId, writes.entries.keySet(), e);
+            }
+        }
+        pendingDevices.set(pending.size());
+        lastFlushLagMs.set(maxLag);
+    }
+
+    int getPendingDevices() {
+        return pending.size();
+    }
+
+    private static class PendingWrites {
+
+        private final long firstUpdateTs;
+        private final Map<String, TsKvEntry> entries = new LinkedHashMap<>();
+
+        private PendingWrites(long firstUpdateTs) {
+            this.firstUpdateTs = firstUpdateTs;
+        }
+
+    }
+
+}
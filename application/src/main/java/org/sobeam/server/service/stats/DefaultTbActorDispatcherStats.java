@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.stats;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.sobeam.server.actors.TbActorDispatcherStats;
+import org.sobeam.server.common.stats.StatsCounter;
+import org.sobeam.server.common.stats.StatsFactory;
+import org.sobeam.server.common.stats.StatsType;
+
+import java.util.concurrent.TimeUnit;
+
+public class DefaultTbActorDispatcherStats implements TbActorDispatcherStats {
+
+    private static final String DISPATCHER_TAG = "dispatcher";
+    private static final String PROCESSED_MSGS = "processedMsgs";
+    private static final String REJECTED_MSGS = "rejectedMsgs";
+    private static final String DROPPED_MSGS = "droppedMsgs";
+    private static final String SPILLED_MSGS = "spilledMsgs";
+
+    private final String dispatcherId;
+    private final StatsCounter processedCounter;
+    private final StatsCounter rejectedCounter;
+    private final StatsCounter droppedCounter;
+    private final StatsCounter spilledCounter;
+    private final Timer processingTimer;
+    private final DistributionSummary mailboxDepth;
+
+    public DefaultTbActorDispatcherStats(String dispatcherId, StatsFactory statsFactory) {
+        this.dispatcherId = dispatcherId;
+        String key = StatsType.ACTOR_DISPATCHER.getName();
+        this.processedCounter = statsFactory.createStatsCounter(key, PROCESSED_MSGS, DISPATCHER_TAG, dispatcherId);
+        this.rejectedCounter = statsFactory.createStatsCounter(key, REJECTED_MSGS, DISPATCHER_TAG, dispatcherId);
+        this.droppedCounter = statsFactory.createStatsCounter(key, DROPPED_MSGS, DISPATCHER_TAG, dispatcherId);
+        this.spilledCounter = statsFactory.createStatsCounter(key, SPILLED_MSGS, DISPATCHER_TAG, dispatcherId);
+        this.processingTimer = statsFactory.createTimer(key + ".processingTime", DISPATCHER_TAG, dispatcherId);
+        this.mailboxDepth = statsFactory.createDistributionSummary(key + ".mailboxDepth", DISPATCHER_TAG, dispatcherId);
+    }
+
+    @Override
+    public void onEnqueue(int depth) {
+        mailboxDepth.record(depth);
+    }
+
+    @Override
+    public void onProcessed(long processingTimeNanos) {
+        processedCounter.increment();
+        processingTimer.record(processingTimeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onRejected() {
+        rejectedCounter.increment();
+    }
+
+    @Override
+    public void onDropped() {
+        droppedCounter.increment();
+    }
+
+    @Override
+    public void onSpilled() {
+        spilledCounter.increment();
+    }
+
+    public String getStatsSummary() {
+        return String.format("[%s] processed [%d] rejected [%d] dropped [%d] spilled [%d]", dispatcherId,
+                processedCounter.get(), rejectedCounter.get(), droppedCounter.get(), spilledCounter.get());
+    }
+
+    public boolean isEmpty() {
+        return processedCounter.get() == 0 && rejectedCounter.get() == 0 && droppedCounter.get() == 0 && spilledCounter.get() == 0;
+    }
+
+    public void reset() {
+        processedCounter.clear();
+        rejectedCounter.clear();
+        droppedCounter.clear();
+        spilledCounter.clear();
+    }
+
+}
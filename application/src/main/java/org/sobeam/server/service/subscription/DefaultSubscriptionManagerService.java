@@ -62,8 +62,6 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -81,7 +79,8 @@ public class DefaultSubscriptionManagerService extends TbApplicationEventListene
     private final TbClusterService clusterService;
     private final SubscriptionSchedulerComponent scheduler;
 
-    private final Lock subsLock = new ReentrantLock();
+    // Modifications of the entity subscriptions are atomic per entity and lock only the map bin of the entity id,
+    // so subscription events for different entities do not block each other and the notification path reads without locks.
     private final ConcurrentMap<EntityId, TbEntityRemoteSubsInfo> entitySubscriptions = new ConcurrentHashMap<>();
 
     private final ConcurrentMap<EntityId, TbEntityUpdatesInfo> entityUpdates = new ConcurrentHashMap<>();
@@ -106,16 +105,12 @@ public class DefaultSubscriptionManagerService extends TbApplicationEventListene
         log.trace("[{}][{}][{}] Processing subscription event {}", tenantId, entityId, serviceId, event);
         TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_CORE, tenantId, entityId);
         if (tpi.isMyPartition()) {
-            subsLock.lock();
-            try {
-                var entitySubs = entitySubscriptions.computeIfAbsent(entityId, id -> new TbEntityRemoteSubsInfo(tenantId, entityId));
-                boolean empty = entitySubs.updateAndCheckIsEmpty(serviceId, event);
-                if (empty) {
-                    entitySubscriptions.remove(entityId);
+            entitySubscriptions.compute(entityId, (id, entitySubs) -> {
+                if (entitySubs == null) {
+                    entitySubs = new TbEntityRemoteSubsInfo(tenantId, entityId);
                 }
-            } finally {
-                subsLock.unlock();
-            }
+                return entitySubs.updateAndCheckIsEmpty(serviceId, event) ? null : entitySubs;
+            });
             callback.onSuccess();
             if (event.hasTsOrAttrSub()) {
                 sendSubEventCallback(serviceId, entityId, event.getSeqNumber());
@@ -131,14 +126,10 @@ public class DefaultSubscriptionManagerService extends TbApplicationEventListene
     @EventListener(OtherServiceShutdownEvent.class)
     public void onApplicationEvent(OtherServiceShutdownEvent event) {
         if (event.getServiceTypes() != null && event.getServiceTypes().contains(ServiceType.TB_CORE)) {
-            subsLock.lock();
-            try {
-                int sizeBeforeCleanup = entitySubscriptions.size();
-                entitySubscriptions.entrySet().removeIf(kv -> kv.getValue().removeAndCheckIsEmpty(event.getServiceId()));
-                log.info("[{}][{}] Removed {} entity subscription records due to server shutdown.", serviceId, event.getServiceId(), entitySubscriptions.size() - sizeBeforeCleanup);
-            } finally {
-                subsLock.unlock();
-            }
+            int sizeBeforeCleanup = entitySubscriptions.size();
+            entitySubscriptions.keySet().forEach(entityId -> entitySubscriptions.computeIfPresent(entityId,
+                    (id, entitySubs) -> entitySubs.removeAndCheckIsEmpty(event.getServiceId()) ? null : entitySubs));
+            log.info("[{}][{}] Removed {} entity subscription records due to server shutdown.", serviceId, event.getServiceId(), sizeBeforeCleanup - entitySubscriptions.size());
         }
     }
 
@@ -122,6 +122,9 @@ public class DefaultTbEntityDataSubscriptionService implements TbEntityDataSubsc
     @Getter
     private DbCallbackExecutorService dbCallbackExecutor;
 
+    @Autowired
+    private EntityDataChangeTracker entityDataChangeTracker;
+
     private ScheduledExecutorService scheduler;
 
     @Value("${database.ts.type}")
@@ -130,6 +133,10 @@ public class DefaultTbEntityDataSubscriptionService implements TbEntityDataSubsc
     private long dynamicPageLinkRefreshInterval;
     @Value("${server.ws.dynamic_page_link.refresh_pool_size:1}")
     private int dynamicPageLinkRefreshPoolSize;
+    @Value("${server.ws.dynamic_page_link.incremental.enabled:false}")
+    private boolean dynamicPageLinkIncrementalEnabled;
+    @Value("${server.ws.dynamic_page_link.incremental.full_refresh_interval:300}")
+    private long dynamicPageLinkFullRefreshInterval;
     @Value("${server.ws.max_entities_per_data_subscription:1000}")
     private int maxEntitiesPerDataSubscription;
     @Value("${server.ws.max_entities_per_alarm_subscription:1000}")
@@ -199,6 +206,7 @@ public class DefaultTbEntityDataSubscriptionService implements TbEntityDataSubsc
                 });
             }
             long start = System.currentTimeMillis();
+            ctx.setRefreshState(entityDataChangeTracker.getVersion(ctx.getTenantId(), query.getEntityFilter()), start);
             ctx.fetchData();
             long end = System.currentTimeMillis();
             stats.getRegularQueryInvocationCnt().incrementAndGet();
@@ -449,6 +457,11 @@ public class DefaultTbEntityDataSubscriptionService implements TbEntityDataSubsc
     private void refreshDynamicQuery(TbAbstractSubCtx<?> finalCtx) {
         try {
             if (validate(finalCtx)) {
+                if (!isRefreshRequired(finalCtx)) {
+                    log.trace("[{}][{}] No entity changes since the last query", finalCtx.getSessionId(), finalCtx.getCmdId());
+                    stats.getDynamicQuerySkippedCnt().incrementAndGet();
+                    return;
+                }
                 long start = System.currentTimeMillis();
                 finalCtx.update();
                 long end = System.currentTimeMillis();
@@ -463,6 +476,14 @@ public class DefaultTbEntityDataSubscriptionService implements TbEntityDataSubsc
         }
     }
 
+    private boolean isRefreshRequired(TbAbstractSubCtx<?> ctx) {
+        if (dynamicPageLinkIncrementalEnabled && ctx instanceof TbEntityDataSubCtx dataCtx) {
+            long version = entityDataChangeTracker.getVersion(ctx.getTenantId(), dataCtx.getQuery().getEntityFilter());
+            return dataCtx.checkAndUpdateRefreshState(version, System.currentTimeMillis(), TimeUnit.SECONDS.toMillis(dynamicPageLinkFullRefreshInterval));
+        }
+        return true;
+    }
+
     private void refreshAlarmQuery(TbAlarmDataSubCtx finalCtx) {
         if (validate(finalCtx)) {
             finalCtx.checkAndResetInvocationCounter();
@@ -479,13 +500,14 @@ public class DefaultTbEntityDataSubscriptionService implements TbEntityDataSubsc
         long regularQueryInvocationTimeValue = stats.getRegularQueryTimeSpent().getAndSet(0);
         int dynamicQueryInvocationCntValue = stats.getDynamicQueryInvocationCnt().getAndSet(0);
         long dynamicQueryInvocationTimeValue = stats.getDynamicQueryTimeSpent().getAndSet(0);
+        int dynamicQuerySkippedCntValue = stats.getDynamicQuerySkippedCnt().getAndSet(0);
         long dynamicQueryCnt = subscriptionsBySessionId.values().stream().mapToLong(m -> m.values().stream().filter(TbAbstractSubCtx::isDynamic).count()).sum();
         if (regularQueryInvocationCntValue > 0 || dynamicQueryInvocationCntValue > 0 || dynamicQueryCnt > 0 || alarmQueryInvocationCntValue > 0) {
             log.info("Stats: regularQueryInvocationCnt = [{}], regularQueryInvocationTime = [{}], " +
-                            "dynamicQueryCnt = [{}] dynamicQueryInvocationCnt = [{}], dynamicQueryInvocationTime = [{}], " +
+                            "dynamicQueryCnt = [{}] dynamicQueryInvocationCnt = [{}], dynamicQueryInvocationTime = [{}], dynamicQuerySkippedCnt = [{}], " +
                             "alarmQueryInvocationCnt = [{}], alarmQueryInvocationTime = [{}]",
                     regularQueryInvocationCntValue, regularQueryInvocationTimeValue,
-                    dynamicQueryCnt, dynamicQueryInvocationCntValue, dynamicQueryInvocationTimeValue,
+                    dynamicQueryCnt, dynamicQueryInvocationCntValue, dynamicQueryInvocationTimeValue, dynamicQuerySkippedCntValue,
                     alarmQueryInvocationCntValue, alarmQueryInvocationTimeValue);
         }
     }
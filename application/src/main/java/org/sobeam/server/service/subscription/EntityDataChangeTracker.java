@@ -0,0 +1,196 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.subscription;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.sobeam.server.cluster.TbClusterService;
+import org.sobeam.server.common.data.EntityType;
+import org.sobeam.server.common.data.id.EntityId;
+import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.data.query.EntityFilter;
+import org.sobeam.server.common.data.query.EntityListFilter;
+import org.sobeam.server.common.data.query.EntityNameFilter;
+import org.sobeam.server.common.data.query.EntityTypeFilter;
+import org.sobeam.server.common.data.query.SingleEntityFilter;
+import org.sobeam.server.dao.eventsourcing.DeleteEntityEvent;
+import org.sobeam.server.dao.eventsourcing.RelationActionEvent;
+import org.sobeam.server.dao.eventsourcing.SaveEntityEvent;
+import org.sobeam.server.gen.transport.TransportProtos.EntityDataChangeMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToCoreNotificationMsg;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks per-tenant and per-entity type versions of the entities and relations that may affect the result of the entity data query.
+ * Dynamic entity data subscriptions compare the version of the entity types their filter returns with the one captured before the last query
+ * and skip the re-query if nothing has changed in between.
+ * <p>
+ * The changes are broadcast to all core services, so the changes made on any node are tracked.
+ */
+@Slf4j
+@Component
+public class EntityDataChangeTracker {
+
+    private static final Set<EntityType> QUERYABLE_ENTITY_TYPES = EnumSet.of(
+            EntityType.DEVICE, EntityType.ASSET, EntityType.ENTITY_VIEW, EntityType.DASHBOARD, EntityType.CUSTOMER,
+            EntityType.USER, EntityType.TENANT, EntityType.API_USAGE_STATE, EntityType.EDGE, EntityType.RULE_CHAIN,
+            EntityType.DEVICE_PROFILE, EntityType.ASSET_PROFILE, EntityType.TENANT_PROFILE, EntityType.QUEUE_STATS);
+
+    private final TbClusterService clusterService;
+
+    @Value("${server.ws.dynamic_page_link.incremental.enabled:false}")
+    private boolean enabled;
+
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final ConcurrentMap<TenantId, TenantVersions> tenantVersions = new ConcurrentHashMap<>();
+
+    public EntityDataChangeTracker(TbClusterService clusterService) {
+        this.clusterService = clusterService;
+    }
+
+    /**
+     * Sum of the system wide counter and the tenant counters of the entity types the filter may return.
+     * All of them only grow, so the sum changes with any of them.
+     */
+    public long getVersion(TenantId tenantId, EntityFilter entityFilter) {
+        long version = globalVersion.get();
+        TenantVersions versions = tenantVersions.get(tenantId);
+        if (versions == null) {
+            return version;
+        }
+        Set<EntityType> entityTypes = getEntityTypes(entityFilter);
+        if (entityTypes == null) {
+            // relation based filters may return any entity type
+            version += versions.relations.get();
+            for (int i = 0; i < versions.entityTypes.length(); i++) {
+                version += versions.entityTypes.get(i);
+            }
+        } else {
+            for (EntityType entityType : entityTypes) {
+                version += versions.entityTypes.get(entityType.ordinal());
+            }
+        }
+        return version;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEvent(SaveEntityEvent<?> event) {
+        onEntityChange(event.getTenantId(), event.getEntityId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEvent(DeleteEntityEvent<?> event) {
+        onEntityChange(event.getTenantId(), event.getEntityId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEvent(RelationActionEvent event) {
+        if (enabled) {
+            broadcast(event.getTenantId(), EntityDataChangeMsg.newBuilder().setRelation(true));
+        }
+    }
+
+    public void onEntityDataChangeMsg(EntityDataChangeMsg msg) {
+        TenantId tenantId = TenantId.fromUUID(new UUID(msg.getTenantIdMSB(), msg.getTenantIdLSB()));
+        if (msg.getRelation()) {
+            if (tenantId.isSysTenantId()) {
+                globalVersion.incrementAndGet();
+            } else {
+                getTenantVersions(tenantId).relations.incrementAndGet();
+            }
+            return;
+        }
+        EntityType entityType = EntityType.valueOf(msg.getEntityType());
+        if (tenantId.isSysTenantId() || EntityType.TENANT.equals(entityType) || EntityType.TENANT_PROFILE.equals(entityType)) {
+            globalVersion.incrementAndGet();
+            if (EntityType.TENANT.equals(entityType)) {
+                tenantVersions.remove(tenantId);
+            }
+        } else {
+            getTenantVersions(tenantId).entityTypes.incrementAndGet(entityType.ordinal());
+        }
+    }
+
+    private void onEntityChange(TenantId tenantId, EntityId entityId) {
+        if (!enabled || entityId == null || !QUERYABLE_ENTITY_TYPES.contains(entityId.getEntityType())) {
+            return;
+        }
+        log.trace("[{}][{}] Entity changed", tenantId, entityId);
+        if (EntityType.TENANT.equals(entityId.getEntityType())) {
+            tenantId = TenantId.fromUUID(entityId.getId());
+        }
+        broadcast(tenantId, EntityDataChangeMsg.newBuilder().setEntityType(entityId.getEntityType().name()));
+    }
+
+    private void broadcast(TenantId tenantId, EntityDataChangeMsg.Builder msg) {
+        if (tenantId == null) {
+            tenantId = TenantId.SYS_TENANT_ID;
+        }
+        msg.setTenantIdMSB(tenantId.getId().getMostSignificantBits())
+                .setTenantIdLSB(tenantId.getId().getLeastSignificantBits());
+        clusterService.broadcastToCore(ToCoreNotificationMsg.newBuilder().setEntityDataChangeMsg(msg).build());
+    }
+
+    private TenantVersions getTenantVersions(TenantId tenantId) {
+        return tenantVersions.computeIfAbsent(tenantId, id -> new TenantVersions());
+    }
+
+    /**
+     * @return entity types the filter may return, or null if the result depends on the relations
+     */
+    static Set<EntityType> getEntityTypes(EntityFilter entityFilter) {
+        if (entityFilter == null) {
+            return null;
+        }
+        return switch (entityFilter.getType()) {
+            case SINGLE_ENTITY -> {
+                EntityId entityId = ((SingleEntityFilter) entityFilter).getSingleEntity();
+                yield entityId != null ? EnumSet.of(entityId.getEntityType()) : null;
+            }
+            case ENTITY_LIST -> toSet(((EntityListFilter) entityFilter).getEntityType());
+            case ENTITY_NAME -> toSet(((EntityNameFilter) entityFilter).getEntityType());
+            case ENTITY_TYPE -> toSet(((EntityTypeFilter) entityFilter).getEntityType());
+            // type filters match the profile names
+            case DEVICE_TYPE -> EnumSet.of(EntityType.DEVICE, EntityType.DEVICE_PROFILE);
+            case ASSET_TYPE -> EnumSet.of(EntityType.ASSET, EntityType.ASSET_PROFILE);
+            case ENTITY_VIEW_TYPE -> EnumSet.of(EntityType.ENTITY_VIEW);
+            case EDGE_TYPE -> EnumSet.of(EntityType.EDGE);
+            case API_USAGE_STATE -> EnumSet.of(EntityType.API_USAGE_STATE);
+            default -> null;
+        };
+    }
+
+    private static Set<EntityType> toSet(EntityType entityType) {
+        return entityType != null ? EnumSet.of(entityType) : null;
+    }
+
+    private static class TenantVersions {
+
+        private final AtomicLongArray entityTypes = new AtomicLongArray(EntityType.values().length);
+        private final AtomicLong relations = new AtomicLong();
+
+    }
+
+}
@@ -17,6 +17,7 @@ package org.sobeam.server.service.subscription;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.sobeam.server.common.data.StringUtils;
 import org.sobeam.server.common.data.id.EntityId;
 import org.sobeam.server.common.data.kv.Aggregation;
 import org.sobeam.server.common.data.page.PageData;
@@ -24,6 +25,7 @@ import org.sobeam.server.common.data.query.AbstractDataQuery;
 import org.sobeam.server.common.data.query.EntityData;
 import org.sobeam.server.common.data.query.EntityDataPageLink;
 import org.sobeam.server.common.data.query.EntityDataQuery;
+import org.sobeam.server.common.data.query.EntityDataSortOrder;
 import org.sobeam.server.common.data.query.EntityKey;
 import org.sobeam.server.common.data.query.EntityKeyType;
 import org.sobeam.server.common.data.query.TsValue;
@@ -49,6 +51,8 @@ public abstract class TbAbstractDataSubCtx<T extends AbstractDataQuery<? extends
     protected final Map<Integer, EntityId> subToEntityIdMap;
     @Getter
     protected PageData<EntityData> data;
+    private long refreshVersion = -1;
+    private long refreshTs;
 
     public TbAbstractDataSubCtx(String serviceId, WebSocketService wsService,
                                 EntityService entityService, TbLocalSubscriptionService localSubscriptionService,
@@ -96,6 +100,45 @@ public abstract class TbAbstractDataSubCtx<T extends AbstractDataQuery<? extends
         }
     }
 
+    /**
+     * Remembers the entity change version captured right before the query is executed.
+     * Changes that happen while the query is running will cause one more refresh.
+     */
+    public synchronized void setRefreshState(long version, long ts) {
+        this.refreshVersion = version;
+        this.refreshTs = ts;
+    }
+
+    /**
+     * Checks whether the periodic refresh has to re-execute the query and updates the refresh state if so.
+     * The query is skipped only if its result depends on the entity fields and relations exclusively
+     * and neither of them has changed since the last query.
+     */
+    public synchronized boolean checkAndUpdateRefreshState(long version, long ts, long fullRefreshIntervalMs) {
+        if (refreshVersion == version && ts - refreshTs < fullRefreshIntervalMs && isEntityFieldsOnlyQuery()) {
+            return false;
+        }
+        setRefreshState(version, ts);
+        return true;
+    }
+
+    private boolean isEntityFieldsOnlyQuery() {
+        if (query == null) {
+            return false;
+        }
+        EntityDataSortOrder sortOrder = query.getPageLink().getSortOrder();
+        if (sortOrder != null && sortOrder.getKey() != null && !EntityKeyType.ENTITY_FIELD.equals(sortOrder.getKey().getType())) {
+            return false;
+        }
+        if (query.getKeyFilters() != null && query.getKeyFilters().stream()
+                .anyMatch(keyFilter -> !EntityKeyType.ENTITY_FIELD.equals(keyFilter.getKey().getType()))) {
+            return false;
+        }
+        // text search is applied to the latest values as well
+        return StringUtils.isEmpty(query.getPageLink().getTextSearch())
+                || query.getLatestValues() == null || query.getLatestValues().isEmpty();
+    }
+
     protected abstract void doUpdate(Map<EntityId, EntityData> newDataMap);
 
     protected abstract EntityDataQuery buildEntityDataQuery();
@@ -0,0 +1,67 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.telemetry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.sobeam.server.cluster.TbClusterService;
+import org.sobeam.server.common.data.AttributeScope;
+import org.sobeam.server.common.data.id.EntityId;
+import org.sobeam.server.common.data.id.EntityIdFactory;
+import org.sobeam.server.dao.attributes.AttributesCacheInvalidateEvent;
+import org.sobeam.server.dao.attributes.AttributesNearCache;
+import org.sobeam.server.gen.transport.TransportProtos;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Broadcasts attribute updates to the core and rule engine services and drops the updated keys from the local attributes near cache
+ * when the broadcast is received.
+ */
+@Component
+@Slf4j
+public class AttributesCacheInvalidationListener {
+
+    private final TbClusterService clusterService;
+    private final AttributesNearCache nearCache;
+
+    public AttributesCacheInvalidationListener(TbClusterService clusterService, Optional<AttributesNearCache> nearCache) {
+        this.clusterService = clusterService;
+        this.nearCache = nearCache.orElse(null);
+    }
+
+    @EventListener
+    public void handleEvent(AttributesCacheInvalidateEvent event) {
+        log.trace("[{}][{}][{}] Broadcasting attributes cache invalidation: {}", event.getTenantId(), event.getEntityId(), event.getScope(), event.getKeys());
+        clusterService.broadcastAttributesCacheInvalidate(TransportProtos.AttributesCacheInvalidateMsg.newBuilder()
+                .setEntityType(event.getEntityId().getEntityType().name())
+                .setEntityIdMSB(event.getEntityId().getId().getMostSignificantBits())
+                .setEntityIdLSB(event.getEntityId().getId().getLeastSignificantBits())
+                .setScope(event.getScope().name())
+                .addAllKeys(event.getKeys())
+                .build());
+    }
+
+    public void onInvalidateMsg(TransportProtos.AttributesCacheInvalidateMsg msg) {
+        if (nearCache != null) {
+            EntityId entityId = EntityIdFactory.getByTypeAndUuid(msg.getEntityType(), new UUID(msg.getEntityIdMSB(), msg.getEntityIdLSB()));
+            nearCache.invalidate(entityId, AttributeScope.valueOf(msg.getScope()), msg.getKeysList());
+        }
+    }
+
+}
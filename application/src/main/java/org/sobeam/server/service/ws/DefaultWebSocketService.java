@@ -46,6 +46,9 @@ import org.sobeam.server.common.data.kv.BasicTsKvEntry;
 import org.sobeam.server.common.data.kv.ReadTsKvQuery;
 import org.sobeam.server.common.data.kv.TsKvEntry;
 import org.sobeam.server.common.data.tenant.profile.DefaultTenantProfileConfiguration;
+import org.sobeam.server.common.stats.StatsCounter;
+import org.sobeam.server.common.stats.StatsFactory;
+import org.sobeam.server.common.stats.StatsType;
 import org.sobeam.server.dao.attributes.AttributesService;
 import org.sobeam.server.dao.tenant.TbTenantProfileCache;
 import org.sobeam.server.dao.timeseries.TimeseriesService;
@@ -136,9 +139,18 @@ public class DefaultWebSocketService implements WebSocketService {
     private final TimeseriesService tsService;
     private final TbServiceInfoProvider serviceInfoProvider;
     private final TbTenantProfileCache tenantProfileCache;
+    private final StatsFactory statsFactory;
 
     @Value("${server.ws.ping_timeout:30000}")
     private long pingTimeout;
+    @Value("${server.ws.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+    @Value("${server.ws.coalescing.flush_interval_ms:100}")
+    private long coalescingFlushIntervalMs;
+    @Value("${server.ws.coalescing.max_pending_messages:10}")
+    private int coalescingMaxPendingMsgs;
+    @Value("${server.ws.coalescing.max_values_per_key:1000}")
+    private int coalescingMaxValuesPerKey;
 
     private final ConcurrentMap<TenantId, Set<String>> tenantSubscriptionsMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<CustomerId, Set<String>> customerSubscriptionsMap = new ConcurrentHashMap<>();
@@ -148,6 +160,10 @@ public class DefaultWebSocketService implements WebSocketService {
 
     private ExecutorService executor;
     private ScheduledExecutorService pingExecutor;
+    private ScheduledExecutorService flushExecutor;
+    private StatsCounter deliveredUpdatesCounter;
+    private StatsCounter mergedUpdatesCounter;
+    private StatsCounter droppedValuesCounter;
     private String serviceId;
 
     private Map<WsCmdType, WsCmdHandler<? extends WsCmd>> cmdsHandlers;
@@ -160,6 +176,15 @@ public class DefaultWebSocketService implements WebSocketService {
         pingExecutor = Executors.newSingleThreadScheduledExecutor(SoBeamThreadFactory.forName("telemetry-web-socket-ping"));
         pingExecutor.scheduleWithFixedDelay(this::sendPing, pingTimeout / NUMBER_OF_PING_ATTEMPTS, pingTimeout / NUMBER_OF_PING_ATTEMPTS, TimeUnit.MILLISECONDS);
 
+        if (coalescingEnabled) {
+            String statsKey = StatsType.WS_UPDATES.getName();
+            deliveredUpdatesCounter = statsFactory.createStatsCounter(statsKey, "delivered");
+            mergedUpdatesCounter = statsFactory.createStatsCounter(statsKey, "merged");
+            droppedValuesCounter = statsFactory.createStatsCounter(statsKey, "dropped");
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(SoBeamThreadFactory.forName("telemetry-web-socket-flush"));
+            flushExecutor.scheduleWithFixedDelay(this::flushUpdates, coalescingFlushIntervalMs, coalescingFlushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+
         cmdsHandlers = new EnumMap<>(WsCmdType.class);
         cmdsHandlers.put(WsCmdType.ATTRIBUTES, newCmdHandler(this::handleWsAttributesSubscriptionCmd));
         cmdsHandlers.put(WsCmdType.TIMESERIES, newCmdHandler(this::handleWsTimeseriesSubscriptionCmd));
@@ -185,6 +210,10 @@ public class DefaultWebSocketService implements WebSocketService {
             pingExecutor.shutdownNow();
         }
 
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+
         if (executor != null) {
             executor.shutdownNow();
         }
@@ -196,7 +225,11 @@ public class DefaultWebSocketService implements WebSocketService {
         log.debug(PROCESSING_MSG, sessionId, event);
         switch (event.getEventType()) {
             case ESTABLISHED:
-                wsSessionsMap.put(sessionId, new WsSessionMetaData(sessionRef));
+                WsSessionMetaData sessionMd = new WsSessionMetaData(sessionRef);
+                if (coalescingEnabled) {
+                    sessionMd.setUpdatesBuffer(new WsUpdatesBuffer(coalescingMaxValuesPerKey, mergedUpdatesCounter, droppedValuesCounter));
+                }
+                wsSessionsMap.put(sessionId, sessionMd);
                 break;
             case ERROR:
                 log.debug("[{}] Unknown websocket session error: ", sessionId,
@@ -233,6 +266,7 @@ public class DefaultWebSocketService implements WebSocketService {
 
     private void handleWsEntityDataCmd(WebSocketSessionRef sessionRef, EntityDataCmd cmd) {
         if (validateSubscriptionCmd(sessionRef, cmd)) {
+            discardPendingUpdates(sessionRef.getSessionId(), cmd.getCmdId());
             entityDataSubService.handleCmd(sessionRef, cmd);
         }
     }
@@ -251,6 +285,7 @@ public class DefaultWebSocketService implements WebSocketService {
 
     private void handleWsDataUnsubscribeCmd(WebSocketSessionRef sessionRef, UnsubscribeCmd cmd) {
         entityDataSubService.cancelSubscription(sessionRef.getSessionId(), cmd);
+        discardPendingUpdates(sessionRef.getSessionId(), cmd.getCmdId());
     }
 
     private void handleWsAlarmCountCmd(WebSocketSessionRef sessionRef, AlarmCountCmd cmd) {
@@ -261,12 +296,27 @@ public class DefaultWebSocketService implements WebSocketService {
 
     @Override
     public void sendUpdate(String sessionId, int cmdId, TelemetrySubscriptionUpdate update) {
+        if (coalescingEnabled && update.getErrorCode() == 0 && update.getData() != null) {
+            WsSessionMetaData md = wsSessionsMap.get(sessionId);
+            if (md != null && md.getUpdatesBuffer() != null) {
+                md.getUpdatesBuffer().add(cmdId, update.getData());
+                return;
+            }
+        }
         // We substitute the subscriptionId with cmdId for old-style subscriptions.
         doSendUpdate(sessionId, cmdId, update.copyWithNewSubscriptionId(cmdId));
     }
 
     @Override
     public void sendUpdate(String sessionId, CmdUpdate update) {
+        if (coalescingEnabled && update instanceof EntityDataUpdate entityDataUpdate
+                && update.getErrorCode() == 0 && entityDataUpdate.getData() == null && entityDataUpdate.getUpdate() != null) {
+            WsSessionMetaData md = wsSessionsMap.get(sessionId);
+            if (md != null && md.getUpdatesBuffer() != null) {
+                md.getUpdatesBuffer().add(entityDataUpdate);
+                return;
+            }
+        }
         doSendUpdate(sessionId, update.getCmdId(), update);
     }
 
@@ -279,7 +329,20 @@ public class DefaultWebSocketService implements WebSocketService {
     private <T> void doSendUpdate(String sessionId, int cmdId, T update) {
         WsSessionMetaData md = wsSessionsMap.get(sessionId);
         if (md != null) {
-            sendUpdate(md.getSessionRef(), cmdId, update);
+            // the merged updates of the command are sent first to keep the order of the updates
+            Object pendingUpdate = md.getUpdatesBuffer() != null ? md.getUpdatesBuffer().remove(cmdId) : null;
+            if (pendingUpdate != null) {
+                sendUpdates(md.getSessionRef(), cmdId, List.of(pendingUpdate, update));
+            } else {
+                sendUpdate(md.getSessionRef(), cmdId, update);
+            }
+        }
+    }
+
+    private void discardPendingUpdates(String sessionId, int cmdId) {
+        WsSessionMetaData md = wsSessionsMap.get(sessionId);
+        if (md != null && md.getUpdatesBuffer() != null) {
+            md.getUpdatesBuffer().remove(cmdId);
         }
     }
 
@@ -763,11 +826,15 @@ public class DefaultWebSocketService implements WebSocketService {
                 subId = cmd.getCmdId();
             }
             oldSubService.cancelSubscription(sessionId, subId);
+            discardPendingUpdates(sessionId, cmd.getCmdId());
         }
     }
 
     private void cleanupSessionById(String sessionId) {
-        wsSessionsMap.remove(sessionId);
+        WsSessionMetaData md = wsSessionsMap.remove(sessionId);
+        if (md != null && md.getUpdatesBuffer() != null) {
+            md.getUpdatesBuffer().clear();
+        }
         oldSubService.cancelAllSessionSubscriptions(sessionId);
         sessionCmdMap.remove(sessionId);
         entityDataSubService.cancelAllSessionSubscriptions(sessionId);
@@ -845,20 +912,51 @@ public class DefaultWebSocketService implements WebSocketService {
     }
 
     private void sendUpdate(WebSocketSessionRef sessionRef, int cmdId, Object update) {
+        sendUpdates(sessionRef, cmdId, Collections.singletonList(update));
+    }
+
+    private void sendUpdates(WebSocketSessionRef sessionRef, int cmdId, List<Object> updates) {
         try {
-            String msg = JacksonUtil.OBJECT_MAPPER.writeValueAsString(update);
+            List<String> msgs = new ArrayList<>(updates.size());
+            for (Object update : updates) {
+                msgs.add(JacksonUtil.OBJECT_MAPPER.writeValueAsString(update));
+            }
             executor.submit(() -> {
                 try {
-                    msgEndpoint.send(sessionRef, cmdId, msg);
+                    for (String msg : msgs) {
+                        msgEndpoint.send(sessionRef, cmdId, msg);
+                    }
                 } catch (IOException e) {
-                    log.warn("[{}] Failed to send reply: {}", sessionRef.getSessionId(), update, e);
+                    log.warn("[{}] Failed to send reply: {}", sessionRef.getSessionId(), updates, e);
                 }
             });
         } catch (JsonProcessingException e) {
-            log.warn("[{}] Failed to encode reply: {}", sessionRef.getSessionId(), update, e);
+            log.warn("[{}] Failed to encode reply: {}", sessionRef.getSessionId(), updates, e);
         }
     }
 
+    private void flushUpdates() {
+        wsSessionsMap.values().forEach(md -> {
+            WsUpdatesBuffer buffer = md.getUpdatesBuffer();
+            if (buffer == null || buffer.isEmpty()) {
+                return;
+            }
+            WebSocketSessionRef sessionRef = md.getSessionRef();
+            try {
+                // keep merging the updates while the session is slow to receive them
+                if (msgEndpoint.getPendingMsgCount(sessionRef) >= coalescingMaxPendingMsgs) {
+                    return;
+                }
+                for (Map.Entry<Integer, Object> update : buffer.drain().entrySet()) {
+                    msgEndpoint.send(sessionRef, update.getKey(), JacksonUtil.OBJECT_MAPPER.writeValueAsString(update.getValue()));
+                    deliveredUpdatesCounter.increment();
+                }
+            } catch (Exception e) {
+                log.warn("[{}] Failed to flush updates", sessionRef.getSessionId(), e);
+            }
+        });
+    }
+
     private void sendPing() {
         long currentTime = System.currentTimeMillis();
         wsSessionsMap.values().forEach(md ->
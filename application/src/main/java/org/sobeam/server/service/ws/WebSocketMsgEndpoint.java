@@ -31,4 +31,9 @@ public interface WebSocketMsgEndpoint {
     void close(WebSocketSessionRef sessionRef, CloseStatus withReason) throws IOException;
 
     boolean isOpen(String sessionId);
+
+    /**
+     * @return number of messages queued for sending to the session
+     */
+    int getPendingMsgCount(WebSocketSessionRef sessionRef);
 }
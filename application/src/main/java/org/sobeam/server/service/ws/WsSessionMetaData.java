@@ -22,6 +22,7 @@ package org.sobeam.server.service.ws;
 public class WsSessionMetaData {
     private WebSocketSessionRef sessionRef;
     private long lastActivityTime;
+    private WsUpdatesBuffer updatesBuffer;
 
     public WsSessionMetaData(WebSocketSessionRef sessionRef) {
         super();
@@ -45,6 +46,14 @@ public class WsSessionMetaData {
         this.lastActivityTime = lastActivityTime;
     }
 
+    public WsUpdatesBuffer getUpdatesBuffer() {
+        return updatesBuffer;
+    }
+
+    public void setUpdatesBuffer(WsUpdatesBuffer updatesBuffer) {
+        this.updatesBuffer = updatesBuffer;
+    }
+
     @Override
     public String toString() {
         return "WsSessionMetaData [sessionRef=" + sessionRef + ", lastActivityTime=" + lastActivityTime + "]";
@@ -0,0 +1,216 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.ws;
+
+import org.sobeam.server.common.data.id.EntityId;
+import org.sobeam.server.common.data.query.ComparisonTsValue;
+import org.sobeam.server.common.data.query.EntityData;
+import org.sobeam.server.common.data.query.EntityKeyType;
+import org.sobeam.server.common.data.query.TsValue;
+import org.sobeam.server.common.stats.StatsCounter;
+import org.sobeam.server.service.ws.telemetry.cmd.v2.EntityDataUpdate;
+import org.sobeam.server.service.ws.telemetry.sub.TelemetrySubscriptionUpdate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outbound subscription updates of a WebSocket session, merged per command id until the next flush.
+ * Telemetry updates are merged per key; entity data updates are merged per entity and key:
+ * the latest values are replaced by the newer ones and the time series values are appended.
+ */
+public class WsUpdatesBuffer {
+
+    private final int maxValuesPerKey;
+    private final StatsCounter mergedCounter;
+    private final StatsCounter droppedCounter;
+
+    private final Map<Integer, PendingUpdate> pending = new LinkedHashMap<>();
+
+    public WsUpdatesBuffer(int maxValuesPerKey, StatsCounter mergedCounter, StatsCounter droppedCounter) {
+        this.maxValuesPerKey = maxValuesPerKey;
+        this.mergedCounter = mergedCounter;
+        this.droppedCounter = droppedCounter;
+    }
+
+    /**
+     * Appends the values to the pending ones of the same command and key. If a key exceeds the max number of values, the oldest values are dropped.
+     */
+    public synchronized void add(int cmdId, Map<String, List<Object>> data) {
+        PendingUpdate cmdUpdate = pending.get(cmdId);
+        PendingTelemetryUpdate telemetryUpdate;
+        if (cmdUpdate instanceof PendingTelemetryUpdate) {
+            telemetryUpdate = (PendingTelemetryUpdate) cmdUpdate;
+            mergedCounter.increment();
+        } else {
+            telemetryUpdate = new PendingTelemetryUpdate(cmdId);
+            pending.put(cmdId, telemetryUpdate);
+        }
+        for (Map.Entry<String, List<Object>> entry : data.entrySet()) {
+            List<Object> values = telemetryUpdate.data.computeIfAbsent(entry.getKey(), k -> new ArrayList<>());
+            values.addAll(entry.getValue());
+            trim(values);
+        }
+    }
+
+    /**
+     * Merges the entity data of the subscription update with the pending one of the same command.
+     * Only updates without an error and without a page of data can be merged.
+     */
+    public synchronized void add(EntityDataUpdate update) {
+        PendingUpdate cmdUpdate = pending.get(update.getCmdId());
+        PendingEntityDataUpdate entityDataUpdate;
+        if (cmdUpdate instanceof PendingEntityDataUpdate) {
+            entityDataUpdate = (PendingEntityDataUpdate) cmdUpdate;
+            mergedCounter.increment();
+        } else {
+            entityDataUpdate = new PendingEntityDataUpdate(update.getCmdId());
+            pending.put(update.getCmdId(), entityDataUpdate);
+        }
+        entityDataUpdate.allowedEntities = update.getAllowedEntities();
+        for (EntityData entityData : update.getUpdate()) {
+            PendingEntityData pendingData = entityDataUpdate.data.computeIfAbsent(entityData.getEntityId(), PendingEntityData::new);
+            if (entityData.getLatest() != null) {
+                entityData.getLatest().forEach((keyType, values) -> {
+                    Map<String, TsValue> latest = pendingData.latest.computeIfAbsent(keyType, k -> new HashMap<>());
+                    values.forEach((key, value) -> latest.merge(key, value, (oldValue, newValue) -> newValue.getTs() >= oldValue.getTs() ? newValue : oldValue));
+                });
+            }
+            if (entityData.getTimeseries() != null) {
+                entityData.getTimeseries().forEach((key, values) -> {
+                    List<TsValue> tsValues = pendingData.timeseries.computeIfAbsent(key, k -> new ArrayList<>());
+                    tsValues.addAll(Arrays.asList(values));
+                    trim(tsValues);
+                });
+            }
+            if (entityData.getAggLatest() != null) {
+                pendingData.aggLatest.putAll(entityData.getAggLatest());
+            }
+        }
+    }
+
+    /**
+     * Removes the pending update of the command.
+     *
+     * @return the pending update or null if there is none
+     */
+    public synchronized Object remove(int cmdId) {
+        PendingUpdate cmdUpdate = pending.remove(cmdId);
+        return cmdUpdate != null ? cmdUpdate.toUpdate() : null;
+    }
+
+    public synchronized void clear() {
+        pending.clear();
+    }
+
+    public synchronized boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * @return the pending updates by command id, in the order of the first update of each command
+     */
+    public synchronized Map<Integer, Object> drain() {
+        if (pending.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, Object> updates = new LinkedHashMap<>();
+        pending.forEach((cmdId, cmdUpdate) -> updates.put(cmdId, cmdUpdate.toUpdate()));
+        pending.clear();
+        return updates;
+    }
+
+    private void trim(List<?> values) {
+        int excess = values.size() - maxValuesPerKey;
+        if (excess > 0) {
+            values.subList(0, excess).clear();
+            droppedCounter.add(excess);
+        }
+    }
+
+    private interface PendingUpdate {
+
+        Object toUpdate();
+
+    }
+
+    private static class PendingTelemetryUpdate implements PendingUpdate {
+
+        private final int cmdId;
+        private final Map<String, List<Object>> data = new TreeMap<>();
+
+        private PendingTelemetryUpdate(int cmdId) {
+            this.cmdId = cmdId;
+        }
+
+        @Override
+        public Object toUpdate() {
+            return new TelemetrySubscriptionUpdate(cmdId, data);
+        }
+
+    }
+
+    private static class PendingEntityDataUpdate implements PendingUpdate {
+
+        private final int cmdId;
+        private final Map<EntityId, PendingEntityData> data = new LinkedHashMap<>();
+        private long allowedEntities;
+
+        private PendingEntityDataUpdate(int cmdId) {
+            this.cmdId = cmdId;
+        }
+
+        @Override
+        public Object toUpdate() {
+            List<EntityData> entityDataList = new ArrayList<>(data.size());
+            data.values().forEach(pendingData -> entityDataList.add(pendingData.toEntityData()));
+            return new EntityDataUpdate(cmdId, null, entityDataList, allowedEntities);
+        }
+
+    }
+
+    private static class PendingEntityData {
+
+        private final EntityId entityId;
+        private final Map<EntityKeyType, Map<String, TsValue>> latest = new EnumMap<>(EntityKeyType.class);
+        private final Map<String, List<TsValue>> timeseries = new HashMap<>();
+        private final Map<Integer, ComparisonTsValue> aggLatest = new HashMap<>();
+
+        private PendingEntityData(EntityId entityId) {
+            this.entityId = entityId;
+        }
+
+        private EntityData toEntityData() {
+            Map<String, TsValue[]> tsValues = null;
+            if (!timeseries.isEmpty()) {
+                tsValues = new HashMap<>();
+                for (Map.Entry<String, List<TsValue>> entry : timeseries.entrySet()) {
+                    tsValues.put(entry.getKey(), entry.getValue().toArray(new TsValue[0]));
+                }
+            }
+            return new EntityData(entityId, latest.isEmpty() ? null : latest, tsValues, aggLatest.isEmpty() ? null : aggLatest);
+        }
+
+    }
+
+}
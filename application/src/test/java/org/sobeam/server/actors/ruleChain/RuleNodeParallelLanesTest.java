@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.actors.ruleChain;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.data.id.DeviceId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleNodeParallelLanesTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testOrderIsPreservedPerOriginator() throws InterruptedException {
+        RuleNodeParallelLanes lanes = new RuleNodeParallelLanes(executor, 4);
+        List<DeviceId> originators = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            originators.add(new DeviceId(UUID.randomUUID()));
+        }
+        int msgsPerOriginator = 1000;
+        Map<DeviceId, List<Integer>> processed = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(originators.size() * msgsPerOriginator);
+        for (int i = 0; i < msgsPerOriginator; i++) {
+            int seq = i;
+            for (DeviceId originator : originators) {
+                lanes.execute(originator, () -> {
+                    processed.computeIfAbsent(originator, id -> Collections.synchronizedList(new ArrayList<>())).add(seq);
+                    latch.countDown();
+                });
+            }
+        }
+
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        for (DeviceId originator : originators) {
+            List<Integer> seqs = processed.get(originator);
+            assertThat(seqs).hasSize(msgsPerOriginator);
+            assertThat(seqs).isSorted();
+        }
+        assertThat(lanes.getPendingCount()).isZero();
+    }
+
+    @Test
+    void testDifferentLanesRunConcurrently() throws InterruptedException {
+        RuleNodeParallelLanes lanes = new RuleNodeParallelLanes(executor, 2);
+        DeviceId first = new DeviceId(UUID.randomUUID());
+        DeviceId second = first;
+        while (lanes.laneOf(second) == lanes.laneOf(first)) {
+            second = new DeviceId(UUID.randomUUID());
+        }
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        lanes.execute(first, () -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        lanes.execute(second, done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lanes.getPendingCount()).isEqualTo(1);
+        blocker.countDown();
+    }
+
+    @Test
+    void testAwaitDrained() throws InterruptedException {
+        RuleNodeParallelLanes lanes = new RuleNodeParallelLanes(executor, 2);
+        DeviceId originator = new DeviceId(UUID.randomUUID());
+        CountDownLatch blocker = new CountDownLatch(1);
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+        lanes.execute(originator, () -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            processed.add(1);
+        });
+        lanes.execute(originator, () -> processed.add(2));
+
+        assertThat(lanes.awaitDrained(100)).isFalse();
+        blocker.countDown();
+        assertThat(lanes.awaitDrained(5000)).isTrue();
+        assertThat(processed).containsExactly(1, 2);
+        assertThat(lanes.getPendingCount()).isZero();
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.queue.ruleengine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbRuleEngineAdaptivePackSizeTest {
+
+    @Test
+    public void testShrinkOnTimeoutAndSlowPacks() {
+        TbRuleEngineAdaptivePackSize packSize = new TbRuleEngineAdaptivePackSize(10, 100, 500);
+        assertThat(packSize.get()).isEqualTo(100);
+
+        packSize.onPackProcessed(100, 100, true, 0.5);
+        assertThat(packSize.get()).isEqualTo(50);
+
+        packSize.onPackProcessed(50, 600, false, 1.0);
+        assertThat(packSize.get()).isEqualTo(25);
+
+        packSize.onPackProcessed(25, 600, false, 1.0);
+        packSize.onPackProcessed(12, 600, false, 1.0);
+        assertThat(packSize.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void testGrowOnlyOnFullFastFullyAckedPacks() {
+        TbRuleEngineAdaptivePackSize packSize = new TbRuleEngineAdaptivePackSize(10, 100, 500);
+        packSize.onPackProcessed(100, 1000, false, 1.0);
+        assertThat(packSize.get()).isEqualTo(50);
+
+        packSize.onPackProcessed(20, 10, false, 1.0);
+        assertThat(packSize.get()).isEqualTo(50);
+
+        packSize.onPackProcessed(50, 10, false, 0.9);
+        assertThat(packSize.get()).isEqualTo(50);
+
+        packSize.onPackProcessed(50, 300, false, 1.0);
+        assertThat(packSize.get()).isEqualTo(50);
+
+        packSize.onPackProcessed(50, 10, false, 1.0);
+        assertThat(packSize.get()).isEqualTo(62);
+
+        for (int i = 0; i < 10; i++) {
+            packSize.onPackProcessed(packSize.get(), 10, false, 1.0);
+        }
+        assertThat(packSize.get()).isEqualTo(100);
+    }
+
+}
@@ -452,6 +452,30 @@ public class TbRuleEngineQueueConsumerManagerTest {
         verifyNoMoreInteractions(queueFactory);
     }
 
+    @Test
+    public void testAdaptivePackSize() {
+        ruleEngineConsumerContext.setAdaptivePackEnabled(true);
+        ruleEngineConsumerContext.setAdaptivePackMinSize(1);
+        ruleEngineConsumerContext.setAdaptivePackMaxSize(10);
+        ruleEngineConsumerContext.setAdaptivePackTargetLatencyMs(500);
+        ruleEngineConsumerContext.setPackPipeliningEnabled(true);
+        ruleEngineConsumerContext.setPackPipeliningTailRatio(0.1);
+        consumerManager = TbRuleEngineQueueConsumerManager.create()
+                .ctx(ruleEngineConsumerContext)
+                .queueKey(new QueueKey(ServiceType.TB_RULE_ENGINE, queue))
+                .consumerExecutor(consumersExecutor)
+                .scheduler(scheduler)
+                .taskExecutor(mgmtExecutor)
+                .build();
+        consumerManager.init(queue);
+        consumerManager.update(createTpis(1));
+        TestConsumer consumer = getConsumer(1);
+        verifySubscribedAndLaunched(consumer, 1);
+
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> totalProcessedMsgs.get() > 10);
+    }
+
     @Test
     public void testDelete_consumerPerPartition() {
         queue.setConsumerPerPartition(true);
@@ -15,6 +15,7 @@
  */
 package org.sobeam.server.service.script;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.benmanes.caffeine.cache.Cache;
 import org.junit.Assert;
@@ -24,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.test.context.TestPropertySource;
 import org.sobeam.common.util.JacksonUtil;
+import org.sobeam.script.api.PreparsedScriptArg;
 import org.sobeam.script.api.ScriptType;
 import org.sobeam.script.api.tbel.TbelInvokeService;
 import org.sobeam.script.api.tbel.TbelScript;
@@ -33,6 +35,7 @@ import org.sobeam.server.dao.service.DaoSqlTest;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -120,6 +123,32 @@ class TbelInvokeServiceTest extends AbstractControllerTest {
         assertThatScriptIsBlocked(scriptId);
     }
 
+    @Test
+    void givenPreparsedArgs_whenScriptModifiesThem_thenSharedArgsAreNotModified() throws Exception {
+        String script = "msg.t = 2; msg.l.push(3); metadata.a = 'b'; return {msg: msg, metadata: metadata};";
+        UUID scriptId = evalScript(script);
+        JsonNode data = JacksonUtil.toJsonNode("{\"t\":1,\"l\":[1]}");
+        Map<String, String> metadata = Collections.emptyMap();
+
+        Object result = invokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId,
+                new PreparsedScriptArg(data, 15), new PreparsedScriptArg(metadata, 2), POST_TELEMETRY_REQUEST.name()).get();
+
+        assertThat(JacksonUtil.toString(result)).isEqualTo("{\"msg\":{\"t\":2,\"l\":[1,3]},\"metadata\":{\"a\":\"b\"}}");
+        assertThat(JacksonUtil.toString(data)).isEqualTo("{\"t\":1,\"l\":[1]}");
+        assertThat(metadata).isEmpty();
+    }
+
+    @Test
+    void givenTooBigPreparsedArgs_thenReturnError() throws Exception {
+        UUID scriptId = evalScript("return msg;");
+        JsonNode data = JacksonUtil.toJsonNode("{}");
+
+        assertThatThrownBy(() -> {
+            invokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId,
+                    new PreparsedScriptArg(data, 100), "{}", POST_TELEMETRY_REQUEST.name()).get();
+        }).hasMessageContaining("input arguments exceed maximum");
+    }
+
     @Test
     void givenScriptsWithSameBody_thenCompileAndCacheOnlyOnce() throws Exception {
         String script = "return msg.temperature > 20;";
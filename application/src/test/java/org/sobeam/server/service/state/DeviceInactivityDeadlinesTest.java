@@ -0,0 +1,75 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.state;
+
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.data.id.DeviceId;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceInactivityDeadlinesTest {
+
+    private final DeviceInactivityDeadlines deadlines = new DeviceInactivityDeadlines();
+
+    @Test
+    void testPollReturnsOnlyExpiredDevices() {
+        DeviceId first = new DeviceId(UUID.randomUUID());
+        DeviceId second = new DeviceId(UUID.randomUUID());
+        deadlines.schedule(first, 100);
+        deadlines.schedule(second, 200);
+
+        assertThat(deadlines.pollExpired(99)).isEmpty();
+        assertThat(deadlines.pollExpired(150)).containsExactly(first);
+        assertThat(deadlines.pollExpired(150)).isEmpty();
+        assertThat(deadlines.pollExpired(200)).containsExactly(second);
+        assertThat(deadlines.size()).isZero();
+    }
+
+    @Test
+    void testLaterDeadlineIsIgnoredUntilExpired() {
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        deadlines.schedule(deviceId, 100);
+        deadlines.schedule(deviceId, 300);
+
+        assertThat(deadlines.pollExpired(300)).containsExactly(deviceId);
+        assertThat(deadlines.size()).isZero();
+    }
+
+    @Test
+    void testEarlierDeadlineReplacesScheduled() {
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        deadlines.schedule(deviceId, 300);
+        deadlines.schedule(deviceId, 100);
+
+        assertThat(deadlines.pollExpired(100)).containsExactly(deviceId);
+        assertThat(deadlines.pollExpired(300)).isEmpty();
+    }
+
+    @Test
+    void testCancelledDeviceIsSkipped() {
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        deadlines.schedule(deviceId, 100);
+        deadlines.cancel(deviceId);
+
+        assertThat(deadlines.pollExpired(100)).isEmpty();
+
+        deadlines.schedule(deviceId, 200);
+        assertThat(deadlines.pollExpired(200)).containsExactly(deviceId);
+    }
+
+}
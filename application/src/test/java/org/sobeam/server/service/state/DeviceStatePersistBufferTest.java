@@ -0,0 +1,97 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.state;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.kv.BooleanDataEntry;
+import org.sobeam.server.common.data.kv.LongDataEntry;
+import org.sobeam.server.common.data.kv.TsKvEntry;
+import org.sobeam.server.common.stats.DefaultCounter;
+import org.sobeam.server.common.stats.StatsFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DeviceStatePersistBufferTest {
+
+    private final Map<DeviceId, List<List<TsKvEntry>>> persisted = new ConcurrentHashMap<>();
+    private StatsFactory statsFactory;
+
+    @BeforeEach
+    void setUp() {
+        statsFactory = mock(StatsFactory.class);
+        when(statsFactory.createGauge(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(statsFactory.createDefaultCounter(anyString(), any(String[].class))).thenReturn(mock(DefaultCounter.class));
+    }
+
+    @Test
+    void testOnlyNewestValuePerKeyIsPersisted() {
+        DeviceStatePersistBuffer buffer = new DeviceStatePersistBuffer(100, this::persist, statsFactory);
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        buffer.put(deviceId, 1, new LongDataEntry("lastActivityTime", 1L));
+        buffer.put(deviceId, 2, new LongDataEntry("lastActivityTime", 2L));
+        buffer.put(deviceId, 3, new BooleanDataEntry("active", true));
+        buffer.put(deviceId, 4, new LongDataEntry("lastActivityTime", 4L));
+        assertThat(persisted).isEmpty();
+        assertThat(buffer.getPendingDevices()).isEqualTo(1);
+
+        buffer.flush(10);
+
+        assertThat(persisted.get(deviceId)).hasSize(1);
+        List<TsKvEntry> batch = persisted.get(deviceId).get(0);
+        assertThat(batch).hasSize(2);
+        assertThat(batch.get(0).getKey()).isEqualTo("lastActivityTime");
+        assertThat(batch.get(0).getLongValue()).contains(4L);
+        assertThat(batch.get(0).getTs()).isEqualTo(4);
+        assertThat(batch.get(1).getKey()).isEqualTo("active");
+        assertThat(buffer.getPendingDevices()).isZero();
+
+        buffer.flush(20);
+        assertThat(persisted.get(deviceId)).hasSize(1);
+    }
+
+    @Test
+    void testValuesAreWrittenThroughWhenPendingLimitIsReached() {
+        DeviceStatePersistBuffer buffer = new DeviceStatePersistBuffer(1, this::persist, statsFactory);
+        DeviceId first = new DeviceId(UUID.randomUUID());
+        DeviceId second = new DeviceId(UUID.randomUUID());
+        buffer.put(first, 1, new LongDataEntry("lastActivityTime", 1L));
+        buffer.put(second, 1, new LongDataEntry("lastActivityTime", 1L));
+        buffer.put(first, 2, new LongDataEntry("lastActivityTime", 2L));
+
+        assertThat(persisted).containsOnlyKeys(second);
+
+        buffer.flush(10);
+        assertThat(persisted.get(first)).hasSize(1);
+        assertThat(persisted.get(first).get(0).get(0).getLongValue()).contains(2L);
+    }
+
+    private void persist(DeviceId deviceId, List<TsKvEntry> entries) {
+        persisted.computeIfAbsent(deviceId, id -> new ArrayList<>()).add(entries);
+    }
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.subscription;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.sobeam.server.cluster.TbClusterService;
+import org.sobeam.server.common.data.EntityType;
+import org.sobeam.server.common.data.audit.ActionType;
+import org.sobeam.server.common.data.id.AlarmId;
+import org.sobeam.server.common.data.id.AssetId;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.data.query.EntityTypeFilter;
+import org.sobeam.server.common.data.query.RelationsQueryFilter;
+import org.sobeam.server.common.data.relation.EntityRelation;
+import org.sobeam.server.dao.eventsourcing.DeleteEntityEvent;
+import org.sobeam.server.dao.eventsourcing.RelationActionEvent;
+import org.sobeam.server.dao.eventsourcing.SaveEntityEvent;
+import org.sobeam.server.gen.transport.TransportProtos.ToCoreNotificationMsg;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class EntityDataChangeTrackerTest {
+
+    private EntityDataChangeTracker tracker;
+
+    private final EntityTypeFilter deviceFilter = entityTypeFilter(EntityType.DEVICE);
+    private final EntityTypeFilter assetFilter = entityTypeFilter(EntityType.ASSET);
+
+    @BeforeEach
+    public void setUp() {
+        TbClusterService clusterService = mock(TbClusterService.class);
+        tracker = new EntityDataChangeTracker(clusterService);
+        ReflectionTestUtils.setField(tracker, "enabled", true);
+        // loops the broadcast back, as the notifications consumer of the current node does
+        doAnswer(invocation -> {
+            tracker.onEntityDataChangeMsg(invocation.<ToCoreNotificationMsg>getArgument(0).getEntityDataChangeMsg());
+            return null;
+        }).when(clusterService).broadcastToCore(any());
+    }
+
+    @Test
+    public void givenEntityEvents_whenGetVersion_thenOnlyAffectedTenantVersionChanged() {
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        TenantId otherTenantId = TenantId.fromUUID(UUID.randomUUID());
+        long version = tracker.getVersion(tenantId, deviceFilter);
+        long otherVersion = tracker.getVersion(otherTenantId, deviceFilter);
+
+        tracker.handleEvent(SaveEntityEvent.builder().tenantId(tenantId).entityId(new DeviceId(UUID.randomUUID())).build());
+        assertThat(tracker.getVersion(tenantId, deviceFilter)).isNotEqualTo(version);
+        assertThat(tracker.getVersion(otherTenantId, deviceFilter)).isEqualTo(otherVersion);
+
+        version = tracker.getVersion(tenantId, deviceFilter);
+        tracker.handleEvent(DeleteEntityEvent.builder().tenantId(tenantId).entityId(new DeviceId(UUID.randomUUID())).build());
+        assertThat(tracker.getVersion(tenantId, deviceFilter)).isNotEqualTo(version);
+        assertThat(tracker.getVersion(otherTenantId, deviceFilter)).isEqualTo(otherVersion);
+    }
+
+    @Test
+    public void givenEntityEvent_whenGetVersion_thenOnlyAffectedEntityTypeVersionChanged() {
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        long deviceVersion = tracker.getVersion(tenantId, deviceFilter);
+        long assetVersion = tracker.getVersion(tenantId, assetFilter);
+
+        tracker.handleEvent(SaveEntityEvent.builder().tenantId(tenantId).entityId(new AssetId(UUID.randomUUID())).build());
+
+        assertThat(tracker.getVersion(tenantId, deviceFilter)).isEqualTo(deviceVersion);
+        assertThat(tracker.getVersion(tenantId, assetFilter)).isNotEqualTo(assetVersion);
+    }
+
+    @Test
+    public void givenRelationEvent_whenGetVersion_thenOnlyRelationQueryVersionChanged() {
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        RelationsQueryFilter relationsFilter = new RelationsQueryFilter();
+        long deviceVersion = tracker.getVersion(tenantId, deviceFilter);
+        long relationsVersion = tracker.getVersion(tenantId, relationsFilter);
+
+        tracker.handleEvent(new RelationActionEvent(tenantId, new EntityRelation(), ActionType.RELATION_ADD_OR_UPDATE));
+
+        assertThat(tracker.getVersion(tenantId, deviceFilter)).isEqualTo(deviceVersion);
+        assertThat(tracker.getVersion(tenantId, relationsFilter)).isNotEqualTo(relationsVersion);
+
+        relationsVersion = tracker.getVersion(tenantId, relationsFilter);
+        tracker.handleEvent(SaveEntityEvent.builder().tenantId(tenantId).entityId(new AssetId(UUID.randomUUID())).build());
+        assertThat(tracker.getVersion(tenantId, relationsFilter)).isNotEqualTo(relationsVersion);
+    }
+
+    @Test
+    public void givenNotQueryableEntityEvent_whenGetVersion_thenVersionNotChanged() {
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        long version = tracker.getVersion(tenantId, deviceFilter);
+
+        tracker.handleEvent(SaveEntityEvent.builder().tenantId(tenantId).entityId(new AlarmId(UUID.randomUUID())).build());
+
+        assertThat(tracker.getVersion(tenantId, deviceFilter)).isEqualTo(version);
+    }
+
+    @Test
+    public void givenTenantEvent_whenGetVersion_thenAllTenantsVersionChanged() {
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        long version = tracker.getVersion(tenantId, deviceFilter);
+        long sysVersion = tracker.getVersion(TenantId.SYS_TENANT_ID, deviceFilter);
+
+        tracker.handleEvent(SaveEntityEvent.builder().tenantId(TenantId.SYS_TENANT_ID).entityId(TenantId.fromUUID(UUID.randomUUID())).build());
+
+        assertThat(tracker.getVersion(tenantId, deviceFilter)).isNotEqualTo(version);
+        assertThat(tracker.getVersion(TenantId.SYS_TENANT_ID, deviceFilter)).isNotEqualTo(sysVersion);
+    }
+
+    @Test
+    public void givenDisabled_whenEntityEvent_thenNothingBroadcast() {
+        ReflectionTestUtils.setField(tracker, "enabled", false);
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        long version = tracker.getVersion(tenantId, deviceFilter);
+
+        tracker.handleEvent(SaveEntityEvent.builder().tenantId(tenantId).entityId(new DeviceId(UUID.randomUUID())).build());
+
+        assertThat(tracker.getVersion(tenantId, deviceFilter)).isEqualTo(version);
+    }
+
+    private static EntityTypeFilter entityTypeFilter(EntityType entityType) {
+        EntityTypeFilter filter = new EntityTypeFilter();
+        filter.setEntityType(entityType);
+        return filter;
+    }
+
+}
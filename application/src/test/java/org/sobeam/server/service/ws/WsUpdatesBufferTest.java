@@ -0,0 +1,142 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.service.ws;
+
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.query.EntityData;
+import org.sobeam.server.common.data.query.EntityKeyType;
+import org.sobeam.server.common.data.query.TsValue;
+import org.sobeam.server.common.stats.StatsCounter;
+import org.sobeam.server.service.ws.telemetry.cmd.v2.EntityDataUpdate;
+import org.sobeam.server.service.ws.telemetry.sub.TelemetrySubscriptionUpdate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class WsUpdatesBufferTest {
+
+    private final StatsCounter mergedCounter = mock(StatsCounter.class);
+    private final StatsCounter droppedCounter = mock(StatsCounter.class);
+
+    @Test
+    public void givenUpdatesOfSameCmd_whenDrain_thenSingleUpdateWithAllValuesPerKey() {
+        WsUpdatesBuffer buffer = new WsUpdatesBuffer(100, mergedCounter, droppedCounter);
+        buffer.add(1, Map.of("temperature", values(1, 2)));
+        buffer.add(1, Map.of("temperature", values(3), "humidity", values(3)));
+        buffer.add(2, Map.of("temperature", values(4)));
+
+        Map<Integer, Object> updates = buffer.drain();
+
+        assertThat(updates).containsOnlyKeys(1, 2);
+        TelemetrySubscriptionUpdate update = (TelemetrySubscriptionUpdate) updates.get(1);
+        assertThat(update.getSubscriptionId()).isEqualTo(1);
+        assertThat(update.getData().get("temperature")).hasSize(3);
+        assertThat(update.getData().get("humidity")).hasSize(1);
+        assertThat(update.getLatestValues()).containsEntry("temperature", 3L);
+        assertThat(((TelemetrySubscriptionUpdate) updates.get(2)).getSubscriptionId()).isEqualTo(2);
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(buffer.drain()).isEmpty();
+        verify(mergedCounter, times(1)).increment();
+        verify(droppedCounter, never()).add(anyInt());
+    }
+
+    @Test
+    public void givenTooManyValuesPerKey_whenAdd_thenOldestValuesDropped() {
+        WsUpdatesBuffer buffer = new WsUpdatesBuffer(2, mergedCounter, droppedCounter);
+        buffer.add(1, Map.of("temperature", values(1, 2)));
+        buffer.add(1, Map.of("temperature", values(3)));
+
+        List<Object> values = ((TelemetrySubscriptionUpdate) buffer.drain().get(1)).getData().get("temperature");
+
+        assertThat(values).hasSize(2);
+        assertThat(((Object[]) values.get(0))[0]).isEqualTo(2L);
+        assertThat(((Object[]) values.get(1))[0]).isEqualTo(3L);
+        verify(droppedCounter).add(1);
+    }
+
+    @Test
+    public void givenEntityDataUpdatesOfSameCmd_whenDrain_thenMergeLatestAndAppendTimeseries() {
+        WsUpdatesBuffer buffer = new WsUpdatesBuffer(100, mergedCounter, droppedCounter);
+        DeviceId deviceA = new DeviceId(UUID.randomUUID());
+        DeviceId deviceB = new DeviceId(UUID.randomUUID());
+        buffer.add(entityDataUpdate(1, new EntityData(deviceA, latest("temperature", new TsValue(2, "20")), null)));
+        buffer.add(entityDataUpdate(1, new EntityData(deviceA, latest("temperature", new TsValue(1, "10")), null)));
+        buffer.add(entityDataUpdate(1, new EntityData(deviceA, latest("humidity", new TsValue(3, "30")), null)));
+        buffer.add(entityDataUpdate(1, new EntityData(deviceB, null, Map.of("temperature", new TsValue[]{new TsValue(1, "1")}))));
+        buffer.add(entityDataUpdate(1, new EntityData(deviceB, null, Map.of("temperature", new TsValue[]{new TsValue(2, "2")}))));
+
+        Map<Integer, Object> updates = buffer.drain();
+
+        assertThat(updates).containsOnlyKeys(1);
+        EntityDataUpdate update = (EntityDataUpdate) updates.get(1);
+        assertThat(update.getData()).isNull();
+        assertThat(update.getAllowedEntities()).isEqualTo(100);
+        assertThat(update.getUpdate()).hasSize(2);
+        EntityData dataA = update.getUpdate().get(0);
+        assertThat(dataA.getEntityId()).isEqualTo(deviceA);
+        assertThat(dataA.getTimeseries()).isNull();
+        assertThat(dataA.getLatest().get(EntityKeyType.TIME_SERIES))
+                .containsEntry("temperature", new TsValue(2, "20"))
+                .containsEntry("humidity", new TsValue(3, "30"));
+        EntityData dataB = update.getUpdate().get(1);
+        assertThat(dataB.getEntityId()).isEqualTo(deviceB);
+        assertThat(dataB.getLatest()).isNull();
+        assertThat(dataB.getTimeseries().get("temperature")).containsExactly(new TsValue(1, "1"), new TsValue(2, "2"));
+        verify(mergedCounter, times(4)).increment();
+    }
+
+    @Test
+    public void givenPendingUpdates_whenRemoveCmd_thenOtherCmdsKept() {
+        WsUpdatesBuffer buffer = new WsUpdatesBuffer(100, mergedCounter, droppedCounter);
+        buffer.add(1, Map.of("temperature", values(1)));
+        buffer.add(entityDataUpdate(2, new EntityData(new DeviceId(UUID.randomUUID()), latest("temperature", new TsValue(1, "1")), null)));
+
+        assertThat(buffer.remove(1)).isInstanceOf(TelemetrySubscriptionUpdate.class);
+        assertThat(buffer.remove(1)).isNull();
+        assertThat(buffer.drain()).containsOnlyKeys(2);
+
+        buffer.add(1, Map.of("temperature", values(2)));
+        buffer.clear();
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    private static EntityDataUpdate entityDataUpdate(int cmdId, EntityData entityData) {
+        return new EntityDataUpdate(cmdId, null, List.of(entityData), 100);
+    }
+
+    private static Map<EntityKeyType, Map<String, TsValue>> latest(String key, TsValue value) {
+        return Map.of(EntityKeyType.TIME_SERIES, Map.of(key, value));
+    }
+
+    private static List<Object> values(long... tss) {
+        List<Object> values = new ArrayList<>();
+        for (long ts : tss) {
+            values.add(new Object[]{ts, Long.toString(ts)});
+        }
+        return values;
+    }
+
+}
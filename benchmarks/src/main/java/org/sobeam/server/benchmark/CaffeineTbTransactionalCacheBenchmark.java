@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sobeam.server.cache.CaffeineTbTransactionalCache;
+import org.sobeam.server.cache.TbCacheValueWrapper;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Get/put contention on {@link CaffeineTbTransactionalCache}: gets go straight to Caffeine,
+ * while puts are serialized by the lock that guards the cache transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CaffeineTbTransactionalCacheBenchmark {
+
+    private static final String CACHE_NAME = "benchmark";
+    private static final int KEYS = 10000;
+
+    private CaffeineTbTransactionalCache<String, String> cache;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CACHE_NAME);
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(KEYS * 2));
+        cache = new CaffeineTbTransactionalCache<>(cacheManager, CACHE_NAME) {};
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+            cache.put(keys[i], "value-" + i);
+        }
+    }
+
+    @Benchmark
+    public TbCacheValueWrapper<String> get() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(6)
+    public TbCacheValueWrapper<String> readWriteGet() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public void readWritePut() {
+        String key = randomKey();
+        cache.put(key, key);
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sobeam.server.common.data.DataConstants;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.id.QueueId;
+import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.data.queue.Queue;
+import org.sobeam.server.common.msg.queue.ServiceType;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.gen.transport.TransportProtos.ServiceInfo;
+import org.sobeam.server.queue.discovery.HashPartitionService;
+import org.sobeam.server.queue.discovery.QueueRoutingInfo;
+import org.sobeam.server.queue.discovery.TbServiceInfoProvider;
+import org.sobeam.server.queue.discovery.TenantRoutingInfo;
+import org.sobeam.server.queue.discovery.TopicService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partition resolution done for every message pushed to the core and rule engine queues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+public class HashPartitionServiceBenchmark {
+
+    private static final int ENTITIES = 100000;
+    private static final int SERVERS = 3;
+
+    @Param({"murmur3_128", "sha256"})
+    private String hashFunctionName;
+
+    private HashPartitionService partitionService;
+    private TenantId tenantId;
+    private DeviceId[] deviceIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ServiceInfo currentServer = ServiceInfo.newBuilder()
+                .setServiceId("tb-node-0")
+                .addServiceTypes(ServiceType.TB_CORE.name())
+                .addServiceTypes(ServiceType.TB_RULE_ENGINE.name())
+                .build();
+        List<ServiceInfo> otherServers = new ArrayList<>();
+        for (int i = 1; i < SERVERS; i++) {
+            otherServers.add(currentServer.toBuilder().setServiceId("tb-node-" + i).build());
+        }
+
+        Queue mainQueue = new Queue();
+        mainQueue.setId(new QueueId(UUID.randomUUID()));
+        mainQueue.setTenantId(TenantId.SYS_TENANT_ID);
+        mainQueue.setName(DataConstants.MAIN_QUEUE_NAME);
+        mainQueue.setTopic(DataConstants.MAIN_QUEUE_TOPIC);
+        mainQueue.setPartitions(10);
+
+        TopicService topicService = new TopicService();
+        ReflectionTestUtils.setField(topicService, "prefix", "");
+        partitionService = new HashPartitionService(new BenchmarkServiceInfoProvider(currentServer),
+                tenantId -> new TenantRoutingInfo(tenantId, null, false),
+                event -> {},
+                () -> List.of(new QueueRoutingInfo(mainQueue)),
+                topicService);
+        ReflectionTestUtils.setField(partitionService, "coreTopic", "tb_core");
+        ReflectionTestUtils.setField(partitionService, "corePartitions", 10);
+        ReflectionTestUtils.setField(partitionService, "vcTopic", "tb_version_control");
+        ReflectionTestUtils.setField(partitionService, "vcPartitions", 10);
+        ReflectionTestUtils.setField(partitionService, "hashFunctionName", hashFunctionName);
+        partitionService.init();
+        partitionService.partitionsInit();
+        partitionService.recalculatePartitions(currentServer, otherServers);
+
+        tenantId = TenantId.fromUUID(UUID.randomUUID());
+        deviceIds = new DeviceId[ENTITIES];
+        for (int i = 0; i < ENTITIES; i++) {
+            deviceIds[i] = new DeviceId(UUID.randomUUID());
+        }
+    }
+
+    @Benchmark
+    public TopicPartitionInfo resolveCore() {
+        return partitionService.resolve(ServiceType.TB_CORE, tenantId, randomDeviceId());
+    }
+
+    @Benchmark
+    public TopicPartitionInfo resolveRuleEngine() {
+        return partitionService.resolve(ServiceType.TB_RULE_ENGINE, DataConstants.MAIN_QUEUE_NAME, tenantId, randomDeviceId());
+    }
+
+    private DeviceId randomDeviceId() {
+        return deviceIds[ThreadLocalRandom.current().nextInt(ENTITIES)];
+    }
+
+    private record BenchmarkServiceInfoProvider(ServiceInfo serviceInfo) implements TbServiceInfoProvider {
+
+        @Override
+        public String getServiceId() {
+            return serviceInfo.getServiceId();
+        }
+
+        @Override
+        public String getServiceType() {
+            return "monolith";
+        }
+
+        @Override
+        public ServiceInfo getServiceInfo() {
+            return serviceInfo;
+        }
+
+        @Override
+        public boolean isService(ServiceType serviceType) {
+            return serviceInfo.getServiceTypesList().contains(serviceType.name());
+        }
+
+        @Override
+        public ServiceInfo generateNewServiceInfoWithCurrentSystemInfo() {
+            return serviceInfo;
+        }
+
+        @Override
+        public Set<UUID> getAssignedTenantProfiles() {
+            return Collections.emptySet();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.benchmark;
+
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sobeam.server.common.adaptor.JsonConverter;
+import org.sobeam.server.common.adaptor.JsonStreamConverter;
+import org.sobeam.server.gen.transport.TransportProtos;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of the device JSON telemetry as it arrives from the transports: the Gson tree built from the payload string
+ * against the Jackson parser reading the payload bytes directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class JsonTelemetryDecodingBenchmark {
+
+    private static final String TELEMETRY_JSON = "{\"temperature\":42.5,\"humidity\":71,\"active\":true,\"serial\":\"SN-000042\"," +
+            "\"config\":{\"mode\":\"auto\",\"threshold\":10,\"zones\":[1,2,3]}}";
+
+    private static final int TS_ARRAY_SIZE = 100;
+
+    private byte[] telemetryBytes;
+    private byte[] tsArrayBytes;
+
+    @Setup
+    public void setup() {
+        telemetryBytes = TELEMETRY_JSON.getBytes(StandardCharsets.UTF_8);
+        long ts = System.currentTimeMillis();
+        StringBuilder tsArray = new StringBuilder("[");
+        for (int i = 0; i < TS_ARRAY_SIZE; i++) {
+            if (i > 0) {
+                tsArray.append(',');
+            }
+            tsArray.append("{\"ts\":").append(ts + i * 1000L).append(",\"values\":").append(TELEMETRY_JSON).append('}');
+        }
+        tsArrayBytes = tsArray.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public TransportProtos.PostTelemetryMsg treeTelemetry() {
+        return JsonConverter.convertToTelemetryProto(JsonParser.parseString(new String(telemetryBytes, StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public TransportProtos.PostTelemetryMsg streamTelemetry() {
+        return JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(telemetryBytes, 0, telemetryBytes.length));
+    }
+
+    @Benchmark
+    public TransportProtos.PostTelemetryMsg treeTsArray() {
+        return JsonConverter.convertToTelemetryProto(JsonParser.parseString(new String(tsArrayBytes, StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public TransportProtos.PostTelemetryMsg streamTsArray() {
+        return JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(tsArrayBytes, 0, tsArrayBytes.length));
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sobeam.server.actors.AbstractTbActor;
+import org.sobeam.server.actors.DefaultTbActorSystem;
+import org.sobeam.server.actors.TbActor;
+import org.sobeam.server.actors.TbActorCreator;
+import org.sobeam.server.actors.TbActorId;
+import org.sobeam.server.actors.TbActorMailboxOverflowStrategy;
+import org.sobeam.server.actors.TbActorRef;
+import org.sobeam.server.actors.TbActorSystemSettings;
+import org.sobeam.server.actors.TbStringActorId;
+import org.sobeam.server.common.msg.MsgType;
+import org.sobeam.server.common.msg.TbActorMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Enqueue and process loop of {@code TbActorMailbox}: every invocation tells a pack of messages
+ * to the actors and waits until all of them are processed by the dispatcher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TbActorMailboxBenchmark {
+
+    private static final String DISPATCHER_ID = "benchmark-dispatcher";
+    private static final int MSGS_PER_INVOCATION = 1000;
+    private static final TbActorMsg MSG = () -> MsgType.QUEUE_TO_RULE_ENGINE_MSG;
+
+    @Param({"1", "16"})
+    private int actors;
+
+    @Param({"0", "10000"})
+    private int mailboxCapacity;
+
+    private DefaultTbActorSystem actorSystem;
+    private final List<TbActorRef> actorRefs = new ArrayList<>();
+    private final AtomicLong processed = new AtomicLong();
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        actorSystem = new DefaultTbActorSystem(new TbActorSystemSettings(5, parallelism, 42, mailboxCapacity, TbActorMailboxOverflowStrategy.REJECT));
+        actorSystem.createDispatcher(DISPATCHER_ID, Executors.newWorkStealingPool(parallelism));
+        for (int i = 0; i < actors; i++) {
+            TbActorId actorId = new TbStringActorId("benchmark-actor-" + i);
+            actorRefs.add(actorSystem.createRootActor(DISPATCHER_ID, new CountingActorCreator(actorId, processed)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        actorSystem.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MSGS_PER_INVOCATION)
+    public void tellAndProcess() {
+        for (int i = 0; i < MSGS_PER_INVOCATION; i++) {
+            actorRefs.get(i % actors).tell(MSG);
+        }
+        expected += MSGS_PER_INVOCATION;
+        while (processed.get() < expected) {
+            LockSupport.parkNanos(1000);
+        }
+    }
+
+    private static class CountingActor extends AbstractTbActor {
+
+        private final AtomicLong processed;
+
+        CountingActor(AtomicLong processed) {
+            this.processed = processed;
+        }
+
+        @Override
+        public boolean process(TbActorMsg msg) {
+            processed.incrementAndGet();
+            return true;
+        }
+    }
+
+    private record CountingActorCreator(TbActorId actorId, AtomicLong processed) implements TbActorCreator {
+
+        @Override
+        public TbActorId createActorId() {
+            return actorId;
+        }
+
+        @Override
+        public TbActor createActor() {
+            return new CountingActor(processed);
+        }
+    }
+}
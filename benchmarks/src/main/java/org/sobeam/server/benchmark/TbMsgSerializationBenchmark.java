@@ -0,0 +1,109 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.benchmark;
+
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sobeam.common.util.JacksonUtil;
+import org.sobeam.server.common.adaptor.JsonConverter;
+import org.sobeam.server.common.data.Device;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.id.DeviceProfileId;
+import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.data.msg.TbMsgType;
+import org.sobeam.server.common.msg.TbMsg;
+import org.sobeam.server.common.msg.TbMsgMetaData;
+import org.sobeam.server.common.msg.queue.TbMsgCallback;
+import org.sobeam.server.common.util.ProtoUtils;
+import org.sobeam.server.gen.transport.TransportProtos;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the messages that cross the queue boundary: {@link TbMsg} to/from protobuf bytes,
+ * device JSON telemetry to {@link TransportProtos.PostTelemetryMsg} and entity notifications through {@link ProtoUtils}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TbMsgSerializationBenchmark {
+
+    private static final String TELEMETRY_JSON = "{\"temperature\":42.5,\"humidity\":71,\"active\":true,\"serial\":\"SN-000042\"," +
+            "\"config\":{\"mode\":\"auto\",\"threshold\":10,\"zones\":[1,2,3]}}";
+
+    private TbMsg msg;
+    private byte[] msgBytes;
+    private Device device;
+    private TransportProtos.DeviceProto deviceProto;
+
+    @Setup
+    public void setup() {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("deviceName", "Thermostat A1");
+        metaData.putValue("deviceType", "thermostat");
+        metaData.putValue("ts", Long.toString(System.currentTimeMillis()));
+        msg = TbMsg.newMsg(TbMsgType.POST_TELEMETRY_REQUEST, new DeviceId(UUID.randomUUID()), metaData, TELEMETRY_JSON);
+        msgBytes = TbMsg.toByteArray(msg);
+
+        device = new Device(new DeviceId(UUID.randomUUID()));
+        device.setCreatedTime(System.currentTimeMillis());
+        device.setTenantId(TenantId.fromUUID(UUID.randomUUID()));
+        device.setDeviceProfileId(new DeviceProfileId(UUID.randomUUID()));
+        device.setName("Thermostat A1");
+        device.setType("thermostat");
+        device.setLabel("Building 1, floor 2");
+        device.setAdditionalInfo(JacksonUtil.newObjectNode().put("gateway", false).put("description", "Benchmark device"));
+        deviceProto = ProtoUtils.toProto(device);
+    }
+
+    @Benchmark
+    public byte[] tbMsgToBytes() {
+        return TbMsg.toByteArray(msg);
+    }
+
+    @Benchmark
+    public TbMsg tbMsgFromBytes() {
+        return TbMsg.fromBytes("Main", msgBytes, TbMsgCallback.EMPTY);
+    }
+
+    @Benchmark
+    public TransportProtos.PostTelemetryMsg jsonToTelemetryProto() {
+        return JsonConverter.convertToTelemetryProto(JsonParser.parseString(TELEMETRY_JSON));
+    }
+
+    @Benchmark
+    public TransportProtos.DeviceProto deviceToProto() {
+        return ProtoUtils.toProto(device);
+    }
+
+    @Benchmark
+    public Device deviceFromProto() {
+        return ProtoUtils.fromProto(deviceProto);
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.benchmark;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sobeam.server.common.stats.DefaultStatsFactory;
+import org.sobeam.server.dao.sql.ScheduledLogExecutorComponent;
+import org.sobeam.server.dao.sql.TbSqlBlockingQueueParams;
+import org.sobeam.server.dao.sql.TbSqlBlockingQueueWrapper;
+import org.sobeam.server.dao.sql.TbSqlRingBufferSettings;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Batching of the SQL write queues used by the attributes, timeseries and events DAOs.
+ * The save function only counts the saved entities, so the results show the overhead of the queue itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+public class TbSqlQueueBenchmark {
+
+    private static final int ELEMENTS_PER_INVOCATION = 100;
+
+    @Param({"false", "true"})
+    private boolean ringBufferEnabled;
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private ScheduledLogExecutorComponent logExecutor;
+    private TbSqlBlockingQueueWrapper<Long> queue;
+    private final LongAdder saved = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DefaultStatsFactory statsFactory = new DefaultStatsFactory();
+        ReflectionTestUtils.setField(statsFactory, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(statsFactory, "metricsEnabled", true);
+        ReflectionTestUtils.setField(statsFactory, "timerPercentilesStr", "0.5");
+        statsFactory.init();
+
+        logExecutor = new ScheduledLogExecutorComponent();
+        logExecutor.init();
+
+        TbSqlBlockingQueueParams params = TbSqlBlockingQueueParams.builder()
+                .logName("Benchmark")
+                .batchSize(batchSize)
+                .maxDelay(1)
+                .statsPrintIntervalMs(TimeUnit.MINUTES.toMillis(10))
+                .statsNamePrefix("benchmark")
+                .batchSortEnabled(true)
+                .ringBuffer(new TbSqlRingBufferSettings(ringBufferEnabled, 65536, 0, 10000))
+                .build();
+        queue = new TbSqlBlockingQueueWrapper<>(params, Object::hashCode, 1, statsFactory);
+        queue.init(logExecutor, batch -> saved.add(batch.size()), Comparator.naturalOrder());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        queue.destroy();
+        logExecutor.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS_PER_INVOCATION)
+    public void addAndFlush() throws Exception {
+        ListenableFuture<Void> last = null;
+        long base = Thread.currentThread().getId() << 32;
+        for (int i = 0; i < ELEMENTS_PER_INVOCATION; i++) {
+            last = queue.add(base + i);
+        }
+        last.get();
+    }
+}
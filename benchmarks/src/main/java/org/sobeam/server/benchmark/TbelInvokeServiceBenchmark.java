@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sobeam.common.util.JacksonUtil;
+import org.sobeam.script.api.PreparsedScriptArg;
+import org.sobeam.script.api.ScriptType;
+import org.sobeam.script.api.tbel.DefaultTbelInvokeService;
+import org.sobeam.server.common.data.id.TenantId;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution of a typical transformation script through {@link DefaultTbelInvokeService},
+ * with the arguments prepared from the data string and with the pre-parsed data tree
+ * and metadata shared with the message, as the rule node script engine does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+public class TbelInvokeServiceBenchmark {
+
+    private static final String MSG_DATA = "{\"temperature\":42.5,\"humidity\":71,\"active\":true,\"serial\":\"SN-000042\"}";
+    private static final String SCRIPT = "var newMsg = {};\n" +
+            "newMsg.temperatureF = msg.temperature * 1.8 + 32;\n" +
+            "newMsg.humidity = msg.humidity;\n" +
+            "if (msg.temperature > 40) {\n" +
+            "    metadata.alarm = 'HIGH_TEMPERATURE';\n" +
+            "}\n" +
+            "return {msg: newMsg, metadata: metadata, msgType: msgType};";
+
+    private DefaultTbelInvokeService invokeService;
+    private UUID scriptId;
+    private Map<String, String> metaData;
+    private JsonNode msgDataTree;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        invokeService = new DefaultTbelInvokeService(Optional.empty(), Optional.empty()) {};
+        ReflectionTestUtils.setField(invokeService, "maxTotalArgsSize", 100000L);
+        ReflectionTestUtils.setField(invokeService, "maxResultSize", 300000L);
+        ReflectionTestUtils.setField(invokeService, "maxScriptBodySize", 50000L);
+        ReflectionTestUtils.setField(invokeService, "maxErrors", 3);
+        ReflectionTestUtils.setField(invokeService, "maxBlackListDurationSec", 60);
+        ReflectionTestUtils.setField(invokeService, "threadPoolSize", 8);
+        ReflectionTestUtils.setField(invokeService, "maxMemoryLimitMb", 8L);
+        ReflectionTestUtils.setField(invokeService, "compiledScriptsCacheSize", 100);
+        invokeService.init();
+        scriptId = invokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, SCRIPT, "msg", "metadata", "msgType").get();
+        metaData = new HashMap<>();
+        metaData.put("deviceName", "Thermostat A1");
+        metaData.put("deviceType", "thermostat");
+        msgDataTree = JacksonUtil.toJsonNode(MSG_DATA);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        invokeService.stop();
+    }
+
+    @Benchmark
+    public Object invokeScript() throws Exception {
+        Object[] args = new Object[]{JacksonUtil.fromString(MSG_DATA, Object.class), new HashMap<>(metaData), "POST_TELEMETRY_REQUEST"};
+        return invokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, args).get();
+    }
+
+    @Benchmark
+    public Object invokeScriptWithPreparsedArgs() throws Exception {
+        Object[] args = new Object[]{new PreparsedScriptArg(msgDataTree, MSG_DATA.length()),
+                new PreparsedScriptArg(Collections.unmodifiableMap(metaData), 57), "POST_TELEMETRY_REQUEST"};
+        return invokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, args).get();
+    }
+}
@@ -32,6 +32,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -49,6 +50,9 @@ public class DefaultTbActorSystem implements TbActorSystem {
     @Getter
     private final ScheduledExecutorService scheduler;
 
+    private volatile TbActorMailboxOverflowHandler mailboxOverflowHandler = TbActorMailboxOverflowHandler.NONE;
+    private volatile Function<String, TbActorDispatcherStats> dispatcherStatsFactory = dispatcherId -> TbActorDispatcherStats.NONE;
+
     public DefaultTbActorSystem(TbActorSystemSettings settings) {
         this.settings = settings;
         this.scheduler = Executors.newScheduledThreadPool(settings.getSchedulerPoolSize(), SoBeamThreadFactory.forName("actor-system-scheduler"));
@@ -56,7 +60,12 @@ public class DefaultTbActorSystem implements TbActorSystem {
 
     @Override
     public void createDispatcher(String dispatcherId, ExecutorService executor) {
-        Dispatcher current = dispatchers.putIfAbsent(dispatcherId, new Dispatcher(dispatcherId, executor));
+        createDispatcher(dispatcherId, executor, false);
+    }
+
+    @Override
+    public void createDispatcher(String dispatcherId, ExecutorService executor, boolean boundedMailbox) {
+        Dispatcher current = dispatchers.putIfAbsent(dispatcherId, new Dispatcher(dispatcherId, executor, dispatcherStatsFactory.apply(dispatcherId), boundedMailbox));
         if (current != null) {
             throw new RuntimeException("Dispatcher with id [" + dispatcherId + "] is already registered!");
         }
@@ -113,7 +122,7 @@ public class DefaultTbActorSystem implements TbActorSystem {
                             throw new TbActorNotRegisteredException(parent, "Parent Actor with id [" + parent + "] is not registered!");
                         }
                     }
-                    TbActorMailbox mailbox = new TbActorMailbox(this, settings, actorId, parentRef, actor, dispatcher);
+                    TbActorMailbox mailbox = new TbActorMailbox(this, settings, actorId, parentRef, actor, dispatcher, mailboxOverflowHandler);
                     actors.put(actorId, mailbox);
                     mailbox.initActor();
                     actorMailbox = mailbox;
@@ -169,7 +178,8 @@ public class DefaultTbActorSystem implements TbActorSystem {
         broadcastToChildren(parent, childFilter, msg, false);
     }
 
-    private void broadcastToChildren(TbActorId parent, Predicate<TbActorId> childFilter, TbActorMsg msg, boolean highPriority) {
+    @Override
+    public void broadcastToChildren(TbActorId parent, Predicate<TbActorId> childFilter, TbActorMsg msg, boolean highPriority) {
         Set<TbActorId> children = parentChildMap.get(parent);
         if (children != null) {
             children.stream().filter(childFilter).forEach(id -> {
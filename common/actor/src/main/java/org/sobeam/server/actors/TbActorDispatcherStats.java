@@ -0,0 +1,41 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.actors;
+
+public interface TbActorDispatcherStats {
+
+    TbActorDispatcherStats NONE = new TbActorDispatcherStats() {
+    };
+
+    /**
+     * @param mailboxDepth number of normal priority messages in the actor mailbox after the message was added
+     */
+    default void onEnqueue(int mailboxDepth) {
+    }
+
+    default void onProcessed(long processingTimeNanos) {
+    }
+
+    default void onRejected() {
+    }
+
+    default void onDropped() {
+    }
+
+    default void onSpilled() {
+    }
+
+}
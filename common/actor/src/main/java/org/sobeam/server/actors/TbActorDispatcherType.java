@@ -0,0 +1,30 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.actors;
+
+public enum TbActorDispatcherType {
+
+    /**
+     * Dispatcher backed by the fixed size pool of platform threads.
+     */
+    PLATFORM,
+    /**
+     * Dispatcher that runs each mailbox processing task on a new virtual thread.
+     * Suitable for actors that perform blocking calls. Requires Java 21+, falls back to {@link #PLATFORM} otherwise.
+     */
+    VIRTUAL
+
+}
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -50,8 +51,10 @@ public final class TbActorMailbox implements TbActorCtx {
     private final TbActorRef parentRef;
     private final TbActor actor;
     private final Dispatcher dispatcher;
+    private final TbActorMailboxOverflowHandler overflowHandler;
     private final ConcurrentLinkedQueue<TbActorMsg> highPriorityMsgs = new ConcurrentLinkedQueue<>();
     private final ConcurrentLinkedQueue<TbActorMsg> normalPriorityMsgs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger normalPriorityMsgsCount = new AtomicInteger();
     private final AtomicBoolean busy = new AtomicBoolean(FREE);
     private final AtomicBoolean ready = new AtomicBoolean(NOT_READY);
     private final AtomicBoolean destroyInProgress = new AtomicBoolean();
@@ -107,8 +110,8 @@ public final class TbActorMailbox implements TbActorCtx {
         if (!destroyInProgress.get()) {
             if (highPriority) {
                 highPriorityMsgs.add(msg);
-            } else {
-                normalPriorityMsgs.add(msg);
+            } else if (!offerNormalPriority(msg)) {
+                return;
             }
             tryProcessQueue(true);
         } else {
@@ -128,6 +131,53 @@ public final class TbActorMailbox implements TbActorCtx {
         }
     }
 
+    private boolean offerNormalPriority(TbActorMsg msg) {
+        int depth = normalPriorityMsgsCount.incrementAndGet();
+        if (dispatcher.isBoundedMailbox() && settings.isBoundedMailbox() && depth > settings.getMailboxCapacity()) {
+            normalPriorityMsgsCount.decrementAndGet();
+            if (!onMailboxOverflow(msg)) {
+                return false;
+            }
+            depth = normalPriorityMsgsCount.incrementAndGet();
+        }
+        normalPriorityMsgs.add(msg);
+        dispatcher.getStats().onEnqueue(depth);
+        return true;
+    }
+
+    private TbActorMsg pollNormalPriority() {
+        TbActorMsg msg = normalPriorityMsgs.poll();
+        if (msg != null) {
+            normalPriorityMsgsCount.decrementAndGet();
+        }
+        return msg;
+    }
+
+    private boolean onMailboxOverflow(TbActorMsg msg) {
+        TbActorDispatcherStats stats = dispatcher.getStats();
+        switch (settings.getMailboxOverflowStrategy()) {
+            case DROP_OLDEST:
+                TbActorMsg oldest = pollNormalPriority();
+                if (oldest != null) {
+                    log.debug("[{}] Mailbox is full, dropping the oldest message: {}", selfId, oldest);
+                    stats.onDropped();
+                    oldest.onTbActorMailboxFull();
+                }
+                return true;
+            case SPILL:
+                if (overflowHandler.onOverflow(selfId, msg)) {
+                    log.debug("[{}] Mailbox is full, message spilled: {}", selfId, msg);
+                    stats.onSpilled();
+                    return false;
+                }
+                break;
+        }
+        log.debug("[{}] Mailbox is full, rejecting message: {}", selfId, msg);
+        stats.onRejected();
+        msg.onTbActorMailboxFull();
+        return false;
+    }
+
     private void tryProcessQueue(boolean newMsg) {
         if (ready.get() == READY) {
             if (newMsg || !highPriorityMsgs.isEmpty() || !normalPriorityMsgs.isEmpty()) {
@@ -149,9 +199,10 @@ public final class TbActorMailbox implements TbActorCtx {
         for (int i = 0; i < settings.getActorThroughput(); i++) {
             TbActorMsg msg = highPriorityMsgs.poll();
             if (msg == null) {
-                msg = normalPriorityMsgs.poll();
+                msg = pollNormalPriority();
             }
             if (msg != null) {
+                long startTime = System.nanoTime();
                 try {
                     log.debug("[{}] Going to process message: {}", selfId, msg);
                     actor.process(msg);
@@ -165,6 +216,7 @@ public final class TbActorMailbox implements TbActorCtx {
                         system.stop(selfId);
                     }
                 }
+                dispatcher.getStats().onProcessed(System.nanoTime() - startTime);
             } else {
                 noMoreElements = true;
                 break;
@@ -208,6 +260,11 @@ public final class TbActorMailbox implements TbActorCtx {
         system.broadcastToChildren(selfId, childFilter, msg);
     }
 
+    @Override
+    public void broadcastToChildren(TbActorMsg msg, Predicate<TbActorId> childFilter, boolean highPriority) {
+        system.broadcastToChildren(selfId, childFilter, msg, highPriority);
+    }
+
     @Override
     public List<TbActorId> filterChildren(Predicate<TbActorId> childFilter) {
         return system.filterChildren(selfId, childFilter);
@@ -0,0 +1,32 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.actors;
+
+import org.sobeam.server.common.msg.TbActorMsg;
+
+@FunctionalInterface
+public interface TbActorMailboxOverflowHandler {
+
+    TbActorMailboxOverflowHandler NONE = (actorId, msg) -> false;
+
+    /**
+     * Executed when the bounded mailbox of the actor is full and {@link TbActorMailboxOverflowStrategy#SPILL} is used.
+     *
+     * @return true if the message was taken over by the handler, false to reject it
+     */
+    boolean onOverflow(TbActorId actorId, TbActorMsg msg);
+
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.actors;
+
+public enum TbActorMailboxOverflowStrategy {
+
+    /**
+     * New message is rejected and the sender is notified via {@link org.sobeam.server.common.msg.TbActorMsg#onTbActorMailboxFull()}.
+     */
+    REJECT,
+    /**
+     * The oldest normal priority message is evicted from the mailbox to free the slot for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * New message is handed over to the {@link TbActorMailboxOverflowHandler}, for example to put it back to the queue.
+     * Falls back to {@link #REJECT} if the handler is not able to accept the message.
+     */
+    SPILL
+
+}
@@ -28,6 +28,11 @@ public interface TbActorSystem {
 
     void createDispatcher(String dispatcherId, ExecutorService executor);
 
+    /**
+     * Creates the dispatcher whose actors have mailboxes bounded by the configured capacity if boundedMailbox is true.
+     */
+    void createDispatcher(String dispatcherId, ExecutorService executor, boolean boundedMailbox);
+
     void destroyDispatcher(String dispatcherId);
 
     TbActorRef getActor(TbActorId actorId);
@@ -52,5 +57,7 @@ public interface TbActorSystem {
 
     void broadcastToChildren(TbActorId parent, Predicate<TbActorId> childFilter, TbActorMsg msg);
 
+    void broadcastToChildren(TbActorId parent, Predicate<TbActorId> childFilter, TbActorMsg msg, boolean highPriority);
+
     List<TbActorId> filterChildren(TbActorId parent, Predicate<TbActorId> childFilter);
 }
@@ -23,5 +23,24 @@ public class TbActorSystemSettings {
     private final int actorThroughput;
     private final int schedulerPoolSize;
     private final int maxActorInitAttempts;
+    private final int mailboxCapacity;
+    private final TbActorMailboxOverflowStrategy mailboxOverflowStrategy;
+
+    public TbActorSystemSettings(int actorThroughput, int schedulerPoolSize, int maxActorInitAttempts) {
+        this(actorThroughput, schedulerPoolSize, maxActorInitAttempts, 0, TbActorMailboxOverflowStrategy.REJECT);
+    }
+
+    public TbActorSystemSettings(int actorThroughput, int schedulerPoolSize, int maxActorInitAttempts,
+                                 int mailboxCapacity, TbActorMailboxOverflowStrategy mailboxOverflowStrategy) {
+        this.actorThroughput = actorThroughput;
+        this.schedulerPoolSize = schedulerPoolSize;
+        this.maxActorInitAttempts = maxActorInitAttempts;
+        this.mailboxCapacity = mailboxCapacity;
+        this.mailboxOverflowStrategy = mailboxOverflowStrategy;
+    }
+
+    public boolean isBoundedMailbox() {
+        return mailboxCapacity > 0;
+    }
 
 }
@@ -19,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sobeam.common.util.SoBeamExecutors;
@@ -29,12 +30,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -83,6 +86,14 @@ public class ActorSystemTest {
         testActorsAndMessages(10, _100K, 1);
     }
 
+    @Test
+    public void test1KActorsAnd1KMessagesVirtualThreads() throws InterruptedException {
+        Assumptions.assumeTrue(SoBeamExecutors.isVirtualThreadsSupported());
+        executor = SoBeamExecutors.newVirtualThreadPerTaskExecutor(getClass().getSimpleName());
+        actorSystem.createDispatcher(ROOT_DISPATCHER, executor);
+        testActorsAndMessages(1000, 1000, 10);
+    }
+
     @Test
     public void test100KActorsAnd1Messages5timesSingleThread() throws InterruptedException {
         executor = Executors.newSingleThreadExecutor(SoBeamThreadFactory.forName(getClass().getSimpleName()));
@@ -217,6 +228,68 @@ public class ActorSystemTest {
         Assertions.assertTrue(testCtx1.getLatch().await(3, TimeUnit.SECONDS));
     }
 
+    @Test
+    public void testBoundedMailboxRejectsNewMessages() throws InterruptedException {
+        ConcurrentLinkedQueue<Integer> overflowed = testBoundedMailbox(TbActorMailboxOverflowStrategy.REJECT, 1 + 2);
+        assertThat(overflowed).containsExactly(3);
+    }
+
+    @Test
+    public void testBoundedMailboxDropsOldestMessages() throws InterruptedException {
+        ConcurrentLinkedQueue<Integer> overflowed = testBoundedMailbox(TbActorMailboxOverflowStrategy.DROP_OLDEST, 2 + 3);
+        assertThat(overflowed).containsExactly(1);
+    }
+
+    @Test
+    public void testBoundedMailboxSpillsMessages() throws InterruptedException {
+        ConcurrentLinkedQueue<Integer> spilled = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Integer> overflowed = testBoundedMailbox(TbActorMailboxOverflowStrategy.SPILL, 1 + 2, system ->
+                system.setMailboxOverflowHandler((actorId, msg) -> spilled.add(((IntTbActorMsg) msg).getValue())));
+        assertThat(overflowed).isEmpty();
+        assertThat(spilled).containsExactly(3);
+    }
+
+    @Test
+    public void testMailboxOfUnboundedDispatcherIsNotBounded() throws InterruptedException {
+        ConcurrentLinkedQueue<Integer> overflowed = testBoundedMailbox(TbActorMailboxOverflowStrategy.REJECT, false, 3, 1 + 2 + 3, system -> {});
+        assertThat(overflowed).isEmpty();
+    }
+
+    private ConcurrentLinkedQueue<Integer> testBoundedMailbox(TbActorMailboxOverflowStrategy strategy, long expectedSum) throws InterruptedException {
+        return testBoundedMailbox(strategy, expectedSum, system -> {});
+    }
+
+    private ConcurrentLinkedQueue<Integer> testBoundedMailbox(TbActorMailboxOverflowStrategy strategy, long expectedSum,
+                                                              Consumer<DefaultTbActorSystem> systemConfigurer) throws InterruptedException {
+        return testBoundedMailbox(strategy, true, 2, expectedSum, systemConfigurer);
+    }
+
+    private ConcurrentLinkedQueue<Integer> testBoundedMailbox(TbActorMailboxOverflowStrategy strategy, boolean boundedDispatcher, int expectedCount, long expectedSum,
+                                                              Consumer<DefaultTbActorSystem> systemConfigurer) throws InterruptedException {
+        actorSystem.stop();
+        DefaultTbActorSystem boundedActorSystem = new DefaultTbActorSystem(new TbActorSystemSettings(5, parallelism, 42, 2, strategy));
+        systemConfigurer.accept(boundedActorSystem);
+        actorSystem = boundedActorSystem;
+        executor = SoBeamExecutors.newWorkStealingPool(parallelism, getClass());
+        actorSystem.createDispatcher(ROOT_DISPATCHER, executor, boundedDispatcher);
+        ActorTestCtx testCtx = getActorTestCtx(expectedCount);
+        ConcurrentLinkedQueue<Integer> overflowed = new ConcurrentLinkedQueue<>();
+
+        TbActorRef actorRef = actorSystem.createRootActor(ROOT_DISPATCHER, new SlowInitActor.SlowInitActorCreator(
+                new TbEntityActorId(new DeviceId(UUID.randomUUID())), testCtx));
+        for (int i = 1; i <= 3; i++) {
+            actorRef.tell(new IntTbActorMsg(i) {
+                @Override
+                public void onTbActorMailboxFull() {
+                    overflowed.add(getValue());
+                }
+            });
+        }
+
+        Assertions.assertTrue(testCtx.getLatch().await(TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS));
+        Assertions.assertEquals(expectedSum, testCtx.getActual().get());
+        return overflowed;
+    }
 
     public void testActorsAndMessages(int actorsCount, int msgNumber, int times) throws InterruptedException {
         Random random = new Random();
@@ -68,6 +68,11 @@ public class DefaultRateLimitService implements RateLimitService {
 
     @Override
     public boolean checkRateLimit(LimitedApi api, TenantId tenantId, Object level, boolean ignoreTenantNotFound) {
+        return checkRateLimit(api, tenantId, level, ignoreTenantNotFound, 1);
+    }
+
+    @Override
+    public boolean checkRateLimit(LimitedApi api, TenantId tenantId, Object level, boolean ignoreTenantNotFound, long permits) {
         if (tenantId.isSysTenantId()) {
             return true;
         }
@@ -82,7 +87,7 @@ public class DefaultRateLimitService implements RateLimitService {
 
         String rateLimitConfig = tenantProfile.getProfileConfiguration()
                 .map(api::getLimitConfig).orElse(null);
-        boolean success = checkRateLimit(api, level, rateLimitConfig);
+        boolean success = checkRateLimit(api, level, rateLimitConfig, permits);
         if (!success) {
             notificationRuleProcessor.process(RateLimitsTrigger.builder()
                     .tenantId(tenantId)
@@ -96,6 +101,10 @@ public class DefaultRateLimitService implements RateLimitService {
 
     @Override
     public boolean checkRateLimit(LimitedApi api, Object level, String rateLimitConfig) {
+        return checkRateLimit(api, level, rateLimitConfig, 1);
+    }
+
+    private boolean checkRateLimit(LimitedApi api, Object level, String rateLimitConfig, long permits) {
         RateLimitKey key = new RateLimitKey(api, level);
         if (StringUtils.isEmpty(rateLimitConfig)) {
             rateLimits.invalidate(key);
@@ -110,7 +119,7 @@ public class DefaultRateLimitService implements RateLimitService {
             }
             return limit;
         });
-        boolean success = rateLimit.tryConsume();
+        boolean success = rateLimit.tryConsume(permits);
         if (!success) {
             log.debug("[{}] Rate limit exceeded for {} ({})", level, api, rateLimitConfig);
         }
@@ -54,6 +54,8 @@ public interface TbClusterService extends TbQueueClusterService {
 
     void broadcastToCore(TransportProtos.ToCoreNotificationMsg msg);
 
+    void broadcastAttributesCacheInvalidate(TransportProtos.AttributesCacheInvalidateMsg msg);
+
     void pushMsgToVersionControl(TenantId tenantId, ToVersionControlServiceMsg msg, TbQueueCallback callback);
 
     void pushNotificationToCore(String targetServiceId, FromDeviceRpcResponse response, TbQueueCallback callback);
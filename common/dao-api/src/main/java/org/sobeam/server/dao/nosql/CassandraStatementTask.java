@@ -15,6 +15,7 @@
  */
 package org.sobeam.server.dao.nosql;
 
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -37,10 +38,19 @@ public class CassandraStatementTask implements AsyncTask {
     private final Statement statement;
 
     public ListenableFuture<TbResultSet> executeAsync(Function<Statement, TbResultSetFuture> executeAsyncFunction) {
+        long startTs = System.nanoTime();
         return Futures.transform(session.executeAsync(statement),
-                result -> new TbResultSet(statement, result, executeAsyncFunction),
+                result -> new TbResultSet(statement, result, executeAsyncFunction, System.nanoTime() - startTs),
                 MoreExecutors.directExecutor()
         );
     }
 
+    /**
+     * Every statement of the batch is charged separately, the same as if it was executed on its own.
+     */
+    @Override
+    public int getPermits() {
+        return statement instanceof BatchStatement batch ? Math.max(1, batch.size()) : 1;
+    }
+
 }
@@ -41,12 +41,26 @@ public class TbResultSet implements AsyncResultSet {
     private final Statement originalStatement;
     private final AsyncResultSet delegate;
     private final Function<Statement, TbResultSetFuture> executeAsyncFunction;
+    private final long executionTimeNanos;
 
     public TbResultSet(Statement originalStatement, AsyncResultSet delegate,
                        Function<Statement, TbResultSetFuture> executeAsyncFunction) {
+        this(originalStatement, delegate, executeAsyncFunction, 0L);
+    }
+
+    public TbResultSet(Statement originalStatement, AsyncResultSet delegate,
+                       Function<Statement, TbResultSetFuture> executeAsyncFunction, long executionTimeNanos) {
         this.originalStatement = originalStatement;
         this.delegate = delegate;
         this.executeAsyncFunction = executeAsyncFunction;
+        this.executionTimeNanos = executionTimeNanos;
+    }
+
+    /**
+     * @return time the statement took in the driver, without the time it waited in the rate executor queue
+     */
+    public long getExecutionTimeNanos() {
+        return executionTimeNanos;
     }
 
     @NonNull
@@ -28,6 +28,7 @@ import org.sobeam.server.common.data.kv.TsKvLatestRemovingResult;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author Andrew Shvayka
@@ -38,6 +39,12 @@ public interface TimeseriesService {
 
     ListenableFuture<List<TsKvEntry>> findAll(TenantId tenantId, EntityId entityId, List<ReadTsKvQuery> queries);
 
+    /**
+     * Passes raw values of the keys within [startTs, endTs) to the consumer, key by key, in ascending order of the timestamp.
+     * Unlike {@link #findAll(TenantId, EntityId, List)}, the result is never materialized in memory.
+     */
+    void streamAll(TenantId tenantId, EntityId entityId, List<String> keys, long startTs, long endTs, Consumer<TsKvEntry> consumer);
+
     ListenableFuture<Optional<TsKvEntry>> findLatest(TenantId tenantId, EntityId entityId, String key);
 
     ListenableFuture<List<TsKvEntry>> findLatest(TenantId tenantId, EntityId entityId, Collection<String> keys);
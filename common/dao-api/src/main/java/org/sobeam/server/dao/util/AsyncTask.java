@@ -24,4 +24,11 @@ public interface AsyncTask {
 
     TenantId getTenantId();
 
+    /**
+     * @return number of permits the task consumes from the tenant rate limit
+     */
+    default int getPermits() {
+        return 1;
+    }
+
 }
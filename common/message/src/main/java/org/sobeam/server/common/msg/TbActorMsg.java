@@ -30,4 +30,11 @@ public interface TbActorMsg {
     default void onTbActorStopped(TbActorStopReason reason) {
     }
 
+    /**
+     * Executed when the message is rejected or evicted because the bounded mailbox of the target TbActor is full.
+     * Implementation should notify the sender and cleanup the resources.
+     */
+    default void onTbActorMailboxFull() {
+    }
+
 }
@@ -0,0 +1,58 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.msg;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.sobeam.common.util.JacksonUtil;
+
+/**
+ * Lazily parsed JSON tree of the {@link TbMsg} data.
+ * The same instance is shared by all copies of the message that keep the original data string,
+ * so the data is parsed at most once while the message travels between rule nodes within the same JVM.
+ */
+final class TbMsgDataTree {
+
+    private final String data;
+    private volatile JsonNode tree;
+    private volatile boolean parsed;
+
+    TbMsgDataTree(String data) {
+        this.data = data;
+    }
+
+    TbMsgDataTree(String data, JsonNode tree) {
+        this.data = data;
+        this.tree = tree;
+        this.parsed = true;
+    }
+
+    boolean isFor(String data) {
+        return this.data == data;
+    }
+
+    JsonNode get() {
+        if (!parsed) {
+            synchronized (this) {
+                if (!parsed) {
+                    tree = JacksonUtil.toJsonNode(data);
+                    parsed = true;
+                }
+            }
+        }
+        return tree;
+    }
+
+}
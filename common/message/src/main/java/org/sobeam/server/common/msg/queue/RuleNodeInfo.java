@@ -24,8 +24,13 @@ public class RuleNodeInfo {
     private final RuleNodeId ruleNodeId;
 
     public RuleNodeInfo(RuleNodeId id, String ruleChainName, String ruleNodeName) {
+        this(id, ruleChainName, ruleNodeName, 1);
+    }
+
+    public RuleNodeInfo(RuleNodeId id, String ruleChainName, String ruleNodeName, int parallelism) {
         this.ruleNodeId = id;
-        this.label = "[RuleChain: " + ruleChainName + "|RuleNode: " + ruleNodeName + "(" + id + ")]";
+        this.label = "[RuleChain: " + ruleChainName + "|RuleNode: " + ruleNodeName + "(" + id + ")"
+                + (parallelism > 1 ? "|Parallelism: " + parallelism : "") + "]";
     }
 
     @Override
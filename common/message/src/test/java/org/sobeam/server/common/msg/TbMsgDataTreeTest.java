@@ -0,0 +1,74 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.msg;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.msg.TbMsgType;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbMsgDataTreeTest {
+
+    private final TbMsg msg = TbMsg.newMsg(TbMsgType.POST_TELEMETRY_REQUEST, new DeviceId(UUID.randomUUID()),
+            TbMsgMetaData.EMPTY, "{\"temperature\":42}");
+
+    @Test
+    public void givenMsg_whenGetDataAsJsonNodeTwice_thenDataParsedOnce() {
+        JsonNode tree = msg.getDataAsJsonNode();
+        assertThat(tree.get("temperature").asInt()).isEqualTo(42);
+        assertThat(msg.getDataAsJsonNode()).isSameAs(tree);
+    }
+
+    @Test
+    public void givenMsgCopiesWithSameData_whenGetDataAsJsonNode_thenTreeIsShared() {
+        JsonNode tree = msg.getDataAsJsonNode();
+        assertThat(TbMsg.transformMsgOriginator(msg, new DeviceId(UUID.randomUUID())).getDataAsJsonNode()).isSameAs(tree);
+        assertThat(msg.copyWithNewCtx().getDataAsJsonNode()).isSameAs(tree);
+        assertThat(TbMsg.newMsg(msg, "Main", null, null).getDataAsJsonNode()).isSameAs(tree);
+    }
+
+    @Test
+    public void givenTransformedData_whenGetDataAsJsonNode_thenNewTreeIsUsed() {
+        JsonNode tree = msg.getDataAsJsonNode();
+        TbMsg transformed = TbMsg.transformMsgData(msg, "{\"humidity\":10}");
+        assertThat(transformed.getDataAsJsonNode()).isNotSameAs(tree);
+        assertThat(transformed.getDataAsJsonNode().get("humidity").asInt()).isEqualTo(10);
+    }
+
+    @Test
+    public void givenTransformedJsonTree_whenGetDataAsJsonNode_thenTreeIsReused() {
+        ObjectNode body = msg.getDataAsJsonNode().deepCopy();
+        body.put("humidity", 10);
+        TbMsg transformed = TbMsg.transformMsgData(msg, body);
+        assertThat(transformed.getData()).isEqualTo("{\"temperature\":42,\"humidity\":10}");
+        assertThat(transformed.getDataAsJsonNode()).isSameAs(body);
+        assertThat(msg.getDataAsJsonNode().has("humidity")).isFalse();
+    }
+
+    @Test
+    public void givenMsgBuiltWithNewData_whenGetDataAsJsonNode_thenNewDataIsParsed() {
+        msg.getDataAsJsonNode();
+        TbMsg rebuilt = msg.toBuilder().data("{\"pressure\":1}").build();
+        assertThat(rebuilt.getDataAsJsonNode().has("pressure")).isTrue();
+        assertThat(rebuilt).isEqualTo(msg.toBuilder().data("{\"pressure\":1}").build());
+    }
+
+}
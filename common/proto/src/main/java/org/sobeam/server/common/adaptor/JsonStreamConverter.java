@@ -0,0 +1,424 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.adaptor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.google.gson.JsonSyntaxException;
+import org.sobeam.server.gen.transport.TransportProtos.KeyValueProto;
+import org.sobeam.server.gen.transport.TransportProtos.KeyValueType;
+import org.sobeam.server.gen.transport.TransportProtos.PostAttributeMsg;
+import org.sobeam.server.gen.transport.TransportProtos.PostTelemetryMsg;
+import org.sobeam.server.gen.transport.TransportProtos.TsKvListProto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.sobeam.server.common.adaptor.JsonConverter.CAN_T_PARSE_VALUE;
+
+/**
+ * Pull parser based counterpart of {@link JsonConverter#convertToTelemetryProto(com.google.gson.JsonElement, long)} and
+ * {@link JsonConverter#convertToAttributesProto(com.google.gson.JsonElement)}.
+ * Parses the payload bytes token by token with the Jackson parser, which reuses its buffers between the payloads,
+ * and fills the proto builders directly, without the payload string and JSON tree.
+ * <p>
+ * The nested objects and arrays are copied as is, including the number literals, since they are stored as a JSON string.
+ * Value conversion errors are thrown only after the whole value is read, so a value of the gateway payload can be skipped
+ * while the rest of the payload is still read.
+ * <p>
+ * The non-numeric numbers (NaN, Infinity) are read as strings, the same as the Gson parser reads them.
+ * The Jackson parser does not accept unquoted string values, so the converters that take the payload string fall back to
+ * the Gson {@link JsonConverter} if the payload is malformed for the Jackson parser.
+ */
+public class JsonStreamConverter {
+
+    private static final String TS = "ts";
+    private static final String VALUES = "values";
+
+    // the closest to the lenient mode of the Gson JsonParser.parseString
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_YAML_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+            .build();
+
+    public static JsonParser createParser(byte[] data, int offset, int length) throws JsonSyntaxException {
+        try {
+            return JSON_FACTORY.createParser(data, offset, length);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    public static JsonParser createParser(InputStream data) throws JsonSyntaxException {
+        try {
+            return JSON_FACTORY.createParser(data);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    public static JsonParser createParser(String data) throws JsonSyntaxException {
+        try {
+            return JSON_FACTORY.createParser(data);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads the whole document and closes the parser.
+     */
+    public static PostTelemetryMsg convertToTelemetryProto(JsonParser parser) throws JsonSyntaxException {
+        return convertToTelemetryProto(parser, System.currentTimeMillis());
+    }
+
+    public static PostTelemetryMsg convertToTelemetryProto(JsonParser parser, long systemTs) throws JsonSyntaxException {
+        try (parser) {
+            nextDocument(parser);
+            PostTelemetryMsg msg = readTelemetryProto(parser, systemTs);
+            ensureConsumed(parser);
+            return msg;
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads the whole document and closes the parser. Converts the payload with the Gson {@link JsonConverter} if the parser fails to read it.
+     */
+    public static PostTelemetryMsg convertToTelemetryProto(JsonParser parser, Supplier<String> payload) throws JsonSyntaxException {
+        long systemTs = System.currentTimeMillis();
+        try (parser) {
+            nextDocument(parser);
+            PostTelemetryMsg msg = readTelemetryProto(parser, systemTs);
+            ensureConsumed(parser);
+            return msg;
+        } catch (IOException e) {
+            return JsonConverter.convertToTelemetryProto(com.google.gson.JsonParser.parseString(payload.get()), systemTs);
+        }
+    }
+
+    /**
+     * Reads the whole document and closes the parser.
+     */
+    public static PostAttributeMsg convertToAttributesProto(JsonParser parser) throws JsonSyntaxException {
+        try (parser) {
+            nextDocument(parser);
+            PostAttributeMsg msg = readAttributesProto(parser);
+            ensureConsumed(parser);
+            return msg;
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads the whole document and closes the parser. Converts the payload with the Gson {@link JsonConverter} if the parser fails to read it.
+     */
+    public static PostAttributeMsg convertToAttributesProto(JsonParser parser, Supplier<String> payload) throws JsonSyntaxException {
+        try (parser) {
+            nextDocument(parser);
+            PostAttributeMsg msg = readAttributesProto(parser);
+            ensureConsumed(parser);
+            return msg;
+        } catch (IOException e) {
+            return JsonConverter.convertToAttributesProto(com.google.gson.JsonParser.parseString(payload.get()));
+        }
+    }
+
+    /**
+     * Reads the value the parser points at.
+     *
+     * @throws IOException if the payload is malformed, the parser position is undefined then
+     * @throws RuntimeException if the value can't be converted, the value is fully read then
+     */
+    public static PostTelemetryMsg readTelemetryProto(JsonParser parser, long systemTs) throws IOException {
+        PostTelemetryMsg.Builder builder = PostTelemetryMsg.newBuilder();
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            builder.addTsKvList(readTsKvList(parser, systemTs));
+        } else if (token == JsonToken.START_ARRAY) {
+            RuntimeException error = null;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                try {
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        throw new JsonSyntaxException(CAN_T_PARSE_VALUE + readJson(parser));
+                    }
+                    builder.addTsKvList(readTsKvList(parser, systemTs));
+                } catch (RuntimeException e) {
+                    if (error == null) {
+                        error = e;
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        } else {
+            throw new JsonSyntaxException(CAN_T_PARSE_VALUE + readJson(parser));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads the value the parser points at.
+     *
+     * @throws IOException if the payload is malformed, the parser position is undefined then
+     * @throws RuntimeException if the value can't be converted, the value is fully read then
+     */
+    public static PostAttributeMsg readAttributesProto(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonSyntaxException(CAN_T_PARSE_VALUE + readJson(parser));
+        }
+        List<KeyValueProto> kvList = new ArrayList<>();
+        RuntimeException error = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            try {
+                readKeyValue(parser, key, kvList);
+            } catch (RuntimeException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return PostAttributeMsg.newBuilder().addAllKv(kvList).build();
+    }
+
+    public static void ensureConsumed(JsonParser parser) throws IOException {
+        if (parser.nextToken() != null) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+    }
+
+    /*
+     * The object is treated as {"ts": ..., "values": {...}} only if both fields are present, which may be known only at the end of the object.
+     * Until then, every field is also converted as a plain value and the conversion error is deferred.
+     * Once both fields are read, the remaining fields are skipped.
+     */
+    private static TsKvListProto readTsKvList(JsonParser parser, long systemTs) throws IOException {
+        List<KeyValueProto> plainKvList = new ArrayList<>();
+        RuntimeException plainError = null;
+        JsonToken tsToken = null;
+        String tsText = null;
+        boolean hasValues = false;
+        List<KeyValueProto> valuesKvList = null;
+        RuntimeException valuesError = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            JsonToken token = currentToken(parser);
+            if (tsToken != null && hasValues) {
+                parser.skipChildren();
+                continue;
+            }
+            try {
+                if (TS.equals(key) && token.isScalarValue()) {
+                    tsToken = token;
+                    tsText = parser.getText();
+                    addScalarKeyValue(plainKvList, key, token, tsText);
+                } else if (TS.equals(key)) {
+                    tsToken = token;
+                    tsText = null;
+                    readKeyValue(parser, key, plainKvList);
+                } else if (VALUES.equals(key) && token == JsonToken.START_OBJECT) {
+                    hasValues = true;
+                    valuesKvList = new ArrayList<>();
+                    // the JSON string is needed only if the object turns out to be a plain one
+                    StringWriter json = tsToken == null ? new StringWriter() : null;
+                    valuesError = readValues(parser, valuesKvList, json);
+                    if (json != null) {
+                        plainKvList.add(KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.JSON_V).setJsonV(json.toString()).build());
+                    }
+                } else if (VALUES.equals(key)) {
+                    hasValues = true;
+                    valuesKvList = null;
+                    readKeyValue(parser, key, plainKvList);
+                } else {
+                    readKeyValue(parser, key, plainKvList);
+                }
+            } catch (RuntimeException e) {
+                if (plainError == null) {
+                    plainError = e;
+                }
+            }
+        }
+
+        TsKvListProto.Builder builder = TsKvListProto.newBuilder();
+        if (tsToken != null && hasValues) {
+            builder.setTs(toLong(tsToken, tsText));
+            if (valuesKvList == null) {
+                throw new IllegalStateException("Not a JSON Object: " + VALUES);
+            }
+            if (valuesError != null) {
+                throw valuesError;
+            }
+            builder.addAllKv(valuesKvList);
+        } else if (plainError != null) {
+            throw plainError;
+        } else {
+            builder.setTs(systemTs);
+            builder.addAllKv(plainKvList);
+        }
+        return builder.build();
+    }
+
+    private static RuntimeException readValues(JsonParser parser, List<KeyValueProto> result, StringWriter json) throws IOException {
+        RuntimeException error = null;
+        try (JsonGenerator generator = json != null ? JSON_FACTORY.createGenerator(json) : null) {
+            if (generator != null) {
+                generator.writeStartObject();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.currentName();
+                parser.nextToken();
+                JsonToken token = currentToken(parser);
+                if (generator != null) {
+                    generator.writeFieldName(key);
+                }
+                if (token.isScalarValue()) {
+                    String text = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                    if (generator != null) {
+                        copyValue(parser, generator);
+                    }
+                    try {
+                        addScalarKeyValue(result, key, token, text);
+                    } catch (RuntimeException e) {
+                        if (error == null) {
+                            error = e;
+                        }
+                    }
+                } else {
+                    String value = readJson(parser);
+                    if (generator != null) {
+                        generator.writeRawValue(value);
+                    }
+                    result.add(KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.JSON_V).setJsonV(value).build());
+                }
+            }
+            if (generator != null) {
+                generator.writeEndObject();
+            }
+        }
+        return error;
+    }
+
+    private static void readKeyValue(JsonParser parser, String key, List<KeyValueProto> result) throws IOException {
+        JsonToken token = currentToken(parser);
+        if (token.isScalarValue()) {
+            addScalarKeyValue(result, key, token, token == JsonToken.VALUE_NULL ? null : parser.getText());
+        } else {
+            result.add(KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.JSON_V).setJsonV(readJson(parser)).build());
+        }
+    }
+
+    private static void addScalarKeyValue(List<KeyValueProto> result, String key, JsonToken token, String text) {
+        switch (token) {
+            case VALUE_STRING -> result.add(JsonConverter.buildStringKeyValueProto(key, text));
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> result.add(JsonConverter.buildNumericKeyValueProto(text, key));
+            case VALUE_TRUE, VALUE_FALSE -> result.add(KeyValueProto.newBuilder().setKey(key).setType(KeyValueType.BOOLEAN_V)
+                    .setBoolV(token == JsonToken.VALUE_TRUE).build());
+            case VALUE_NULL -> {
+            }
+            default -> throw new JsonSyntaxException(CAN_T_PARSE_VALUE + text);
+        }
+    }
+
+    /*
+     * Same as JsonPrimitive.getAsLong
+     */
+    private static long toLong(JsonToken token, String text) {
+        if (text == null) {
+            throw new JsonSyntaxException(CAN_T_PARSE_VALUE + TS);
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return new BigDecimal(text).longValue();
+            }
+        }
+        return Long.parseLong(text);
+    }
+
+    private static String readJson(JsonParser parser) throws IOException {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+            copyValue(parser, generator);
+        }
+        return json.toString();
+    }
+
+    /*
+     * Unlike JsonGenerator.copyCurrentStructure, keeps the number literals as they are in the payload, the same as Gson does
+     */
+    private static void copyValue(JsonParser parser, JsonGenerator generator) throws IOException {
+        JsonToken token = currentToken(parser);
+        switch (token) {
+            case START_OBJECT -> {
+                generator.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    generator.writeFieldName(parser.currentName());
+                    parser.nextToken();
+                    copyValue(parser, generator);
+                }
+                generator.writeEndObject();
+            }
+            case START_ARRAY -> {
+                generator.writeStartArray();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    copyValue(parser, generator);
+                }
+                generator.writeEndArray();
+            }
+            case VALUE_STRING -> generator.writeString(parser.getText());
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> generator.writeNumber(parser.getText());
+            case VALUE_TRUE, VALUE_FALSE -> generator.writeBoolean(token == JsonToken.VALUE_TRUE);
+            case VALUE_NULL -> generator.writeNull();
+            default -> throw new JsonSyntaxException(CAN_T_PARSE_VALUE + token);
+        }
+    }
+
+    /*
+     * The non-numeric numbers are unquoted strings for the Gson parser
+     */
+    private static JsonToken currentToken(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        return token == JsonToken.VALUE_NUMBER_FLOAT && parser.isNaN() ? JsonToken.VALUE_STRING : token;
+    }
+
+    private static void nextDocument(JsonParser parser) throws IOException {
+        if (parser.nextToken() == null) {
+            throw new JsonSyntaxException(CAN_T_PARSE_VALUE + "null");
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.adaptor;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.sobeam.server.gen.transport.TransportProtos.PostTelemetryMsg;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Isolated("JsonConverter static settings being modified")
+public class JsonStreamConverterTest {
+
+    @AfterEach
+    public void after() {
+        JsonConverter.setMaxStringValueLength(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"temperature\": 42, \"humidity\": 73.5, \"active\": true, \"name\": \"sensor\", \"count\": \"12\", \"empty\": null}",
+            "{\"big\": 99701010061400066001, \"exp\": 1E+1, \"json\": {\"a\": [1, 2, {\"b\": \"c\"}]}, \"arr\": [1, \"2\"]}",
+            "{\"ts\": 1451649600512, \"values\": {\"temperature\": 42, \"nested\": {\"a\": 1}}}",
+            "{\"values\": {\"temperature\": 42}, \"other\": \"ignored\", \"ts\": \"1451649600512\"}",
+            "{\"ts\": 1451649600512, \"temperature\": 42}",
+            "{\"values\": {\"temperature\": 42}, \"temperature\": 43}",
+            "[{\"ts\": 1451649600512, \"values\": {\"temperature\": 42}}, {\"temperature\": 43}]",
+            "{temperature: 'lenient'}"
+    })
+    public void givenTelemetryPayload_whenConvert_thenSameResultAsTreeConverter(String payload) {
+        assertThat(JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(payload), 1L))
+                .isEqualTo(JsonConverter.convertToTelemetryProto(JsonParser.parseString(payload), 1L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"temperature\": 42, \"humidity\": 73.5, \"active\": true, \"name\": \"sensor\", \"empty\": null}",
+            "{\"ts\": 1451649600512, \"values\": {\"temperature\": 42}}",
+            "{\"json\": {\"a\": [1, 2, {\"b\": \"c\"}]}}"
+    })
+    public void givenAttributesPayload_whenConvert_thenSameResultAsTreeConverter(String payload) {
+        assertThat(JsonStreamConverter.convertToAttributesProto(JsonStreamConverter.createParser(payload)))
+                .isEqualTo(JsonConverter.convertToAttributesProto(JsonParser.parseString(payload)));
+    }
+
+    @Test
+    public void givenTooLongStringIgnoredByTsFormat_whenConvert_thenNoError() {
+        JsonConverter.setMaxStringValueLength(3);
+        String payload = "{\"name\": \"too long\", \"ts\": 1451649600512, \"values\": {\"temperature\": 42}}";
+
+        assertThat(JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(payload), 1L))
+                .isEqualTo(JsonConverter.convertToTelemetryProto(JsonParser.parseString(payload), 1L));
+        assertThatThrownBy(() -> JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser("{\"name\": \"too long\"}"), 1L))
+                .isInstanceOf(JsonSyntaxException.class);
+    }
+
+    @Test
+    public void givenPayloadBytes_whenConvert_thenSameResultAsTreeConverter() {
+        String payload = "{\"ts\": 1451649600512, \"values\": {\"temperature\": 42.5, \"name\": \"\u0434\u0430\u0442\u0447\u0438\u043a\"}}";
+        byte[] data = ("  " + payload).getBytes(StandardCharsets.UTF_8);
+
+        assertThat(JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(data, 2, data.length - 2), 1L))
+                .isEqualTo(JsonConverter.convertToTelemetryProto(JsonParser.parseString(payload), 1L));
+    }
+
+    @Test
+    public void givenInvalidValue_whenRead_thenValueSkippedAndNextValueRead() throws Exception {
+        JsonConverter.setMaxStringValueLength(3);
+        String payload = "{\"device A\": [{\"name\": \"too long\", \"nested\": {\"a\": [1]}}, 42], \"device B\": [{\"temperature\": 42}]}";
+        try (com.fasterxml.jackson.core.JsonParser parser = JsonStreamConverter.createParser(payload)) {
+            assertThat(parser.nextToken()).isEqualTo(JsonToken.START_OBJECT);
+            assertThat(parser.nextFieldName()).isEqualTo("device A");
+            parser.nextToken();
+            assertThatThrownBy(() -> JsonStreamConverter.readTelemetryProto(parser, 1L)).isInstanceOf(JsonSyntaxException.class);
+            assertThat(parser.nextFieldName()).isEqualTo("device B");
+            parser.nextToken();
+            PostTelemetryMsg msg = JsonStreamConverter.readTelemetryProto(parser, 1L);
+            assertThat(msg.getTsKvList(0).getKv(0).getLongV()).isEqualTo(42L);
+            assertThat(parser.nextToken()).isEqualTo(JsonToken.END_OBJECT);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"temperature\": NaN, \"humidity\": Infinity, \"pressure\": -Infinity}",
+            "{\"ts\": 1451649600512, \"values\": {\"temperature\": NaN, \"nested\": {\"a\": [Infinity]}}}",
+            "{\"values\": {\"temperature\": NaN}, \"other\": 1}"
+    })
+    public void givenNonNumericNumbers_whenConvert_thenSameResultAsTreeConverter(String payload) {
+        assertThat(JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(payload), 1L))
+                .isEqualTo(JsonConverter.convertToTelemetryProto(JsonParser.parseString(payload), 1L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"ts\": 1451649600512, \"values\": {\"name\": sensor, \"temperature\": 42}}",
+            "{ts: 1451649600512, values: {state: on}}",
+            "[{\"ts\": 1451649600512, \"values\": {\"name\": sensor}}, {\"ts\": 1451649600513, \"values\": {\"name\": 'other'}}]"
+    })
+    public void givenPayloadAcceptedByLenientParserOnly_whenConvert_thenSameResultAsTreeConverter(String payload) {
+        assertThatThrownBy(() -> JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(payload), 1L))
+                .isInstanceOf(JsonSyntaxException.class);
+        assertThat(JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(payload), () -> payload))
+                .isEqualTo(JsonConverter.convertToTelemetryProto(JsonParser.parseString(payload)));
+    }
+
+    @Test
+    public void givenAttributesAcceptedByLenientParserOnly_whenConvert_thenSameResultAsTreeConverter() {
+        String payload = "{\"name\": sensor, \"mode\": auto, \"level\": 3}";
+        assertThat(JsonStreamConverter.convertToAttributesProto(JsonStreamConverter.createParser(payload), () -> payload))
+                .isEqualTo(JsonConverter.convertToAttributesProto(JsonParser.parseString(payload)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"42", "{\"temperature\": 42} {}", "{\"temperature\": }"})
+    public void givenInvalidPayload_whenConvertWithFallback_thenJsonSyntaxException(String payload) {
+        assertThatThrownBy(() -> JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(payload), () -> payload))
+                .isInstanceOf(JsonSyntaxException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "42", "[42]", "{\"temperature\": 42} {}", "{\"temperature\": }"})
+    public void givenInvalidTelemetryPayload_whenConvert_thenJsonSyntaxException(String payload) {
+        assertThatThrownBy(() -> JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(payload), 1L))
+                .isInstanceOf(JsonSyntaxException.class);
+    }
+
+}
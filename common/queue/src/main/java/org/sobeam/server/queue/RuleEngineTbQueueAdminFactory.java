@@ -25,6 +25,8 @@ import org.sobeam.server.queue.azure.servicebus.TbServiceBusSettings;
 import org.sobeam.server.queue.kafka.TbKafkaAdmin;
 import org.sobeam.server.queue.kafka.TbKafkaSettings;
 import org.sobeam.server.queue.kafka.TbKafkaTopicConfigs;
+import org.sobeam.server.queue.local.TbLocalQueueAdmin;
+import org.sobeam.server.queue.local.TbLocalQueueStorage;
 import org.sobeam.server.queue.pubsub.TbPubSubAdmin;
 import org.sobeam.server.queue.pubsub.TbPubSubSettings;
 import org.sobeam.server.queue.pubsub.TbPubSubSubscriptionSettings;
@@ -63,6 +65,9 @@ public class RuleEngineTbQueueAdminFactory {
     @Autowired(required = false)
     private TbServiceBusSettings serviceBusSettings;
 
+    @Autowired(required = false)
+    private TbLocalQueueStorage localQueueStorage;
+
     @ConditionalOnExpression("'${queue.type:null}'=='kafka'")
     @Bean
     public TbQueueAdmin createKafkaAdmin() {
@@ -93,6 +98,12 @@ public class RuleEngineTbQueueAdminFactory {
         return new TbServiceBusAdmin(serviceBusSettings, serviceBusQueueConfigs.getRuleEngineConfigs());
     }
 
+    @ConditionalOnExpression("'${queue.type:null}'=='local'")
+    @Bean
+    public TbQueueAdmin createLocalAdmin() {
+        return new TbLocalQueueAdmin(localQueueStorage);
+    }
+
     @ConditionalOnExpression("'${queue.type:null}'=='in-memory'")
     @Bean
     public TbQueueAdmin createInMemoryAdmin() {
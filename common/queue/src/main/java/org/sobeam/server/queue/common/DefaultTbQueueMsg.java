@@ -34,4 +34,10 @@ public class DefaultTbQueueMsg implements TbQueueMsg {
         this.headers = headers;
     }
 
+    public DefaultTbQueueMsg(UUID key, byte[] data, DefaultTbQueueMsgHeaders headers) {
+        this.key = key;
+        this.data = data;
+        this.headers = headers;
+    }
+
 }
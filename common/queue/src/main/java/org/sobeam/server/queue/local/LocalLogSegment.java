@@ -0,0 +1,143 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.local;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped, append-only file of length-prefixed records. The file is pre-allocated, so a zero length marks the end
+ * of the data. A record is written before its length, hence a record torn by a crash is never visible after recovery.
+ * Appends are serialized by the owning {@link LocalTopicLog}; reads are lock-free. The mapping stays valid after the
+ * file is closed and is released by the garbage collector.
+ */
+final class LocalLogSegment {
+
+    static final int RECORD_HEADER_SIZE = 4;
+    private static final String FILE_SUFFIX = ".log";
+
+    @Getter
+    private final long baseOffset;
+    @Getter
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private volatile int[] positions = new int[1024];
+    private volatile int count;
+    private int writePosition;
+    private volatile long sealedTs;
+
+    private LocalLogSegment(File file, long baseOffset, int size) throws IOException {
+        this.file = file;
+        this.baseOffset = baseOffset;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, raf.length()));
+        }
+        recover();
+    }
+
+    static LocalLogSegment open(File dir, long baseOffset, int size) throws IOException {
+        return new LocalLogSegment(new File(dir, String.format("%020d", baseOffset) + FILE_SUFFIX), baseOffset, size);
+    }
+
+    static boolean isSegmentFile(String fileName) {
+        return fileName.endsWith(FILE_SUFFIX);
+    }
+
+    static long parseBaseOffset(String fileName) {
+        return Long.parseLong(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()));
+    }
+
+    private void recover() {
+        int position = 0;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            addPosition(position);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        writePosition = position;
+    }
+
+    /**
+     * @return false if the record does not fit into the remaining space
+     */
+    boolean append(byte[] record) {
+        if (writePosition + RECORD_HEADER_SIZE + record.length > buffer.capacity()) {
+            return false;
+        }
+        buffer.put(writePosition + RECORD_HEADER_SIZE, record);
+        buffer.putInt(writePosition, record.length);
+        addPosition(writePosition);
+        writePosition += RECORD_HEADER_SIZE + record.length;
+        return true;
+    }
+
+    private void addPosition(int position) {
+        int[] current = positions;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+            positions = current;
+        }
+        current[count] = position;
+        count = count + 1;
+    }
+
+    /**
+     * @return read-only view of the record bytes, without copying them out of the mapped file
+     */
+    ByteBuffer read(long offset) {
+        int position = positions[(int) (offset - baseOffset)];
+        int length = buffer.getInt(position);
+        return buffer.slice(position + RECORD_HEADER_SIZE, length).asReadOnlyBuffer();
+    }
+
+    long getEndOffset() {
+        return baseOffset + count;
+    }
+
+    void seal() throws IOException {
+        buffer.force();
+        sealedTs = System.currentTimeMillis();
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(sealedTs));
+    }
+
+    /**
+     * @return time the segment stopped accepting records, or 0 for the active segment
+     */
+    long getSealedTs() {
+        return sealedTs;
+    }
+
+    void markSealedOnRecovery() {
+        sealedTs = file.lastModified();
+    }
+
+    void flush() {
+        buffer.force();
+    }
+
+}
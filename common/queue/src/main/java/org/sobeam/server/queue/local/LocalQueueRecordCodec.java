@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.local;
+
+import org.sobeam.server.queue.TbQueueMsg;
+import org.sobeam.server.queue.common.DefaultTbQueueMsg;
+import org.sobeam.server.queue.common.DefaultTbQueueMsgHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary record layout: key flag and key, headers count, header name/value pairs and the payload.
+ * Variable-length fields are prefixed with their int length.
+ */
+final class LocalQueueRecordCodec {
+
+    private LocalQueueRecordCodec() {
+    }
+
+    static byte[] encode(TbQueueMsg msg) {
+        UUID key = msg.getKey();
+        byte[] data = msg.getData();
+        Map<String, byte[]> headers = msg.getHeaders() != null ? msg.getHeaders().getData() : Map.of();
+        List<byte[]> headerNames = new ArrayList<>(headers.size());
+        int size = 1 + (key != null ? 16 : 0) + 4 + 4 + data.length;
+        for (Map.Entry<String, byte[]> header : headers.entrySet()) {
+            byte[] name = header.getKey().getBytes(StandardCharsets.UTF_8);
+            headerNames.add(name);
+            size += 4 + name.length + 4 + header.getValue().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        if (key != null) {
+            buffer.put((byte) 1);
+            buffer.putLong(key.getMostSignificantBits());
+            buffer.putLong(key.getLeastSignificantBits());
+        } else {
+            buffer.put((byte) 0);
+        }
+        buffer.putInt(headers.size());
+        int i = 0;
+        for (byte[] value : headers.values()) {
+            byte[] name = headerNames.get(i++);
+            buffer.putInt(name.length).put(name);
+            buffer.putInt(value.length).put(value);
+        }
+        buffer.putInt(data.length).put(data);
+        return buffer.array();
+    }
+
+    static TbQueueMsg decode(ByteBuffer buffer) {
+        UUID key = buffer.get() == 1 ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+        int headersCount = buffer.getInt();
+        DefaultTbQueueMsgHeaders headers = new DefaultTbQueueMsgHeaders();
+        for (int i = 0; i < headersCount; i++) {
+            String name = new String(readBytes(buffer), StandardCharsets.UTF_8);
+            headers.put(name, readBytes(buffer));
+        }
+        return new DefaultTbQueueMsg(key, readBytes(buffer), headers);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+}
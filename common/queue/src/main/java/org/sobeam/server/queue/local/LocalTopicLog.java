@@ -0,0 +1,139 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.local;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Segmented log of a single topic (partition). Offsets are contiguous and start from 0 for a new topic.
+ */
+@Slf4j
+final class LocalTopicLog {
+
+    @Getter
+    private final String topic;
+    private final File dir;
+    private final int segmentSize;
+    private final ConcurrentNavigableMap<Long, LocalLogSegment> segments = new ConcurrentSkipListMap<>();
+    private volatile LocalLogSegment activeSegment;
+
+    LocalTopicLog(String topic, File dir, int segmentSize) throws IOException {
+        this.topic = topic;
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir);
+        }
+        File[] files = dir.listFiles((d, name) -> LocalLogSegment.isSegmentFile(name));
+        if (files != null) {
+            for (File file : files) {
+                long baseOffset = LocalLogSegment.parseBaseOffset(file.getName());
+                segments.put(baseOffset, LocalLogSegment.open(dir, baseOffset, segmentSize));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, LocalLogSegment.open(dir, 0L, segmentSize));
+        }
+        segments.headMap(segments.lastKey()).values().forEach(LocalLogSegment::markSealedOnRecovery);
+        activeSegment = segments.lastEntry().getValue();
+        log.debug("[{}] Opened log with {} segments, offsets [{}..{})", topic, segments.size(), getStartOffset(), getEndOffset());
+    }
+
+    /**
+     * @return offset of the appended record
+     */
+    synchronized long append(byte[] record) throws IOException {
+        if (record.length + LocalLogSegment.RECORD_HEADER_SIZE > segmentSize) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes exceeds the segment size of " + segmentSize + " bytes");
+        }
+        LocalLogSegment segment = activeSegment;
+        if (!segment.append(record)) {
+            segment.seal();
+            segment = LocalLogSegment.open(dir, segment.getEndOffset(), segmentSize);
+            segments.put(segment.getBaseOffset(), segment);
+            activeSegment = segment;
+            segment.append(record);
+        }
+        return segment.getEndOffset() - 1;
+    }
+
+    /**
+     * Adds up to {@code maxRecords} records starting from {@code offset} to the result.
+     * An offset that was already removed by the retention is moved to the start of the log.
+     *
+     * @return offset of the next record to read
+     */
+    long read(long offset, int maxRecords, List<ByteBuffer> result) {
+        offset = Math.max(offset, getStartOffset());
+        Map.Entry<Long, LocalLogSegment> entry = segments.floorEntry(offset);
+        int read = 0;
+        while (entry != null && read < maxRecords) {
+            LocalLogSegment segment = entry.getValue();
+            long endOffset = segment.getEndOffset();
+            while (offset < endOffset && read < maxRecords) {
+                result.add(segment.read(offset++));
+                read++;
+            }
+            if (segment == activeSegment) {
+                break;
+            }
+            entry = segments.higherEntry(entry.getKey());
+        }
+        return offset;
+    }
+
+    long getStartOffset() {
+        return segments.firstKey();
+    }
+
+    long getEndOffset() {
+        return activeSegment.getEndOffset();
+    }
+
+    /**
+     * Deletes sealed segments that stopped accepting records before the given time. The active segment is always kept.
+     *
+     * @return number of deleted segments
+     */
+    synchronized int deleteSegmentsSealedBefore(long ts) {
+        int deleted = 0;
+        for (LocalLogSegment segment : segments.values()) {
+            if (segment == activeSegment || segment.getSealedTs() >= ts) {
+                break;
+            }
+            segments.remove(segment.getBaseOffset());
+            if (!segment.getFile().delete()) {
+                log.warn("[{}] Failed to delete segment {}", topic, segment.getFile());
+            }
+            deleted++;
+        }
+        return deleted;
+    }
+
+    void flush() {
+        activeSegment.flush();
+    }
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.local;
+
+import org.sobeam.server.queue.TbQueueAdmin;
+
+public class TbLocalQueueAdmin implements TbQueueAdmin {
+
+    private final TbLocalQueueStorage storage;
+
+    public TbLocalQueueAdmin(TbLocalQueueStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public void createTopicIfNotExists(String topic, String properties) {
+        // topic logs are created on first use
+    }
+
+    @Override
+    public void deleteTopic(String topic) {
+        storage.deleteTopic(topic);
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.local;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sobeam.server.queue.TbQueueMsg;
+import org.sobeam.server.queue.TbQueueMsgDecoder;
+import org.sobeam.server.queue.common.AbstractTbQueueConsumerTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the local topic logs from the committed offsets of the consumer group. The read position moves on every poll
+ * and is persisted on {@link #commit()}, so uncommitted messages are delivered again after a restart.
+ */
+@Slf4j
+public class TbLocalQueueConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQueueConsumerTemplate<TbQueueMsg, T> {
+
+    private final TbLocalQueueStorage storage;
+    private final String groupId;
+    private final int maxPollRecords;
+    private final TbQueueMsgDecoder<T> decoder;
+
+    private Map<String, Long> positions = Collections.emptyMap();
+
+    public TbLocalQueueConsumerTemplate(TbLocalQueueStorage storage, TbLocalQueueSettings settings, String topic, String groupId, TbQueueMsgDecoder<T> decoder) {
+        super(topic);
+        this.storage = storage;
+        this.groupId = groupId;
+        this.maxPollRecords = settings.getMaxPollRecords();
+        this.decoder = decoder;
+    }
+
+    @Override
+    protected void doSubscribe(List<String> topicNames) {
+        Map<String, Long> positions = new LinkedHashMap<>();
+        for (String topicName : topicNames) {
+            positions.put(topicName, storage.getCommittedOffset(topicName, groupId));
+        }
+        this.positions = positions;
+    }
+
+    @Override
+    protected List<TbQueueMsg> doPoll(long durationInMillis) {
+        List<TbQueueMsg> records = new ArrayList<>();
+        for (Map.Entry<String, Long> position : positions.entrySet()) {
+            int remaining = maxPollRecords - records.size();
+            if (remaining <= 0) {
+                break;
+            }
+            position.setValue(storage.read(position.getKey(), position.getValue(), remaining, records));
+        }
+        return records;
+    }
+
+    @Override
+    protected T decode(TbQueueMsg record) throws IOException {
+        return decoder.decode(record);
+    }
+
+    @Override
+    protected void doCommit() {
+        positions.forEach((topicName, offset) -> storage.commit(topicName, groupId, offset));
+    }
+
+    @Override
+    protected void doUnsubscribe() {
+        positions = Collections.emptyMap();
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.local;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.queue.TbQueueCallback;
+import org.sobeam.server.queue.TbQueueMsg;
+import org.sobeam.server.queue.TbQueueProducer;
+
+@Slf4j
+public class TbLocalQueueProducerTemplate<T extends TbQueueMsg> implements TbQueueProducer<T> {
+
+    private final TbLocalQueueStorage storage;
+    private final String defaultTopic;
+
+    public TbLocalQueueProducerTemplate(TbLocalQueueStorage storage, String defaultTopic) {
+        this.storage = storage;
+        this.defaultTopic = defaultTopic;
+    }
+
+    @Override
+    public void init() {
+
+    }
+
+    @Override
+    public String getDefaultTopic() {
+        return defaultTopic;
+    }
+
+    @Override
+    public void send(TopicPartitionInfo tpi, T msg, TbQueueCallback callback) {
+        try {
+            storage.append(tpi.getFullTopicName(), msg);
+            if (callback != null) {
+                callback.onSuccess(null);
+            }
+        } catch (Exception e) {
+            log.error("[{}] Failed to append message: [{}]", tpi.getFullTopicName(), msg, e);
+            if (callback != null) {
+                callback.onFailure(e);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+
+    }
+}
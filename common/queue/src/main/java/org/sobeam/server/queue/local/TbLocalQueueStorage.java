@@ -0,0 +1,185 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.local;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.sobeam.common.util.SoBeamThreadFactory;
+import org.sobeam.server.queue.TbQueueMsg;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable queue storage for single-node deployments. Every topic is an append-only, segmented log of memory-mapped
+ * files under {@code queue.local.data_dir}; consumer groups keep their committed offsets in small memory-mapped files
+ * next to the log. Sealed segments are deleted once they are older than {@code queue.local.retention_ms}.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${queue.type:null}'=='local'")
+public class TbLocalQueueStorage {
+
+    private static final String OFFSET_FILE_SUFFIX = ".offset";
+
+    private final TbLocalQueueSettings settings;
+    private final ConcurrentMap<String, LocalTopicLog> logs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MappedByteBuffer> offsets = new ConcurrentHashMap<>();
+    private File dataDir;
+    private ScheduledExecutorService scheduler;
+
+    public TbLocalQueueStorage(TbLocalQueueSettings settings) {
+        this.settings = settings;
+    }
+
+    @PostConstruct
+    public void init() {
+        dataDir = new File(settings.getDataDir());
+        if (!dataDir.isDirectory() && !dataDir.mkdirs()) {
+            throw new IllegalStateException("Failed to create queue data directory " + dataDir.getAbsolutePath());
+        }
+        log.info("Using local queue storage at {}", dataDir.getAbsolutePath());
+        scheduler = Executors.newSingleThreadScheduledExecutor(SoBeamThreadFactory.forName("local-queue-maintenance"));
+        if (settings.getFlushIntervalMs() > 0) {
+            scheduler.scheduleWithFixedDelay(this::flush, settings.getFlushIntervalMs(), settings.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::cleanUp, settings.getRetentionCheckIntervalMs(), settings.getRetentionCheckIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        flush();
+    }
+
+    public long append(String topic, TbQueueMsg msg) throws IOException {
+        return getLog(topic).append(LocalQueueRecordCodec.encode(msg));
+    }
+
+    /**
+     * Adds up to {@code maxRecords} messages starting from {@code offset} to the result.
+     *
+     * @return offset of the next message to read
+     */
+    public long read(String topic, long offset, int maxRecords, List<TbQueueMsg> result) {
+        List<ByteBuffer> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        long nextOffset = getLog(topic).read(offset, maxRecords, records);
+        for (ByteBuffer record : records) {
+            result.add(LocalQueueRecordCodec.decode(record));
+        }
+        return nextOffset;
+    }
+
+    /**
+     * @return committed offset of the consumer group, or the start of the log if the group did not commit yet
+     */
+    public long getCommittedOffset(String topic, String groupId) {
+        LocalTopicLog topicLog = getLog(topic);
+        long committed = getOffsetBuffer(topic, groupId).getLong(0);
+        return Math.max(committed, topicLog.getStartOffset());
+    }
+
+    public void commit(String topic, String groupId, long offset) {
+        getOffsetBuffer(topic, groupId).putLong(0, offset);
+    }
+
+    public long getLag(String topic, String groupId) {
+        return getLog(topic).getEndOffset() - getCommittedOffset(topic, groupId);
+    }
+
+    public void deleteTopic(String topic) {
+        LocalTopicLog topicLog = logs.remove(topic);
+        offsets.keySet().removeIf(key -> key.startsWith(toFileName(topic) + File.separator));
+        Path topicDir = dataDir.toPath().resolve(toFileName(topic));
+        if (topicLog != null || Files.exists(topicDir)) {
+            try (Stream<Path> files = Files.walk(topicDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                log.info("[{}] Deleted local queue topic", topic);
+            } catch (IOException e) {
+                log.warn("[{}] Failed to delete local queue topic", topic, e);
+            }
+        }
+    }
+
+    void flush() {
+        logs.values().forEach(topicLog -> {
+            try {
+                topicLog.flush();
+            } catch (Exception e) {
+                log.warn("[{}] Failed to flush topic log", topicLog.getTopic(), e);
+            }
+        });
+        offsets.values().forEach(MappedByteBuffer::force);
+    }
+
+    void cleanUp() {
+        long expirationTs = System.currentTimeMillis() - settings.getRetentionMs();
+        logs.values().forEach(topicLog -> {
+            int deleted = topicLog.deleteSegmentsSealedBefore(expirationTs);
+            if (deleted > 0) {
+                log.debug("[{}] Deleted {} expired segments", topicLog.getTopic(), deleted);
+            }
+        });
+    }
+
+    private LocalTopicLog getLog(String topic) {
+        return logs.computeIfAbsent(topic, t -> {
+            try {
+                return new LocalTopicLog(t, new File(dataDir, toFileName(t)), settings.getSegmentSizeMb() * 1024 * 1024);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open log of topic " + t, e);
+            }
+        });
+    }
+
+    private MappedByteBuffer getOffsetBuffer(String topic, String groupId) {
+        String key = toFileName(topic) + File.separator + toFileName(groupId) + OFFSET_FILE_SUFFIX;
+        return offsets.computeIfAbsent(key, k -> {
+            getLog(topic);
+            try (RandomAccessFile raf = new RandomAccessFile(new File(dataDir, k), "rw")) {
+                return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open offsets of group " + groupId + " for topic " + topic, e);
+            }
+        });
+    }
+
+    private static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+}
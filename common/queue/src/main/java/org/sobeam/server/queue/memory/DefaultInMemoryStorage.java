@@ -16,61 +16,139 @@
 package org.sobeam.server.queue.memory;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
+import org.apache.commons.lang3.StringUtils;
+import org.sobeam.server.common.stats.StatsFactory;
 import org.sobeam.server.queue.TbQueueMsg;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 @Component
 @Slf4j
 public final class DefaultInMemoryStorage implements InMemoryStorage {
-    private final ConcurrentHashMap<String, BlockingQueue<TbQueueMsg>> storage = new ConcurrentHashMap<>();
+
+    static final int DEFAULT_CAPACITY = 65536;
+    static final int DEFAULT_MAX_POLL_RECORDS = 1000;
+    static final long DEFAULT_BLOCK_TIMEOUT_MS = 1000;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long REJECTED_WARN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    public enum OverflowPolicy {
+        REJECT, BLOCK
+    }
+
+    private final ConcurrentHashMap<String, TopicQueue> storage = new ConcurrentHashMap<>();
+    private final int defaultCapacity;
+    private final Map<String, Integer> topicCapacities;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int maxPollRecords;
+
+    @Autowired(required = false)
+    private StatsFactory statsFactory;
+
+    public DefaultInMemoryStorage() {
+        this(DEFAULT_CAPACITY, "", OverflowPolicy.REJECT.name(), DEFAULT_BLOCK_TIMEOUT_MS, DEFAULT_MAX_POLL_RECORDS);
+    }
+
+    @Autowired
+    public DefaultInMemoryStorage(@Value("${queue.in_memory.capacity:65536}") int defaultCapacity,
+                                  @Value("${queue.in_memory.topic_capacities:}") String topicCapacities,
+                                  @Value("${queue.in_memory.overflow_policy:REJECT}") String overflowPolicy,
+                                  @Value("${queue.in_memory.block_timeout_ms:1000}") long blockTimeoutMs,
+                                  @Value("${queue.in_memory.max_poll_records:1000}") int maxPollRecords) {
+        this.defaultCapacity = defaultCapacity;
+        this.topicCapacities = parseTopicCapacities(topicCapacities);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase());
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.maxPollRecords = maxPollRecords;
+    }
 
     @Override
     public void printStats() {
-        if (log.isDebugEnabled()) {
-            storage.forEach((topic, queue) -> {
-                if (queue.size() > 0) {
-                    log.debug("[{}] Queue Size [{}]", topic, queue.size());
-                }
-            });
-        }
+        storage.forEach((topic, queue) -> {
+            queue.updateStats();
+            if (log.isDebugEnabled() && (queue.lag.get() > 0 || queue.producedPerSec.get() > 0)) {
+                log.debug("[{}] Queue Size [{}] Capacity [{}] Produced [{}] msg/s Consumed [{}] msg/s", topic,
+                        queue.lag.get(), queue.buffer.capacity(), queue.producedPerSec.get(), queue.consumedPerSec.get());
+            }
+        });
     }
 
     @Override
     public int getLagTotal() {
-        return storage.values().stream().map(BlockingQueue::size).reduce(0, Integer::sum);
+        return storage.values().stream().mapToInt(queue -> queue.buffer.size()).sum();
     }
 
     @Override
     public int getLag(String topic) {
-        return Optional.ofNullable(storage.get(topic)).map(Collection::size).orElse(0);
+        TopicQueue queue = storage.get(topic);
+        return queue != null ? queue.buffer.size() : 0;
+    }
+
+    @Override
+    public int getMaxPollRecords() {
+        return maxPollRecords;
     }
 
     @Override
     public boolean put(String topic, TbQueueMsg msg) {
-        return storage.computeIfAbsent(topic, (t) -> new LinkedBlockingQueue<>()).add(msg);
+        TopicQueue queue = storage.computeIfAbsent(topic, this::createQueue);
+        InMemoryRingBuffer<TbQueueMsg> buffer = queue.buffer;
+        if (buffer.offer(msg)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (System.nanoTime() - deadline < 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (buffer.offer(msg)) {
+                    return true;
+                }
+            }
+        }
+        onRejected(topic, queue);
+        return false;
+    }
+
+    private void onRejected(String topic, TopicQueue queue) {
+        long rejected = queue.rejected.incrementAndGet();
+        long now = System.nanoTime();
+        long lastWarnTs = queue.lastRejectedWarnTs.get();
+        if ((lastWarnTs == 0 || now - lastWarnTs > REJECTED_WARN_INTERVAL_NANOS) && queue.lastRejectedWarnTs.compareAndSet(lastWarnTs, now)) {
+            log.warn("[{}] Queue is full, capacity [{}]. Rejected {} messages in total", topic, queue.buffer.capacity(), rejected);
+        } else {
+            log.trace("[{}] Queue is full, capacity [{}]", topic, queue.buffer.capacity());
+        }
+    }
+
+    long getRejectedCount(String topic) {
+        TopicQueue queue = storage.get(topic);
+        return queue != null ? queue.rejected.get() : 0;
     }
 
     @SuppressWarnings("unchecked")
     @Override
-    public <T extends TbQueueMsg> List<T> get(String topic) throws InterruptedException {
-        final BlockingQueue<TbQueueMsg> queue = storage.get(topic);
-        if (queue != null) {
-            final TbQueueMsg firstMsg = queue.poll();
+    public <T extends TbQueueMsg> List<T> get(String topic, int maxRecords) {
+        final TopicQueue queue = storage.get(topic);
+        if (queue != null && maxRecords > 0) {
+            final TbQueueMsg firstMsg = queue.buffer.poll();
             if (firstMsg != null) {
-                final int queueSize = queue.size();
-                if (queueSize > 0) {
-                    final List<TbQueueMsg> entities = new ArrayList<>(Math.min(queueSize, 999) + 1);
+                final int queueSize = queue.buffer.size();
+                if (queueSize > 0 && maxRecords > 1) {
+                    final List<TbQueueMsg> entities = new ArrayList<>(Math.min(queueSize, maxRecords - 1) + 1);
                     entities.add(firstMsg);
-                    queue.drainTo(entities, 999);
+                    queue.buffer.drainTo(entities, maxRecords - 1);
                     return (List<T>) entities;
                 }
                 return Collections.singletonList((T) firstMsg);
@@ -79,4 +157,74 @@ public final class DefaultInMemoryStorage implements InMemoryStorage {
         return Collections.emptyList();
     }
 
+    int getCapacity(String topic) {
+        String matchedPrefix = null;
+        for (String prefix : topicCapacities.keySet()) {
+            if (topic.startsWith(prefix) && (matchedPrefix == null || prefix.length() > matchedPrefix.length())) {
+                matchedPrefix = prefix;
+            }
+        }
+        return matchedPrefix != null ? topicCapacities.get(matchedPrefix) : defaultCapacity;
+    }
+
+    private TopicQueue createQueue(String topic) {
+        TopicQueue queue = new TopicQueue(new InMemoryRingBuffer<>(getCapacity(topic)));
+        if (statsFactory != null) {
+            statsFactory.createGauge("inMemoryQueueLag", queue.lag, "topic", topic);
+            statsFactory.createGauge("inMemoryQueueProducedPerSec", queue.producedPerSec, "topic", topic);
+            statsFactory.createGauge("inMemoryQueueConsumedPerSec", queue.consumedPerSec, "topic", topic);
+            statsFactory.createGauge("inMemoryQueueRejected", queue.rejected, "topic", topic);
+        }
+        return queue;
+    }
+
+    private static Map<String, Integer> parseTopicCapacities(String config) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        if (StringUtils.isNotBlank(config)) {
+            for (String entry : config.split(",")) {
+                if (StringUtils.isBlank(entry)) {
+                    continue;
+                }
+                int separatorIdx = entry.lastIndexOf(':');
+                if (separatorIdx <= 0) {
+                    throw new IllegalArgumentException("Invalid in-memory topic capacity [" + entry + "], expected <topic prefix>:<capacity>");
+                }
+                result.put(entry.substring(0, separatorIdx).trim(), Integer.parseInt(entry.substring(separatorIdx + 1).trim()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gauges are refreshed by {@link #printStats()}, which is invoked periodically by the queue factory.
+     */
+    private static class TopicQueue {
+        private final InMemoryRingBuffer<TbQueueMsg> buffer;
+        private final AtomicLong lag = new AtomicLong();
+        private final AtomicLong producedPerSec = new AtomicLong();
+        private final AtomicLong consumedPerSec = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong lastRejectedWarnTs = new AtomicLong();
+        private long lastProduced;
+        private long lastConsumed;
+        private long lastStatsTs = System.currentTimeMillis();
+
+        TopicQueue(InMemoryRingBuffer<TbQueueMsg> buffer) {
+            this.buffer = buffer;
+        }
+
+        synchronized void updateStats() {
+            long now = System.currentTimeMillis();
+            long produced = buffer.getProducedCount();
+            long consumed = buffer.getConsumedCount();
+            long elapsedMs = Math.max(1, now - lastStatsTs);
+            lag.set(buffer.size());
+            producedPerSec.set((produced - lastProduced) * 1000 / elapsedMs);
+            consumedPerSec.set((consumed - lastConsumed) * 1000 / elapsedMs);
+            lastProduced = produced;
+            lastConsumed = consumed;
+            lastStatsTs = now;
+        }
+    }
+
 }
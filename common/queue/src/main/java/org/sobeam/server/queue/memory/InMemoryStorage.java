@@ -27,8 +27,20 @@ public interface InMemoryStorage {
 
     int getLag(String topic);
 
+    /**
+     * @return the default number of messages returned by a single {@link #get(String)} call
+     */
+    int getMaxPollRecords();
+
+    /**
+     * @return false if the topic is full and the message was not accepted
+     */
     boolean put(String topic, TbQueueMsg msg);
 
-    <T extends TbQueueMsg> List<T> get(String topic) throws InterruptedException;
+    default <T extends TbQueueMsg> List<T> get(String topic) throws InterruptedException {
+        return get(topic, getMaxPollRecords());
+    }
+
+    <T extends TbQueueMsg> List<T> get(String topic, int maxRecords) throws InterruptedException;
 
 }
@@ -20,6 +20,7 @@ import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
 import org.sobeam.server.queue.TbQueueConsumer;
 import org.sobeam.server.queue.TbQueueMsg;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -29,12 +30,21 @@ import java.util.stream.Collectors;
 public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueConsumer<T> {
     private final InMemoryStorage storage;
     private volatile Set<TopicPartitionInfo> partitions;
+    private volatile List<String> partitionTopics = Collections.emptyList();
+    // Partition to start the next poll from; rotated so the partitions take turns when the poll budget runs out
+    private int nextPartitionIdx;
     private volatile boolean stopped;
     private volatile boolean subscribed;
+    private final int maxPollRecords;
 
     public InMemoryTbQueueConsumer(InMemoryStorage storage, String topic) {
+        this(storage, topic, storage.getMaxPollRecords());
+    }
+
+    public InMemoryTbQueueConsumer(InMemoryStorage storage, String topic, int maxPollRecords) {
         this.storage = storage;
         this.topic = topic;
+        this.maxPollRecords = maxPollRecords;
         stopped = false;
     }
 
@@ -48,12 +58,14 @@ public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueCon
     @Override
     public void subscribe() {
         partitions = Collections.singleton(new TopicPartitionInfo(topic, null, null, true));
+        partitionTopics = toFullTopicNames(partitions);
         subscribed = true;
     }
 
     @Override
     public void subscribe(Set<TopicPartitionInfo> partitions) {
         this.partitions = partitions;
+        partitionTopics = toFullTopicNames(partitions);
         subscribed = true;
     }
 
@@ -71,21 +83,7 @@ public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueCon
     @Override
     public List<T> poll(long durationInMillis) {
         if (subscribed) {
-            @SuppressWarnings("unchecked")
-            List<T> messages = partitions
-                    .stream()
-                    .map(tpi -> {
-                        try {
-                            return storage.get(tpi.getFullTopicName());
-                        } catch (InterruptedException e) {
-                            if (!stopped) {
-                                log.error("Queue was interrupted.", e);
-                            }
-                            return Collections.emptyList();
-                        }
-                    })
-                    .flatMap(List::stream)
-                    .map(msg -> (T) msg).collect(Collectors.toList());
+            List<T> messages = pollPartitions();
             if (messages.size() > 0) {
                 return messages;
             }
@@ -100,6 +98,51 @@ public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueCon
         return Collections.emptyList();
     }
 
+    /**
+     * Every partition gets an equal share of max poll records first, the budget left by the partitions
+     * with fewer messages goes to the others. The first partition is rotated on every poll.
+     */
+    private List<T> pollPartitions() {
+        List<String> topics = partitionTopics;
+        int partitionsCount = topics.size();
+        if (partitionsCount == 0) {
+            return Collections.emptyList();
+        }
+        int startIdx = Math.floorMod(nextPartitionIdx, partitionsCount);
+        int share = Math.max(1, maxPollRecords / partitionsCount);
+        List<T> messages = new ArrayList<>();
+        boolean moreAvailable = false;
+        int visited = 0;
+        for (; visited < partitionsCount && messages.size() < maxPollRecords; visited++) {
+            int limit = Math.min(share, maxPollRecords - messages.size());
+            int polled = poll(topics.get((startIdx + visited) % partitionsCount), limit, messages);
+            moreAvailable |= polled == limit;
+        }
+        // the partitions skipped for lack of budget go first next time
+        nextPartitionIdx = startIdx + (visited < partitionsCount ? visited : 1);
+        for (int i = 0; moreAvailable && i < partitionsCount && messages.size() < maxPollRecords; i++) {
+            poll(topics.get((startIdx + i) % partitionsCount), maxPollRecords - messages.size(), messages);
+        }
+        return messages;
+    }
+
+    private int poll(String fullTopicName, int limit, List<T> messages) {
+        try {
+            List<T> polled = storage.get(fullTopicName, limit);
+            messages.addAll(polled);
+            return polled.size();
+        } catch (InterruptedException e) {
+            if (!stopped) {
+                log.error("Queue was interrupted.", e);
+            }
+            return 0;
+        }
+    }
+
+    private static List<String> toFullTopicNames(Set<TopicPartitionInfo> partitions) {
+        return partitions.stream().map(TopicPartitionInfo::getFullTopicName).collect(Collectors.toList());
+    }
+
     @Override
     public void commit() {
     }
@@ -46,8 +46,11 @@ public class InMemoryTbQueueProducer<T extends TbQueueMsg> implements TbQueuePro
                 callback.onSuccess(null);
             }
         } else {
+            RuntimeException e = new RuntimeException("Failure add msg to InMemoryQueue: topic [" + tpi.getFullTopicName() + "] is full");
             if (callback != null) {
-                callback.onFailure(new RuntimeException("Failure add msg to InMemoryQueue"));
+                callback.onFailure(e);
+            } else {
+                throw e;
             }
         }
     }
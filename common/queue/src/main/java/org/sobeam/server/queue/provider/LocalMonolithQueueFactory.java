@@ -0,0 +1,207 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.provider;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.sobeam.server.common.data.queue.Queue;
+import org.sobeam.server.common.msg.queue.ServiceType;
+import org.sobeam.server.gen.js.JsInvokeProtos.RemoteJsRequest;
+import org.sobeam.server.gen.js.JsInvokeProtos.RemoteJsResponse;
+import org.sobeam.server.gen.transport.TransportProtos;
+import org.sobeam.server.gen.transport.TransportProtos.ToCoreMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToCoreNotificationMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToHousekeeperServiceMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToOtaPackageStateServiceMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToRuleEngineNotificationMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToTransportMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToUsageStatsServiceMsg;
+import org.sobeam.server.gen.transport.TransportProtos.TransportApiRequestMsg;
+import org.sobeam.server.gen.transport.TransportProtos.TransportApiResponseMsg;
+import org.sobeam.server.queue.TbQueueConsumer;
+import org.sobeam.server.queue.TbQueueProducer;
+import org.sobeam.server.queue.TbQueueRequestTemplate;
+import org.sobeam.server.queue.common.TbProtoJsQueueMsg;
+import org.sobeam.server.queue.common.TbProtoQueueMsg;
+import org.sobeam.server.queue.discovery.TbServiceInfoProvider;
+import org.sobeam.server.queue.discovery.TopicService;
+import org.sobeam.server.queue.local.TbLocalQueueConsumerTemplate;
+import org.sobeam.server.queue.local.TbLocalQueueProducerTemplate;
+import org.sobeam.server.queue.local.TbLocalQueueSettings;
+import org.sobeam.server.queue.local.TbLocalQueueStorage;
+import org.sobeam.server.queue.settings.TbQueueCoreSettings;
+import org.sobeam.server.queue.settings.TbQueueRuleEngineSettings;
+import org.sobeam.server.queue.settings.TbQueueTransportApiSettings;
+import org.sobeam.server.queue.settings.TbQueueTransportNotificationSettings;
+import org.sobeam.server.queue.settings.TbQueueVersionControlSettings;
+
+@Component
+@ConditionalOnExpression("'${queue.type:null}'=='local' && '${service.type:null}'=='monolith'")
+public class LocalMonolithQueueFactory implements TbCoreQueueFactory, TbRuleEngineQueueFactory, TbVersionControlQueueFactory {
+
+    private final TopicService topicService;
+    private final TbQueueCoreSettings coreSettings;
+    private final TbServiceInfoProvider serviceInfoProvider;
+    private final TbQueueRuleEngineSettings ruleEngineSettings;
+    private final TbQueueVersionControlSettings vcSettings;
+    private final TbQueueTransportApiSettings transportApiSettings;
+    private final TbQueueTransportNotificationSettings transportNotificationSettings;
+    private final TbLocalQueueSettings localQueueSettings;
+    private final TbLocalQueueStorage storage;
+
+    public LocalMonolithQueueFactory(TopicService topicService, TbQueueCoreSettings coreSettings,
+                                     TbQueueRuleEngineSettings ruleEngineSettings,
+                                     TbQueueVersionControlSettings vcSettings,
+                                     TbServiceInfoProvider serviceInfoProvider,
+                                     TbQueueTransportApiSettings transportApiSettings,
+                                     TbQueueTransportNotificationSettings transportNotificationSettings,
+                                     TbLocalQueueSettings localQueueSettings,
+                                     TbLocalQueueStorage storage) {
+        this.topicService = topicService;
+        this.coreSettings = coreSettings;
+        this.vcSettings = vcSettings;
+        this.serviceInfoProvider = serviceInfoProvider;
+        this.ruleEngineSettings = ruleEngineSettings;
+        this.transportApiSettings = transportApiSettings;
+        this.transportNotificationSettings = transportNotificationSettings;
+        this.localQueueSettings = localQueueSettings;
+        this.storage = storage;
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToTransportMsg>> createTransportNotificationsMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(transportNotificationSettings.getNotificationsTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> createRuleEngineMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(ruleEngineSettings.getTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToRuleEngineNotificationMsg>> createRuleEngineNotificationsMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(ruleEngineSettings.getTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToCoreMsg>> createTbCoreMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToCoreNotificationMsg>> createTbCoreNotificationsMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getTopic()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<TransportProtos.ToVersionControlServiceMsg>> createToVersionControlMsgConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings, topicService.buildTopicName(vcSettings.getTopic()), "monolith-vc-node",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), TransportProtos.ToVersionControlServiceMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> createToRuleEngineMsgConsumer(Queue configuration) {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings, topicService.buildTopicName(configuration.getTopic()), "re-" + configuration.getName(),
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToRuleEngineMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineNotificationMsg>> createToRuleEngineNotificationsMsgConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings,
+                topicService.getNotificationsTopic(ServiceType.TB_RULE_ENGINE, serviceInfoProvider.getServiceId()).getFullTopicName(), "monolith-rule-engine-notifications-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToRuleEngineNotificationMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToCoreMsg>> createToCoreMsgConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings, topicService.buildTopicName(coreSettings.getTopic()), "monolith-core-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToCoreMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToCoreNotificationMsg>> createToCoreNotificationsMsgConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings,
+                topicService.getNotificationsTopic(ServiceType.TB_CORE, serviceInfoProvider.getServiceId()).getFullTopicName(), "monolith-core-notifications-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToCoreNotificationMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<TransportApiRequestMsg>> createTransportApiRequestConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings, topicService.buildTopicName(transportApiSettings.getRequestsTopic()), "monolith-transport-api-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), TransportApiRequestMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<TransportApiResponseMsg>> createTransportApiResponseProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(transportApiSettings.getResponsesTopic()));
+    }
+
+    @Override
+    public TbQueueRequestTemplate<TbProtoJsQueueMsg<RemoteJsRequest>, TbProtoQueueMsg<RemoteJsResponse>> createRemoteJsRequestTemplate() {
+        return null;
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToUsageStatsServiceMsg>> createToUsageStatsServiceMsgConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings, topicService.buildTopicName(coreSettings.getUsageStatsTopic()), "monolith-us-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToUsageStatsServiceMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToOtaPackageStateServiceMsg>> createToOtaPackageStateServiceMsgConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings, topicService.buildTopicName(coreSettings.getOtaPackageTopic()), "monolith-ota-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToOtaPackageStateServiceMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToOtaPackageStateServiceMsg>> createToOtaPackageStateServiceMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getOtaPackageTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToUsageStatsServiceMsg>> createToUsageStatsServiceMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getUsageStatsTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<TransportProtos.ToVersionControlServiceMsg>> createVersionControlMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(vcSettings.getTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> createHousekeeperMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getHousekeeperTopic()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> createHousekeeperMsgConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings, topicService.buildTopicName(coreSettings.getHousekeeperTopic()), "monolith-housekeeper-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToHousekeeperServiceMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> createHousekeeperReprocessingMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getHousekeeperReprocessingTopic()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> createHousekeeperReprocessingMsgConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings, topicService.buildTopicName(coreSettings.getHousekeeperReprocessingTopic()), "monolith-housekeeper-reprocessing-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToHousekeeperServiceMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.provider;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.sobeam.server.gen.transport.TransportProtos;
+import org.sobeam.server.gen.transport.TransportProtos.ToCoreMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToCoreNotificationMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.sobeam.server.gen.transport.TransportProtos.ToTransportMsg;
+import org.sobeam.server.gen.transport.TransportProtos.TransportApiRequestMsg;
+import org.sobeam.server.gen.transport.TransportProtos.TransportApiResponseMsg;
+import org.sobeam.server.queue.TbQueueConsumer;
+import org.sobeam.server.queue.TbQueueProducer;
+import org.sobeam.server.queue.TbQueueRequestTemplate;
+import org.sobeam.server.queue.common.DefaultTbQueueRequestTemplate;
+import org.sobeam.server.queue.common.TbProtoQueueMsg;
+import org.sobeam.server.queue.discovery.TbServiceInfoProvider;
+import org.sobeam.server.queue.discovery.TopicService;
+import org.sobeam.server.queue.local.TbLocalQueueAdmin;
+import org.sobeam.server.queue.local.TbLocalQueueConsumerTemplate;
+import org.sobeam.server.queue.local.TbLocalQueueProducerTemplate;
+import org.sobeam.server.queue.local.TbLocalQueueSettings;
+import org.sobeam.server.queue.local.TbLocalQueueStorage;
+import org.sobeam.server.queue.settings.TbQueueCoreSettings;
+import org.sobeam.server.queue.settings.TbQueueTransportApiSettings;
+import org.sobeam.server.queue.settings.TbQueueTransportNotificationSettings;
+
+@Component
+@ConditionalOnExpression("'${queue.type:null}'=='local' && '${service.type:null}'=='monolith' && '${transport.api_enabled:true}'=='true'")
+@Slf4j
+public class LocalTbTransportQueueFactory implements TbTransportQueueFactory {
+    private final TbQueueTransportApiSettings transportApiSettings;
+    private final TbQueueTransportNotificationSettings transportNotificationSettings;
+    private final TbServiceInfoProvider serviceInfoProvider;
+    private final TbQueueCoreSettings coreSettings;
+    private final TbLocalQueueSettings localQueueSettings;
+    private final TbLocalQueueStorage storage;
+    private final TopicService topicService;
+
+    public LocalTbTransportQueueFactory(TbQueueTransportApiSettings transportApiSettings,
+                                        TbQueueTransportNotificationSettings transportNotificationSettings,
+                                        TbServiceInfoProvider serviceInfoProvider,
+                                        TbQueueCoreSettings coreSettings,
+                                        TbLocalQueueSettings localQueueSettings,
+                                        TbLocalQueueStorage storage,
+                                        TopicService topicService) {
+        this.transportApiSettings = transportApiSettings;
+        this.transportNotificationSettings = transportNotificationSettings;
+        this.serviceInfoProvider = serviceInfoProvider;
+        this.coreSettings = coreSettings;
+        this.localQueueSettings = localQueueSettings;
+        this.storage = storage;
+        this.topicService = topicService;
+    }
+
+    @Override
+    public TbQueueRequestTemplate<TbProtoQueueMsg<TransportApiRequestMsg>, TbProtoQueueMsg<TransportApiResponseMsg>> createTransportApiRequestTemplate() {
+        TbLocalQueueProducerTemplate<TbProtoQueueMsg<TransportApiRequestMsg>> producerTemplate =
+                new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(transportApiSettings.getRequestsTopic()));
+
+        TbLocalQueueConsumerTemplate<TbProtoQueueMsg<TransportApiResponseMsg>> consumerTemplate =
+                new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings,
+                        topicService.buildTopicName(transportApiSettings.getResponsesTopic() + "." + serviceInfoProvider.getServiceId()), "transport-api-response-consumer",
+                        msg -> new TbProtoQueueMsg<>(msg.getKey(), TransportApiResponseMsg.parseFrom(msg.getData()), msg.getHeaders()));
+
+        DefaultTbQueueRequestTemplate.DefaultTbQueueRequestTemplateBuilder
+                <TbProtoQueueMsg<TransportApiRequestMsg>, TbProtoQueueMsg<TransportApiResponseMsg>> templateBuilder = DefaultTbQueueRequestTemplate.builder();
+
+        templateBuilder.queueAdmin(new TbLocalQueueAdmin(storage));
+
+        templateBuilder.requestTemplate(producerTemplate);
+        templateBuilder.responseTemplate(consumerTemplate);
+        templateBuilder.maxPendingRequests(transportApiSettings.getMaxPendingRequests());
+        templateBuilder.maxRequestTimeout(transportApiSettings.getMaxRequestsTimeout());
+        templateBuilder.pollInterval(transportApiSettings.getResponsePollInterval());
+        return templateBuilder.build();
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> createRuleEngineMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(transportApiSettings.getRequestsTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToCoreMsg>> createTbCoreMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<ToCoreNotificationMsg>> createTbCoreNotificationsMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getTopic()));
+    }
+
+    @Override
+    public TbQueueConsumer<TbProtoQueueMsg<ToTransportMsg>> createTransportNotificationsConsumer() {
+        return new TbLocalQueueConsumerTemplate<>(storage, localQueueSettings,
+                topicService.buildTopicName(transportNotificationSettings.getNotificationsTopic() + "." + serviceInfoProvider.getServiceId()), "transport-notifications-consumer",
+                msg -> new TbProtoQueueMsg<>(msg.getKey(), ToTransportMsg.parseFrom(msg.getData()), msg.getHeaders()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<TransportProtos.ToUsageStatsServiceMsg>> createToUsageStatsServiceMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getUsageStatsTopic()));
+    }
+
+    @Override
+    public TbQueueProducer<TbProtoQueueMsg<TransportProtos.ToHousekeeperServiceMsg>> createHousekeeperMsgProducer() {
+        return new TbLocalQueueProducerTemplate<>(storage, topicService.buildTopicName(coreSettings.getHousekeeperTopic()));
+    }
+
+}
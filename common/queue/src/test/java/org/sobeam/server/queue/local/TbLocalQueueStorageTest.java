@@ -0,0 +1,158 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.local;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.queue.TbQueueMsg;
+import org.sobeam.server.queue.common.DefaultTbQueueMsg;
+import org.sobeam.server.queue.common.DefaultTbQueueMsgHeaders;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbLocalQueueStorageTest {
+
+    static final String TOPIC = "tb_core.0";
+
+    @TempDir
+    File dataDir;
+
+    TbLocalQueueSettings settings;
+    TbLocalQueueStorage storage;
+
+    @BeforeEach
+    public void beforeEach() {
+        settings = new TbLocalQueueSettings();
+        settings.setDataDir(dataDir.getAbsolutePath());
+        settings.setSegmentSizeMb(1);
+        settings.setRetentionMs(60000);
+        settings.setRetentionCheckIntervalMs(60000);
+        settings.setFlushIntervalMs(0);
+        settings.setMaxPollRecords(10);
+        storage = newStorage();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        storage.destroy();
+    }
+
+    @Test
+    public void givenMsg_whenAppendAndRead_thenKeyHeadersAndDataArePreserved() throws Exception {
+        UUID key = UUID.randomUUID();
+        DefaultTbQueueMsgHeaders headers = new DefaultTbQueueMsgHeaders();
+        headers.put("tenantId", "tenant".getBytes(StandardCharsets.UTF_8));
+        storage.append(TOPIC, new DefaultTbQueueMsg(key, "data".getBytes(StandardCharsets.UTF_8), headers));
+
+        List<TbQueueMsg> result = new ArrayList<>();
+        assertThat(storage.read(TOPIC, 0, 10, result)).isEqualTo(1);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getKey()).isEqualTo(key);
+        assertThat(new String(result.get(0).getData(), StandardCharsets.UTF_8)).isEqualTo("data");
+        assertThat(new String(result.get(0).getHeaders().get("tenantId"), StandardCharsets.UTF_8)).isEqualTo("tenant");
+    }
+
+    @Test
+    public void givenCommittedOffset_whenRestart_thenConsumeFromCommittedOffset() throws Exception {
+        TbLocalQueueProducerTemplate<TbQueueMsg> producer = new TbLocalQueueProducerTemplate<>(storage, TOPIC);
+        for (int i = 0; i < 15; i++) {
+            producer.send(new TopicPartitionInfo(TOPIC, null, null, true), msg(i), null);
+        }
+
+        TbLocalQueueConsumerTemplate<TbQueueMsg> consumer = newConsumer(storage);
+        assertThat(values(consumer.poll(1))).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        consumer.commit();
+        assertThat(values(consumer.poll(1))).containsExactly(10, 11, 12, 13, 14);
+        consumer.unsubscribe();
+
+        storage.destroy();
+        storage = newStorage();
+        assertThat(storage.getLag(TOPIC, "test-group")).isEqualTo(5);
+        consumer = newConsumer(storage);
+        assertThat(values(consumer.poll(1))).containsExactly(10, 11, 12, 13, 14);
+        consumer.commit();
+        assertThat(storage.getLag(TOPIC, "test-group")).isZero();
+    }
+
+    @Test
+    public void givenSmallSegments_whenAppend_thenRollReadAcrossAndRecover() throws Exception {
+        File topicDir = new File(dataDir, "log");
+        LocalTopicLog log = new LocalTopicLog(TOPIC, topicDir, 64);
+        for (int i = 0; i < 20; i++) {
+            assertThat(log.append(new byte[]{(byte) i, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0})).isEqualTo(i);
+        }
+        assertThat(topicDir.listFiles()).hasSize(5);
+
+        List<ByteBuffer> records = new ArrayList<>();
+        assertThat(log.read(3, 100, records)).isEqualTo(20);
+        assertThat(records.stream().map(ByteBuffer::get).collect(Collectors.toList()))
+                .containsExactlyElementsOf(List.of((byte) 3, (byte) 4, (byte) 5, (byte) 6, (byte) 7, (byte) 8, (byte) 9, (byte) 10,
+                        (byte) 11, (byte) 12, (byte) 13, (byte) 14, (byte) 15, (byte) 16, (byte) 17, (byte) 18, (byte) 19));
+
+        LocalTopicLog recovered = new LocalTopicLog(TOPIC, topicDir, 64);
+        assertThat(recovered.getStartOffset()).isEqualTo(0);
+        assertThat(recovered.getEndOffset()).isEqualTo(20);
+        assertThat(recovered.append(new byte[]{20})).isEqualTo(20);
+    }
+
+    @Test
+    public void givenSealedSegments_whenRetentionExpires_thenDeleteAllButActiveSegment() throws Exception {
+        LocalTopicLog log = new LocalTopicLog(TOPIC, new File(dataDir, "log"), 64);
+        for (int i = 0; i < 20; i++) {
+            log.append(new byte[12]);
+        }
+
+        assertThat(log.deleteSegmentsSealedBefore(System.currentTimeMillis() - 60000)).isZero();
+        assertThat(log.deleteSegmentsSealedBefore(System.currentTimeMillis() + 1)).isEqualTo(4);
+        assertThat(log.getStartOffset()).isEqualTo(16);
+
+        List<ByteBuffer> records = new ArrayList<>();
+        assertThat(log.read(0, 100, records)).isEqualTo(20);
+        assertThat(records).hasSize(4);
+    }
+
+    private TbLocalQueueStorage newStorage() {
+        TbLocalQueueStorage storage = new TbLocalQueueStorage(settings);
+        storage.init();
+        return storage;
+    }
+
+    private TbLocalQueueConsumerTemplate<TbQueueMsg> newConsumer(TbLocalQueueStorage storage) {
+        TbLocalQueueConsumerTemplate<TbQueueMsg> consumer = new TbLocalQueueConsumerTemplate<>(storage, settings, TOPIC, "test-group", msg -> msg);
+        consumer.subscribe();
+        return consumer;
+    }
+
+    private static TbQueueMsg msg(int value) {
+        return new DefaultTbQueueMsg(UUID.randomUUID(), new byte[]{(byte) value}, new DefaultTbQueueMsgHeaders());
+    }
+
+    private static List<Integer> values(List<TbQueueMsg> msgs) {
+        return msgs.stream().map(msg -> (int) msg.getData()[0]).collect(Collectors.toList());
+    }
+
+}
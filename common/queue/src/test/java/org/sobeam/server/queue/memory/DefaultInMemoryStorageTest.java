@@ -18,6 +18,8 @@ package org.sobeam.server.queue.memory;
 import com.google.gson.Gson;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.queue.TbQueueCallback;
 import org.sobeam.server.queue.TbQueueMsg;
 import org.sobeam.server.queue.common.DefaultTbQueueMsg;
 
@@ -26,7 +28,10 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 @Slf4j
 public class DefaultInMemoryStorageTest {
@@ -112,4 +117,83 @@ public class DefaultInMemoryStorageTest {
         testPollOnce(10);
     }
 
+    @Test
+    public void givenQueue_whenGetWithMaxRecords_thenReturnAtMostMaxRecords() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            storage.put(topic, mock(TbQueueMsg.class));
+        }
+
+        assertThat(storage.get(topic, 3)).hasSize(3);
+        assertThat(storage.get(topic, 1)).hasSize(1);
+        assertThat(storage.get(topic, 100)).hasSize(6);
+        assertThat(storage.getLag(topic)).isEqualTo(0);
+    }
+
+    @Test
+    public void givenFullQueueAndRejectPolicy_whenPut_thenReturnFalse() throws InterruptedException {
+        InMemoryStorage storage = new DefaultInMemoryStorage(4, "", "reject", 0, MAX_POLL_SIZE);
+        for (int i = 0; i < 4; i++) {
+            assertThat(storage.put(topic, mock(TbQueueMsg.class))).isTrue();
+        }
+        assertThat(storage.put(topic, mock(TbQueueMsg.class))).isFalse();
+        assertThat(storage.getLag(topic)).isEqualTo(4);
+
+        storage.get(topic, 1);
+        assertThat(storage.put(topic, mock(TbQueueMsg.class))).isTrue();
+    }
+
+    @Test
+    public void givenFullQueue_whenPut_thenCountRejectedMessages() {
+        DefaultInMemoryStorage storage = new DefaultInMemoryStorage(2, "", "reject", 0, MAX_POLL_SIZE);
+        for (int i = 0; i < 5; i++) {
+            storage.put(topic, mock(TbQueueMsg.class));
+        }
+        assertThat(storage.getRejectedCount(topic)).isEqualTo(3);
+    }
+
+    @Test
+    public void givenFullQueueAndNoCallback_whenSend_thenThrowException() {
+        DefaultInMemoryStorage storage = new DefaultInMemoryStorage(2, "", "reject", 0, MAX_POLL_SIZE);
+        InMemoryTbQueueProducer<TbQueueMsg> producer = new InMemoryTbQueueProducer<>(storage, topic);
+        TopicPartitionInfo tpi = new TopicPartitionInfo(topic, null, null, false);
+        producer.send(tpi, mock(TbQueueMsg.class), null);
+        producer.send(tpi, mock(TbQueueMsg.class), null);
+
+        assertThatThrownBy(() -> producer.send(tpi, mock(TbQueueMsg.class), null))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("is full");
+        TbQueueCallback callback = mock(TbQueueCallback.class);
+        producer.send(tpi, mock(TbQueueMsg.class), callback);
+        verify(callback).onFailure(any());
+    }
+
+    @Test
+    public void givenFullQueueAndBlockPolicy_whenConsumerFreesSpace_thenPutSucceeds() throws Exception {
+        InMemoryStorage storage = new DefaultInMemoryStorage(2, "", "block", 10000, MAX_POLL_SIZE);
+        assertThat(storage.put(topic, mock(TbQueueMsg.class))).isTrue();
+        assertThat(storage.put(topic, mock(TbQueueMsg.class))).isTrue();
+
+        Thread consumer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+                storage.get(topic, 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        assertThat(storage.put(topic, mock(TbQueueMsg.class))).isTrue();
+        consumer.join();
+        assertThat(storage.getLag(topic)).isEqualTo(2);
+    }
+
+    @Test
+    public void givenTopicCapacities_whenGetCapacity_thenLongestPrefixWins() {
+        DefaultInMemoryStorage storage = new DefaultInMemoryStorage(16, "tb_core:32, tb_core_notification:64", "reject", 0, MAX_POLL_SIZE);
+
+        assertThat(storage.getCapacity("tb_rule_engine.main.0")).isEqualTo(16);
+        assertThat(storage.getCapacity("tb_core.0")).isEqualTo(32);
+        assertThat(storage.getCapacity(topic)).isEqualTo(64);
+    }
+
 }
@@ -0,0 +1,101 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryRingBufferTest {
+
+    @Test
+    public void givenCapacity_whenCreate_thenRoundUpToPowerOfTwo() {
+        assertThat(new InMemoryRingBuffer<>(1).capacity()).isEqualTo(2);
+        assertThat(new InMemoryRingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new InMemoryRingBuffer<>(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    public void givenFullBuffer_whenOffer_thenRejectUntilPolled() {
+        InMemoryRingBuffer<Integer> buffer = new InMemoryRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.getProducedCount()).isEqualTo(5);
+        assertThat(buffer.getConsumedCount()).isEqualTo(5);
+    }
+
+    @Test
+    public void givenConcurrentProducers_whenDrain_thenKeepPerProducerOrder() throws Exception {
+        int producers = 4;
+        int msgsPerProducer = 100_000;
+        InMemoryRingBuffer<long[]> buffer = new InMemoryRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                executor.submit(() -> {
+                    for (long i = 0; i < msgsPerProducer; i++) {
+                        while (!buffer.offer(new long[]{producer, i})) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+
+            long[] lastSeen = new long[producers];
+            Arrays.fill(lastSeen, -1);
+            int received = 0;
+            List<long[]> batch = new ArrayList<>();
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+            while (received < producers * msgsPerProducer && System.currentTimeMillis() < deadline) {
+                batch.clear();
+                buffer.drainTo(batch, 1000);
+                for (long[] msg : batch) {
+                    assertThat(msg[1]).isEqualTo(lastSeen[(int) msg[0]] + 1);
+                    lastSeen[(int) msg[0]] = msg[1];
+                }
+                received += batch.size();
+            }
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(received).isEqualTo(producers * msgsPerProducer);
+            assertThat(buffer.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.queue.memory;
+
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.queue.TbQueueMsg;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InMemoryTbQueueConsumerTest {
+
+    private final InMemoryStorage storage = new DefaultInMemoryStorage(1024, "", "reject", 0, 1000);
+
+    @Test
+    public void givenBusyPartitions_whenPoll_thenEveryPartitionGetsShare() {
+        Set<TopicPartitionInfo> partitions = new LinkedHashSet<>();
+        for (int p = 0; p < 3; p++) {
+            partitions.add(new TopicPartitionInfo("tb_rule_engine.main", null, p, true));
+            for (int i = 0; i < 100; i++) {
+                storage.put("tb_rule_engine.main." + p, msg(p));
+            }
+        }
+        InMemoryTbQueueConsumer<TbQueueMsg> consumer = new InMemoryTbQueueConsumer<>(storage, "tb_rule_engine.main", 30);
+        consumer.subscribe(partitions);
+
+        List<TbQueueMsg> polled = consumer.poll(1);
+        assertThat(polled).hasSize(30);
+        assertThat(polled).filteredOn(msg -> partitionOf(msg) == 0).hasSize(10);
+        assertThat(polled).filteredOn(msg -> partitionOf(msg) == 1).hasSize(10);
+        assertThat(polled).filteredOn(msg -> partitionOf(msg) == 2).hasSize(10);
+    }
+
+    @Test
+    public void givenIdlePartition_whenPoll_thenBudgetGoesToOtherPartitions() {
+        Set<TopicPartitionInfo> partitions = new LinkedHashSet<>();
+        for (int p = 0; p < 3; p++) {
+            partitions.add(new TopicPartitionInfo("tb_rule_engine.main", null, p, true));
+        }
+        for (int i = 0; i < 100; i++) {
+            storage.put("tb_rule_engine.main.2", msg(2));
+        }
+        storage.put("tb_rule_engine.main.0", msg(0));
+        InMemoryTbQueueConsumer<TbQueueMsg> consumer = new InMemoryTbQueueConsumer<>(storage, "tb_rule_engine.main", 30);
+        consumer.subscribe(partitions);
+
+        List<TbQueueMsg> polled = consumer.poll(1);
+        assertThat(polled).hasSize(30);
+        assertThat(polled).filteredOn(msg -> partitionOf(msg) == 0).hasSize(1);
+        assertThat(polled).filteredOn(msg -> partitionOf(msg) == 2).hasSize(29);
+    }
+
+    @Test
+    public void givenBudgetSmallerThanPartitionsCount_whenPoll_thenPartitionsTakeTurns() {
+        Set<TopicPartitionInfo> partitions = new LinkedHashSet<>();
+        for (int p = 0; p < 4; p++) {
+            partitions.add(new TopicPartitionInfo("tb_rule_engine.main", null, p, true));
+            for (int i = 0; i < 10; i++) {
+                storage.put("tb_rule_engine.main." + p, msg(p));
+            }
+        }
+        InMemoryTbQueueConsumer<TbQueueMsg> consumer = new InMemoryTbQueueConsumer<>(storage, "tb_rule_engine.main", 2);
+        consumer.subscribe(partitions);
+
+        Set<Integer> polledPartitions = new LinkedHashSet<>();
+        for (int i = 0; i < 2; i++) {
+            consumer.poll(1).forEach(msg -> polledPartitions.add(partitionOf(msg)));
+        }
+        assertThat(polledPartitions).containsExactlyInAnyOrder(0, 1, 2, 3);
+    }
+
+    private static TbQueueMsg msg(int partition) {
+        TbQueueMsg msg = mock(TbQueueMsg.class);
+        when(msg.getKey()).thenReturn(new UUID(0, partition));
+        return msg;
+    }
+
+    private static int partitionOf(TbQueueMsg msg) {
+        return (int) msg.getKey().getLeastSignificantBits();
+    }
+
+}
@@ -258,6 +258,8 @@ public abstract class AbstractScriptInvokeService implements ScriptInvokeService
         for (Object arg : args) {
             if (arg instanceof CharSequence) {
                 totalArgsSize += ((CharSequence) arg).length();
+            } else if (arg instanceof PreparsedScriptArg) {
+                totalArgsSize += ((PreparsedScriptArg) arg).size();
             } else {
                 var str = JacksonUtil.toString(arg);
                 if (str != null) {
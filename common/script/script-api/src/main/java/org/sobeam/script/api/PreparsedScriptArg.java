@@ -0,0 +1,26 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.script.api;
+
+/**
+ * Script argument that is already parsed by the caller, e.g. the JSON tree of the message data.
+ * The value is shared with the caller and must not be modified by the script engine.
+ *
+ * @param value parsed argument value
+ * @param size  length of the argument in the serialized form, used for the input arguments size check
+ */
+public record PreparsedScriptArg(Object value, long size) {
+}
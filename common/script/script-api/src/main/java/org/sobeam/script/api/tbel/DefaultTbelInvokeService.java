@@ -32,6 +32,7 @@ import org.mvel2.ParserContext;
 import org.mvel2.SandboxedParserConfiguration;
 import org.mvel2.ScriptMemoryOverflowException;
 import org.mvel2.optimizers.OptimizerFactory;
+import org.mvel2.util.ArgsRepackUtil;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -213,7 +214,9 @@ public class DefaultTbelInvokeService extends AbstractScriptInvokeService implem
             TbelScript script = scriptMap.get(scriptHash);
             Serializable compiledScript = compiledScriptsCache.get(scriptHash, k -> compileScript(script.getScriptBody()));
             try {
-                return MVEL.executeTbExpression(compiledScript, executionContext, script.createVars(args));
+                // Variables are already repacked by the script, so the repacking of MVEL.executeTbExpression is skipped
+                Object result = MVEL.executeExpression(compiledScript, executionContext, script.createVars(executionContext, args));
+                return ArgsRepackUtil.unpack(result);
             } catch (ScriptMemoryOverflowException e) {
                 throw new TbScriptException(scriptId, TbScriptException.ErrorCode.OTHER, script.getScriptBody(), new RuntimeException("Script memory overflow!"));
             } catch (Exception e) {
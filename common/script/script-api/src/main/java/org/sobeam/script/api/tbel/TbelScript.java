@@ -15,9 +15,17 @@
  */
 package org.sobeam.script.api.tbel;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Data;
+import org.mvel2.ExecutionContext;
+import org.mvel2.execution.ExecutionArrayList;
+import org.mvel2.execution.ExecutionHashMap;
+import org.mvel2.util.ArgsRepackUtil;
+import org.sobeam.common.util.JacksonUtil;
+import org.sobeam.script.api.PreparsedScriptArg;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 @Data
@@ -26,14 +34,59 @@ public class TbelScript {
     private final String scriptBody;
     private final String[] argNames;
 
-    public Map createVars(Object[] args) {
+    /**
+     * Creates the script variables repacked into the TBEL execution structures, so the memory they use is
+     * accounted by the execution context. Pre-parsed arguments are copied directly from the parsed value:
+     * the copy is the only one made and the shared value of the caller is never modified by the script.
+     */
+    public Map<String, Object> createVars(ExecutionContext ctx, Object[] args) {
         if (args == null || args.length != argNames.length) {
             throw new IllegalArgumentException("Invalid number of argument values");
         }
-        var result = new HashMap<>();
+        var result = new HashMap<String, Object>();
         for (int i = 0; i < argNames.length; i++) {
-            result.put(argNames[i], args[i]);
+            result.put(argNames[i], repack(ctx, args[i]));
         }
         return result;
     }
+
+    private static Object repack(ExecutionContext ctx, Object arg) {
+        if (arg instanceof PreparsedScriptArg) {
+            arg = ((PreparsedScriptArg) arg).value();
+        }
+        if (arg instanceof JsonNode) {
+            return repack(ctx, (JsonNode) arg);
+        }
+        return ArgsRepackUtil.repack(ctx, arg);
+    }
+
+    private static Object repack(ExecutionContext ctx, JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT:
+                ExecutionHashMap<String, Object> map = new ExecutionHashMap<>(node.size(), ctx);
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    map.put(field.getKey(), repack(ctx, field.getValue()));
+                }
+                return map;
+            case ARRAY:
+                ExecutionArrayList<Object> list = new ExecutionArrayList<>(ctx);
+                for (JsonNode element : node) {
+                    list.add(repack(ctx, element));
+                }
+                return list;
+            case STRING:
+                return node.textValue();
+            case NUMBER:
+                return node.numberValue();
+            case BOOLEAN:
+                return node.booleanValue();
+            case NULL:
+            case MISSING:
+                return null;
+            default:
+                return ArgsRepackUtil.repack(ctx, JacksonUtil.convertValue(node, Object.class));
+        }
+    }
 }
@@ -15,15 +15,29 @@
  */
 package org.sobeam.server.common.stats;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
 public class DefaultMessagesStats implements MessagesStats {
     private final StatsCounter totalCounter;
     private final StatsCounter successfulCounter;
     private final StatsCounter failedCounter;
+    private final DistributionSummary queueSizeSummary;
+    private final Timer processingTimer;
 
     public DefaultMessagesStats(StatsCounter totalCounter, StatsCounter successfulCounter, StatsCounter failedCounter) {
+        this(totalCounter, successfulCounter, failedCounter, null, null);
+    }
+
+    public DefaultMessagesStats(StatsCounter totalCounter, StatsCounter successfulCounter, StatsCounter failedCounter,
+                                DistributionSummary queueSizeSummary, Timer processingTimer) {
         this.totalCounter = totalCounter;
         this.successfulCounter = successfulCounter;
         this.failedCounter = failedCounter;
+        this.queueSizeSummary = queueSizeSummary;
+        this.processingTimer = processingTimer;
     }
 
     @Override
@@ -41,6 +55,20 @@ public class DefaultMessagesStats implements MessagesStats {
         failedCounter.add(amount);
     }
 
+    @Override
+    public void recordQueueSize(int queueSize) {
+        if (queueSizeSummary != null) {
+            queueSizeSummary.record(queueSize);
+        }
+    }
+
+    @Override
+    public void recordProcessingTime(long timeMs) {
+        if (processingTimer != null) {
+            processingTimer.record(timeMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
     @Override
     public int getTotal() {
         return totalCounter.get();
@@ -16,6 +16,7 @@
 package org.sobeam.server.common.stats;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
@@ -33,6 +34,8 @@ public class DefaultStatsFactory implements StatsFactory {
     private static final String TOTAL_MSGS = "totalMsgs";
     private static final String SUCCESSFUL_MSGS = "successfulMsgs";
     private static final String FAILED_MSGS = "failedMsgs";
+    private static final String QUEUE_SIZE_SUFFIX = ".queueSize";
+    private static final String PROCESSING_TIME_SUFFIX = ".processingTime";
 
     private static final String STATS_NAME_TAG = "statsName";
 
@@ -94,6 +97,19 @@ public class DefaultStatsFactory implements StatsFactory {
         return new DefaultMessagesStats(totalCounter, successfulCounter, failedCounter);
     }
 
+    @Override
+    public MessagesStats createMessagesStatsWithHistograms(String key) {
+        if (!metricsEnabled) {
+            return createMessagesStats(key);
+        }
+        StatsCounter totalCounter = createStatsCounter(key, TOTAL_MSGS);
+        StatsCounter successfulCounter = createStatsCounter(key, SUCCESSFUL_MSGS);
+        StatsCounter failedCounter = createStatsCounter(key, FAILED_MSGS);
+        DistributionSummary queueSizeSummary = createDistributionSummary(key + QUEUE_SIZE_SUFFIX);
+        Timer processingTimer = createTimer(key + PROCESSING_TIME_SUFFIX);
+        return new DefaultMessagesStats(totalCounter, successfulCounter, failedCounter, queueSizeSummary, processingTimer);
+    }
+
     @Override
     public Timer createTimer(String key, String... tags) {
         Timer.Builder timerBuilder = Timer.builder(key)
@@ -112,6 +128,17 @@ public class DefaultStatsFactory implements StatsFactory {
                 .register(meterRegistry));
     }
 
+    @Override
+    public DistributionSummary createDistributionSummary(String key, String... tags) {
+        DistributionSummary.Builder summaryBuilder = DistributionSummary.builder(key)
+                .tags(tags)
+                .publishPercentiles();
+        if (timerPercentiles != null && timerPercentiles.length > 0) {
+            summaryBuilder.publishPercentiles(timerPercentiles);
+        }
+        return summaryBuilder.register(meterRegistry);
+    }
+
     private static String[] getTags(String statsName, String[] otherTags) {
         String[] tags = new String[]{STATS_NAME_TAG, statsName};
         if (otherTags.length > 0) {
@@ -34,6 +34,18 @@ public interface MessagesStats {
 
     void incrementFailed(int amount);
 
+    /**
+     * Records the number of messages waiting in the queue at the moment of processing.
+     */
+    default void recordQueueSize(int queueSize) {
+    }
+
+    /**
+     * Records the time spent to process (e.g. flush) a pack of messages.
+     */
+    default void recordProcessingTime(long timeMs) {
+    }
+
     int getTotal();
 
     int getSuccessful();
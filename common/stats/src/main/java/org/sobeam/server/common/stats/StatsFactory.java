@@ -15,6 +15,7 @@
  */
 package org.sobeam.server.common.stats;
 
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Timer;
 
 public interface StatsFactory {
@@ -27,8 +28,15 @@ public interface StatsFactory {
 
     MessagesStats createMessagesStats(String key);
 
+    /**
+     * Creates messages stats that additionally export queue size and processing time histograms, if metrics are enabled.
+     */
+    MessagesStats createMessagesStatsWithHistograms(String key);
+
     Timer createTimer(String key, String... tags);
 
     StatsTimer createTimer(StatsType type, String name, String... tags);
 
+    DistributionSummary createDistributionSummary(String key, String... tags);
+
 }
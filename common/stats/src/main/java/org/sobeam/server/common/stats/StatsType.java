@@ -21,7 +21,9 @@ public enum StatsType {
     TRANSPORT("transport"),
     JS_INVOKE("jsInvoke"),
     RATE_EXECUTOR("rateExecutor"),
-    HOUSEKEEPER("housekeeper");
+    HOUSEKEEPER("housekeeper"),
+    ACTOR_DISPATCHER("actorDispatcher"),
+    WS_UPDATES("wsUpdates");
 
     private String name;
 
@@ -31,6 +31,7 @@ import org.sobeam.server.common.data.StringUtils;
 import org.sobeam.server.common.data.id.DeviceId;
 import org.sobeam.server.common.adaptor.AdaptorException;
 import org.sobeam.server.common.adaptor.JsonConverter;
+import org.sobeam.server.common.adaptor.JsonStreamConverter;
 import org.sobeam.server.gen.transport.TransportProtos;
 import org.sobeam.server.transport.coap.CoapTransportResource;
 
@@ -43,9 +44,8 @@ public class JsonCoapAdaptor implements CoapTransportAdaptor {
 
     @Override
     public TransportProtos.PostTelemetryMsg convertToPostTelemetry(UUID sessionId, Request inbound, Descriptors.Descriptor telemetryMsgDescriptor) throws AdaptorException {
-        String payload = validatePayload(sessionId, inbound, false);
         try {
-            return JsonConverter.convertToTelemetryProto(JsonParser.parseString(payload));
+            return JsonStreamConverter.convertToTelemetryProto(createJsonParser(sessionId, inbound), inbound::getPayloadString);
         } catch (IllegalStateException | JsonSyntaxException ex) {
             throw new AdaptorException(ex);
         }
@@ -53,9 +53,8 @@ public class JsonCoapAdaptor implements CoapTransportAdaptor {
 
     @Override
     public TransportProtos.PostAttributeMsg convertToPostAttributes(UUID sessionId, Request inbound, Descriptors.Descriptor attributesMsgDescriptor) throws AdaptorException {
-        String payload = validatePayload(sessionId, inbound, false);
         try {
-            return JsonConverter.convertToAttributesProto(JsonParser.parseString(payload));
+            return JsonStreamConverter.convertToAttributesProto(createJsonParser(sessionId, inbound), inbound::getPayloadString);
         } catch (IllegalStateException | JsonSyntaxException ex) {
             throw new AdaptorException(ex);
         }
@@ -150,6 +149,15 @@ public class JsonCoapAdaptor implements CoapTransportAdaptor {
         return response;
     }
 
+    private static com.fasterxml.jackson.core.JsonParser createJsonParser(UUID sessionId, Request inbound) throws AdaptorException {
+        byte[] payload = inbound.getPayload();
+        if (payload == null || payload.length == 0) {
+            log.debug("[{}] Payload is empty!", sessionId);
+            throw new AdaptorException(new IllegalArgumentException("Payload is empty!"));
+        }
+        return JsonStreamConverter.createParser(payload, 0, payload.length);
+    }
+
     private String validatePayload(UUID sessionId, Request inbound, boolean isEmptyPayloadAllowed) throws AdaptorException {
         String payload = inbound.getPayloadString();
         if (payload == null) {
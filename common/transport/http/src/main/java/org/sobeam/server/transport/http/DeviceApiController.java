@@ -50,6 +50,7 @@ import org.sobeam.server.common.transport.TransportContext;
 import org.sobeam.server.common.transport.TransportService;
 import org.sobeam.server.common.transport.TransportServiceCallback;
 import org.sobeam.server.common.adaptor.JsonConverter;
+import org.sobeam.server.common.adaptor.JsonStreamConverter;
 import org.sobeam.server.common.transport.auth.SessionInfoCreator;
 import org.sobeam.server.common.transport.auth.ValidateDeviceCredentialsResponse;
 import org.sobeam.server.gen.transport.TransportProtos;
@@ -185,7 +186,7 @@ public class DeviceApiController implements TbTransportService {
         transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
                 new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
                     TransportService transportService = transportContext.getTransportService();
-                    transportService.process(sessionInfo, JsonConverter.convertToAttributesProto(JsonParser.parseString(json)),
+                    transportService.process(sessionInfo, JsonStreamConverter.convertToAttributesProto(JsonStreamConverter.createParser(json), () -> json),
                             new HttpOkCallback(responseWriter));
                 }));
         return responseWriter;
@@ -205,7 +206,7 @@ public class DeviceApiController implements TbTransportService {
         transportContext.getTransportService().process(DeviceTransportType.DEFAULT, ValidateDeviceTokenRequestMsg.newBuilder().setToken(deviceToken).build(),
                 new DeviceAuthCallback(transportContext, responseWriter, sessionInfo -> {
                     TransportService transportService = transportContext.getTransportService();
-                    transportService.process(sessionInfo, JsonConverter.convertToTelemetryProto(JsonParser.parseString(json)),
+                    transportService.process(sessionInfo, JsonStreamConverter.convertToTelemetryProto(JsonStreamConverter.createParser(json), () -> json),
                             new HttpOkCallback(responseWriter));
                 }));
         return responseWriter;
@@ -80,8 +80,8 @@ import org.sobeam.server.transport.mqtt.adaptors.MqttTransportAdaptor;
 import org.sobeam.server.transport.mqtt.adaptors.ProtoMqttAdaptor;
 import org.sobeam.server.transport.mqtt.session.DeviceSessionCtx;
 import org.sobeam.server.transport.mqtt.session.GatewaySessionHandler;
-import org.sobeam.server.transport.mqtt.session.MqttTopicMatcher;
 import org.sobeam.server.transport.mqtt.session.SparkplugNodeSessionHandler;
+import org.sobeam.server.transport.mqtt.util.MqttTopicTrie;
 import org.sobeam.server.transport.mqtt.util.ReturnCodeResolver;
 import org.sobeam.server.transport.mqtt.util.sparkplug.SparkplugMessageType;
 import org.sobeam.server.transport.mqtt.util.sparkplug.SparkplugRpcRequestHeader;
@@ -141,7 +141,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
     private final TransportService transportService;
     private final SchedulerComponent scheduler;
     private final SslHandler sslHandler;
-    private final ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap;
+    private final MqttTopicTrie<Integer> mqttQoSMap;
 
     final DeviceSessionCtx deviceSessionCtx;
     volatile InetSocketAddress address;
@@ -163,7 +163,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
         this.transportService = context.getTransportService();
         this.scheduler = context.getScheduler();
         this.sslHandler = sslHandler;
-        this.mqttQoSMap = new ConcurrentHashMap<>();
+        this.mqttQoSMap = new MqttTopicTrie<>();
         this.deviceSessionCtx = new DeviceSessionCtx(sessionId, mqttQoSMap, context);
         this.otaPackSessions = new ConcurrentHashMap<>();
         this.chunkSizes = new ConcurrentHashMap<>();
@@ -861,7 +861,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
 
     public void registerSubQoS(String topic, List<Integer> grantedQoSList, MqttQoS reqQoS) {
         grantedQoSList.add(getMinSupportedQos(reqQoS));
-        mqttQoSMap.put(new MqttTopicMatcher(topic), getMinSupportedQos(reqQoS));
+        mqttQoSMap.put(topic, getMinSupportedQos(reqQoS));
     }
 
     private void processUnsubscribe(ChannelHandlerContext ctx, MqttUnsubscribeMessage mqttMsg) {
@@ -874,9 +874,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
         List<Short> unSubResults = new ArrayList<>();
         log.trace("[{}] Processing subscription [{}]!", sessionId, mqttMsg.variableHeader().messageId());
         for (String topicName : mqttMsg.payload().topics()) {
-            MqttTopicMatcher matcher = new MqttTopicMatcher(topicName);
-            if (mqttQoSMap.containsKey(matcher)) {
-                mqttQoSMap.remove(matcher);
+            if (mqttQoSMap.remove(topicName) != null) {
                 try {
                     short resultValue = MqttReasonCodes.UnsubAck.SUCCESS.byteValue();
                     switch (topicName) {
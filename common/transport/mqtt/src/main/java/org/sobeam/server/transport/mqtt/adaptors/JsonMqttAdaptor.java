@@ -20,6 +20,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.handler.codec.mqtt.MqttFixedHeader;
 import io.netty.handler.codec.mqtt.MqttMessage;
 import io.netty.handler.codec.mqtt.MqttMessageType;
@@ -32,6 +33,7 @@ import org.sobeam.server.common.data.device.profile.MqttTopics;
 import org.sobeam.server.common.data.ota.OtaPackageType;
 import org.sobeam.server.common.adaptor.AdaptorException;
 import org.sobeam.server.common.adaptor.JsonConverter;
+import org.sobeam.server.common.adaptor.JsonStreamConverter;
 import org.sobeam.server.gen.transport.TransportProtos;
 import org.sobeam.server.transport.mqtt.session.MqttDeviceAwareSessionContext;
 
@@ -57,9 +59,8 @@ public class JsonMqttAdaptor implements MqttTransportAdaptor {
 
     @Override
     public TransportProtos.PostTelemetryMsg convertToPostTelemetry(MqttDeviceAwareSessionContext ctx, MqttPublishMessage inbound) throws AdaptorException {
-        String payload = validatePayload(ctx.getSessionId(), inbound.payload(), false);
         try {
-            return JsonConverter.convertToTelemetryProto(JsonParser.parseString(payload));
+            return JsonStreamConverter.convertToTelemetryProto(createJsonParser(ctx.getSessionId(), inbound.payload()), () -> inbound.payload().toString(UTF8));
         } catch (IllegalStateException | JsonSyntaxException ex) {
             log.debug("Failed to decode post telemetry request", ex);
             throw new AdaptorException(ex);
@@ -68,9 +69,8 @@ public class JsonMqttAdaptor implements MqttTransportAdaptor {
 
     @Override
     public TransportProtos.PostAttributeMsg convertToPostAttributes(MqttDeviceAwareSessionContext ctx, MqttPublishMessage inbound) throws AdaptorException {
-        String payload = validatePayload(ctx.getSessionId(), inbound.payload(), false);
         try {
-            return JsonConverter.convertToAttributesProto(JsonParser.parseString(payload));
+            return JsonStreamConverter.convertToAttributesProto(createJsonParser(ctx.getSessionId(), inbound.payload()), () -> inbound.payload().toString(UTF8));
         } catch (IllegalStateException | JsonSyntaxException ex) {
             log.debug("Failed to decode post attributes request", ex);
             throw new AdaptorException(ex);
@@ -272,6 +272,21 @@ public class JsonMqttAdaptor implements MqttTransportAdaptor {
         return payload;
     }
 
+    /**
+     * Parses the payload bytes without copying them to a string.
+     * Heap buffers are parsed in place, the duplicate of the direct buffer keeps the reader index of the original buffer intact.
+     */
+    public static com.fasterxml.jackson.core.JsonParser createJsonParser(UUID sessionId, ByteBuf payloadData) throws AdaptorException {
+        if (!payloadData.isReadable()) {
+            log.debug("[{}] Payload is empty!", sessionId);
+            throw new AdaptorException(new IllegalArgumentException("Payload is empty!"));
+        }
+        if (payloadData.hasArray()) {
+            return JsonStreamConverter.createParser(payloadData.array(), payloadData.arrayOffset() + payloadData.readerIndex(), payloadData.readableBytes());
+        }
+        return JsonStreamConverter.createParser(new ByteBufInputStream(payloadData.duplicate()));
+    }
+
     private int getRequestId(String topicName, String topic) {
         return Integer.parseInt(topicName.substring(topic.length()));
     }
@@ -27,9 +27,9 @@ import org.sobeam.server.common.transport.TransportServiceCallback;
 import org.sobeam.server.common.transport.auth.TransportDeviceInfo;
 import org.sobeam.server.gen.transport.TransportProtos;
 import org.sobeam.server.gen.transport.TransportProtos.SessionInfoProto;
+import org.sobeam.server.transport.mqtt.util.MqttTopicTrie;
 
 import java.util.UUID;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created by ashvayka on 19.01.17.
@@ -41,7 +41,7 @@ public abstract class AbstractGatewayDeviceSessionContext<T extends AbstractGate
     private final TransportService transportService;
 
     public AbstractGatewayDeviceSessionContext(T parent, TransportDeviceInfo deviceInfo,
-                                               DeviceProfile deviceProfile, ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap,
+                                               DeviceProfile deviceProfile, MqttTopicTrie<Integer> mqttQoSMap,
                                                TransportService transportService) {
         super(UUID.randomUUID(), mqttQoSMap);
         this.parent = parent;
@@ -15,6 +15,8 @@
  */
 package org.sobeam.server.transport.mqtt.session;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -42,6 +44,7 @@ import org.springframework.util.ConcurrentReferenceHashMap;
 import org.sobeam.common.util.DonAsynchron;
 import org.sobeam.server.common.adaptor.AdaptorException;
 import org.sobeam.server.common.adaptor.JsonConverter;
+import org.sobeam.server.common.adaptor.JsonStreamConverter;
 import org.sobeam.server.common.adaptor.ProtoConverter;
 import org.sobeam.server.common.data.DataConstants;
 import org.sobeam.server.common.data.Device;
@@ -62,12 +65,15 @@ import org.sobeam.server.transport.mqtt.MqttTransportHandler;
 import org.sobeam.server.transport.mqtt.adaptors.JsonMqttAdaptor;
 import org.sobeam.server.transport.mqtt.adaptors.MqttTransportAdaptor;
 import org.sobeam.server.transport.mqtt.adaptors.ProtoMqttAdaptor;
+import org.sobeam.server.transport.mqtt.util.MqttTopicTrie;
 import org.sobeam.server.transport.mqtt.util.sparkplug.SparkplugConnectionState;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -78,6 +84,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 import static org.sobeam.server.common.data.DataConstants.DEFAULT_DEVICE_TYPE;
@@ -111,7 +118,7 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
     private final ConcurrentMap<String, Lock> deviceCreationLockMap;
     private final ConcurrentMap<String, T> devices;
     private final ConcurrentMap<String, ListenableFuture<T>> deviceFutures;
-    protected final ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap;
+    protected final MqttTopicTrie<Integer> mqttQoSMap;
     protected final ChannelHandlerContext channel;
     protected final DeviceSessionCtx deviceSessionCtx;
 
@@ -365,25 +372,22 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
     }
 
     protected void onDeviceTelemetryJson(int msgId, ByteBuf payload) throws AdaptorException {
-        JsonElement json = JsonMqttAdaptor.validateJsonPayload(sessionId, payload);
-        validateJsonObject(json);
-        for (Map.Entry<String, JsonElement> deviceEntry : json.getAsJsonObject().entrySet()) {
-            if (!deviceEntry.getValue().isJsonArray()) {
-                log.warn("{}[{}]", CAN_T_PARSE_VALUE, json);
-                continue;
-            }
-            String deviceName = deviceEntry.getKey();
-            process(deviceName, deviceCtx -> processPostTelemetryMsg(deviceCtx, deviceEntry.getValue(), deviceName, msgId),
-                    t -> failedToProcessLog(deviceName, TELEMETRY, t));
-        }
+        Map<String, GatewayJsonMsg<TransportProtos.PostTelemetryMsg>> deviceMsgs = convertGatewayJson(payload, JsonToken.START_ARRAY,
+                parser -> JsonStreamConverter.readTelemetryProto(parser, System.currentTimeMillis()), JsonConverter::convertToTelemetryProto);
+        deviceMsgs.forEach((deviceName, msg) ->
+                process(deviceName, deviceCtx -> processPostTelemetryMsg(deviceCtx, msg, deviceName, msgId),
+                        t -> failedToProcessLog(deviceName, TELEMETRY, t)));
     }
 
-    private void processPostTelemetryMsg(T deviceCtx, JsonElement msg, String deviceName, int msgId) {
+    private void processPostTelemetryMsg(T deviceCtx, GatewayJsonMsg<TransportProtos.PostTelemetryMsg> msg, String deviceName, int msgId) {
         try {
-            TransportProtos.PostTelemetryMsg postTelemetryMsg = JsonConverter.convertToTelemetryProto(msg.getAsJsonArray());
+            if (msg.error() != null) {
+                throw msg.error();
+            }
+            TransportProtos.PostTelemetryMsg postTelemetryMsg = msg.msg();
             transportService.process(deviceCtx.getSessionInfo(), postTelemetryMsg, getPubAckCallback(channel, deviceName, msgId, postTelemetryMsg));
         } catch (Throwable e) {
-            log.warn("[{}][{}][{}] Failed to convert telemetry: [{}]", gateway.getTenantId(), gateway.getDeviceId(), deviceName, msg, e);
+            log.warn("[{}][{}][{}] Failed to convert telemetry", gateway.getTenantId(), gateway.getDeviceId(), deviceName, e);
             ackOrClose(msgId);
         }
     }
@@ -485,26 +489,22 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
     }
 
     private void onDeviceAttributesJson(int msgId, ByteBuf payload) throws AdaptorException {
-        JsonElement json = JsonMqttAdaptor.validateJsonPayload(sessionId, payload);
-        validateJsonObject(json);
-        for (Map.Entry<String, JsonElement> deviceEntry : json.getAsJsonObject().entrySet()) {
-            if (!deviceEntry.getValue().isJsonObject()) {
-                log.warn("{}[{}]", CAN_T_PARSE_VALUE, json);
-                continue;
-            }
-
-            String deviceName = deviceEntry.getKey();
-            process(deviceName, deviceCtx -> processPostAttributesMsg(deviceCtx, deviceEntry.getValue(), deviceName, msgId),
-                    t -> failedToProcessLog(deviceName, ATTRIBUTE, t));
-        }
+        Map<String, GatewayJsonMsg<TransportProtos.PostAttributeMsg>> deviceMsgs = convertGatewayJson(payload, JsonToken.START_OBJECT,
+                JsonStreamConverter::readAttributesProto, JsonConverter::convertToAttributesProto);
+        deviceMsgs.forEach((deviceName, msg) ->
+                process(deviceName, deviceCtx -> processPostAttributesMsg(deviceCtx, msg, deviceName, msgId),
+                        t -> failedToProcessLog(deviceName, ATTRIBUTE, t)));
     }
 
-    private void processPostAttributesMsg(MqttDeviceAwareSessionContext deviceCtx, JsonElement msg, String deviceName, int msgId) {
+    private void processPostAttributesMsg(MqttDeviceAwareSessionContext deviceCtx, GatewayJsonMsg<TransportProtos.PostAttributeMsg> msg, String deviceName, int msgId) {
         try {
-            TransportProtos.PostAttributeMsg postAttributeMsg = JsonConverter.convertToAttributesProto(msg.getAsJsonObject());
+            if (msg.error() != null) {
+                throw msg.error();
+            }
+            TransportProtos.PostAttributeMsg postAttributeMsg = msg.msg();
             transportService.process(deviceCtx.getSessionInfo(), postAttributeMsg, getPubAckCallback(channel, deviceName, msgId, postAttributeMsg));
         } catch (Throwable e) {
-            log.warn("[{}][{}][{}] Failed to process device attributes command: [{}]", gateway.getTenantId(), gateway.getDeviceId(), deviceName, msg, e);
+            log.warn("[{}][{}][{}] Failed to process device attributes command", gateway.getTenantId(), gateway.getDeviceId(), deviceName, e);
             ackOrClose(msgId);
         }
     }
@@ -584,6 +584,66 @@ public abstract class AbstractGatewaySessionHandler<T extends AbstractGatewayDev
         onDeviceRpcResponse(requestId, data, deviceName, msgId);
     }
 
+    /**
+     * Reads the gateway payload {"device name": value, ...} and converts the device values of the expected type one by one, without the JSON tree.
+     * Malformed payload fails as a whole before any device is processed, while a conversion error fails only the device it belongs to.
+     * The payload malformed for the Jackson parser, e.g. with unquoted string values, is converted with the lenient Gson parser.
+     */
+    private <M> Map<String, GatewayJsonMsg<M>> convertGatewayJson(ByteBuf payload, JsonToken valueToken, GatewayJsonReader<M> reader,
+                                                                  Function<JsonElement, M> fallbackConverter) throws AdaptorException {
+        Map<String, GatewayJsonMsg<M>> result = new LinkedHashMap<>();
+        try (JsonParser parser = JsonMqttAdaptor.createJsonParser(sessionId, payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonSyntaxException(CAN_T_PARSE_VALUE + parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String deviceName = parser.currentName();
+                if (parser.nextToken() != valueToken) {
+                    log.warn("{}[{}]", CAN_T_PARSE_VALUE, deviceName);
+                    parser.skipChildren();
+                    continue;
+                }
+                try {
+                    result.put(deviceName, new GatewayJsonMsg<>(reader.read(parser), null));
+                } catch (RuntimeException e) {
+                    result.put(deviceName, new GatewayJsonMsg<>(null, e));
+                }
+            }
+            JsonStreamConverter.ensureConsumed(parser);
+        } catch (IOException e) {
+            log.trace("[{}] Payload is malformed for the stream parser, falling back to the lenient parser", sessionId, e);
+            return convertGatewayJson(JsonMqttAdaptor.validateJsonPayload(sessionId, payload), valueToken, fallbackConverter);
+        }
+        return result;
+    }
+
+    private <M> Map<String, GatewayJsonMsg<M>> convertGatewayJson(JsonElement json, JsonToken valueToken, Function<JsonElement, M> converter) {
+        validateJsonObject(json);
+        Map<String, GatewayJsonMsg<M>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> deviceEntry : json.getAsJsonObject().entrySet()) {
+            String deviceName = deviceEntry.getKey();
+            JsonElement value = deviceEntry.getValue();
+            if (valueToken == JsonToken.START_ARRAY ? !value.isJsonArray() : !value.isJsonObject()) {
+                log.warn("{}[{}]", CAN_T_PARSE_VALUE, deviceName);
+                continue;
+            }
+            try {
+                result.put(deviceName, new GatewayJsonMsg<>(converter.apply(value), null));
+            } catch (RuntimeException e) {
+                result.put(deviceName, new GatewayJsonMsg<>(null, e));
+            }
+        }
+        return result;
+    }
+
+    private record GatewayJsonMsg<M>(M msg, RuntimeException error) {
+    }
+
+    @FunctionalInterface
+    private interface GatewayJsonReader<M> {
+        M read(JsonParser parser) throws IOException;
+    }
+
     private static void validateJsonObject(JsonElement json) {
         if (!json.isJsonObject()) {
             throw new JsonSyntaxException(CAN_T_PARSE_VALUE + json);
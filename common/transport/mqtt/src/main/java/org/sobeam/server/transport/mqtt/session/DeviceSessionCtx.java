@@ -38,12 +38,12 @@ import org.sobeam.server.transport.mqtt.adaptors.BackwardCompatibilityAdaptor;
 import org.sobeam.server.transport.mqtt.adaptors.MqttTransportAdaptor;
 import org.sobeam.server.transport.mqtt.util.MqttTopicFilter;
 import org.sobeam.server.transport.mqtt.util.MqttTopicFilterFactory;
+import org.sobeam.server.transport.mqtt.util.MqttTopicTrie;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -100,7 +100,7 @@ public class DeviceSessionCtx extends MqttDeviceAwareSessionContext {
     private TransportPayloadType provisionPayloadType = payloadType;
 
 
-    public DeviceSessionCtx(UUID sessionId, ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap, MqttTransportContext context) {
+    public DeviceSessionCtx(UUID sessionId, MqttTopicTrie<Integer> mqttQoSMap, MqttTransportContext context) {
         super(sessionId, mqttQoSMap);
         this.context = context;
         this.adaptor = context.getJsonMqttAdaptor();
@@ -18,8 +18,8 @@ package org.sobeam.server.transport.mqtt.session;
 import org.sobeam.server.common.data.DeviceProfile;
 import org.sobeam.server.common.transport.TransportService;
 import org.sobeam.server.common.transport.auth.TransportDeviceInfo;
+import org.sobeam.server.transport.mqtt.util.MqttTopicTrie;
 
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created by nickAS21 on 26.12.22
@@ -29,7 +29,7 @@ public class GatewayDeviceSessionContext extends AbstractGatewayDeviceSessionCon
     public GatewayDeviceSessionContext(GatewaySessionHandler parent,
                                        TransportDeviceInfo deviceInfo,
                                        DeviceProfile deviceProfile,
-                                       ConcurrentMap<MqttTopicMatcher, Integer> mqttQoSMap,
+                                       MqttTopicTrie<Integer> mqttQoSMap,
                                        TransportService transportService) {
         super(parent, deviceInfo, deviceProfile, mqttQoSMap, transportService);
     }
@@ -1,55 +0,0 @@
-/**
- * Copyright © 2024 The Sobeam Authors
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package org.sobeam.server.transport.mqtt.session;
-
-import java.util.regex.Pattern;
-
-public class MqttTopicMatcher {
-
-    private final String topic;
-    private final Pattern topicRegex;
-
-    public MqttTopicMatcher(String topic) {
-        if(topic == null){
-            throw new NullPointerException("topic");
-        }
-        this.topic = topic;
-        this.topicRegex = Pattern.compile(topic.replace("+", "[^/]+").replace("#", ".+") + "$");
-    }
-
-    public String getTopic() {
-        return topic;
-    }
-
-    public boolean matches(String topic){
-        return this.topicRegex.matcher(topic).matches();
-    }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-
-        MqttTopicMatcher that = (MqttTopicMatcher) o;
-
-        return topic.equals(that.topic);
-    }
-
-    @Override
-    public int hashCode() {
-        return topic.hashCode();
-    }
-}
@@ -24,6 +24,7 @@ import org.sobeam.server.common.transport.TransportService;
 import org.sobeam.server.common.transport.auth.TransportDeviceInfo;
 import org.sobeam.server.gen.transport.TransportProtos;
 import org.sobeam.server.gen.transport.mqtt.SparkplugBProto;
+import org.sobeam.server.transport.mqtt.util.MqttTopicTrie;
 import org.sobeam.server.transport.mqtt.util.sparkplug.SparkplugMessageType;
 import org.sobeam.server.transport.mqtt.util.sparkplug.SparkplugRpcRequestHeader;
 import org.sobeam.server.transport.mqtt.util.sparkplug.SparkplugTopic;
@@ -32,7 +33,6 @@ import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 import static org.sobeam.server.transport.mqtt.util.sparkplug.SparkplugMetricUtil.getTsKvProto;
@@ -45,8 +45,7 @@ public class SparkplugDeviceSessionContext extends AbstractGatewayDeviceSessionC
     public SparkplugDeviceSessionContext(SparkplugNodeSessionHandler parent,
                                          TransportDeviceInfo deviceInfo,
                                          DeviceProfile deviceProfile,
-                                         ConcurrentMap<MqttTopicMatcher,
-                                                 Integer> mqttQoSMap,
+                                         MqttTopicTrie<Integer> mqttQoSMap,
                                          TransportService transportService) {
         super(parent, deviceInfo, deviceProfile, mqttQoSMap, transportService);
     }
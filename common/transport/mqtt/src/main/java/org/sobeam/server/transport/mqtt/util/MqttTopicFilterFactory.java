@@ -15,13 +15,11 @@
  */
 package org.sobeam.server.transport.mqtt.util;
 
-import lombok.extern.slf4j.Slf4j;
 import org.sobeam.server.common.data.device.profile.MqttTopics;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
-@Slf4j
 public class MqttTopicFilterFactory {
 
     private static final ConcurrentMap<String, MqttTopicFilter> filters = new ConcurrentHashMap<>();
@@ -36,12 +34,7 @@ public class MqttTopicFilterFactory {
             if (filter.equals("#")) {
                 return new AlwaysTrueTopicFilter();
             } else if (filter.contains("+") || filter.contains("#")) {
-                String regex = filter
-                        .replace("\\", "\\\\")
-                        .replace("+", "[^/]+")
-                        .replace("/#", "($|/.*)");
-                log.debug("Converting [{}] to [{}]", filter, regex);
-                return new RegexTopicFilter(regex);
+                return new WildcardTopicFilter(filter);
             } else {
                 return new EqualsTopicFilter(filter);
             }
@@ -0,0 +1,197 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.transport.mqtt.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps MQTT topic filters to values and finds the value of the filter that matches the published topic.
+ * <p>
+ * Filters without wildcards are kept in a hash map, so the lookup of an exactly subscribed topic is a single allocation-free map access.
+ * Wildcard filters are kept in a trie of topic levels. The lookup walks the trie level by level,
+ * so its cost depends on the depth of the topic and not on the number of filters.
+ * <p>
+ * The single-level wildcard '+' matches one non-empty level. The multi-level wildcard '#' matches the parent level
+ * and any number of child levels, e.g. "a/#" matches "a", "a/b" and "a/b/c". Levels that only contain a wildcard
+ * character among others, e.g. "a#", are matched literally.
+ * If several filters match the topic, the most specific one wins: exact filter first, then literal levels, '+' and finally '#'.
+ * <p>
+ * Lookups are lock-free. Updates are synchronized, since they happen only on subscribe and unsubscribe.
+ */
+public class MqttTopicTrie<T> {
+
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final ConcurrentMap<String, T> exactFilters = new ConcurrentHashMap<>();
+    private final Node<T> root = new Node<>();
+    private volatile int wildcardFiltersCount;
+
+    public synchronized T put(String filter, T value) {
+        if (!isWildcardFilter(filter)) {
+            return exactFilters.put(filter, value);
+        }
+        Node<T> node = root;
+        int start = 0;
+        while (true) {
+            int end = levelEnd(filter, start);
+            if (end == filter.length() && isLevel(filter, start, end, MULTI_LEVEL_WILDCARD)) {
+                T old = node.multiLevelValue;
+                node.multiLevelValue = value;
+                return onPut(old);
+            }
+            String level = filter.substring(start, end);
+            node = SINGLE_LEVEL_WILDCARD.equals(level) ? node.getOrCreatePlusChild() : node.children.computeIfAbsent(level, l -> new Node<>());
+            if (end == filter.length()) {
+                T old = node.value;
+                node.value = value;
+                return onPut(old);
+            }
+            start = end + 1;
+        }
+    }
+
+    public synchronized T remove(String filter) {
+        if (!isWildcardFilter(filter)) {
+            return exactFilters.remove(filter);
+        }
+        T old = remove(root, filter, 0);
+        if (old != null) {
+            wildcardFiltersCount--;
+        }
+        return old;
+    }
+
+    public T get(String topic) {
+        T value = exactFilters.get(topic);
+        if (value == null && wildcardFiltersCount > 0) {
+            value = match(root, topic, 0);
+        }
+        return value;
+    }
+
+    public boolean matches(String topic) {
+        return get(topic) != null;
+    }
+
+    public boolean isEmpty() {
+        return exactFilters.isEmpty() && wildcardFiltersCount == 0;
+    }
+
+    private T onPut(T old) {
+        if (old == null) {
+            wildcardFiltersCount++;
+        }
+        return old;
+    }
+
+    private T remove(Node<T> node, String filter, int start) {
+        int end = levelEnd(filter, start);
+        if (end == filter.length() && isLevel(filter, start, end, MULTI_LEVEL_WILDCARD)) {
+            T old = node.multiLevelValue;
+            node.multiLevelValue = null;
+            return old;
+        }
+        String level = filter.substring(start, end);
+        boolean plus = SINGLE_LEVEL_WILDCARD.equals(level);
+        Node<T> child = plus ? node.plusChild : node.children.get(level);
+        if (child == null) {
+            return null;
+        }
+        T old;
+        if (end == filter.length()) {
+            old = child.value;
+            child.value = null;
+        } else {
+            old = remove(child, filter, end + 1);
+        }
+        if (child.isEmpty()) {
+            if (plus) {
+                node.plusChild = null;
+            } else {
+                node.children.remove(level);
+            }
+        }
+        return old;
+    }
+
+    private T match(Node<T> node, String topic, int start) {
+        if (start > topic.length()) {
+            return node.value != null ? node.value : node.multiLevelValue;
+        }
+        int end = levelEnd(topic, start);
+        if (!node.children.isEmpty()) {
+            Node<T> child = node.children.get(topic.substring(start, end));
+            if (child != null) {
+                T value = match(child, topic, end + 1);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        Node<T> plusChild = node.plusChild;
+        if (plusChild != null && end > start) {
+            T value = match(plusChild, topic, end + 1);
+            if (value != null) {
+                return value;
+            }
+        }
+        return node.multiLevelValue;
+    }
+
+    private static boolean isWildcardFilter(String filter) {
+        int start = 0;
+        while (true) {
+            int end = levelEnd(filter, start);
+            if (isLevel(filter, start, end, SINGLE_LEVEL_WILDCARD) || (end == filter.length() && isLevel(filter, start, end, MULTI_LEVEL_WILDCARD))) {
+                return true;
+            }
+            if (end == filter.length()) {
+                return false;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static int levelEnd(String topic, int start) {
+        int end = topic.indexOf('/', start);
+        return end < 0 ? topic.length() : end;
+    }
+
+    private static boolean isLevel(String topic, int start, int end, String level) {
+        return end - start == level.length() && topic.startsWith(level, start);
+    }
+
+    private static class Node<T> {
+        private final ConcurrentMap<String, Node<T>> children = new ConcurrentHashMap<>();
+        private volatile Node<T> plusChild;
+        private volatile T value;
+        private volatile T multiLevelValue;
+
+        private Node<T> getOrCreatePlusChild() {
+            if (plusChild == null) {
+                plusChild = new Node<>();
+            }
+            return plusChild;
+        }
+
+        private boolean isEmpty() {
+            return value == null && multiLevelValue == null && plusChild == null && children.isEmpty();
+        }
+    }
+
+}
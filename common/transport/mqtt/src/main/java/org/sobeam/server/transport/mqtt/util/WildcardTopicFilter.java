@@ -15,21 +15,16 @@
  */
 package org.sobeam.server.transport.mqtt.util;
 
-import lombok.Data;
+public class WildcardTopicFilter implements MqttTopicFilter {
 
-import java.util.regex.Pattern;
+    private final MqttTopicTrie<Boolean> trie = new MqttTopicTrie<>();
 
-@Data
-public class RegexTopicFilter implements MqttTopicFilter {
-
-    private final Pattern regex;
-
-    public RegexTopicFilter(String regex) {
-        this.regex = Pattern.compile(regex);
+    public WildcardTopicFilter(String filter) {
+        trie.put(filter, Boolean.TRUE);
     }
 
     @Override
     public boolean filter(String topic) {
-        return regex.matcher(topic).matches();
+        return trie.matches(topic);
     }
 }
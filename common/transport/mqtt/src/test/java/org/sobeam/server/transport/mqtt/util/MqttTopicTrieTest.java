@@ -0,0 +1,118 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.transport.mqtt.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MqttTopicTrieTest {
+
+    @Test
+    public void exactFilterMatchesOnlySameTopic() {
+        MqttTopicTrie<Integer> trie = new MqttTopicTrie<>();
+        trie.put("v1/devices/me/rpc/request/1", 1);
+
+        assertEquals(1, trie.get("v1/devices/me/rpc/request/1"));
+        assertNull(trie.get("v1/devices/me/rpc/request/2"));
+        assertNull(trie.get("v1/devices/me/rpc/request"));
+    }
+
+    @Test
+    public void singleLevelWildcardMatchesOneNonEmptyLevel() {
+        MqttTopicTrie<Integer> trie = new MqttTopicTrie<>();
+        trie.put("v1/devices/me/rpc/request/+", 1);
+
+        assertEquals(1, trie.get("v1/devices/me/rpc/request/42"));
+        assertNull(trie.get("v1/devices/me/rpc/request/"));
+        assertNull(trie.get("v1/devices/me/rpc/request"));
+        assertNull(trie.get("v1/devices/me/rpc/request/42/43"));
+
+        trie.put("+/+", 0);
+        assertEquals(0, trie.get("a/b"));
+        assertNull(trie.get("/b"));
+    }
+
+    @Test
+    public void multiLevelWildcardMatchesParentAndChildLevels() {
+        MqttTopicTrie<Integer> trie = new MqttTopicTrie<>();
+        trie.put("v1/devices/me/attributes/#", 1);
+
+        assertEquals(1, trie.get("v1/devices/me/attributes"));
+        assertEquals(1, trie.get("v1/devices/me/attributes/response/1"));
+        assertNull(trie.get("v1/devices/me/attributes2"));
+        assertNull(trie.get("v1/devices/me"));
+
+        trie.put("#", 0);
+        assertEquals(0, trie.get("v1/devices/me"));
+        assertEquals(0, trie.get("/"));
+    }
+
+    @Test
+    public void wildcardCharactersInsideLevelAreLiteral() {
+        MqttTopicTrie<Integer> trie = new MqttTopicTrie<>();
+        trie.put("a/b#", 1);
+        trie.put("a+/b", 2);
+        trie.put("a.*/(b)", 3);
+
+        assertEquals(1, trie.get("a/b#"));
+        assertNull(trie.get("a/b"));
+        assertEquals(2, trie.get("a+/b"));
+        assertNull(trie.get("ab/b"));
+        assertEquals(3, trie.get("a.*/(b)"));
+        assertNull(trie.get("abc/b"));
+    }
+
+    @Test
+    public void mostSpecificFilterWins() {
+        MqttTopicTrie<Integer> trie = new MqttTopicTrie<>();
+        trie.put("a/#", 0);
+        trie.put("a/+/c", 1);
+        trie.put("a/b/c", 2);
+        trie.put("a/b/+", 3);
+
+        assertEquals(2, trie.get("a/b/c"));
+        assertEquals(3, trie.get("a/b/d"));
+        assertEquals(1, trie.get("a/x/c"));
+        assertEquals(0, trie.get("a/x/d"));
+    }
+
+    @Test
+    public void removeDropsOnlyGivenFilter() {
+        MqttTopicTrie<Integer> trie = new MqttTopicTrie<>();
+        assertTrue(trie.isEmpty());
+        trie.put("a/b", 0);
+        trie.put("a/+", 1);
+        trie.put("a/#", 2);
+
+        assertEquals(1, trie.remove("a/+"));
+        assertNull(trie.remove("a/+"));
+        assertEquals(0, trie.get("a/b"));
+        assertEquals(2, trie.get("a/c"));
+
+        assertEquals(2, trie.remove("a/#"));
+        assertNull(trie.get("a/c"));
+        assertFalse(trie.isEmpty());
+
+        assertEquals(0, trie.remove("a/b"));
+        assertFalse(trie.matches("a/b"));
+        assertTrue(trie.isEmpty());
+    }
+
+}
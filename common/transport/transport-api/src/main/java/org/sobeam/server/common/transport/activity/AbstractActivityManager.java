@@ -15,35 +15,24 @@
  */
 package org.sobeam.server.common.transport.activity;
 
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.sobeam.server.common.transport.activity.strategy.ActivityStrategy;
 import org.sobeam.server.queue.scheduler.SchedulerComponent;
 
-import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public abstract class AbstractActivityManager<Key, Metadata> implements ActivityManager<Key, Metadata> {
 
-    private final ConcurrentMap<Key, ActivityStateWrapper> states = new ConcurrentHashMap<>();
+    private final ActivityStateStore<Key, Metadata> states;
 
     @Autowired
     protected SchedulerComponent scheduler;
 
-    @Data
-    private class ActivityStateWrapper {
-
-        private volatile ActivityState<Metadata> state;
-        private volatile long lastReportedTime;
-        private volatile ActivityStrategy strategy;
-
+    protected AbstractActivityManager(ActivityStateStore<Key, Metadata> states) {
+        this.states = states;
     }
 
     protected void init() {
@@ -63,6 +52,14 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
 
     protected abstract void reportActivity(Key key, Metadata metadata, long timeToReport, ActivityReportCallback<Key> callback);
 
+    /**
+     * Reports the activity collected by the end of the reporting period. Unlike the first activity event, these reports
+     * come in bulk for all tracked keys, so implementations may batch them.
+     */
+    protected void reportLastActivity(Key key, Metadata metadata, long timeToReport, ActivityReportCallback<Key> callback) {
+        reportActivity(key, metadata, timeToReport, callback);
+    }
+
     @Override
     public void onActivity(Key key, Metadata metadata, long newLastRecordedTime) {
         if (key == null) {
@@ -71,31 +68,11 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
         }
         log.debug("Received activity event for key: [{}]", key);
 
-        var shouldReport = new AtomicBoolean(false);
-        var lastRecordedTime = new AtomicLong();
-        var lastReportedTime = new AtomicLong();
+        long timeToReport = states.onActivity(key, metadata, newLastRecordedTime, this::getStrategy);
 
-        states.compute(key, (__, stateWrapper) -> {
-            if (stateWrapper == null) {
-                ActivityState<Metadata> newState = new ActivityState<>();
-                stateWrapper = new ActivityStateWrapper();
-                stateWrapper.setState(newState);
-                stateWrapper.setStrategy(getStrategy());
-            }
-            var state = stateWrapper.getState();
-            state.setMetadata(metadata);
-            if (state.getLastRecordedTime() < newLastRecordedTime) {
-                state.setLastRecordedTime(newLastRecordedTime);
-            }
-            shouldReport.set(stateWrapper.getStrategy().onActivity());
-            lastRecordedTime.set(state.getLastRecordedTime());
-            lastReportedTime.set(stateWrapper.getLastReportedTime());
-            return stateWrapper;
-        });
-
-        if (shouldReport.get() && lastReportedTime.get() < lastRecordedTime.get()) {
+        if (timeToReport > 0) {
             log.debug("Going to report first activity event for key: [{}].", key);
-            reportActivity(key, metadata, lastRecordedTime.get(), new ActivityReportCallback<>() {
+            reportActivity(key, metadata, timeToReport, new ActivityReportCallback<>() {
                 @Override
                 public void onSuccess(Key key, long reportedTime) {
                     updateLastReportedTime(key, reportedTime);
@@ -112,13 +89,14 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
     @Override
     public void onReportingPeriodEnd() {
         log.debug("Going to end reporting period.");
-        for (Map.Entry<Key, ActivityStateWrapper> entry : states.entrySet()) {
-            var key = entry.getKey();
-            var stateWrapper = entry.getValue();
-            var currentState = stateWrapper.getState();
-
+        // the states are read into a single instance, the keys are visited one at a time
+        ActivityState<Metadata> currentState = new ActivityState<>();
+        states.forEachKey(key -> {
+            long lastReportedTime = states.readState(key, currentState);
+            if (lastReportedTime < 0) {
+                return;
+            }
             long lastRecordedTime = currentState.getLastRecordedTime();
-            long lastReportedTime = stateWrapper.getLastReportedTime();
             var metadata = currentState.getMetadata();
 
             boolean hasExpired;
@@ -126,11 +104,10 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
 
             var updatedState = updateState(key, currentState);
             if (updatedState != null) {
-                stateWrapper.setState(updatedState);
                 lastRecordedTime = updatedState.getLastRecordedTime();
                 metadata = updatedState.getMetadata();
                 hasExpired = hasExpired(lastRecordedTime);
-                shouldReport = stateWrapper.getStrategy().onReportingPeriodEnd();
+                shouldReport = states.onReportingPeriodEnd(key, updatedState);
             } else {
                 states.remove(key);
                 hasExpired = false;
@@ -145,7 +122,7 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
 
             if (shouldReport && lastReportedTime < lastRecordedTime) {
                 log.debug("Going to report last activity event for key: [{}].", key);
-                reportActivity(key, metadata, lastRecordedTime, new ActivityReportCallback<>() {
+                reportLastActivity(key, metadata, lastRecordedTime, new ActivityReportCallback<>() {
                     @Override
                     public void onSuccess(Key key, long reportedTime) {
                         updateLastReportedTime(key, reportedTime);
@@ -157,20 +134,16 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
                     }
                 });
             }
-        }
+        });
     }
 
     @Override
     public long getLastRecordedTime(Key key) {
-        ActivityStateWrapper stateWrapper = states.get(key);
-        return stateWrapper == null ? 0L : stateWrapper.getState().getLastRecordedTime();
+        return states.getLastRecordedTime(key);
     }
 
     private void updateLastReportedTime(Key key, long newLastReportedTime) {
-        states.computeIfPresent(key, (__, stateWrapper) -> {
-            stateWrapper.setLastReportedTime(Math.max(stateWrapper.getLastReportedTime(), newLastReportedTime));
-            return stateWrapper;
-        });
+        states.updateLastReportedTime(key, newLastReportedTime);
     }
 
 }
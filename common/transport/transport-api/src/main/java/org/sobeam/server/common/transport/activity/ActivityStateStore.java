@@ -0,0 +1,62 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.transport.activity;
+
+import org.sobeam.server.common.transport.activity.strategy.ActivityStrategy;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Activity states of the keys tracked by {@link AbstractActivityManager}. Each method is atomic for the key it is called for.
+ */
+public interface ActivityStateStore<Key, Metadata> {
+
+    /**
+     * Stores the metadata, raises the last recorded time of the key and calls {@link ActivityStrategy#onActivity()} of its strategy.
+     * Creates the state with the strategy from the supplier if the key is not tracked yet.
+     *
+     * @return the last recorded time if the strategy reports the activity and the time is not reported yet, 0 otherwise
+     */
+    long onActivity(Key key, Metadata metadata, long lastRecordedTime, Supplier<ActivityStrategy> strategySupplier);
+
+    /**
+     * Copies the last recorded time and the metadata of the key to the target state.
+     *
+     * @return the last reported time of the key or -1 if the key is not tracked
+     */
+    long readState(Key key, ActivityState<Metadata> target);
+
+    /**
+     * Stores the metadata and the last recorded time of the state, unless the stored time is newer, and calls
+     * {@link ActivityStrategy#onReportingPeriodEnd()} of the key's strategy.
+     *
+     * @return the result of the strategy, or true if the key is not tracked anymore, so that its last activity is still reported
+     */
+    boolean onReportingPeriodEnd(Key key, ActivityState<Metadata> state);
+
+    long getLastRecordedTime(Key key);
+
+    void updateLastReportedTime(Key key, long lastReportedTime);
+
+    void remove(Key key);
+
+    /**
+     * Calls the consumer for each key tracked at the time of the call. The consumer may call the other methods of the store.
+     */
+    void forEachKey(Consumer<Key> consumer);
+
+}
@@ -1099,6 +1099,22 @@ public class DefaultTransportService extends TransportActivityManager implements
         sendToCore(getTenantId(sessionInfo), getDeviceId(sessionInfo), toCoreMsg, getRoutingKey(sessionInfo), callback);
     }
 
+    @Override
+    protected TopicPartitionInfo resolveCorePartition(TransportProtos.SessionInfoProto sessionInfo) {
+        return partitionService.resolve(ServiceType.TB_CORE, getTenantId(sessionInfo), getDeviceId(sessionInfo));
+    }
+
+    @Override
+    protected void sendActivityBatch(TopicPartitionInfo tpi, TransportProtos.SessionActivityBatchProto batch, TransportServiceCallback<Void> callback) {
+        ToCoreMsg msg = ToCoreMsg.newBuilder().setSessionActivityBatchMsg(batch).build();
+        if (log.isTraceEnabled()) {
+            log.trace("Pushing to topic {} activity of {} sessions", tpi.getFullTopicName(), batch.getSessionsCount());
+        }
+        tbCoreProducerStats.incrementTotal();
+        StatsCallback wrappedCallback = new StatsCallback(new TransportTbQueueCallback(callback), tbCoreProducerStats);
+        tbCoreMsgProducer.send(tpi, new TbProtoQueueMsg<>(UUID.randomUUID(), msg), wrappedCallback);
+    }
+
     private void sendToCore(TenantId tenantId, EntityId entityId, ToCoreMsg msg, UUID routingKey, TransportServiceCallback<Void> callback) {
         TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_CORE, tenantId, entityId);
         if (log.isTraceEnabled()) {
@@ -0,0 +1,196 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.transport.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.common.transport.TransportServiceCallback;
+import org.sobeam.server.common.transport.activity.ActivityReportCallback;
+import org.sobeam.server.gen.transport.TransportProtos;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Collects the activity reports of the sessions and sends them as {@link TransportProtos.SessionActivityBatchProto}, one per core partition.
+ * <p>
+ * The reports are not sent right away. Each session has at most one pending report: a newer report of the same session replaces
+ * the pending one (the callbacks of both are notified), so the reports left over from the previous reporting period do not pile up. {@link #sendReady(long)} is called
+ * every send interval and sends the share of the pending reports that spreads them evenly over the rest of the reporting period,
+ * so the reports of all sessions are sent within the period without hitting the core topic at once.
+ * <p>
+ * The activity states themselves stay in the activity manager; this class only holds the reports that are waiting to be sent.
+ */
+@Slf4j
+class SessionActivityBatcher {
+
+    private final int maxBatchSize;
+    private final long sendIntervalMs;
+    private final Function<TransportProtos.SessionInfoProto, TopicPartitionInfo> partitionResolver;
+    private final BatchSender sender;
+
+    private final LinkedHashMap<UUID, PendingReport> pendingReports = new LinkedHashMap<>();
+    private long periodEndTime;
+
+    SessionActivityBatcher(int maxBatchSize, long sendIntervalMs,
+                           Function<TransportProtos.SessionInfoProto, TopicPartitionInfo> partitionResolver, BatchSender sender) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.sendIntervalMs = Math.max(1, sendIntervalMs);
+        this.partitionResolver = partitionResolver;
+        this.sender = sender;
+    }
+
+    void add(UUID sessionId, TransportProtos.SessionInfoProto sessionInfo, TransportProtos.SubscriptionInfoProto subscriptionInfo,
+             ActivityReportCallback<UUID> callback) {
+        TopicPartitionInfo tpi;
+        try {
+            tpi = partitionResolver.apply(sessionInfo);
+        } catch (Exception e) {
+            callback.onFailure(sessionId, e);
+            return;
+        }
+        synchronized (this) {
+            PendingReport pending = pendingReports.get(sessionId);
+            if (pending == null) {
+                pendingReports.put(sessionId, new PendingReport(tpi, sessionInfo, subscriptionInfo, callback));
+            } else if (pending.subscriptionInfo.getLastActivityTime() <= subscriptionInfo.getLastActivityTime()) {
+                pendingReports.put(sessionId, new PendingReport(tpi, sessionInfo, subscriptionInfo, chain(pending.callback, callback)));
+            } else {
+                pendingReports.put(sessionId, new PendingReport(pending.tpi, pending.sessionInfo, pending.subscriptionInfo, chain(pending.callback, callback)));
+            }
+        }
+    }
+
+    /**
+     * The callback of a report that is merged into another one is notified with the outcome of the report that is actually sent.
+     */
+    private static ActivityReportCallback<UUID> chain(ActivityReportCallback<UUID> first, ActivityReportCallback<UUID> second) {
+        return new ActivityReportCallback<>() {
+            @Override
+            public void onSuccess(UUID sessionId, long reportedTime) {
+                first.onSuccess(sessionId, reportedTime);
+                second.onSuccess(sessionId, reportedTime);
+            }
+
+            @Override
+            public void onFailure(UUID sessionId, Throwable t) {
+                first.onFailure(sessionId, t);
+                second.onFailure(sessionId, t);
+            }
+        };
+    }
+
+    /**
+     * Starts a new reporting period: the pending reports are sent by the end of it.
+     */
+    synchronized void startPeriod(long ts, long periodMs) {
+        periodEndTime = ts + periodMs;
+    }
+
+    void sendReady(long ts) {
+        Map<TopicPartitionInfo, Batch> batches = new HashMap<>();
+        List<Batch> ready = new ArrayList<>();
+        synchronized (this) {
+            if (pendingReports.isEmpty()) {
+                return;
+            }
+            long sendsLeft = Math.max(1, (periodEndTime - ts + sendIntervalMs - 1) / sendIntervalMs);
+            long toSend = (pendingReports.size() + sendsLeft - 1) / sendsLeft;
+            Iterator<Map.Entry<UUID, PendingReport>> it = pendingReports.entrySet().iterator();
+            for (long i = 0; i < toSend && it.hasNext(); i++) {
+                Map.Entry<UUID, PendingReport> entry = it.next();
+                it.remove();
+                PendingReport report = entry.getValue();
+                Batch batch = batches.computeIfAbsent(report.tpi, Batch::new);
+                batch.add(entry.getKey(), report);
+                if (batch.size() >= maxBatchSize) {
+                    ready.add(batch);
+                    batches.remove(report.tpi);
+                }
+            }
+        }
+        ready.addAll(batches.values());
+        for (Batch batch : ready) {
+            try {
+                sender.send(batch.tpi, batch.proto.build(), batch);
+            } catch (Exception e) {
+                batch.onError(e);
+            }
+        }
+    }
+
+    synchronized int getPendingCount() {
+        return pendingReports.size();
+    }
+
+    interface BatchSender {
+
+        void send(TopicPartitionInfo tpi, TransportProtos.SessionActivityBatchProto batch, TransportServiceCallback<Void> callback);
+
+    }
+
+    private record PendingReport(TopicPartitionInfo tpi, TransportProtos.SessionInfoProto sessionInfo,
+                                 TransportProtos.SubscriptionInfoProto subscriptionInfo, ActivityReportCallback<UUID> callback) {
+    }
+
+    private static class Batch implements TransportServiceCallback<Void> {
+
+        private final TopicPartitionInfo tpi;
+        private final TransportProtos.SessionActivityBatchProto.Builder proto = TransportProtos.SessionActivityBatchProto.newBuilder();
+        private final List<UUID> sessionIds = new ArrayList<>();
+        private final List<ActivityReportCallback<UUID>> callbacks = new ArrayList<>();
+
+        private Batch(TopicPartitionInfo tpi) {
+            this.tpi = tpi;
+        }
+
+        private void add(UUID sessionId, PendingReport report) {
+            proto.addSessions(TransportProtos.SessionSubscriptionInfoProto.newBuilder()
+                    .setSessionInfo(report.sessionInfo)
+                    .setSubscriptionInfo(report.subscriptionInfo)
+                    .build());
+            sessionIds.add(sessionId);
+            callbacks.add(report.callback);
+        }
+
+        private int size() {
+            return sessionIds.size();
+        }
+
+        @Override
+        public void onSuccess(Void msg) {
+            for (int i = 0; i < sessionIds.size(); i++) {
+                callbacks.get(i).onSuccess(sessionIds.get(i), proto.getSessions(i).getSubscriptionInfo().getLastActivityTime());
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            log.debug("[{}] Failed to report activity of {} sessions", tpi.getFullTopicName(), sessionIds.size(), e);
+            for (int i = 0; i < sessionIds.size(); i++) {
+                callbacks.get(i).onFailure(sessionIds.get(i), e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.transport.service;
+
+import org.sobeam.server.common.transport.activity.ActivityState;
+import org.sobeam.server.common.transport.activity.ActivityStateStore;
+import org.sobeam.server.common.transport.activity.strategy.ActivityStrategy;
+import org.sobeam.server.gen.transport.TransportProtos.SessionInfoProto;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Activity states of the transport sessions, keyed by the most and least significant bits of the session id.
+ * <p>
+ * The table is split into segments, each guarded by its own lock. A segment is an open addressing hash table with linear probing
+ * that keeps the keys and the times in primitive arrays, so a tracked session costs no entry, wrapper or boxed key objects,
+ * and the scan at the end of each reporting period walks a few arrays instead of the nodes of a map.
+ */
+class SessionActivityTable implements ActivityStateStore<UUID, SessionInfoProto> {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    SessionActivityTable() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Override
+    public long onActivity(UUID sessionId, SessionInfoProto sessionInfo, long lastRecordedTime, Supplier<ActivityStrategy> strategySupplier) {
+        long msb = sessionId.getMostSignificantBits();
+        long lsb = sessionId.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int idx = segment.indexOf(msb, lsb, hash);
+            if (idx < 0) {
+                idx = segment.insert(msb, lsb, hash, strategySupplier.get());
+            }
+            segment.metadata[idx] = sessionInfo;
+            long recorded = Math.max(segment.times[2 * idx], lastRecordedTime);
+            segment.times[2 * idx] = recorded;
+            boolean shouldReport = segment.strategies[idx].onActivity();
+            return shouldReport && segment.times[2 * idx + 1] < recorded ? recorded : 0L;
+        }
+    }
+
+    @Override
+    public long readState(UUID sessionId, ActivityState<SessionInfoProto> target) {
+        long msb = sessionId.getMostSignificantBits();
+        long lsb = sessionId.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int idx = segment.indexOf(msb, lsb, hash);
+            if (idx < 0) {
+                return -1L;
+            }
+            target.setLastRecordedTime(segment.times[2 * idx]);
+            target.setMetadata(segment.metadata[idx]);
+            return segment.times[2 * idx + 1];
+        }
+    }
+
+    @Override
+    public boolean onReportingPeriodEnd(UUID sessionId, ActivityState<SessionInfoProto> state) {
+        long msb = sessionId.getMostSignificantBits();
+        long lsb = sessionId.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int idx = segment.indexOf(msb, lsb, hash);
+            if (idx < 0) {
+                return true;
+            }
+            if (segment.times[2 * idx] <= state.getLastRecordedTime()) {
+                segment.times[2 * idx] = state.getLastRecordedTime();
+                segment.metadata[idx] = state.getMetadata();
+            }
+            return segment.strategies[idx].onReportingPeriodEnd();
+        }
+    }
+
+    @Override
+    public long getLastRecordedTime(UUID sessionId) {
+        long msb = sessionId.getMostSignificantBits();
+        long lsb = sessionId.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int idx = segment.indexOf(msb, lsb, hash);
+            return idx < 0 ? 0L : segment.times[2 * idx];
+        }
+    }
+
+    @Override
+    public void updateLastReportedTime(UUID sessionId, long lastReportedTime) {
+        long msb = sessionId.getMostSignificantBits();
+        long lsb = sessionId.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int idx = segment.indexOf(msb, lsb, hash);
+            if (idx >= 0) {
+                segment.times[2 * idx + 1] = Math.max(segment.times[2 * idx + 1], lastReportedTime);
+            }
+        }
+    }
+
+    @Override
+    public void remove(UUID sessionId) {
+        long msb = sessionId.getMostSignificantBits();
+        long lsb = sessionId.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            int idx = segment.indexOf(msb, lsb, hash);
+            if (idx >= 0) {
+                segment.delete(idx);
+            }
+        }
+    }
+
+    @Override
+    public void forEachKey(Consumer<UUID> consumer) {
+        for (Segment segment : segments) {
+            long[] keys;
+            synchronized (segment) {
+                if (segment.size == 0) {
+                    continue;
+                }
+                keys = segment.copyKeys();
+            }
+            for (int i = 0; i < keys.length; i += 2) {
+                consumer.accept(new UUID(keys[i], keys[i + 1]));
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    private static long hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Slot {@code i} keeps the session id in {@code keys[2i]} and {@code keys[2i + 1]}, the last recorded time in {@code times[2i]}
+     * and the last reported time in {@code times[2i + 1]}. A slot is occupied when its strategy is set.
+     */
+    private static class Segment {
+
+        private long[] keys;
+        private long[] times;
+        private SessionInfoProto[] metadata;
+        private ActivityStrategy[] strategies;
+        private int size;
+
+        private Segment() {
+            allocate(INITIAL_SEGMENT_CAPACITY);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[2 * capacity];
+            times = new long[2 * capacity];
+            metadata = new SessionInfoProto[capacity];
+            strategies = new ActivityStrategy[capacity];
+        }
+
+        private int mask() {
+            return strategies.length - 1;
+        }
+
+        private int indexOf(long msb, long lsb, long hash) {
+            int mask = mask();
+            for (int i = (int) hash & mask; strategies[i] != null; i = (i + 1) & mask) {
+                if (keys[2 * i] == msb && keys[2 * i + 1] == lsb) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int insert(long msb, long lsb, long hash, ActivityStrategy strategy) {
+            if (size + 1 > strategies.length - (strategies.length >>> 2)) {
+                resize();
+            }
+            int mask = mask();
+            int i = (int) hash & mask;
+            while (strategies[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[2 * i] = msb;
+            keys[2 * i + 1] = lsb;
+            strategies[i] = strategy;
+            size++;
+            return i;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldTimes = times;
+            SessionInfoProto[] oldMetadata = metadata;
+            ActivityStrategy[] oldStrategies = strategies;
+            allocate(oldStrategies.length * 2);
+            int mask = mask();
+            for (int j = 0; j < oldStrategies.length; j++) {
+                if (oldStrategies[j] == null) {
+                    continue;
+                }
+                int i = (int) hash(oldKeys[2 * j], oldKeys[2 * j + 1]) & mask;
+                while (strategies[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                move(oldKeys, oldTimes, oldMetadata, oldStrategies, j, i);
+            }
+        }
+
+        /**
+         * Removes the slot and shifts back the following slots of the probe sequence, so that no tombstones are needed.
+         */
+        private void delete(int idx) {
+            int mask = mask();
+            int free = idx;
+            for (int i = (free + 1) & mask; strategies[i] != null; i = (i + 1) & mask) {
+                int home = (int) hash(keys[2 * i], keys[2 * i + 1]) & mask;
+                // the entry may move to the free slot only if the free slot lies between its home slot and its current slot
+                if (((i - home) & mask) >= ((i - free) & mask)) {
+                    move(keys, times, metadata, strategies, i, free);
+                    free = i;
+                }
+            }
+            keys[2 * free] = 0L;
+            keys[2 * free + 1] = 0L;
+            times[2 * free] = 0L;
+            times[2 * free + 1] = 0L;
+            metadata[free] = null;
+            strategies[free] = null;
+            size--;
+        }
+
+        private void move(long[] fromKeys, long[] fromTimes, SessionInfoProto[] fromMetadata, ActivityStrategy[] fromStrategies, int from, int to) {
+            keys[2 * to] = fromKeys[2 * from];
+            keys[2 * to + 1] = fromKeys[2 * from + 1];
+            times[2 * to] = fromTimes[2 * from];
+            times[2 * to + 1] = fromTimes[2 * from + 1];
+            metadata[to] = fromMetadata[from];
+            strategies[to] = fromStrategies[from];
+        }
+
+        private long[] copyKeys() {
+            long[] copy = new long[2 * size];
+            int n = 0;
+            for (int i = 0; i < strategies.length; i++) {
+                if (strategies[i] != null) {
+                    copy[n++] = keys[2 * i];
+                    copy[n++] = keys[2 * i + 1];
+                }
+            }
+            return copy;
+        }
+
+    }
+
+}
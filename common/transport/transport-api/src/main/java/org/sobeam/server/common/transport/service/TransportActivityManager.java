@@ -17,6 +17,7 @@ package org.sobeam.server.common.transport.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
 import org.sobeam.server.common.transport.TransportService;
 import org.sobeam.server.common.transport.TransportServiceCallback;
 import org.sobeam.server.common.transport.activity.AbstractActivityManager;
@@ -29,6 +30,7 @@ import org.sobeam.server.gen.transport.TransportProtos;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public abstract class TransportActivityManager extends AbstractActivityManager<UUID, TransportProtos.SessionInfoProto> implements TransportService {
@@ -52,6 +54,37 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
     @Value("${transport.activity.reporting_strategy:LAST}")
     private ActivityStrategyType reportingStrategyType;
 
+    @Value("${transport.activity.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${transport.activity.batch.max_size:1000}")
+    private int batchMaxSize;
+
+    @Value("${transport.activity.batch.send_interval_ms:100}")
+    private long batchSendIntervalMs;
+
+    private SessionActivityBatcher activityBatcher;
+
+    protected TransportActivityManager() {
+        super(new SessionActivityTable());
+    }
+
+    @Override
+    protected void init() {
+        if (batchEnabled) {
+            // created before the reporting task is scheduled, since the task may run before init returns
+            activityBatcher = new SessionActivityBatcher(batchMaxSize, batchSendIntervalMs, this::resolveCorePartition, this::sendActivityBatch);
+        }
+        super.init();
+        if (activityBatcher != null) {
+            scheduler.scheduleWithFixedDelay(() -> activityBatcher.sendReady(getCurrentTimeMillis()), batchSendIntervalMs, batchSendIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    protected abstract TopicPartitionInfo resolveCorePartition(TransportProtos.SessionInfoProto sessionInfo);
+
+    protected abstract void sendActivityBatch(TopicPartitionInfo tpi, TransportProtos.SessionActivityBatchProto batch, TransportServiceCallback<Void> callback);
+
     @Override
     protected long getReportingPeriodMillis() {
         return sessionReportTimeout;
@@ -91,6 +124,18 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
         return state;
     }
 
+    @Override
+    public void onReportingPeriodEnd() {
+        if (activityBatcher != null) {
+            int pendingReports = activityBatcher.getPendingCount();
+            if (pendingReports > 0) {
+                log.warn("Activity reports of {} sessions from the previous reporting period are still pending, the new reports of these sessions replace them.", pendingReports);
+            }
+            activityBatcher.startPeriod(getCurrentTimeMillis(), getReportingPeriodMillis());
+        }
+        super.onReportingPeriodEnd();
+    }
+
     @Override
     protected boolean hasExpired(long lastRecordedTime) {
         return (getCurrentTimeMillis() - sessionInactivityTimeout) > lastRecordedTime;
@@ -111,13 +156,8 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
     protected void reportActivity(UUID sessionId, TransportProtos.SessionInfoProto currentSessionInfo, long timeToReport, ActivityReportCallback<UUID> callback) {
         log.debug("Reporting activity state for session with id: [{}]. Time to report: [{}].", sessionId, timeToReport);
         SessionMetaData session = sessions.get(sessionId);
-        TransportProtos.SubscriptionInfoProto subscriptionInfo = TransportProtos.SubscriptionInfoProto.newBuilder()
-                .setAttributeSubscription(session != null && session.isSubscribedToAttributes())
-                .setRpcSubscription(session != null && session.isSubscribedToRPC())
-                .setLastActivityTime(timeToReport)
-                .build();
         TransportProtos.SessionInfoProto sessionInfo = session != null ? session.getSessionInfo() : currentSessionInfo;
-        process(sessionInfo, subscriptionInfo, new TransportServiceCallback<>() {
+        process(sessionInfo, toSubscriptionInfo(session, timeToReport), new TransportServiceCallback<>() {
             @Override
             public void onSuccess(Void msgAcknowledged) {
                 callback.onSuccess(sessionId, timeToReport);
@@ -131,6 +171,26 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
         });
     }
 
+    @Override
+    protected void reportLastActivity(UUID sessionId, TransportProtos.SessionInfoProto currentSessionInfo, long timeToReport, ActivityReportCallback<UUID> callback) {
+        if (activityBatcher == null) {
+            reportActivity(sessionId, currentSessionInfo, timeToReport, callback);
+            return;
+        }
+        log.debug("Batching activity state for session with id: [{}]. Time to report: [{}].", sessionId, timeToReport);
+        SessionMetaData session = sessions.get(sessionId);
+        TransportProtos.SessionInfoProto sessionInfo = session != null ? session.getSessionInfo() : currentSessionInfo;
+        activityBatcher.add(sessionId, sessionInfo, toSubscriptionInfo(session, timeToReport), callback);
+    }
+
+    private static TransportProtos.SubscriptionInfoProto toSubscriptionInfo(SessionMetaData session, long timeToReport) {
+        return TransportProtos.SubscriptionInfoProto.newBuilder()
+                .setAttributeSubscription(session != null && session.isSubscribedToAttributes())
+                .setRpcSubscription(session != null && session.isSubscribedToRPC())
+                .setLastActivityTime(timeToReport)
+                .build();
+    }
+
     protected long getCurrentTimeMillis() {
         return System.currentTimeMillis();
     }
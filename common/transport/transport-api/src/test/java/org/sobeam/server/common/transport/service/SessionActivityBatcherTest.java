@@ -0,0 +1,170 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.transport.service;
+
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.msg.queue.TopicPartitionInfo;
+import org.sobeam.server.common.transport.TransportServiceCallback;
+import org.sobeam.server.common.transport.activity.ActivityReportCallback;
+import org.sobeam.server.gen.transport.TransportProtos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class SessionActivityBatcherTest {
+
+    private final TopicPartitionInfo firstPartition = new TopicPartitionInfo("tb_core", null, 1, true);
+    private final TopicPartitionInfo secondPartition = new TopicPartitionInfo("tb_core", null, 2, true);
+    private final List<SentBatch> sent = new ArrayList<>();
+
+    @Test
+    void givenSessionsOfDifferentPartitions_whenSendReady_thenShouldSendOneBatchPerPartition() {
+        SessionActivityBatcher batcher = newBatcher(10);
+
+        batcher.add(UUID.randomUUID(), sessionInfo(1), subscriptionInfo(100L), mock(ActivityReportCallback.class));
+        batcher.add(UUID.randomUUID(), sessionInfo(2), subscriptionInfo(200L), mock(ActivityReportCallback.class));
+        batcher.add(UUID.randomUUID(), sessionInfo(1), subscriptionInfo(300L), mock(ActivityReportCallback.class));
+        batcher.sendReady(0L);
+
+        assertThat(sent).hasSize(2);
+        assertThat(sent).anySatisfy(batch -> {
+            assertThat(batch.tpi).isEqualTo(firstPartition);
+            assertThat(batch.proto.getSessionsCount()).isEqualTo(2);
+        });
+        assertThat(sent).anySatisfy(batch -> {
+            assertThat(batch.tpi).isEqualTo(secondPartition);
+            assertThat(batch.proto.getSessionsCount()).isEqualTo(1);
+        });
+        assertThat(batcher.getPendingCount()).isZero();
+    }
+
+    @Test
+    void givenPendingReports_whenSendReady_thenShouldSpreadThemOverReportingPeriod() {
+        SessionActivityBatcher batcher = newBatcher(2);
+        batcher.startPeriod(0L, 1000L);
+        for (int i = 0; i < 100; i++) {
+            batcher.add(UUID.randomUUID(), sessionInfo(1), subscriptionInfo(i), mock(ActivityReportCallback.class));
+        }
+
+        batcher.sendReady(100L);
+        assertThat(sent).hasSize(6);
+        assertThat(sentSessionsCount()).isEqualTo(12);
+        assertThat(sent).allSatisfy(batch -> assertThat(batch.proto.getSessionsCount()).isLessThanOrEqualTo(2));
+
+        for (long ts = 200L; ts <= 1000L; ts += 100L) {
+            batcher.sendReady(ts);
+        }
+        assertThat(sentSessionsCount()).isEqualTo(100);
+        assertThat(batcher.getPendingCount()).isZero();
+    }
+
+    @Test
+    void givenPendingReportOfSameSession_whenAdding_thenShouldReplaceItAndNotifyEveryCallback() {
+        SessionActivityBatcher batcher = newBatcher(10);
+        UUID sessionId = UUID.randomUUID();
+        ActivityReportCallback<UUID> oldCallback = mock(ActivityReportCallback.class);
+        ActivityReportCallback<UUID> newCallback = mock(ActivityReportCallback.class);
+        ActivityReportCallback<UUID> staleCallback = mock(ActivityReportCallback.class);
+
+        batcher.add(sessionId, sessionInfo(1), subscriptionInfo(100L), oldCallback);
+        batcher.add(UUID.randomUUID(), sessionInfo(1), subscriptionInfo(150L), mock(ActivityReportCallback.class));
+        batcher.add(sessionId, sessionInfo(1), subscriptionInfo(200L), newCallback);
+        batcher.add(sessionId, sessionInfo(1), subscriptionInfo(50L), staleCallback);
+        assertThat(batcher.getPendingCount()).isEqualTo(2);
+
+        batcher.sendReady(0L);
+        assertThat(sent).hasSize(1);
+        TransportProtos.SessionActivityBatchProto proto = sent.get(0).proto;
+        assertThat(proto.getSessionsCount()).isEqualTo(2);
+        assertThat(proto.getSessions(0).getSubscriptionInfo().getLastActivityTime()).isEqualTo(200L);
+
+        sent.get(0).callback.onSuccess(null);
+        verify(newCallback).onSuccess(sessionId, 200L);
+        verify(oldCallback).onSuccess(sessionId, 200L);
+        verify(staleCallback).onSuccess(sessionId, 200L);
+
+        RuntimeException error = new RuntimeException();
+        sent.get(0).callback.onError(error);
+        verify(oldCallback).onFailure(sessionId, error);
+        verify(staleCallback).onFailure(sessionId, error);
+    }
+
+    @Test
+    void givenSentBatch_whenCompleted_thenShouldNotifyEverySession() {
+        SessionActivityBatcher batcher = newBatcher(10);
+        UUID firstSessionId = UUID.randomUUID();
+        UUID secondSessionId = UUID.randomUUID();
+        ActivityReportCallback<UUID> firstCallback = mock(ActivityReportCallback.class);
+        ActivityReportCallback<UUID> secondCallback = mock(ActivityReportCallback.class);
+        batcher.add(firstSessionId, sessionInfo(1), subscriptionInfo(100L), firstCallback);
+        batcher.add(secondSessionId, sessionInfo(1), subscriptionInfo(200L), secondCallback);
+        batcher.sendReady(0L);
+
+        sent.get(0).callback.onSuccess(null);
+        verify(firstCallback).onSuccess(firstSessionId, 100L);
+        verify(secondCallback).onSuccess(secondSessionId, 200L);
+
+        RuntimeException error = new RuntimeException();
+        sent.get(0).callback.onError(error);
+        verify(firstCallback).onFailure(firstSessionId, error);
+        verify(secondCallback).onFailure(secondSessionId, error);
+    }
+
+    @Test
+    void givenPartitionCannotBeResolved_whenAdding_thenShouldFailSessionReport() {
+        RuntimeException error = new RuntimeException();
+        SessionActivityBatcher batcher = new SessionActivityBatcher(10, 100L, sessionInfo -> {
+            throw error;
+        }, (tpi, proto, callback) -> sent.add(new SentBatch(tpi, proto, callback)));
+        UUID sessionId = UUID.randomUUID();
+        ActivityReportCallback<UUID> callback = mock(ActivityReportCallback.class);
+
+        batcher.add(sessionId, sessionInfo(1), subscriptionInfo(100L), callback);
+        batcher.sendReady(0L);
+
+        verify(callback).onFailure(eq(sessionId), any());
+        assertThat(sent).isEmpty();
+    }
+
+    private SessionActivityBatcher newBatcher(int maxBatchSize) {
+        return new SessionActivityBatcher(maxBatchSize, 100L,
+                sessionInfo -> sessionInfo.getDeviceIdLSB() == 1 ? firstPartition : secondPartition,
+                (tpi, proto, callback) -> sent.add(new SentBatch(tpi, proto, callback)));
+    }
+
+    private int sentSessionsCount() {
+        return sent.stream().mapToInt(batch -> batch.proto.getSessionsCount()).sum();
+    }
+
+    private static TransportProtos.SessionInfoProto sessionInfo(long deviceIdLSB) {
+        return TransportProtos.SessionInfoProto.newBuilder().setDeviceIdLSB(deviceIdLSB).build();
+    }
+
+    private static TransportProtos.SubscriptionInfoProto subscriptionInfo(long lastActivityTime) {
+        return TransportProtos.SubscriptionInfoProto.newBuilder().setLastActivityTime(lastActivityTime).build();
+    }
+
+    private record SentBatch(TopicPartitionInfo tpi, TransportProtos.SessionActivityBatchProto proto, TransportServiceCallback<Void> callback) {
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.common.transport.service;
+
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.transport.activity.ActivityState;
+import org.sobeam.server.common.transport.activity.strategy.ActivityStrategy;
+import org.sobeam.server.common.transport.activity.strategy.ActivityStrategyType;
+import org.sobeam.server.gen.transport.TransportProtos.SessionInfoProto;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SessionActivityTableTest {
+
+    private final SessionActivityTable table = new SessionActivityTable();
+
+    @Test
+    void givenNewSession_whenOnActivity_thenShouldRecordActivityAndReturnTimeToReport() {
+        UUID sessionId = UUID.randomUUID();
+        SessionInfoProto sessionInfo = sessionInfo(sessionId);
+
+        long timeToReport = table.onActivity(sessionId, sessionInfo, 100L, ActivityStrategyType.FIRST::toStrategy);
+
+        assertThat(timeToReport).isEqualTo(100L);
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.getLastRecordedTime(sessionId)).isEqualTo(100L);
+        ActivityState<SessionInfoProto> state = new ActivityState<>();
+        assertThat(table.readState(sessionId, state)).isZero();
+        assertThat(state.getLastRecordedTime()).isEqualTo(100L);
+        assertThat(state.getMetadata()).isEqualTo(sessionInfo);
+    }
+
+    @Test
+    void givenReportedActivity_whenOnActivity_thenShouldKeepLatestTimeAndNotReportAgain() {
+        UUID sessionId = UUID.randomUUID();
+        table.onActivity(sessionId, sessionInfo(sessionId), 200L, ActivityStrategyType.ALL::toStrategy);
+        table.updateLastReportedTime(sessionId, 200L);
+
+        assertThat(table.onActivity(sessionId, sessionInfo(sessionId), 150L, ActivityStrategyType.ALL::toStrategy)).isZero();
+        assertThat(table.getLastRecordedTime(sessionId)).isEqualTo(200L);
+        assertThat(table.onActivity(sessionId, sessionInfo(sessionId), 300L, ActivityStrategyType.ALL::toStrategy)).isEqualTo(300L);
+
+        table.updateLastReportedTime(sessionId, 100L);
+        ActivityState<SessionInfoProto> state = new ActivityState<>();
+        assertThat(table.readState(sessionId, state)).isEqualTo(200L);
+    }
+
+    @Test
+    void givenUpdatedState_whenOnReportingPeriodEnd_thenShouldStoreItAndCallStrategy() {
+        UUID sessionId = UUID.randomUUID();
+        table.onActivity(sessionId, sessionInfo(sessionId), 100L, ActivityStrategyType.LAST::toStrategy);
+        ActivityState<SessionInfoProto> state = new ActivityState<>();
+        SessionInfoProto updatedSessionInfo = sessionInfo(sessionId).toBuilder().setDeviceName("updated").build();
+        state.setLastRecordedTime(500L);
+        state.setMetadata(updatedSessionInfo);
+
+        assertThat(table.onReportingPeriodEnd(sessionId, state)).isTrue();
+        assertThat(table.getLastRecordedTime(sessionId)).isEqualTo(500L);
+        table.readState(sessionId, state);
+        assertThat(state.getMetadata()).isEqualTo(updatedSessionInfo);
+
+        assertThat(table.onReportingPeriodEnd(UUID.randomUUID(), state)).isTrue();
+    }
+
+    @Test
+    void givenManySessions_whenRemovingHalf_thenShouldKeepTheOthersReachable() {
+        List<UUID> sessionIds = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID sessionId = UUID.randomUUID();
+            sessionIds.add(sessionId);
+            table.onActivity(sessionId, sessionInfo(sessionId), i + 1, ActivityStrategyType.LAST::toStrategy);
+        }
+        assertThat(table.size()).isEqualTo(10_000);
+
+        for (int i = 0; i < sessionIds.size(); i += 2) {
+            table.remove(sessionIds.get(i));
+        }
+
+        assertThat(table.size()).isEqualTo(5_000);
+        for (int i = 0; i < sessionIds.size(); i++) {
+            long expected = i % 2 == 0 ? 0L : i + 1;
+            assertThat(table.getLastRecordedTime(sessionIds.get(i))).isEqualTo(expected);
+        }
+        ActivityState<SessionInfoProto> state = new ActivityState<>();
+        assertThat(table.readState(sessionIds.get(0), state)).isEqualTo(-1L);
+    }
+
+    @Test
+    void givenSessionsWithSameHash_whenRemovingFirst_thenShouldKeepTheOthersReachable() {
+        // msb ^ lsb is the same for all of them, so they share the home slot of a single segment
+        List<UUID> sessionIds = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            sessionIds.add(new UUID(i, i));
+        }
+        ActivityStrategy strategy = ActivityStrategyType.LAST.toStrategy();
+        sessionIds.forEach(sessionId -> table.onActivity(sessionId, sessionInfo(sessionId), 100L, () -> strategy));
+
+        table.remove(sessionIds.get(0));
+        table.remove(sessionIds.get(10));
+
+        for (int i = 0; i < sessionIds.size(); i++) {
+            assertThat(table.getLastRecordedTime(sessionIds.get(i))).isEqualTo(i == 0 || i == 10 ? 0L : 100L);
+        }
+        assertThat(table.size()).isEqualTo(18);
+    }
+
+    @Test
+    void givenSessions_whenForEachKeyRemovesThem_thenShouldVisitEachSessionOnce() {
+        Set<UUID> sessionIds = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID sessionId = UUID.randomUUID();
+            sessionIds.add(sessionId);
+            table.onActivity(sessionId, sessionInfo(sessionId), 100L, ActivityStrategyType.LAST::toStrategy);
+        }
+
+        List<UUID> visited = new ArrayList<>();
+        table.forEachKey(sessionId -> {
+            visited.add(sessionId);
+            table.remove(sessionId);
+        });
+
+        assertThat(visited).hasSize(1000);
+        assertThat(new HashSet<>(visited)).isEqualTo(sessionIds);
+        assertThat(table.size()).isZero();
+    }
+
+    private static SessionInfoProto sessionInfo(UUID sessionId) {
+        return SessionInfoProto.newBuilder()
+                .setSessionIdMSB(sessionId.getMostSignificantBits())
+                .setSessionIdLSB(sessionId.getLeastSignificantBits())
+                .build();
+    }
+
+}
@@ -68,7 +68,7 @@ public class TransportActivityManagerTest {
     @Test
     void givenFirstActivityForAlreadyRemovedSessionAndFirstEventReportingStrategy_whenOnActivity_thenShouldRecordActivityAndReport() {
         // GIVEN
-        ConcurrentMap<UUID, Object> states = new ConcurrentHashMap<>();
+        SessionActivityTable states = new SessionActivityTable();
         ReflectionTestUtils.setField(transportServiceMock, "states", states);
 
         var strategyMock = mock(ActivityStrategy.class);
@@ -88,7 +88,8 @@ public class TransportActivityManagerTest {
         transportServiceMock.onActivity(SESSION_ID, sessionInfo, activityTime);
 
         // THEN
-        assertThat(states).containsKey(SESSION_ID);
+        assertThat(states.size()).isEqualTo(1);
+        assertThat(states.getLastRecordedTime(SESSION_ID)).isEqualTo(activityTime);
         assertThat(transportServiceMock.getLastRecordedTime(SESSION_ID)).isEqualTo(activityTime);
         verify(transportServiceMock).reportActivity(eq(SESSION_ID), eq(sessionInfo), eq(activityTime), any(ActivityReportCallback.class));
     }
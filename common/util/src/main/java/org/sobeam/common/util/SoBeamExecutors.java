@@ -15,11 +15,21 @@
  */
 package org.sobeam.common.util;
 
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
 
+@Slf4j
 public class SoBeamExecutors {
 
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookupVirtualThreadPerTaskExecutor();
+
     /**
      * Method forked from ExecutorService to provide thread poll name
      *
@@ -48,4 +58,47 @@ public class SoBeamExecutors {
         return newWorkStealingPool(parallelism, clazz.getSimpleName());
     }
 
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     * Virtual threads are available starting from Java 21, so the method looks them up reflectively
+     * to keep the code compatible with the Java 17 release target.
+     *
+     * @param namePrefix used to define thread name
+     * @return the newly created executor
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by the current JVM: " + Runtime.version());
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(namePrefix + "-virtual-", 0L);
+        } catch (Throwable t) {
+            throw new UnsupportedOperationException("Failed to create virtual thread executor", t);
+        }
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    private static MethodHandle lookupVirtualThreadPerTaskExecutor() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Class<?> virtualBuilderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(virtualBuilderClass));
+            MethodHandle name = lookup.findVirtual(virtualBuilderClass, "name", MethodType.methodType(virtualBuilderClass, String.class, long.class));
+            MethodHandle factory = lookup.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+            MethodHandle newExecutor = lookup.findStatic(Executors.class, "newThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+            // (prefix, start) -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, start).factory())
+            MethodHandle namedBuilder = MethodHandles.foldArguments(name, 0, ofVirtual);
+            MethodHandle namedFactory = MethodHandles.filterReturnValue(namedBuilder, factory.asType(MethodType.methodType(ThreadFactory.class, virtualBuilderClass)));
+            return MethodHandles.filterReturnValue(namedFactory, newExecutor);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads are not supported by the current JVM: {}", Runtime.version());
+            return null;
+        }
+    }
+
 }
@@ -0,0 +1,44 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SoBeamExecutorsTest {
+
+    @Test
+    public void givenVirtualThreadsSupport_whenNewVirtualThreadPerTaskExecutor_thenTasksRunOnNamedThreads() throws Exception {
+        if (!SoBeamExecutors.isVirtualThreadsSupported()) {
+            assertThatThrownBy(() -> SoBeamExecutors.newVirtualThreadPerTaskExecutor("test"))
+                    .isInstanceOf(UnsupportedOperationException.class);
+            return;
+        }
+        ExecutorService executor = SoBeamExecutors.newVirtualThreadPerTaskExecutor("test");
+        try {
+            String threadName = executor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+            assertThat(threadName).startsWith("test-virtual-");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.attributes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.sobeam.server.cache.SimpleTbCacheValueWrapper;
+import org.sobeam.server.cache.TbCacheValueWrapper;
+import org.sobeam.server.common.data.AttributeScope;
+import org.sobeam.server.common.data.id.EntityId;
+import org.sobeam.server.common.data.kv.AttributeKvEntry;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local in-memory tier in front of the remote (Redis) attributes cache.
+ * Entries are invalidated on local writes and on invalidation messages received from other nodes
+ * via the core and rule engine notifications topics. The time to live bounds the staleness if an invalidation message is lost.
+ * <p>
+ * An invalidation leaves a tombstone that carries the version of the invalidation, so a value read before it
+ * is rejected by {@link #put(AttributeCacheKey, AttributeKvEntry, long)} while puts of the other keys are not affected.
+ */
+@Component
+@ConditionalOnExpression("'${cache.type:caffeine}'=='redis' && '${cache.attributes.enabled:true}'=='true' && '${cache.attributes.near_cache.enabled:false}'=='true'")
+@Slf4j
+public class AttributesNearCache {
+
+    @Value("${cache.attributes.near_cache.max_size:100000}")
+    private long maxSize;
+    @Value("${cache.attributes.near_cache.time_to_live_sec:60}")
+    private long timeToLiveSec;
+
+    private final AtomicLong versionSeq = new AtomicLong();
+    // Highest version of the tombstones evicted from the cache; puts of older versions can no longer be checked per key.
+    private final AtomicLong evictedTombstoneVersion = new AtomicLong();
+    private Cache<AttributeCacheKey, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(timeToLiveSec, TimeUnit.SECONDS)
+                .<AttributeCacheKey, Entry>evictionListener((key, entry, cause) -> {
+                    if (entry != null && entry.isTombstone()) {
+                        evictedTombstoneVersion.accumulateAndGet(entry.version, Math::max);
+                    }
+                })
+                .build();
+        log.info("Attributes near cache initialized with max size {} and TTL {} sec", maxSize, timeToLiveSec);
+    }
+
+    public TbCacheValueWrapper<AttributeKvEntry> get(AttributeCacheKey key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Returns the version to pass to {@link #put(AttributeCacheKey, AttributeKvEntry, long)}.
+     * Must be taken before the value is read from the remote cache or the database.
+     */
+    public long getVersion() {
+        return versionSeq.get();
+    }
+
+    /**
+     * Puts the value unless the key was invalidated since the version was taken, so a value read before
+     * a concurrent update never outlives the invalidation of that update.
+     */
+    public void put(AttributeCacheKey key, AttributeKvEntry value, long version) {
+        if (version < evictedTombstoneVersion.get()) {
+            return;
+        }
+        Entry newEntry = new Entry(SimpleTbCacheValueWrapper.wrap(value), version);
+        cache.asMap().compute(key, (k, current) -> current != null && current.isTombstone() && current.version > version ? current : newEntry);
+    }
+
+    public void invalidate(AttributeCacheKey key) {
+        cache.put(key, Entry.tombstone(versionSeq.incrementAndGet()));
+    }
+
+    public void invalidate(EntityId entityId, AttributeScope scope, Collection<String> keys) {
+        Entry tombstone = Entry.tombstone(versionSeq.incrementAndGet());
+        for (String key : keys) {
+            cache.put(new AttributeCacheKey(scope, entityId, key), tombstone);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+
+        private final TbCacheValueWrapper<AttributeKvEntry> value;
+        private final long version;
+
+        static Entry tombstone(long version) {
+            return new Entry(null, version);
+        }
+
+        boolean isTombstone() {
+            return value == null;
+        }
+
+    }
+
+}
@@ -24,6 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 import org.sobeam.server.cache.TbCacheValueWrapper;
@@ -43,6 +44,7 @@ import org.sobeam.server.dao.sql.JpaExecutorService;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -68,7 +70,10 @@ public class CachedAttributesService implements AttributesService {
     private final CacheExecutorService cacheExecutorService;
     private final DefaultCounter hitCounter;
     private final DefaultCounter missCounter;
+    private final DefaultCounter nearHitCounter;
     private final TbTransactionalCache<AttributeCacheKey, AttributeKvEntry> cache;
+    private final AttributesNearCache nearCache;
+    private final ApplicationEventPublisher eventPublisher;
     private ListeningExecutorService cacheExecutor;
 
     @Value("${cache.type:caffeine}")
@@ -80,14 +85,19 @@ public class CachedAttributesService implements AttributesService {
                                    JpaExecutorService jpaExecutorService,
                                    StatsFactory statsFactory,
                                    CacheExecutorService cacheExecutorService,
-                                   TbTransactionalCache<AttributeCacheKey, AttributeKvEntry> cache) {
+                                   TbTransactionalCache<AttributeCacheKey, AttributeKvEntry> cache,
+                                   Optional<AttributesNearCache> nearCache,
+                                   ApplicationEventPublisher eventPublisher) {
         this.attributesDao = attributesDao;
         this.jpaExecutorService = jpaExecutorService;
         this.cacheExecutorService = cacheExecutorService;
         this.cache = cache;
+        this.nearCache = nearCache.orElse(null);
+        this.eventPublisher = eventPublisher;
 
         this.hitCounter = statsFactory.createDefaultCounter(STATS_NAME, "result", "hit");
         this.missCounter = statsFactory.createDefaultCounter(STATS_NAME, "result", "miss");
+        this.nearHitCounter = statsFactory.createDefaultCounter(STATS_NAME, "result", "near_hit");
     }
 
     @PostConstruct
@@ -120,12 +130,23 @@ public class CachedAttributesService implements AttributesService {
         validate(entityId, scope);
         Validator.validateString(attributeKey, k -> "Incorrect attribute key " + k);
 
+        AttributeCacheKey attributeCacheKey = new AttributeCacheKey(scope, entityId, attributeKey);
+        long nearCacheVersion = 0;
+        if (nearCache != null) {
+            TbCacheValueWrapper<AttributeKvEntry> nearCachedAttributeValue = nearCache.get(attributeCacheKey);
+            if (nearCachedAttributeValue != null) {
+                nearHitCounter.increment();
+                return Futures.immediateFuture(Optional.ofNullable(nearCachedAttributeValue.get()));
+            }
+            nearCacheVersion = nearCache.getVersion();
+        }
+        final long version = nearCacheVersion;
         return cacheExecutor.submit(() -> {
-            AttributeCacheKey attributeCacheKey = new AttributeCacheKey(scope, entityId, attributeKey);
             TbCacheValueWrapper<AttributeKvEntry> cachedAttributeValue = cache.get(attributeCacheKey);
             if (cachedAttributeValue != null) {
                 hitCounter.increment();
                 AttributeKvEntry cachedAttributeKvEntry = cachedAttributeValue.get();
+                putToNearCache(attributeCacheKey, cachedAttributeKvEntry, version);
                 return Optional.ofNullable(cachedAttributeKvEntry);
             } else {
                 missCounter.increment();
@@ -134,6 +155,7 @@ public class CachedAttributesService implements AttributesService {
                     Optional<AttributeKvEntry> result = attributesDao.find(tenantId, entityId, scope, attributeKey);
                     cacheTransaction.putIfAbsent(attributeCacheKey, result.orElse(null));
                     cacheTransaction.commit();
+                    putToNearCache(attributeCacheKey, result.orElse(null), version);
                     return result;
                 } catch (Throwable e) {
                     cacheTransaction.rollback();
@@ -155,8 +177,30 @@ public class CachedAttributesService implements AttributesService {
         final var attributeKeys = new LinkedHashSet<>(attributeKeysNonUnique); // deduplicate the attributes
         attributeKeys.forEach(attributeKey -> Validator.validateString(attributeKey, k ->"Incorrect attribute key " + k));
 
+        Map<String, TbCacheValueWrapper<AttributeKvEntry>> nearCachedAttributes = findNearCachedAttributes(entityId, scope, attributeKeys);
+        if (nearCachedAttributes.size() == attributeKeys.size()) {
+            log.trace("[{}][{}] Found all attributes from near cache: {}", entityId, scope, attributeKeys);
+            return Futures.immediateFuture(nearCachedAttributes.values().stream()
+                    .map(TbCacheValueWrapper::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        }
+        final long nearCacheVersion = nearCache != null ? nearCache.getVersion() : 0;
+        final Collection<String> remoteAttributeKeys;
+        if (nearCachedAttributes.isEmpty()) {
+            remoteAttributeKeys = attributeKeys;
+        } else {
+            remoteAttributeKeys = new LinkedHashSet<>(attributeKeys);
+            remoteAttributeKeys.removeAll(nearCachedAttributes.keySet());
+        }
+
         //CacheExecutor for Redis or DirectExecutor for local Caffeine
-        return Futures.transformAsync(cacheExecutor.submit(() -> findCachedAttributes(entityId, scope, attributeKeys)),
+        return Futures.transformAsync(cacheExecutor.submit(() -> {
+                    Map<String, TbCacheValueWrapper<AttributeKvEntry>> cachedAttributes = findCachedAttributes(entityId, scope, remoteAttributeKeys);
+                    cachedAttributes.forEach((key, value) -> putToNearCache(new AttributeCacheKey(scope, entityId, key), value.get(), nearCacheVersion));
+                    cachedAttributes.putAll(nearCachedAttributes);
+                    return cachedAttributes;
+                }),
                 wrappedCachedAttributes -> {
 
                     List<AttributeKvEntry> cachedAttributes = wrappedCachedAttributes.values().stream()
@@ -190,6 +234,10 @@ public class CachedAttributesService implements AttributesService {
                             List<AttributeKvEntry> mergedAttributes = new ArrayList<>(cachedAttributes);
                             mergedAttributes.addAll(result);
                             cacheTransaction.commit();
+                            if (nearCache != null) {
+                                result.forEach(attribute -> putToNearCache(new AttributeCacheKey(scope, entityId, attribute.getKey()), attribute, nearCacheVersion));
+                                notFoundAttributeKeys.forEach(key -> putToNearCache(new AttributeCacheKey(scope, entityId, key), null, nearCacheVersion));
+                            }
                             log.trace("[{}][{}] Commit cache transaction: {}", entityId, scope, notFoundAttributeKeys);
                             return mergedAttributes;
                         } catch (Throwable e) {
@@ -202,6 +250,27 @@ public class CachedAttributesService implements AttributesService {
                 }, MoreExecutors.directExecutor()); // cacheExecutor analyse and returns results or submit to DB executor
     }
 
+    private Map<String, TbCacheValueWrapper<AttributeKvEntry>> findNearCachedAttributes(EntityId entityId, AttributeScope scope, Collection<String> attributeKeys) {
+        if (nearCache == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, TbCacheValueWrapper<AttributeKvEntry>> nearCachedAttributes = new HashMap<>();
+        for (String attributeKey : attributeKeys) {
+            var nearCachedAttributeValue = nearCache.get(new AttributeCacheKey(scope, entityId, attributeKey));
+            if (nearCachedAttributeValue != null) {
+                nearHitCounter.increment();
+                nearCachedAttributes.put(attributeKey, nearCachedAttributeValue);
+            }
+        }
+        return nearCachedAttributes;
+    }
+
+    private void putToNearCache(AttributeCacheKey key, AttributeKvEntry value, long version) {
+        if (nearCache != null) {
+            nearCache.put(key, value, version);
+        }
+    }
+
     private Map<String, TbCacheValueWrapper<AttributeKvEntry>> findCachedAttributes(EntityId entityId, AttributeScope scope, Collection<String> attributeKeys) {
         Map<String, TbCacheValueWrapper<AttributeKvEntry>> cachedAttributes = new HashMap<>();
         for (String attributeKey : attributeKeys) {
@@ -262,7 +331,14 @@ public class CachedAttributesService implements AttributesService {
         validate(entityId, scope);
         AttributeUtils.validate(attribute, valueNoXssValidation);
         ListenableFuture<String> future = attributesDao.save(tenantId, entityId, scope, attribute);
-        return Futures.transform(future, key -> evict(entityId, scope, attribute, key), cacheExecutor);
+        future = Futures.transform(future, key -> evict(entityId, scope, attribute, key), cacheExecutor);
+        if (nearCache != null) {
+            future = Futures.transform(future, key -> {
+                publishNearCacheInvalidateEvent(tenantId, entityId, scope, Collections.singletonList(key));
+                return key;
+            }, MoreExecutors.directExecutor());
+        }
+        return future;
     }
 
     @Override
@@ -281,16 +357,39 @@ public class CachedAttributesService implements AttributesService {
             futures.add(Futures.transform(future, key -> evict(entityId, scope, attribute, key), cacheExecutor));
         }
 
-        return Futures.allAsList(futures);
+        return publishNearCacheInvalidateEvent(tenantId, entityId, scope, Futures.allAsList(futures));
     }
 
     private String evict(EntityId entityId, AttributeScope scope, AttributeKvEntry attribute, String key) {
         log.trace("[{}][{}][{}] Before cache evict: {}", entityId, scope, key, attribute);
-        cache.evictOrPut(new AttributeCacheKey(scope, entityId, key), attribute);
+        AttributeCacheKey attributeCacheKey = new AttributeCacheKey(scope, entityId, key);
+        cache.evictOrPut(attributeCacheKey, attribute);
+        if (nearCache != null) {
+            nearCache.invalidate(attributeCacheKey);
+        }
         log.trace("[{}][{}][{}] after cache evict.", entityId, scope, key);
         return key;
     }
 
+    private ListenableFuture<List<String>> publishNearCacheInvalidateEvent(TenantId tenantId, EntityId entityId, AttributeScope scope, ListenableFuture<List<String>> future) {
+        if (nearCache == null) {
+            return future;
+        }
+        return Futures.transform(future, keys -> {
+            publishNearCacheInvalidateEvent(tenantId, entityId, scope, keys);
+            return keys;
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Notifies other nodes to drop the keys from their near caches. Local near cache is already invalidated at this point.
+     */
+    private void publishNearCacheInvalidateEvent(TenantId tenantId, EntityId entityId, AttributeScope scope, List<String> keys) {
+        if (!keys.isEmpty()) {
+            eventPublisher.publishEvent(new AttributesCacheInvalidateEvent(tenantId, entityId, scope, keys));
+        }
+    }
+
     @Override
     public ListenableFuture<List<String>> removeAll(TenantId tenantId, EntityId entityId, String scope, List<String> attributeKeys) {
         return removeAll(tenantId, entityId, AttributeScope.valueOf(scope), attributeKeys);
@@ -300,22 +399,33 @@ public class CachedAttributesService implements AttributesService {
     public ListenableFuture<List<String>> removeAll(TenantId tenantId, EntityId entityId, AttributeScope scope, List<String> attributeKeys) {
         validate(entityId, scope);
         List<ListenableFuture<String>> futures = attributesDao.removeAll(tenantId, entityId, scope, attributeKeys);
-        return Futures.allAsList(futures.stream().map(future -> Futures.transform(future, key -> {
-            cache.evict(new AttributeCacheKey(scope, entityId, key));
+        return publishNearCacheInvalidateEvent(tenantId, entityId, scope, Futures.allAsList(futures.stream().map(future -> Futures.transform(future, key -> {
+            AttributeCacheKey attributeCacheKey = new AttributeCacheKey(scope, entityId, key);
+            cache.evict(attributeCacheKey);
+            if (nearCache != null) {
+                nearCache.invalidate(attributeCacheKey);
+            }
             return key;
-        }, cacheExecutor)).collect(Collectors.toList()));
+        }, cacheExecutor)).collect(Collectors.toList())));
     }
 
     @Override
     public int removeAllByEntityId(TenantId tenantId, EntityId entityId) {
         List<Pair<AttributeScope, String>> result = attributesDao.removeAllByEntityId(tenantId, entityId);
+        Map<AttributeScope, List<String>> deletedKeys = new HashMap<>();
         result.forEach(deleted -> {
             AttributeScope scope = deleted.getKey();
             String key = deleted.getValue();
             if (scope != null && key != null) {
-                cache.evict(new AttributeCacheKey(scope, entityId, key));
+                AttributeCacheKey attributeCacheKey = new AttributeCacheKey(scope, entityId, key);
+                cache.evict(attributeCacheKey);
+                if (nearCache != null) {
+                    nearCache.invalidate(attributeCacheKey);
+                    deletedKeys.computeIfAbsent(scope, s -> new ArrayList<>()).add(key);
+                }
             }
         });
+        deletedKeys.forEach((scope, keys) -> publishNearCacheInvalidateEvent(tenantId, entityId, scope, keys));
         return result.size();
     }
 
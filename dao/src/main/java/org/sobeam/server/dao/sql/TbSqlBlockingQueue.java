@@ -64,6 +64,7 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
                     } else {
                         entities.add(attr);
                     }
+                    stats.recordQueueSize(queue.size() + 1);
                     queue.drainTo(entities, batchSize - 1);
                     boolean fullPack = entities.size() == batchSize;
                     if (log.isDebugEnabled()) {
@@ -71,10 +72,12 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
                         log.trace("[{}] Going to save entities: {}", logName, entities);
                     }
                     Stream<E> entitiesStream = entities.stream().map(TbSqlQueueElement::getEntity);
+                    long flushStartTs = System.currentTimeMillis();
                     saveFunction.accept(
                             (params.isBatchSortEnabled() ? entitiesStream.sorted(batchUpdateComparator) : entitiesStream)
                                     .collect(Collectors.toList())
                     );
+                    stats.recordProcessingTime(System.currentTimeMillis() - flushStartTs);
                     entities.forEach(v -> v.getFuture().set(null));
                     stats.incrementSuccessful(entities.size());
                     if (!fullPack) {
@@ -30,4 +30,9 @@ public class TbSqlBlockingQueueParams {
     private final long statsPrintIntervalMs;
     private final String statsNamePrefix;
     private final boolean batchSortEnabled;
+    private final TbSqlRingBufferSettings ringBuffer;
+
+    public boolean isRingBufferEnabled() {
+        return ringBuffer != null && ringBuffer.isEnabled();
+    }
 }
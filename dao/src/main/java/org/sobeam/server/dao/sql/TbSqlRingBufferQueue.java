@@ -0,0 +1,287 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sql;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.sobeam.common.util.SoBeamThreadFactory;
+import org.sobeam.server.common.stats.MessagesStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Multi-producer single-consumer alternative to {@link TbSqlBlockingQueue}.
+ * <p>
+ * Producers claim a slot of the pre-allocated ring with a compare-and-set of the producer sequence and publish the entity
+ * without allocating a queue node. The sequences are grouped into fixed-size chunks that share one future instead of
+ * a future per element. The consumer always saves a chunk within a single pack, closing a partially claimed chunk
+ * on drain, so the shared future reflects the result of exactly the pack its elements were saved with.
+ * The consumer frees the drained slots before the flush and adapts the batch size to keep the flush latency close
+ * to the configured target.
+ */
+@Slf4j
+public class TbSqlRingBufferQueue<E> implements TbSqlQueue<E> {
+
+    private static final long PRODUCER_PARK_NS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int MAX_CHUNK_SIZE = 32;
+
+    private final TbSqlBlockingQueueParams params;
+    private final MessagesStats stats;
+
+    private final int capacity;
+    private final int mask;
+    private final int chunkSize;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final long offerTimeoutNs;
+    private final Object[] entities;
+    private final AtomicLongArray published;
+    private final AtomicReferenceArray<SettableFuture<Void>> chunkFutures;
+    private final AtomicLong producerSequence = new AtomicLong();
+    private final AtomicLong consumerSequence = new AtomicLong();
+
+    private final int maxBatchSize;
+    private final int minBatchSize;
+    private volatile int currentBatchSize;
+    private volatile boolean stopped;
+
+    private ExecutorService executor;
+
+    public TbSqlRingBufferQueue(TbSqlBlockingQueueParams params, MessagesStats stats) {
+        this.params = params;
+        this.stats = stats;
+        this.maxBatchSize = params.getBatchSize();
+        this.minBatchSize = Math.max(1, maxBatchSize / 16);
+        this.currentBatchSize = maxBatchSize;
+        this.chunkSize = Math.min(MAX_CHUNK_SIZE, Integer.highestOneBit(minBatchSize));
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.capacity = toPowerOfTwo(Math.max(params.getRingBuffer().getSize(), maxBatchSize));
+        this.mask = capacity - 1;
+        this.chunkMask = (capacity >> chunkShift) - 1;
+        this.offerTimeoutNs = TimeUnit.MILLISECONDS.toNanos(params.getRingBuffer().getOfferTimeoutMs());
+        this.entities = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.chunkFutures = new AtomicReferenceArray<>(capacity >> chunkShift);
+    }
+
+    @Override
+    public void init(ScheduledLogExecutorComponent logExecutor, Consumer<List<E>> saveFunction, Comparator<E> batchUpdateComparator, int index) {
+        executor = Executors.newSingleThreadExecutor(SoBeamThreadFactory.forName("sql-queue-" + index + "-" + params.getLogName().toLowerCase()));
+        executor.submit(() -> {
+            String logName = params.getLogName();
+            long maxDelay = params.getMaxDelay();
+            final List<SettableFuture<Void>> packFutures = new ArrayList<>();
+            while (!stopped && !Thread.interrupted()) {
+                long currentTs = System.currentTimeMillis();
+                int batchSize = currentBatchSize;
+                List<E> pack = new ArrayList<>(batchSize);
+                boolean fullPack = false;
+                try {
+                    int queueSize = size();
+                    fullPack = drain(pack, packFutures, batchSize);
+                    if (!pack.isEmpty()) {
+                        stats.recordQueueSize(queueSize);
+                        if (log.isDebugEnabled()) {
+                            log.debug("[{}] Going to save {} entities", logName, pack.size());
+                            log.trace("[{}] Going to save entities: {}", logName, pack);
+                        }
+                        if (params.isBatchSortEnabled()) {
+                            pack.sort(batchUpdateComparator);
+                        }
+                        long flushStartTs = System.nanoTime();
+                        saveFunction.accept(pack);
+                        long flushTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - flushStartTs);
+                        stats.recordProcessingTime(flushTimeMs);
+                        packFutures.forEach(future -> future.set(null));
+                        stats.incrementSuccessful(pack.size());
+                        adjustBatchSize(fullPack, flushTimeMs);
+                    }
+                } catch (Throwable t) {
+                    log.error("[{}] Failed to save {} entities", logName, pack.size(), t);
+                    try {
+                        stats.incrementFailed(pack.size());
+                        packFutures.forEach(future -> future.setException(t));
+                    } catch (Throwable th) {
+                        log.error("[{}] Failed to set future exception", logName, th);
+                    }
+                } finally {
+                    packFutures.clear();
+                    if (!fullPack) {
+                        long remainingDelay = maxDelay - (System.currentTimeMillis() - currentTs);
+                        if (remainingDelay > 0) {
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(remainingDelay));
+                        }
+                    }
+                }
+            }
+            log.info("[{}] Queue polling completed", logName);
+        });
+
+        logExecutor.scheduleAtFixedRate(() -> {
+            int queueSize = size();
+            if (queueSize > 0 || stats.getTotal() > 0 || stats.getSuccessful() > 0 || stats.getFailed() > 0) {
+                log.info("Queue-{} [{}] queueSize [{}] batchSize [{}] totalAdded [{}] totalSaved [{}] totalFailed [{}]", index,
+                        params.getLogName(), queueSize, currentBatchSize, stats.getTotal(), stats.getSuccessful(), stats.getFailed());
+                stats.reset();
+            }
+        }, params.getStatsPrintIntervalMs(), params.getStatsPrintIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public ListenableFuture<Void> add(E element) {
+        long sequence = claim();
+        if (sequence < 0) {
+            String reason = stopped ? "stopped" : "full";
+            return Futures.immediateFailedFuture(new IllegalStateException("Queue [" + params.getLogName() + "] is " + reason + "!"));
+        }
+        SettableFuture<Void> future = getChunkFuture(sequence);
+        int idx = (int) (sequence & mask);
+        entities[idx] = element;
+        published.lazySet(idx, sequence);
+        stats.incrementTotal();
+        return future;
+    }
+
+    int size() {
+        return (int) Math.max(0, producerSequence.get() - consumerSequence.get());
+    }
+
+    int getCurrentBatchSize() {
+        return currentBatchSize;
+    }
+
+    /**
+     * Claims the next free slot. Waits while the ring is full, up to the configured offer timeout.
+     *
+     * @return claimed sequence or -1 if the queue is stopped or still full after the timeout
+     */
+    private long claim() {
+        long deadline = 0;
+        while (!stopped) {
+            long sequence = producerSequence.get();
+            if (sequence - capacity < consumerSequence.get()) {
+                if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+            } else {
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + offerTimeoutNs;
+                } else if (offerTimeoutNs > 0 && now - deadline > 0) {
+                    return -1;
+                }
+                LockSupport.parkNanos(PRODUCER_PARK_NS);
+            }
+        }
+        return -1;
+    }
+
+    private SettableFuture<Void> getChunkFuture(long sequence) {
+        // The slot of the chunk is cleared by the consumer before it frees the chunk of the previous lap
+        int chunkIdx = (int) ((sequence >>> chunkShift) & chunkMask);
+        SettableFuture<Void> future = chunkFutures.get(chunkIdx);
+        if (future == null) {
+            SettableFuture<Void> created = SettableFuture.create();
+            future = chunkFutures.compareAndSet(chunkIdx, null, created) ? created : chunkFutures.get(chunkIdx);
+        }
+        return future;
+    }
+
+    /**
+     * Drains whole chunks while they fit into the pack. A partially claimed chunk is closed by moving the producer
+     * sequence to the end of the chunk, so no element added later can share the future of the drained chunk.
+     *
+     * @return true if the pack is full and more elements may be available
+     */
+    @SuppressWarnings("unchecked")
+    private boolean drain(List<E> pack, List<SettableFuture<Void>> packFutures, int batchSize) {
+        long chunkStart = consumerSequence.get();
+        while (pack.size() + chunkSize <= batchSize) {
+            long chunkEnd = chunkStart + chunkSize;
+            long producerSeq = producerSequence.get();
+            if (producerSeq <= chunkStart) {
+                return false;
+            }
+            long end = chunkEnd;
+            if (producerSeq < chunkEnd) {
+                if (!producerSequence.compareAndSet(producerSeq, chunkEnd)) {
+                    continue;
+                }
+                end = producerSeq;
+            }
+            for (long sequence = chunkStart; sequence < end; sequence++) {
+                int idx = (int) (sequence & mask);
+                while (published.get(idx) != sequence) {
+                    // The slot is claimed, the producer is about to publish it
+                    if (stopped) {
+                        return false;
+                    }
+                    Thread.onSpinWait();
+                }
+                pack.add((E) entities[idx]);
+                entities[idx] = null;
+            }
+            int chunkIdx = (int) ((chunkStart >>> chunkShift) & chunkMask);
+            SettableFuture<Void> future = chunkFutures.getAndSet(chunkIdx, null);
+            if (future != null) {
+                packFutures.add(future);
+            }
+            chunkStart = chunkEnd;
+            consumerSequence.lazySet(chunkStart);
+        }
+        return true;
+    }
+
+    private void adjustBatchSize(boolean fullPack, long flushTimeMs) {
+        long targetFlushLatencyMs = params.getRingBuffer().getTargetFlushLatencyMs();
+        if (targetFlushLatencyMs <= 0) {
+            return;
+        }
+        int batchSize = currentBatchSize;
+        if (flushTimeMs > targetFlushLatencyMs && batchSize > minBatchSize) {
+            currentBatchSize = Math.max(minBatchSize, batchSize / 2);
+        } else if (fullPack && flushTimeMs < targetFlushLatencyMs / 2 && batchSize < maxBatchSize) {
+            currentBatchSize = Math.min(maxBatchSize, batchSize * 2);
+        }
+    }
+
+    private static int toPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
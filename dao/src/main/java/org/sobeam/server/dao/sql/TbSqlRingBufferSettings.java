@@ -0,0 +1,45 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sql;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of {@link TbSqlRingBufferQueue}, shared by all the DAOs that persist entities through {@link TbSqlBlockingQueueWrapper}.
+ */
+@Data
+@Component
+@NoArgsConstructor
+@AllArgsConstructor
+public class TbSqlRingBufferSettings {
+
+    @Value("${sql.ring_buffer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${sql.ring_buffer.size:65536}")
+    private int size;
+
+    @Value("${sql.ring_buffer.target_flush_latency_ms:0}")
+    private long targetFlushLatencyMs;
+
+    @Value("${sql.ring_buffer.offer_timeout_ms:10000}")
+    private long offerTimeoutMs;
+
+}
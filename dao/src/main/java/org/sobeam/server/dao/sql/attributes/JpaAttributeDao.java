@@ -43,6 +43,7 @@ import org.sobeam.server.dao.sql.JpaAbstractDaoListeningExecutorService;
 import org.sobeam.server.dao.sql.ScheduledLogExecutorComponent;
 import org.sobeam.server.dao.sql.TbSqlBlockingQueueParams;
 import org.sobeam.server.dao.sql.TbSqlBlockingQueueWrapper;
+import org.sobeam.server.dao.sql.TbSqlRingBufferSettings;
 import org.sobeam.server.dao.util.SqlDao;
 
 import java.util.ArrayList;
@@ -88,6 +89,9 @@ public class JpaAttributeDao extends JpaAbstractDaoListeningExecutorService impl
     @Value("${sql.batch_sort:true}")
     private boolean batchSortEnabled;
 
+    @Autowired
+    private TbSqlRingBufferSettings ringBufferSettings;
+
     private TbSqlBlockingQueueWrapper<AttributeKvEntity> queue;
 
     @PostConstruct
@@ -99,6 +103,7 @@ public class JpaAttributeDao extends JpaAbstractDaoListeningExecutorService impl
                 .statsPrintIntervalMs(statsPrintIntervalMs)
                 .statsNamePrefix("attributes")
                 .batchSortEnabled(batchSortEnabled)
+                .ringBuffer(ringBufferSettings)
                 .build();
 
         Function<AttributeKvEntity, Integer> hashcodeFunction = entity -> entity.getId().getEntityId().hashCode();
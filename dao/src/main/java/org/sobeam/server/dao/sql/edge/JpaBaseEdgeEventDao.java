@@ -41,6 +41,7 @@ import org.sobeam.server.dao.sql.JpaPartitionedAbstractDao;
 import org.sobeam.server.dao.sql.ScheduledLogExecutorComponent;
 import org.sobeam.server.dao.sql.TbSqlBlockingQueueParams;
 import org.sobeam.server.dao.sql.TbSqlBlockingQueueWrapper;
+import org.sobeam.server.dao.sql.TbSqlRingBufferSettings;
 import org.sobeam.server.dao.sqlts.insert.sql.SqlPartitioningRepository;
 import org.sobeam.server.dao.util.SqlDao;
 
@@ -73,6 +74,8 @@ public class JpaBaseEdgeEventDao extends JpaPartitionedAbstractDao<EdgeEventEnti
 
     private final JdbcTemplate jdbcTemplate;
 
+    private final TbSqlRingBufferSettings ringBufferSettings;
+
     @Value("${sql.edge_events.batch_size:1000}")
     private int batchSize;
 
@@ -111,6 +114,7 @@ public class JpaBaseEdgeEventDao extends JpaPartitionedAbstractDao<EdgeEventEnti
                 .statsPrintIntervalMs(statsPrintIntervalMs)
                 .statsNamePrefix("edge.events")
                 .batchSortEnabled(true)
+                .ringBuffer(ringBufferSettings)
                 .build();
         Function<EdgeEventEntity, Integer> hashcodeFunction = entity -> {
             if (entity.getEntityId() != null) {
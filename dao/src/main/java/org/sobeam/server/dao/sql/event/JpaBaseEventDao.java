@@ -43,6 +43,7 @@ import org.sobeam.server.dao.model.sql.EventEntity;
 import org.sobeam.server.dao.sql.ScheduledLogExecutorComponent;
 import org.sobeam.server.dao.sql.TbSqlBlockingQueueParams;
 import org.sobeam.server.dao.sql.TbSqlBlockingQueueWrapper;
+import org.sobeam.server.dao.sql.TbSqlRingBufferSettings;
 import org.sobeam.server.dao.sqlts.insert.sql.SqlPartitioningRepository;
 import org.sobeam.server.dao.util.SqlDao;
 
@@ -110,6 +111,9 @@ public class JpaBaseEventDao implements EventDao {
     @Value("${sql.batch_sort:true}")
     private boolean batchSortEnabled;
 
+    @Autowired
+    private TbSqlRingBufferSettings ringBufferSettings;
+
     private TbSqlBlockingQueueWrapper<Event> queue;
 
     private final Map<EventType, EventRepository<?, ?>> repositories = new ConcurrentHashMap<>();
@@ -123,6 +127,7 @@ public class JpaBaseEventDao implements EventDao {
                 .statsPrintIntervalMs(statsPrintIntervalMs)
                 .statsNamePrefix("events")
                 .batchSortEnabled(batchSortEnabled)
+                .ringBuffer(ringBufferSettings)
                 .build();
         Function<Event, Integer> hashcodeFunction = entity -> Objects.hash(super.hashCode(), entity.getTenantId(), entity.getEntityId());
         queue = new TbSqlBlockingQueueWrapper<>(params, hashcodeFunction, batchThreads, statsFactory);
@@ -48,6 +48,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 @SuppressWarnings("UnstableApiUsage")
@@ -76,11 +77,15 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
                 .statsPrintIntervalMs(tsStatsPrintIntervalMs)
                 .statsNamePrefix("ts")
                 .batchSortEnabled(batchSortEnabled)
+                .ringBuffer(ringBufferSettings)
                 .build();
 
         Function<TsKvEntity, Integer> hashcodeFunction = entity -> entity.getEntityId().hashCode();
         tsQueue = new TbSqlBlockingQueueWrapper<>(tsParams, hashcodeFunction, tsBatchThreads, statsFactory);
-        tsQueue.init(logExecutor, v -> insertRepository.saveOrUpdate(v),
+        tsQueue.init(logExecutor, v -> {
+                    insertRepository.saveOrUpdate(v);
+                    onSaved(v);
+                },
                 Comparator.comparing((Function<TsKvEntity, UUID>) AbstractTsKvEntity::getEntityId)
                         .thenComparing(AbstractTsKvEntity::getKey)
                         .thenComparing(AbstractTsKvEntity::getTs)
@@ -106,6 +111,9 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
         });
     }
 
+    protected void onSaved(List<TsKvEntity> entities) {
+    }
+
     @Override
     public ListenableFuture<Integer> savePartition(TenantId tenantId, EntityId entityId, long tsKvEntryTs, String key) {
         return Futures.immediateFuture(null);
@@ -144,6 +152,16 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
         }
     }
 
+    @Override
+    protected int getKeyId(String key) {
+        return keyDictionaryDao.getOrSaveKeyId(key);
+    }
+
+    @Override
+    public void streamAll(TenantId tenantId, EntityId entityId, String key, long startTs, long endTs, Consumer<TsKvEntry> consumer) {
+        streamAll(entityId, keyDictionaryDao.getOrSaveKeyId(key), key, startTs, endTs, consumer);
+    }
+
     private ReadTsKvQueryResult findAllAsyncWithLimit(EntityId entityId, ReadTsKvQuery query) {
         Integer keyId = keyDictionaryDao.getOrSaveKeyId(query.getKey());
         List<TsKvEntity> tsKvEntities = tsKvRepository.findAllWithLimit(
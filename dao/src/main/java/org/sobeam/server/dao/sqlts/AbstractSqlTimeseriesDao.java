@@ -18,25 +18,43 @@ package org.sobeam.server.dao.sqlts;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.sobeam.server.common.data.id.EntityId;
 import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.data.kv.Aggregation;
+import org.sobeam.server.common.data.kv.BasicTsKvEntry;
+import org.sobeam.server.common.data.kv.BooleanDataEntry;
+import org.sobeam.server.common.data.kv.DoubleDataEntry;
+import org.sobeam.server.common.data.kv.IntervalType;
+import org.sobeam.server.common.data.kv.JsonDataEntry;
+import org.sobeam.server.common.data.kv.KvEntry;
+import org.sobeam.server.common.data.kv.LongDataEntry;
 import org.sobeam.server.common.data.kv.ReadTsKvQuery;
 import org.sobeam.server.common.data.kv.ReadTsKvQueryResult;
+import org.sobeam.server.common.data.kv.StringDataEntry;
 import org.sobeam.server.common.data.kv.TsKvEntry;
+import org.sobeam.server.dao.DaoUtil;
 import org.sobeam.server.dao.model.ModelConstants;
+import org.sobeam.server.dao.model.sqlts.ts.TsKvEntity;
 import org.sobeam.server.dao.sql.ScheduledLogExecutorComponent;
+import org.sobeam.server.dao.sql.TbSqlRingBufferSettings;
+import org.sobeam.server.dao.util.TimeUtils;
 
 import jakarta.annotation.Nullable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("UnstableApiUsage")
@@ -45,6 +63,9 @@ public abstract class AbstractSqlTimeseriesDao extends BaseAbstractSqlTimeseries
 
     protected static final long SECONDS_IN_DAY = TimeUnit.DAYS.toSeconds(1);
 
+    private static final String STREAM_ALL_QUERY = "SELECT ts, bool_v, str_v, long_v, dbl_v, json_v FROM ts_kv " +
+            "WHERE entity_id = ? AND key = ? AND ts >= ? AND ts < ? ORDER BY ts";
+
     @Autowired
     protected ScheduledLogExecutorComponent logExecutor;
 
@@ -66,6 +87,18 @@ public abstract class AbstractSqlTimeseriesDao extends BaseAbstractSqlTimeseries
     @Value("${sql.batch_sort:true}")
     protected boolean batchSortEnabled;
 
+    @Autowired
+    protected TbSqlRingBufferSettings ringBufferSettings;
+
+    @Value("${sql.ts.stream_fetch_size:1000}")
+    protected int streamFetchSize;
+
+    @Value("${sql.ts.single_query_aggregation:true}")
+    private boolean singleQueryAggregation;
+
+    @Autowired
+    private TsKvBucketAggregationRepository bucketAggregationRepository;
+
     @Value("${sql.ttl.ts.ts_key_value_ttl:0}")
     private long systemTtl;
 
@@ -89,10 +122,21 @@ public abstract class AbstractSqlTimeseriesDao extends BaseAbstractSqlTimeseries
     }
 
     protected ListenableFuture<List<ReadTsKvQueryResult>> processFindAllAsync(TenantId tenantId, EntityId entityId, List<ReadTsKvQuery> queries) {
-        List<ListenableFuture<ReadTsKvQueryResult>> futures = queries
-                .stream()
-                .map(query -> findAllAsync(tenantId, entityId, query))
-                .collect(Collectors.toList());
+        List<ReadTsKvQuery> aggregationQueries = isSingleQueryAggregationEnabled() ? queries.stream()
+                .filter(query -> query.getAggregation() != Aggregation.NONE)
+                .collect(Collectors.toList()) : Collections.emptyList();
+        ListenableFuture<List<ReadTsKvQueryResult>> aggregationFuture = aggregationQueries.isEmpty() ? null :
+                service.submit(() -> findAllAndAggregate(entityId, aggregationQueries));
+        List<ListenableFuture<ReadTsKvQueryResult>> futures = new ArrayList<>(queries.size());
+        int aggregationIdx = 0;
+        for (ReadTsKvQuery query : queries) {
+            if (aggregationFuture != null && query.getAggregation() != Aggregation.NONE) {
+                int idx = aggregationIdx++;
+                futures.add(Futures.transform(aggregationFuture, results -> results.get(idx), MoreExecutors.directExecutor()));
+            } else {
+                futures.add(findAllAsync(tenantId, entityId, query));
+            }
+        }
         return Futures.transform(Futures.allAsList(futures), new Function<>() {
             @Nullable
             @Override
@@ -105,6 +149,127 @@ public abstract class AbstractSqlTimeseriesDao extends BaseAbstractSqlTimeseries
         }, service);
     }
 
+    protected boolean isSingleQueryAggregationEnabled() {
+        return singleQueryAggregation;
+    }
+
+    protected abstract int getKeyId(String key);
+
+    /**
+     * Splits the queries into intervals the same way as the per-interval aggregation does
+     * and aggregates the intervals of all the queries with a single statement.
+     */
+    private List<ReadTsKvQueryResult> findAllAndAggregate(EntityId entityId, List<ReadTsKvQuery> queries) {
+        List<TsKvBucket> buckets = new ArrayList<>();
+        int[] firstBuckets = new int[queries.size() + 1];
+        for (int i = 0; i < queries.size(); i++) {
+            firstBuckets[i] = buckets.size();
+            addBuckets(getKeyId(queries.get(i).getKey()), queries.get(i), buckets);
+        }
+        firstBuckets[queries.size()] = buckets.size();
+        TsKvAggregates[] aggregates = bucketAggregationRepository.aggregate(entityId.getId(), buckets);
+        List<ReadTsKvQueryResult> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            ReadTsKvQuery query = queries.get(i);
+            List<TsKvEntity> data = new ArrayList<>();
+            long lastTs = query.getStartTs();
+            for (int b = firstBuckets[i]; b < firstBuckets[i + 1]; b++) {
+                if (aggregates[b] == null) {
+                    continue;
+                }
+                TsKvEntity entity = aggregates[b].toEntity(query.getAggregation());
+                if (entity.isNotEmpty()) {
+                    TsKvBucket bucket = buckets.get(b);
+                    entity.setEntityId(entityId.getId());
+                    entity.setStrKey(query.getKey());
+                    entity.setTs(bucket.getTs());
+                    data.add(entity);
+                    lastTs = Math.max(lastTs, aggregates[b].getLastTs());
+                }
+            }
+            results.add(new ReadTsKvQueryResult(query.getId(), DaoUtil.convertDataList(data), lastTs));
+        }
+        return results;
+    }
+
+    static void addBuckets(int keyId, ReadTsKvQuery query, List<TsKvBucket> buckets) {
+        var aggParams = query.getAggParameters();
+        long startPeriod = query.getStartTs();
+        long endPeriod = Math.max(query.getStartTs() + 1, query.getEndTs());
+        while (startPeriod < endPeriod) {
+            long endTs;
+            if (IntervalType.MILLISECONDS.equals(aggParams.getIntervalType())) {
+                endTs = startPeriod + aggParams.getInterval();
+            } else {
+                endTs = TimeUtils.calculateIntervalEnd(startPeriod, aggParams.getIntervalType(), aggParams.getTzId());
+            }
+            endTs = Math.min(endTs, endPeriod);
+            buckets.add(new TsKvBucket(keyId, startPeriod, endTs));
+            startPeriod = endTs;
+        }
+    }
+
+    /**
+     * Reads the values through a server-side cursor: PostgreSQL fetches the rows by {@link #streamFetchSize}
+     * only if auto-commit is disabled, so the query runs in a read-only transaction that is rolled back at the end.
+     */
+    protected void streamAll(EntityId entityId, int keyId, String key, long startTs, long endTs, Consumer<TsKvEntry> consumer) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(STREAM_ALL_QUERY)) {
+                stmt.setFetchSize(streamFetchSize);
+                stmt.setObject(1, entityId.getId());
+                stmt.setInt(2, keyId);
+                stmt.setLong(3, startTs);
+                stmt.setLong(4, endTs);
+                try (ResultSet resultSet = stmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        TsKvEntry entry = toTsKvEntry(key, resultSet);
+                        if (entry != null) {
+                            consumer.accept(entry);
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    private static TsKvEntry toTsKvEntry(String key, ResultSet resultSet) throws SQLException {
+        long ts = resultSet.getLong(1);
+        KvEntry kvEntry;
+        String strValue = resultSet.getString(3);
+        if (strValue != null) {
+            kvEntry = new StringDataEntry(key, strValue);
+        } else {
+            long longValue = resultSet.getLong(4);
+            if (!resultSet.wasNull()) {
+                kvEntry = new LongDataEntry(key, longValue);
+            } else {
+                double doubleValue = resultSet.getDouble(5);
+                if (!resultSet.wasNull()) {
+                    kvEntry = new DoubleDataEntry(key, doubleValue);
+                } else {
+                    boolean boolValue = resultSet.getBoolean(2);
+                    if (!resultSet.wasNull()) {
+                        kvEntry = new BooleanDataEntry(key, boolValue);
+                    } else {
+                        String jsonValue = resultSet.getString(6);
+                        if (jsonValue == null) {
+                            return null;
+                        }
+                        kvEntry = new JsonDataEntry(key, jsonValue);
+                    }
+                }
+            }
+        }
+        return new BasicTsKvEntry(ts, kvEntry);
+    }
+
     protected long computeTtl(long ttl) {
         if (systemTtl > 0) {
             if (ttl == 0) {
@@ -16,6 +16,7 @@
 package org.sobeam.server.dao.sqlts;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -46,8 +47,10 @@ import org.sobeam.server.dao.model.sqlts.latest.TsKvLatestEntity;
 import org.sobeam.server.dao.sql.ScheduledLogExecutorComponent;
 import org.sobeam.server.dao.sql.TbSqlBlockingQueueParams;
 import org.sobeam.server.dao.sql.TbSqlBlockingQueueWrapper;
+import org.sobeam.server.dao.sql.TbSqlRingBufferSettings;
 import org.sobeam.server.dao.sqlts.insert.latest.InsertLatestTsRepository;
 import org.sobeam.server.dao.sqlts.latest.SearchTsKvLatestRepository;
+import org.sobeam.server.dao.sqlts.latest.TsKvLatestInMemoryStore;
 import org.sobeam.server.dao.sqlts.latest.TsKvLatestRepository;
 import org.sobeam.server.dao.timeseries.TimeseriesLatestDao;
 import org.sobeam.server.dao.util.SqlTsLatestAnyDao;
@@ -98,6 +101,26 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
     @Value("${sql.batch_sort:true}")
     protected boolean batchSortEnabled;
 
+    @Autowired
+    protected TbSqlRingBufferSettings ringBufferSettings;
+
+    @Value("${sql.ts_latest.in_memory.enabled:false}")
+    private boolean inMemoryStoreEnabled;
+
+    @Value("${sql.ts_latest.in_memory.max_memory_mb:256}")
+    private long inMemoryStoreMaxMemoryMb;
+
+    @Value("${sql.ts_latest.update_by_latest_ts:true}")
+    private boolean updateByLatestTs;
+
+    @Value("${zk.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${service.type:monolith}")
+    private String serviceType;
+
+    private TsKvLatestInMemoryStore latestStore;
+
     @Autowired
     protected ScheduledLogExecutorComponent logExecutor;
 
@@ -109,6 +132,14 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
 
     @PostConstruct
     protected void init() {
+        if (inMemoryStoreEnabled) {
+            if (clusterEnabled || !"monolith".equals(serviceType)) {
+                throw new IllegalStateException("In-memory store of the latest time series values (sql.ts_latest.in_memory.enabled) " +
+                        "requires a single monolith node: the latest values written by other nodes would never reach this store");
+            }
+            latestStore = new TsKvLatestInMemoryStore(inMemoryStoreMaxMemoryMb * 1024 * 1024, updateByLatestTs);
+            log.info("Using in-memory store for the latest time series values, max memory: {} MB", inMemoryStoreMaxMemoryMb);
+        }
         TbSqlBlockingQueueParams tsLatestParams = TbSqlBlockingQueueParams.builder()
                 .logName("TS Latest")
                 .batchSize(tsLatestBatchSize)
@@ -116,6 +147,7 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
                 .statsPrintIntervalMs(tsLatestStatsPrintIntervalMs)
                 .statsNamePrefix("ts.latest")
                 .batchSortEnabled(false)
+                .ringBuffer(ringBufferSettings)
                 .build();
 
         java.util.function.Function<TsKvLatestEntity, Integer> hashcodeFunction = entity -> entity.getEntityId().hashCode();
@@ -205,14 +237,23 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
     }
 
     protected TsKvEntry doFindLatest(EntityId entityId, String key) {
-        TsKvLatestCompositeKey compositeKey =
-                new TsKvLatestCompositeKey(
-                        entityId.getId(),
-                        keyDictionaryDao.getOrSaveKeyId(key));
+        int keyId = keyDictionaryDao.getOrSaveKeyId(key);
+        long storeVersion = 0;
+        if (latestStore != null) {
+            Optional<TsKvEntry> stored = latestStore.find(entityId.getId(), keyId);
+            if (stored != null) {
+                return stored.orElse(null);
+            }
+            storeVersion = latestStore.getVersion();
+        }
+        TsKvLatestCompositeKey compositeKey = new TsKvLatestCompositeKey(entityId.getId(), keyId);
         Optional<TsKvLatestEntity> entry = tsKvLatestRepository.findById(compositeKey);
         if (entry.isPresent()) {
             TsKvLatestEntity tsKvLatestEntity = entry.get();
             tsKvLatestEntity.setStrKey(key);
+            if (latestStore != null) {
+                latestStore.load(tsKvLatestEntity, key, storeVersion);
+            }
             return DaoUtil.getData(tsKvLatestEntity);
         } else {
             return null;
@@ -232,6 +273,9 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
                 latestEntity.setEntityId(entityId.getId());
                 latestEntity.setKey(keyDictionaryDao.getOrSaveKeyId(query.getKey()));
                 tsKvLatestRepository.delete(latestEntity);
+                if (latestStore != null) {
+                    latestStore.remove(entityId.getId(), latestEntity.getKey());
+                }
                 isRemoved = true;
                 if (query.getRewriteLatestIfDeleted()) {
                     return getNewLatestEntryFuture(tenantId, entityId, query);
@@ -242,9 +286,24 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
     }
 
     protected ListenableFuture<List<TsKvEntry>> getFindAllLatestFuture(EntityId entityId) {
-        return service.submit(() ->
-                DaoUtil.convertDataList(Lists.newArrayList(
-                        searchTsKvLatestRepository.findAllByEntityId(entityId.getId()))));
+        if (latestStore != null) {
+            List<TsKvEntry> stored = latestStore.findAll(entityId.getId());
+            if (stored != null) {
+                return Futures.immediateFuture(stored);
+            }
+        }
+        return service.submit(() -> {
+            long storeVersion = latestStore != null ? latestStore.getVersion() : 0;
+            List<TsKvLatestEntity> entities = searchTsKvLatestRepository.findAllByEntityId(entityId.getId());
+            if (latestStore != null) {
+                latestStore.loadAll(entityId.getId(), entities, storeVersion);
+                List<TsKvEntry> stored = latestStore.findAll(entityId.getId());
+                if (stored != null) {
+                    return stored;
+                }
+            }
+            return DaoUtil.convertDataList(Lists.newArrayList(entities));
+        });
     }
 
     protected ListenableFuture<Void> getSaveLatestFuture(EntityId entityId, TsKvEntry tsKvEntry) {
@@ -258,7 +317,23 @@ public class SqlTimeseriesLatestDao extends BaseAbstractSqlTimeseriesDao impleme
         latestEntity.setBooleanValue(tsKvEntry.getBooleanValue().orElse(null));
         latestEntity.setJsonValue(tsKvEntry.getJsonValue().orElse(null));
 
-        return tsLatestQueue.add(latestEntity);
+        if (latestStore == null) {
+            return tsLatestQueue.add(latestEntity);
+        }
+        latestStore.put(latestEntity, tsKvEntry.getKey());
+        ListenableFuture<Void> future = tsLatestQueue.add(latestEntity);
+        Futures.addCallback(future, new FutureCallback<>() {
+            @Override
+            public void onSuccess(Void result) {
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                // the value never reached the database, reload the entity on the next read
+                latestStore.invalidate(entityId.getId());
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
     }
 
     private TsKvEntry getLatestTsKvEntry(EntityId entityId, String key) {
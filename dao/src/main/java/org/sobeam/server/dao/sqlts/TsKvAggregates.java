@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts;
+
+import lombok.Data;
+import org.sobeam.server.common.data.kv.Aggregation;
+import org.sobeam.server.dao.model.sqlts.ts.TsKvEntity;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Counts, sums, minimums and maximums of the values of a single key over a time range,
+ * enough to answer any of the supported aggregations.
+ */
+@Data
+public class TsKvAggregates {
+
+    private long longCount;
+    private Long longSum;
+    private Long longMin;
+    private Long longMax;
+    private long doubleCount;
+    private Double doubleSum;
+    private Double doubleMin;
+    private Double doubleMax;
+    private long booleanCount;
+    private long strCount;
+    private long jsonCount;
+    private String strMin;
+    private String strMax;
+    private long lastTs;
+
+    /**
+     * Reads the columns long_cnt, long_sum, long_min, long_max, dbl_cnt, dbl_sum, dbl_min, dbl_max,
+     * bool_cnt, str_cnt, json_cnt and last_ts starting from the given column.
+     *
+     * @return null if the range has no values
+     */
+    public static TsKvAggregates read(ResultSet rs, int column) throws SQLException {
+        Long lastTs = getLong(rs, column + 11);
+        if (lastTs == null) {
+            return null;
+        }
+        TsKvAggregates aggregates = new TsKvAggregates();
+        aggregates.setLongCount(rs.getLong(column));
+        aggregates.setLongSum(getLong(rs, column + 1));
+        aggregates.setLongMin(getLong(rs, column + 2));
+        aggregates.setLongMax(getLong(rs, column + 3));
+        aggregates.setDoubleCount(rs.getLong(column + 4));
+        aggregates.setDoubleSum(getDouble(rs, column + 5));
+        aggregates.setDoubleMin(getDouble(rs, column + 6));
+        aggregates.setDoubleMax(getDouble(rs, column + 7));
+        aggregates.setBooleanCount(rs.getLong(column + 8));
+        aggregates.setStrCount(rs.getLong(column + 9));
+        aggregates.setJsonCount(rs.getLong(column + 10));
+        aggregates.setLastTs(lastTs);
+        return aggregates;
+    }
+
+    public boolean hasNumericValues() {
+        return longCount + doubleCount > 0;
+    }
+
+    public TsKvEntity toEntity(Aggregation aggregation) {
+        switch (aggregation) {
+            case AVG:
+            case SUM:
+                return new TsKvEntity(longCount > 0 ? longSum : 0L, doubleCount > 0 ? doubleSum : 0.0,
+                        longCount, doubleCount, aggregation.name(), lastTs);
+            case MIN:
+            case MAX:
+                boolean max = aggregation == Aggregation.MAX;
+                if (!hasNumericValues()) {
+                    String strValue = max ? strMax : strMin;
+                    return strValue != null ? new TsKvEntity(strValue, lastTs) : new TsKvEntity();
+                }
+                return new TsKvEntity(max ? longMax : longMin, max ? doubleMax : doubleMin,
+                        longCount, doubleCount, aggregation.name(), lastTs);
+            case COUNT:
+                return new TsKvEntity(booleanCount, strCount, longCount, doubleCount, jsonCount, lastTs);
+            default:
+                throw new IllegalArgumentException("Not supported aggregation type: " + aggregation);
+        }
+    }
+
+    private static Long getLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double getDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+}
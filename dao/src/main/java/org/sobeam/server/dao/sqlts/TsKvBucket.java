@@ -0,0 +1,38 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts;
+
+import lombok.Data;
+
+/**
+ * Time range [startTs, endTs) of the key values aggregated into a single data point.
+ */
+@Data
+public class TsKvBucket {
+
+    private final int key;
+    private final long startTs;
+    private final long endTs;
+
+    /**
+     * Timestamp of the data point: the middle of the range. For the last bucket truncated by the end of the query
+     * this is the same value as the Timescale aggregation returns, i.e. the time_bucket start plus half of the remaining part.
+     */
+    public long getTs() {
+        return startTs + (endTs - startTs) / 2;
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.sobeam.server.dao.util.SqlTsOrTsLatestAnyDao;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.UUID;
+
+@SqlTsOrTsLatestAnyDao
+@Repository
+public class TsKvBucketAggregationRepository {
+
+    private static final String AGGREGATE_BUCKETS = "SELECT b.idx, count(t.long_v), sum(t.long_v), min(t.long_v), max(t.long_v), " +
+            "count(t.dbl_v), sum(t.dbl_v), min(t.dbl_v), max(t.dbl_v), count(t.bool_v), count(t.str_v), count(t.json_v), max(t.ts), " +
+            "min(t.str_v), max(t.str_v) " +
+            "FROM unnest(?, ?, ?, ?) AS b(idx, key, start_ts, end_ts) " +
+            "JOIN ts_kv t ON t.entity_id = ? AND t.key = b.key AND t.ts >= b.start_ts AND t.ts < b.end_ts " +
+            "GROUP BY b.idx";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Aggregates all the buckets in a single statement.
+     *
+     * @return aggregates in the order of the buckets, null for the buckets without values
+     */
+    public TsKvAggregates[] aggregate(UUID entityId, List<TsKvBucket> buckets) {
+        int size = buckets.size();
+        Integer[] indexes = new Integer[size];
+        Integer[] keys = new Integer[size];
+        Long[] startTs = new Long[size];
+        Long[] endTs = new Long[size];
+        for (int i = 0; i < size; i++) {
+            TsKvBucket bucket = buckets.get(i);
+            indexes[i] = i;
+            keys[i] = bucket.getKey();
+            startTs[i] = bucket.getStartTs();
+            endTs[i] = bucket.getEndTs();
+        }
+        TsKvAggregates[] result = new TsKvAggregates[size];
+        jdbcTemplate.query(AGGREGATE_BUCKETS, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("int4", indexes));
+            ps.setArray(2, connection.createArrayOf("int4", keys));
+            ps.setArray(3, connection.createArrayOf("int8", startTs));
+            ps.setArray(4, connection.createArrayOf("int8", endTs));
+            ps.setObject(5, entityId);
+        }, rs -> {
+            TsKvAggregates aggregates = TsKvAggregates.read(rs, 2);
+            if (aggregates != null) {
+                aggregates.setStrMin(rs.getString(14));
+                aggregates.setStrMax(rs.getString(15));
+                result[rs.getInt(1)] = aggregates;
+            }
+        });
+        return result;
+    }
+
+}
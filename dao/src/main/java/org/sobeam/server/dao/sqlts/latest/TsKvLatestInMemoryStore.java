@@ -0,0 +1,332 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts.latest;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.sobeam.server.common.data.kv.BasicTsKvEntry;
+import org.sobeam.server.common.data.kv.BooleanDataEntry;
+import org.sobeam.server.common.data.kv.DoubleDataEntry;
+import org.sobeam.server.common.data.kv.JsonDataEntry;
+import org.sobeam.server.common.data.kv.KvEntry;
+import org.sobeam.server.common.data.kv.LongDataEntry;
+import org.sobeam.server.common.data.kv.StringDataEntry;
+import org.sobeam.server.common.data.kv.TsKvEntry;
+import org.sobeam.server.dao.model.sqlts.latest.TsKvLatestEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process store of the latest time series values. Values of an entity are kept in primitive columns indexed by the key id
+ * from the key dictionary, so a value costs a few dozens of bytes instead of an entity object graph.
+ * The memory used by the store is capped, least recently used entities are evicted first.
+ * <p>
+ * The store is only consistent with the database if all latest values of an entity are written through this node.
+ * <p>
+ * Removals are versioned: a value read from the database before a removal of the same entity is not loaded into the store,
+ * see {@link #getVersion()}.
+ */
+public class TsKvLatestInMemoryStore {
+
+    private static final byte BOOLEAN = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte STRING = 4;
+    private static final byte JSON = 5;
+
+    private static final int ENTITY_OVERHEAD_BYTES = 96;
+    private static final int VALUE_BYTES = Integer.BYTES + Long.BYTES + Byte.BYTES + Long.BYTES + 8;
+
+    private final boolean updateByLatestTs;
+    private final Cache<UUID, EntityColumns> entities;
+    private final ConcurrentMap<Integer, String> keyNames = new ConcurrentHashMap<>();
+    private final AtomicLong versionSeq = new AtomicLong();
+    // Highest removal version of the evicted entities; loads of older versions can no longer be checked per entity.
+    private final AtomicLong evictedRemovalVersion = new AtomicLong();
+
+    public TsKvLatestInMemoryStore(long maxMemoryBytes, boolean updateByLatestTs) {
+        this.updateByLatestTs = updateByLatestTs;
+        this.entities = Caffeine.newBuilder()
+                .maximumWeight(maxMemoryBytes)
+                .weigher((UUID entityId, EntityColumns columns) -> columns.weight)
+                .evictionListener((UUID entityId, EntityColumns columns, RemovalCause cause) -> {
+                    if (columns != null) {
+                        evictedRemovalVersion.accumulateAndGet(columns.removalVersion, Math::max);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return latest value of the key, empty if the entity is known to have no such key, or null if the database has to be queried
+     */
+    public Optional<TsKvEntry> find(UUID entityId, int keyId) {
+        EntityColumns columns = entities.getIfPresent(entityId);
+        if (columns == null) {
+            return null;
+        }
+        synchronized (columns) {
+            int idx = columns.indexOf(keyId);
+            if (idx >= 0) {
+                return Optional.of(columns.toTsKvEntry(idx, keyNames.get(keyId)));
+            }
+            return columns.complete ? Optional.empty() : null;
+        }
+    }
+
+    /**
+     * @return all latest values of the entity, or null if the store does not know the complete set of the keys
+     */
+    public List<TsKvEntry> findAll(UUID entityId) {
+        EntityColumns columns = entities.getIfPresent(entityId);
+        if (columns == null) {
+            return null;
+        }
+        synchronized (columns) {
+            if (!columns.complete) {
+                return null;
+            }
+            List<TsKvEntry> result = new ArrayList<>(columns.size);
+            for (int i = 0; i < columns.size; i++) {
+                result.add(columns.toTsKvEntry(i, keyNames.get(columns.keyIds[i])));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Writes the value that is being persisted to the database.
+     */
+    public void put(TsKvLatestEntity entity, String key) {
+        keyNames.putIfAbsent(entity.getKey(), key);
+        entities.asMap().compute(entity.getEntityId(), (entityId, columns) -> {
+            if (columns == null) {
+                columns = new EntityColumns();
+            }
+            synchronized (columns) {
+                columns.put(entity, !updateByLatestTs);
+            }
+            return columns;
+        });
+    }
+
+    /**
+     * Returns the version to pass to {@link #load(TsKvLatestEntity, String, long)} and {@link #loadAll(UUID, List, long)}.
+     * Must be taken before the values are read from the database.
+     */
+    public long getVersion() {
+        return versionSeq.get();
+    }
+
+    /**
+     * Merges the value loaded from the database. Never overrides a more recent value written through the store
+     * and skips the value if the entity had a key removed since the version was taken.
+     */
+    public void load(TsKvLatestEntity entity, String key, long version) {
+        keyNames.putIfAbsent(entity.getKey(), key);
+        if (version < evictedRemovalVersion.get()) {
+            return;
+        }
+        entities.asMap().compute(entity.getEntityId(), (entityId, columns) -> {
+            if (columns == null) {
+                columns = new EntityColumns();
+            }
+            synchronized (columns) {
+                if (columns.removalVersion <= version) {
+                    columns.put(entity, false);
+                }
+            }
+            return columns;
+        });
+    }
+
+    /**
+     * Merges the complete set of the latest values of the entity loaded from the database.
+     * Skipped if the entity had a key removed since the version was taken, the next read queries the database again.
+     */
+    public void loadAll(UUID entityId, List<TsKvLatestEntity> loaded, long version) {
+        if (version < evictedRemovalVersion.get()) {
+            return;
+        }
+        entities.asMap().compute(entityId, (id, columns) -> {
+            if (columns == null) {
+                columns = new EntityColumns();
+            }
+            synchronized (columns) {
+                if (columns.removalVersion > version) {
+                    return columns;
+                }
+                for (TsKvLatestEntity entity : loaded) {
+                    keyNames.putIfAbsent(entity.getKey(), entity.getStrKey());
+                    columns.put(entity, false);
+                }
+                columns.complete = true;
+            }
+            return columns;
+        });
+    }
+
+    /**
+     * Removes the key and leaves the removal version on the entity, even if the entity is not in the store yet,
+     * so a concurrent load that read the removed value from the database is rejected.
+     */
+    public void remove(UUID entityId, int keyId) {
+        entities.asMap().compute(entityId, (id, columns) -> {
+            if (columns == null) {
+                columns = new EntityColumns();
+            }
+            synchronized (columns) {
+                columns.remove(keyId);
+                columns.removalVersion = versionSeq.incrementAndGet();
+            }
+            return columns;
+        });
+    }
+
+    public void invalidate(UUID entityId) {
+        entities.asMap().computeIfPresent(entityId, (id, columns) -> {
+            evictedRemovalVersion.accumulateAndGet(columns.removalVersion, Math::max);
+            return null;
+        });
+    }
+
+    public long getEstimatedSize() {
+        return entities.estimatedSize();
+    }
+
+    void cleanUp() {
+        entities.cleanUp();
+    }
+
+    private static final class EntityColumns {
+
+        private int size;
+        private int[] keyIds = new int[4];
+        private long[] ts = new long[4];
+        private byte[] types = new byte[4];
+        private long[] values = new long[4];
+        private String[] refs = new String[4];
+        private boolean complete;
+        private long removalVersion;
+        private volatile int weight = ENTITY_OVERHEAD_BYTES;
+
+        int indexOf(int keyId) {
+            for (int i = 0; i < size; i++) {
+                if (keyIds[i] == keyId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void put(TsKvLatestEntity entity, boolean overrideNewer) {
+            byte type;
+            long value = 0;
+            String ref = null;
+            if (entity.getStrValue() != null) {
+                type = STRING;
+                ref = entity.getStrValue();
+            } else if (entity.getLongValue() != null) {
+                type = LONG;
+                value = entity.getLongValue();
+            } else if (entity.getDoubleValue() != null) {
+                type = DOUBLE;
+                value = Double.doubleToRawLongBits(entity.getDoubleValue());
+            } else if (entity.getBooleanValue() != null) {
+                type = BOOLEAN;
+                value = entity.getBooleanValue() ? 1 : 0;
+            } else if (entity.getJsonValue() != null) {
+                type = JSON;
+                ref = entity.getJsonValue();
+            } else {
+                // nothing to serve from memory, let the database answer for this key
+                remove(entity.getKey());
+                complete = false;
+                return;
+            }
+            int idx = indexOf(entity.getKey());
+            if (idx < 0) {
+                if (size == keyIds.length) {
+                    grow();
+                }
+                idx = size++;
+                keyIds[idx] = entity.getKey();
+            } else if (!overrideNewer && ts[idx] > entity.getTs()) {
+                return;
+            }
+            ts[idx] = entity.getTs();
+            types[idx] = type;
+            values[idx] = value;
+            refs[idx] = ref;
+            updateWeight();
+        }
+
+        void remove(int keyId) {
+            int idx = indexOf(keyId);
+            if (idx < 0) {
+                return;
+            }
+            int last = --size;
+            keyIds[idx] = keyIds[last];
+            ts[idx] = ts[last];
+            types[idx] = types[last];
+            values[idx] = values[last];
+            refs[idx] = refs[last];
+            refs[last] = null;
+            updateWeight();
+        }
+
+        TsKvEntry toTsKvEntry(int idx, String key) {
+            KvEntry kvEntry = switch (types[idx]) {
+                case BOOLEAN -> new BooleanDataEntry(key, values[idx] != 0);
+                case LONG -> new LongDataEntry(key, values[idx]);
+                case DOUBLE -> new DoubleDataEntry(key, Double.longBitsToDouble(values[idx]));
+                case JSON -> new JsonDataEntry(key, refs[idx]);
+                default -> new StringDataEntry(key, refs[idx]);
+            };
+            return new BasicTsKvEntry(ts[idx], kvEntry);
+        }
+
+        private void grow() {
+            int capacity = keyIds.length * 2;
+            keyIds = Arrays.copyOf(keyIds, capacity);
+            ts = Arrays.copyOf(ts, capacity);
+            types = Arrays.copyOf(types, capacity);
+            values = Arrays.copyOf(values, capacity);
+            refs = Arrays.copyOf(refs, capacity);
+        }
+
+        private void updateWeight() {
+            long weight = ENTITY_OVERHEAD_BYTES + (long) keyIds.length * VALUE_BYTES;
+            for (int i = 0; i < size; i++) {
+                if (refs[i] != null) {
+                    weight += 40 + refs[i].length();
+                }
+            }
+            this.weight = (int) Math.min(Integer.MAX_VALUE, weight);
+        }
+
+    }
+
+}
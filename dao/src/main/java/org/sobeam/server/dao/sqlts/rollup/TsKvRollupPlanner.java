@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts.rollup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a time range into the parts covered by the day, hour and minute rollups and the unaligned edges that
+ * have to be aggregated from the raw values.
+ */
+public final class TsKvRollupPlanner {
+
+    public static final long MINUTE = 60_000L;
+    public static final long HOUR = 60 * MINUTE;
+    public static final long DAY = 24 * HOUR;
+
+    static final long[] GRANULARITIES = {DAY, HOUR, MINUTE};
+
+    private TsKvRollupPlanner() {
+    }
+
+    /**
+     * @param startTs         inclusive start of the requested range
+     * @param endTs           exclusive end of the requested range
+     * @param rollupStartTs   time from which the rollups are complete
+     * @param rollupEndTs     time up to which the rollups are refreshed
+     */
+    public static List<TsKvRollupRange> plan(long startTs, long endTs, long rollupStartTs, long rollupEndTs) {
+        List<TsKvRollupRange> ranges = new ArrayList<>();
+        long coveredStartTs = Math.max(startTs, rollupStartTs);
+        long coveredEndTs = Math.min(endTs, rollupEndTs);
+        if (coveredStartTs >= coveredEndTs) {
+            addRaw(ranges, startTs, endTs);
+            return ranges;
+        }
+        addRaw(ranges, startTs, coveredStartTs);
+        split(ranges, coveredStartTs, coveredEndTs, 0);
+        addRaw(ranges, coveredEndTs, endTs);
+        return ranges;
+    }
+
+    public static boolean hasRollups(List<TsKvRollupRange> ranges) {
+        return ranges.stream().anyMatch(range -> range.getGranularity() > 0);
+    }
+
+    public static long floor(long ts, long granularity) {
+        return Math.floorDiv(ts, granularity) * granularity;
+    }
+
+    public static long ceil(long ts, long granularity) {
+        return -Math.floorDiv(-ts, granularity) * granularity;
+    }
+
+    private static void split(List<TsKvRollupRange> ranges, long startTs, long endTs, int level) {
+        if (startTs >= endTs) {
+            return;
+        }
+        if (level == GRANULARITIES.length) {
+            addRaw(ranges, startTs, endTs);
+            return;
+        }
+        long granularity = GRANULARITIES[level];
+        long alignedStartTs = ceil(startTs, granularity);
+        long alignedEndTs = floor(endTs, granularity);
+        if (alignedStartTs >= alignedEndTs) {
+            split(ranges, startTs, endTs, level + 1);
+            return;
+        }
+        split(ranges, startTs, alignedStartTs, level + 1);
+        ranges.add(new TsKvRollupRange(granularity, alignedStartTs, alignedEndTs));
+        split(ranges, alignedEndTs, endTs, level + 1);
+    }
+
+    private static void addRaw(List<TsKvRollupRange> ranges, long startTs, long endTs) {
+        if (startTs >= endTs) {
+            return;
+        }
+        int last = ranges.size() - 1;
+        if (last >= 0 && ranges.get(last).getGranularity() == 0 && ranges.get(last).getEndTs() == startTs) {
+            ranges.set(last, new TsKvRollupRange(0, ranges.get(last).getStartTs(), endTs));
+        } else {
+            ranges.add(new TsKvRollupRange(0, startTs, endTs));
+        }
+    }
+
+}
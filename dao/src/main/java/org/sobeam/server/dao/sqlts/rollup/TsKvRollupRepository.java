@@ -0,0 +1,201 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts.rollup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sobeam.server.dao.sqlts.TsKvAggregates;
+import org.sobeam.server.dao.util.SqlTsDao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@SqlTsDao
+@Repository
+public class TsKvRollupRepository {
+
+    private static final String ROLLUP_COLUMNS = "long_cnt, long_sum, long_min, long_max, dbl_cnt, dbl_sum, dbl_min, dbl_max, bool_cnt, str_cnt, json_cnt, last_ts";
+
+    private static final String DELETE_BUCKET = "DELETE FROM ts_rollup WHERE entity_id = ? AND key = ? AND granularity = ? AND ts = ?";
+
+    private static final String INSERT_BUCKET_FROM_RAW = "INSERT INTO ts_rollup (entity_id, key, granularity, ts, " + ROLLUP_COLUMNS + ") " +
+            "SELECT entity_id, key, ?, ?, count(long_v), sum(long_v), min(long_v), max(long_v), count(dbl_v), sum(dbl_v), min(dbl_v), max(dbl_v), " +
+            "count(bool_v), count(str_v), count(json_v), max(ts) FROM ts_kv " +
+            "WHERE entity_id = ? AND key = ? AND ts >= ? AND ts < ? GROUP BY entity_id, key";
+
+    private static final String INSERT_BUCKET_FROM_ROLLUP = "INSERT INTO ts_rollup (entity_id, key, granularity, ts, " + ROLLUP_COLUMNS + ") " +
+            "SELECT entity_id, key, ?, ?, sum(long_cnt), sum(long_sum), min(long_min), max(long_max), sum(dbl_cnt), sum(dbl_sum), min(dbl_min), max(dbl_max), " +
+            "sum(bool_cnt), sum(str_cnt), sum(json_cnt), max(last_ts) FROM ts_rollup " +
+            "WHERE entity_id = ? AND key = ? AND granularity = ? AND ts >= ? AND ts < ? GROUP BY entity_id, key";
+
+    private static final String DELETE_RANGE = "DELETE FROM ts_rollup WHERE entity_id = ? AND key = ? AND granularity = ? AND ts >= ? AND ts <= ?";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM ts_rollup WHERE ts < ?";
+
+    private static final String INIT_START_TS = "INSERT INTO ts_rollup_state (id, start_ts) VALUES (0, ?) ON CONFLICT (id) DO NOTHING";
+    private static final String SELECT_START_TS = "SELECT start_ts FROM ts_rollup_state WHERE id = 0";
+    private static final String MOVE_START_TS = "UPDATE ts_rollup_state SET start_ts = ? WHERE id = 0 AND start_ts < ?";
+    private static final String RESET_START_TS_IF_UNUSED = "DELETE FROM ts_rollup_state WHERE NOT EXISTS (SELECT 1 FROM ts_rollup_node WHERE heartbeat_ts >= ?)";
+    private static final String DELETE_ALL = "TRUNCATE ts_rollup";
+
+    private static final String UPSERT_NODE = "INSERT INTO ts_rollup_node (node_id, heartbeat_ts) VALUES (?, ?) " +
+            "ON CONFLICT (node_id) DO UPDATE SET heartbeat_ts = EXCLUDED.heartbeat_ts";
+    private static final String DELETE_NODE = "DELETE FROM ts_rollup_node WHERE node_id = ?";
+    private static final String DELETE_STALE_NODES = "DELETE FROM ts_rollup_node WHERE heartbeat_ts < ?";
+    private static final String COUNT_LIVE_NODES = "SELECT count(*) FROM ts_rollup_node WHERE heartbeat_ts >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Recomputes the buckets of the given granularity from the raw values, or from the rollups of the finer granularity.
+     * A bucket without source data is removed.
+     *
+     * @param sourceGranularity granularity of the source rollups, or 0 to aggregate the raw values
+     */
+    public void refresh(Collection<TsKvRollupBucket> buckets, long granularity, long sourceGranularity) {
+        List<Object[]> deleteArgs = new ArrayList<>(buckets.size());
+        List<Object[]> insertArgs = new ArrayList<>(buckets.size());
+        for (TsKvRollupBucket bucket : buckets) {
+            deleteArgs.add(new Object[]{bucket.getEntityId(), bucket.getKey(), granularity, bucket.getTs()});
+            if (sourceGranularity == 0) {
+                insertArgs.add(new Object[]{granularity, bucket.getTs(), bucket.getEntityId(), bucket.getKey(), bucket.getTs(), bucket.getTs() + granularity});
+            } else {
+                insertArgs.add(new Object[]{granularity, bucket.getTs(), bucket.getEntityId(), bucket.getKey(), sourceGranularity, bucket.getTs(), bucket.getTs() + granularity});
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_BUCKET, deleteArgs);
+            jdbcTemplate.batchUpdate(sourceGranularity == 0 ? INSERT_BUCKET_FROM_RAW : INSERT_BUCKET_FROM_ROLLUP, insertArgs);
+        });
+    }
+
+    /**
+     * Removes the buckets of the given granularity that lie completely within [startTs, endTs).
+     */
+    public void deleteCovered(UUID entityId, int key, long granularity, long startTs, long endTs) {
+        long firstBucketTs = Math.floorDiv(startTs + granularity - 1, granularity) * granularity;
+        long lastBucketTs = endTs - granularity;
+        if (firstBucketTs <= lastBucketTs) {
+            jdbcTemplate.update(DELETE_RANGE, entityId, key, granularity, firstBucketTs, lastBucketTs);
+        }
+    }
+
+    public int deleteExpired(long expirationTs) {
+        return jdbcTemplate.update(DELETE_EXPIRED, expirationTs);
+    }
+
+    /**
+     * Aggregates the given ranges in a single statement. Ranges with granularity 0 are read from the raw values.
+     *
+     * @return null if none of the ranges contains data
+     */
+    public TsKvAggregates aggregate(UUID entityId, int key, List<TsKvRollupRange> ranges) {
+        StringBuilder rollupWhere = new StringBuilder();
+        StringBuilder rawWhere = new StringBuilder();
+        List<Object> rollupArgs = new ArrayList<>();
+        List<Object> rawArgs = new ArrayList<>();
+        for (TsKvRollupRange range : ranges) {
+            if (range.getGranularity() == 0) {
+                rawWhere.append(rawWhere.length() > 0 ? " OR " : "").append("(ts >= ? AND ts < ?)");
+                rawArgs.add(range.getStartTs());
+                rawArgs.add(range.getEndTs());
+            } else {
+                rollupWhere.append(rollupWhere.length() > 0 ? " OR " : "").append("(granularity = ? AND ts >= ? AND ts < ?)");
+                rollupArgs.add(range.getGranularity());
+                rollupArgs.add(range.getStartTs());
+                rollupArgs.add(range.getEndTs());
+            }
+        }
+        List<String> parts = new ArrayList<>(2);
+        List<Object> args = new ArrayList<>();
+        if (rollupWhere.length() > 0) {
+            parts.add("SELECT " + ROLLUP_COLUMNS + " FROM ts_rollup WHERE entity_id = ? AND key = ? AND (" + rollupWhere + ")");
+            args.add(entityId);
+            args.add(key);
+            args.addAll(rollupArgs);
+        }
+        if (rawWhere.length() > 0) {
+            parts.add("SELECT count(long_v), sum(long_v), min(long_v), max(long_v), count(dbl_v), sum(dbl_v), min(dbl_v), max(dbl_v), " +
+                    "count(bool_v), count(str_v), count(json_v), max(ts) FROM ts_kv WHERE entity_id = ? AND key = ? AND (" + rawWhere + ")");
+            args.add(entityId);
+            args.add(key);
+            args.addAll(rawArgs);
+        }
+        String sql = "SELECT sum(long_cnt), sum(long_sum), min(long_min), max(long_max), sum(dbl_cnt), sum(dbl_sum), min(dbl_min), max(dbl_max), " +
+                "sum(bool_cnt), sum(str_cnt), sum(json_cnt), max(last_ts) FROM (" + String.join(" UNION ALL ", parts) + ") AS r(" + ROLLUP_COLUMNS + ")";
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> TsKvAggregates.read(rs, 1), args.toArray());
+    }
+
+    /**
+     * @return time from which the rollups are complete, initialized with the given value if the rollups were reset.
+     * The rollups left from the previous use are dropped on initialization
+     */
+    public long getOrInitStartTs(long startTs) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcTemplate.update(INIT_START_TS, startTs) > 0) {
+                jdbcTemplate.update(DELETE_ALL);
+            }
+        });
+        return jdbcTemplate.queryForObject(SELECT_START_TS, Long.class);
+    }
+
+    /**
+     * Moves the time from which the rollups are complete forward, the rollups before it are no longer used.
+     */
+    public void moveStartTs(long startTs) {
+        jdbcTemplate.update(MOVE_START_TS, startTs, startTs);
+    }
+
+    /**
+     * Resets the rollups if no node maintains them, so that enabling them again starts from scratch.
+     * The rollups themselves are dropped by the first node that enables them again.
+     *
+     * @return true if the rollups were reset
+     */
+    public boolean resetStartTsIfUnused(long heartbeatExpirationTs) {
+        return jdbcTemplate.update(RESET_START_TS_IF_UNUSED, heartbeatExpirationTs) > 0;
+    }
+
+    public void heartbeat(String nodeId, long ts) {
+        jdbcTemplate.update(UPSERT_NODE, nodeId, ts);
+    }
+
+    public void removeNode(String nodeId) {
+        jdbcTemplate.update(DELETE_NODE, nodeId);
+    }
+
+    /**
+     * @return number of removed nodes that stopped sending heartbeats without a clean shutdown
+     */
+    public int removeStaleNodes(long heartbeatExpirationTs) {
+        return jdbcTemplate.update(DELETE_STALE_NODES, heartbeatExpirationTs);
+    }
+
+    public long countLiveNodes(long heartbeatExpirationTs) {
+        return jdbcTemplate.queryForObject(COUNT_LIVE_NODES, Long.class, heartbeatExpirationTs);
+    }
+
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts.rollup;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.sobeam.common.util.SoBeamThreadFactory;
+import org.sobeam.server.common.data.kv.Aggregation;
+import org.sobeam.server.dao.model.sqlts.ts.TsKvEntity;
+import org.sobeam.server.dao.sqlts.TsKvAggregates;
+import org.sobeam.server.dao.util.SqlTsDao;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains minute, hour and day aggregates of the numeric and count values in the ts_rollup table.
+ * Saved and removed values mark their minute buckets dirty, and dirty buckets are recomputed periodically:
+ * minutes from the raw values, hours from the minutes and days from the hours.
+ * <p>
+ * Dirty buckets are kept in memory only. Every node that maintains the rollups sends heartbeats to ts_rollup_node
+ * and removes its heartbeat on a clean shutdown, after the dirty buckets are flushed. A node that stopped sending heartbeats
+ * without a clean shutdown may have lost dirty buckets, so the time from which the rollups are complete is moved forward
+ * and the earlier intervals are aggregated from the raw values.
+ */
+@Slf4j
+@SqlTsDao
+@Service
+public class TsKvRollupService {
+
+    @Value("${sql.ts.rollups.enabled:false}")
+    @Getter
+    private boolean enabled;
+
+    @Value("${sql.ts.rollups.refresh_interval_ms:5000}")
+    private long refreshIntervalMs;
+
+    @Value("${sql.ts.rollups.batch_size:1000}")
+    private int batchSize;
+
+    @Value("${sql.ts.rollups.node_timeout_ms:60000}")
+    private long nodeTimeoutMs;
+
+    @Autowired
+    private TsKvRollupRepository rollupRepository;
+
+    private final Set<TsKvRollupBucket> dirtyMinutes = ConcurrentHashMap.newKeySet();
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile long startTs;
+    private volatile long refreshedTs;
+
+    @PostConstruct
+    public void init() {
+        long now = System.currentTimeMillis();
+        if (!enabled) {
+            // never drop the rollups here, other nodes may still use them
+            try {
+                if (rollupRepository.resetStartTsIfUnused(now - nodeTimeoutMs)) {
+                    log.info("Timeseries rollups are reset since no node maintains them");
+                } else if (rollupRepository.countLiveNodes(now - nodeTimeoutMs) > 0) {
+                    log.warn("Timeseries rollups are enabled on other nodes but disabled on this one, the values saved by this node are not reflected in the rollups");
+                }
+            } catch (Exception e) {
+                log.debug("Failed to check timeseries rollups state", e);
+            }
+            return;
+        }
+        rollupRepository.heartbeat(nodeId, now);
+        checkStaleNodes(now);
+        refreshedTs = now;
+        log.info("Timeseries rollups are complete since [{}]", startTs);
+        scheduler = Executors.newSingleThreadScheduledExecutor(SoBeamThreadFactory.forName("sql-ts-rollups"));
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            refresh();
+            if (dirtyMinutes.isEmpty()) {
+                // clean shutdown, otherwise the heartbeat expires and the other nodes move the start forward
+                rollupRepository.removeNode(nodeId);
+            }
+        }
+    }
+
+    public void onSaved(List<TsKvEntity> entities) {
+        if (!enabled) {
+            return;
+        }
+        for (TsKvEntity entity : entities) {
+            dirtyMinutes.add(new TsKvRollupBucket(entity.getEntityId(), entity.getKey(), TsKvRollupPlanner.floor(entity.getTs(), TsKvRollupPlanner.MINUTE)));
+        }
+    }
+
+    public void onRemoved(UUID entityId, int key, long startTs, long endTs) {
+        if (!enabled || startTs >= endTs) {
+            return;
+        }
+        for (long granularity : TsKvRollupPlanner.GRANULARITIES) {
+            rollupRepository.deleteCovered(entityId, key, granularity, startTs, endTs);
+        }
+        dirtyMinutes.add(new TsKvRollupBucket(entityId, key, TsKvRollupPlanner.floor(startTs, TsKvRollupPlanner.MINUTE)));
+        dirtyMinutes.add(new TsKvRollupBucket(entityId, key, TsKvRollupPlanner.floor(endTs - 1, TsKvRollupPlanner.MINUTE)));
+    }
+
+    public void cleanup(long expirationTs) {
+        if (enabled) {
+            log.info("Total timeseries rollups removed by TTL: [{}]", rollupRepository.deleteExpired(expirationTs));
+        }
+    }
+
+    /**
+     * Aggregates [startTs, endTs) using the rollups for the aligned part of the range and the raw values for the edges.
+     *
+     * @return null if the rollups do not cover any part of the range or can not answer the aggregation
+     */
+    public TsKvEntity findAggregation(UUID entityId, int key, long startTs, long endTs, Aggregation aggregation) {
+        if (!enabled) {
+            return null;
+        }
+        List<TsKvRollupRange> ranges = TsKvRollupPlanner.plan(startTs, endTs, this.startTs, refreshedTs);
+        if (!TsKvRollupPlanner.hasRollups(ranges)) {
+            return null;
+        }
+        TsKvAggregates aggregates = rollupRepository.aggregate(entityId, key, ranges);
+        if (aggregates == null) {
+            return new TsKvEntity();
+        }
+        if ((aggregation == Aggregation.MIN || aggregation == Aggregation.MAX) && !aggregates.hasNumericValues() && aggregates.getStrCount() > 0) {
+            // string min/max is not kept in the rollups
+            return null;
+        }
+        return aggregates.toEntity(aggregation);
+    }
+
+    void refresh() {
+        long refreshStartTs = System.currentTimeMillis();
+        try {
+            rollupRepository.heartbeat(nodeId, refreshStartTs);
+            checkStaleNodes(refreshStartTs);
+        } catch (Exception e) {
+            log.warn("Failed to update timeseries rollups heartbeat", e);
+        }
+        List<TsKvRollupBucket> minutes = new ArrayList<>();
+        Iterator<TsKvRollupBucket> iterator = dirtyMinutes.iterator();
+        while (iterator.hasNext()) {
+            minutes.add(iterator.next());
+            iterator.remove();
+        }
+        if (minutes.isEmpty()) {
+            refreshedTs = refreshStartTs;
+            return;
+        }
+        try {
+            Set<TsKvRollupBucket> hours = toParents(minutes, TsKvRollupPlanner.HOUR);
+            Set<TsKvRollupBucket> days = toParents(hours, TsKvRollupPlanner.DAY);
+            refresh(minutes, TsKvRollupPlanner.MINUTE, 0);
+            refresh(hours, TsKvRollupPlanner.HOUR, TsKvRollupPlanner.MINUTE);
+            refresh(days, TsKvRollupPlanner.DAY, TsKvRollupPlanner.HOUR);
+            refreshedTs = refreshStartTs;
+            log.debug("Refreshed [{}] minute, [{}] hour and [{}] day rollups", minutes.size(), hours.size(), days.size());
+        } catch (Exception e) {
+            log.warn("Failed to refresh [{}] timeseries rollups", minutes.size(), e);
+            dirtyMinutes.addAll(minutes);
+        }
+    }
+
+    private void checkStaleNodes(long now) {
+        long minStartTs = TsKvRollupPlanner.ceil(now, TsKvRollupPlanner.MINUTE);
+        int staleNodes = rollupRepository.removeStaleNodes(now - nodeTimeoutMs);
+        if (staleNodes > 0) {
+            rollupRepository.moveStartTs(minStartTs);
+        }
+        // picks up the start moved by the other nodes, initializes it again if the rollups were reset meanwhile
+        startTs = rollupRepository.getOrInitStartTs(minStartTs);
+        if (staleNodes > 0) {
+            log.warn("[{}] node(s) maintaining timeseries rollups stopped without a clean shutdown, rollups are complete since [{}]", staleNodes, startTs);
+        }
+    }
+
+    private void refresh(Iterable<TsKvRollupBucket> buckets, long granularity, long sourceGranularity) {
+        List<TsKvRollupBucket> batch = new ArrayList<>(batchSize);
+        for (TsKvRollupBucket bucket : buckets) {
+            batch.add(bucket);
+            if (batch.size() >= batchSize) {
+                rollupRepository.refresh(batch, granularity, sourceGranularity);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            rollupRepository.refresh(batch, granularity, sourceGranularity);
+        }
+    }
+
+    private static Set<TsKvRollupBucket> toParents(Iterable<TsKvRollupBucket> buckets, long granularity) {
+        Set<TsKvRollupBucket> parents = new LinkedHashSet<>();
+        for (TsKvRollupBucket bucket : buckets) {
+            parents.add(new TsKvRollupBucket(bucket.getEntityId(), bucket.getKey(), TsKvRollupPlanner.floor(bucket.getTs(), granularity)));
+        }
+        return parents;
+    }
+
+}
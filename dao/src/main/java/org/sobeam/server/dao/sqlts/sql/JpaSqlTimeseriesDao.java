@@ -26,11 +26,14 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.sobeam.server.common.data.id.EntityId;
 import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.data.kv.Aggregation;
+import org.sobeam.server.common.data.kv.DeleteTsKvQuery;
 import org.sobeam.server.common.data.kv.TsKvEntry;
 import org.sobeam.server.dao.dictionary.KeyDictionaryDao;
 import org.sobeam.server.dao.model.sqlts.ts.TsKvEntity;
 import org.sobeam.server.dao.sqlts.AbstractChunkedAggregationTimeseriesDao;
 import org.sobeam.server.dao.sqlts.insert.sql.SqlPartitioningRepository;
+import org.sobeam.server.dao.sqlts.rollup.TsKvRollupService;
 import org.sobeam.server.dao.timeseries.SqlPartition;
 import org.sobeam.server.dao.timeseries.SqlTsPartitionDate;
 import org.sobeam.server.dao.util.SqlTsDao;
@@ -44,6 +47,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -62,6 +66,8 @@ public class JpaSqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDao
     private SqlPartitioningRepository partitioningRepository;
     @Autowired
     private KeyDictionaryDao keyDictionaryDao;
+    @Autowired
+    private TsKvRollupService rollupService;
 
     private SqlTsPartitionDate tsFormat;
 
@@ -100,10 +106,44 @@ public class JpaSqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDao
         return Futures.transform(tsQueue.add(entity), v -> dataPointDays, MoreExecutors.directExecutor());
     }
 
+    @Override
+    public ListenableFuture<Void> remove(TenantId tenantId, EntityId entityId, DeleteTsKvQuery query) {
+        ListenableFuture<Void> future = super.remove(tenantId, entityId, query);
+        if (!rollupService.isEnabled()) {
+            return future;
+        }
+        return Futures.transform(future, v -> {
+            rollupService.onRemoved(entityId.getId(), keyDictionaryDao.getOrSaveKeyId(query.getKey()), query.getStartTs(), query.getEndTs());
+            return null;
+        }, service);
+    }
+
+    @Override
+    protected void onSaved(List<TsKvEntity> entities) {
+        rollupService.onSaved(entities);
+    }
+
+    @Override
+    protected boolean isSingleQueryAggregationEnabled() {
+        return super.isSingleQueryAggregationEnabled() && !rollupService.isEnabled();
+    }
+
+    @Override
+    protected TsKvEntity switchAggregation(EntityId entityId, String key, long startTs, long endTs, Aggregation aggregation) {
+        if (rollupService.isEnabled()) {
+            TsKvEntity entity = rollupService.findAggregation(entityId.getId(), keyDictionaryDao.getOrSaveKeyId(key), startTs, endTs, aggregation);
+            if (entity != null) {
+                return entity;
+            }
+        }
+        return super.switchAggregation(entityId, key, startTs, endTs, aggregation);
+    }
+
     @Override
     public void cleanup(long systemTtl) {
         if (systemTtl > 0) {
             cleanupPartitions(systemTtl);
+            rollupService.cleanup(System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(systemTtl));
         }
         super.cleanup(systemTtl);
     }
@@ -55,6 +55,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 @Component
@@ -88,6 +89,7 @@ public class TimescaleTimeseriesDao extends AbstractSqlTimeseriesDao implements
                 .statsPrintIntervalMs(tsStatsPrintIntervalMs)
                 .statsNamePrefix("ts.timescale")
                 .batchSortEnabled(batchSortEnabled)
+                .ringBuffer(ringBufferSettings)
                 .build();
 
         Function<TimescaleTsKvEntity, Integer> hashcodeFunction = entity -> entity.getEntityId().hashCode();
@@ -181,6 +183,16 @@ public class TimescaleTimeseriesDao extends AbstractSqlTimeseriesDao implements
         super.cleanup(systemTtl);
     }
 
+    @Override
+    protected int getKeyId(String key) {
+        return keyDictionaryDao.getOrSaveKeyId(key);
+    }
+
+    @Override
+    public void streamAll(TenantId tenantId, EntityId entityId, String key, long startTs, long endTs, Consumer<TsKvEntry> consumer) {
+        streamAll(entityId, keyDictionaryDao.getOrSaveKeyId(key), key, startTs, endTs, consumer);
+    }
+
     private ReadTsKvQueryResult findAllAsyncWithLimit(EntityId entityId, ReadTsKvQuery query) {
         String strKey = query.getKey();
         Integer keyId = keyDictionaryDao.getOrSaveKeyId(strKey);
@@ -47,6 +47,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.sobeam.server.common.data.StringUtils.isBlank;
@@ -117,6 +118,38 @@ public class BaseTimeseriesService implements TimeseriesService {
                 }, MoreExecutors.directExecutor());
     }
 
+    @Override
+    public void streamAll(TenantId tenantId, EntityId entityId, List<String> keys, long startTs, long endTs, Consumer<TsKvEntry> consumer) {
+        validate(entityId);
+        keys.forEach(key -> {
+            if (isBlank(key)) {
+                throw new IncorrectParameterException("Incorrect query. Key can't be empty");
+            }
+        });
+        if (endTs <= startTs) {
+            throw new IncorrectParameterException("Incorrect query. End ts must be greater than start ts!");
+        }
+        if (entityId.getEntityType().equals(EntityType.ENTITY_VIEW)) {
+            EntityView entityView = entityViewService.findEntityViewById(tenantId, (EntityViewId) entityId);
+            List<String> viewKeys = entityView.getKeys() != null && entityView.getKeys().getTimeseries() != null ?
+                    entityView.getKeys().getTimeseries() : Collections.emptyList();
+            long viewStartTs = entityView.getStartTimeMs() != 0 ? Math.max(startTs, entityView.getStartTimeMs()) : startTs;
+            long viewEndTs = entityView.getEndTimeMs() != 0 ? Math.min(endTs, entityView.getEndTimeMs()) : endTs;
+            if (viewEndTs <= viewStartTs) {
+                return;
+            }
+            for (String key : keys) {
+                if (viewKeys.isEmpty() || viewKeys.contains(key)) {
+                    timeseriesDao.streamAll(tenantId, entityView.getEntityId(), key, viewStartTs, viewEndTs, consumer);
+                }
+            }
+            return;
+        }
+        for (String key : keys) {
+            timeseriesDao.streamAll(tenantId, entityId, key, startTs, endTs, consumer);
+        }
+    }
+
     @Override
     public ListenableFuture<Optional<TsKvEntry>> findLatest(TenantId tenantId, EntityId entityId, String key) {
         validate(entityId);
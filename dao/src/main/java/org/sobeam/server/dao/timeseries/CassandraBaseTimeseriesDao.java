@@ -47,6 +47,7 @@ import org.sobeam.server.common.data.kv.ReadTsKvQuery;
 import org.sobeam.server.common.data.kv.ReadTsKvQueryResult;
 import org.sobeam.server.common.data.kv.TsKvEntry;
 import org.sobeam.server.common.data.kv.TsKvEntryAggWrapper;
+import org.sobeam.server.common.stats.StatsFactory;
 import org.sobeam.server.dao.model.ModelConstants;
 import org.sobeam.server.dao.nosql.TbResultSet;
 import org.sobeam.server.dao.nosql.TbResultSetFuture;
@@ -66,9 +67,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.literal;
@@ -104,6 +107,9 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
     @Autowired
     private Environment environment;
 
+    @Autowired
+    private StatsFactory statsFactory;
+
     @Getter
     @Value("${cassandra.query.ts_key_value_partitioning}")
     private String partitioning;
@@ -121,6 +127,26 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
     @Value("${cassandra.query.set_null_values_enabled}")
     private boolean setNullValuesEnabled;
 
+    @Value("${cassandra.query.stream_page_size:1000}")
+    private int streamPageSize;
+
+    @Value("${cassandra.query.ts_batch_write.enabled:false}")
+    private boolean batchWriteEnabled;
+
+    @Value("${cassandra.query.ts_batch_write.min_batch_size:1}")
+    private int minBatchSize;
+
+    @Value("${cassandra.query.ts_batch_write.max_batch_size:100}")
+    private int maxBatchSize;
+
+    @Value("${cassandra.query.ts_batch_write.target_latency_ms:50}")
+    private long batchTargetLatencyMs;
+
+    @Value("${cassandra.query.ts_batch_write.max_delay_ms:20}")
+    private long batchMaxDelayMs;
+
+    private CassandraTsBatchWriter batchWriter;
+
     private NoSqlTsPartitionDate tsFormat;
 
     private PreparedStatement partitionInsertStmt;
@@ -154,10 +180,17 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
             log.warn("Incorrect configuration of partitioning {}", partitioning);
             throw new RuntimeException("Failed to parse partitioning property: " + partitioning + "!");
         }
+        if (batchWriteEnabled && !isInstall()) {
+            batchWriter = new CassandraTsBatchWriter(this::executeAsyncWrite, statsFactory,
+                    minBatchSize, maxBatchSize, batchTargetLatencyMs, batchMaxDelayMs);
+        }
     }
 
     @PreDestroy
     public void stop() {
+        if (batchWriter != null) {
+            batchWriter.stop();
+        }
         super.stopExecutor();
     }
 
@@ -206,7 +239,11 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
             }
         }
         BoundStatement stmt = stmtBuilder.build();
-        futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
+        if (batchWriter != null) {
+            futures.add(batchWriter.add(tenantId, new CassandraPartitionCacheKey(entityId, entryKey, partition), stmt));
+        } else {
+            futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
+        }
         return Futures.transform(Futures.allAsList(futures), result -> dataPointDays, MoreExecutors.directExecutor());
     }
 
@@ -307,6 +344,41 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         }
     }
 
+    @Override
+    public void streamAll(TenantId tenantId, EntityId entityId, String key, long startTs, long endTs, Consumer<TsKvEntry> consumer) {
+        ReadTsKvQuery query = new BaseReadTsKvQuery(key, startTs, endTs);
+        List<Long> partitions;
+        try {
+            partitions = getPartitionsFuture(tenantId, query, entityId, toPartitionTs(startTs), toPartitionTs(endTs)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching partitions for key " + key, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to fetch partitions for key " + key, e.getCause());
+        }
+        PreparedStatement proto = getFetchStmt(Aggregation.NONE, ASC_ORDER);
+        for (Long partition : partitions) {
+            BoundStatement stmt = new BoundStatementBuilder(proto.bind())
+                    .setString(0, entityId.getEntityType().name())
+                    .setUuid(1, entityId.getId())
+                    .setString(2, key)
+                    .setLong(3, partition)
+                    .setLong(4, startTs)
+                    .setLong(5, endTs)
+                    .setInt(6, Integer.MAX_VALUE)
+                    .setPageSize(streamPageSize)
+                    .build();
+            TbResultSet rs = executeAsyncRead(tenantId, stmt).getUninterruptibly();
+            while (true) {
+                rs.currentPage().forEach(row -> consumer.accept(convertResultToTsKvEntry(key, row)));
+                if (!rs.hasMorePages()) {
+                    break;
+                }
+                rs = executeAsyncRead(tenantId, stmt.setPagingState(rs.getExecutionInfo().getPagingState())).getUninterruptibly();
+            }
+        }
+    }
+
     @Override
     public void cleanup(long systemTtl) {
         //Cleanup by TTL is native for Cassandra
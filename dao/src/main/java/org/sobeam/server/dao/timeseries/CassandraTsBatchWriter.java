@@ -0,0 +1,204 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.timeseries;
+
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.sobeam.common.util.SoBeamThreadFactory;
+import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.stats.StatsCounter;
+import org.sobeam.server.common.stats.StatsFactory;
+import org.sobeam.server.common.stats.StatsType;
+import org.sobeam.server.dao.nosql.TbResultSet;
+import org.sobeam.server.dao.util.TenantRateLimitException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Groups time series inserts that belong to the same Cassandra partition (entity, key and partition)
+ * and writes them as a single unlogged batch, so the coordinator does not have to route every statement separately.
+ * <p>
+ * The maximum batch size adapts to the write latency measured in the driver, the time spent in the rate executor queue is not counted:
+ * it grows by one after every full batch written faster than the target latency and halves after a slow or failed batch.
+ * Each statement of the batch is charged against the tenant rate limit separately. A batch rejected by the rate limit is split in halves
+ * that are charged and written on their own, so a batch larger than the capacity of the tenant limit still gets written.
+ */
+@Slf4j
+public class CassandraTsBatchWriter {
+
+    private static final String STATS_KEY = StatsType.RATE_EXECUTOR.getName();
+
+    private final BiFunction<TenantId, Statement<?>, ListenableFuture<TbResultSet>> executor;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long targetLatencyNanos;
+    private final ConcurrentMap<CassandraPartitionCacheKey, PendingBatch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger batchSize;
+    private final StatsCounter batchesCounter;
+    private final StatsCounter statementsCounter;
+    private final StatsCounter failuresCounter;
+    private final Timer batchTimer;
+
+    public CassandraTsBatchWriter(BiFunction<TenantId, Statement<?>, ListenableFuture<TbResultSet>> executor, StatsFactory statsFactory,
+                                  int minBatchSize, int maxBatchSize, long targetLatencyMs, long maxDelayMs) {
+        this.executor = executor;
+        this.minBatchSize = Math.max(1, minBatchSize);
+        this.maxBatchSize = Math.max(this.minBatchSize, maxBatchSize);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.batchSize = statsFactory.createGauge(STATS_KEY + ".tsBatchSize", new AtomicInteger(this.maxBatchSize));
+        this.batchesCounter = statsFactory.createStatsCounter(STATS_KEY, "tsBatches");
+        this.statementsCounter = statsFactory.createStatsCounter(STATS_KEY, "tsBatchStatements");
+        this.failuresCounter = statsFactory.createStatsCounter(STATS_KEY, "tsBatchFailures");
+        this.batchTimer = statsFactory.createTimer(STATS_KEY + ".tsBatchLatency");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(SoBeamThreadFactory.forName("cassandra-ts-batch-writer"));
+        this.scheduler.scheduleWithFixedDelay(this::flushAll, maxDelayMs, maxDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public ListenableFuture<Void> add(TenantId tenantId, CassandraPartitionCacheKey partitionKey, BoundStatement statement) {
+        SettableFuture<Void> future = SettableFuture.create();
+        PendingBatch[] fullBatch = new PendingBatch[1];
+        batches.compute(partitionKey, (key, batch) -> {
+            if (batch == null) {
+                batch = new PendingBatch(tenantId);
+            }
+            batch.statements.add(statement);
+            batch.futures.add(future);
+            if (batch.statements.size() >= batchSize.get()) {
+                fullBatch[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+        if (fullBatch[0] != null) {
+            execute(fullBatch[0]);
+        }
+        return future;
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+        flushAll();
+    }
+
+    int getBatchSize() {
+        return batchSize.get();
+    }
+
+    void flushAll() {
+        try {
+            for (CassandraPartitionCacheKey key : batches.keySet()) {
+                PendingBatch batch = batches.remove(key);
+                if (batch != null) {
+                    execute(batch);
+                }
+            }
+        } catch (Throwable t) {
+            log.warn("Failed to flush time series batches", t);
+        }
+    }
+
+    private void execute(PendingBatch batch) {
+        int size = batch.statements.size();
+        Statement<?> statement = size == 1 ? batch.statements.get(0) : BatchStatement.newInstance(BatchType.UNLOGGED, batch.statements);
+        ListenableFuture<TbResultSet> result;
+        try {
+            result = executor.apply(batch.tenantId, statement);
+        } catch (Throwable t) {
+            onFailure(batch, t);
+            return;
+        }
+        Futures.addCallback(result, new FutureCallback<>() {
+            @Override
+            public void onSuccess(TbResultSet rs) {
+                long latency = rs != null ? rs.getExecutionTimeNanos() : 0L;
+                batchTimer.record(latency, TimeUnit.NANOSECONDS);
+                batchesCounter.increment();
+                statementsCounter.add(size);
+                adjustBatchSize(size, latency);
+                batch.futures.forEach(future -> future.set(null));
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                CassandraTsBatchWriter.this.onFailure(batch, t);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void onFailure(PendingBatch batch, Throwable t) {
+        failuresCounter.increment();
+        int size = batch.statements.size();
+        if (t instanceof TenantRateLimitException) {
+            if (size > 1) {
+                int half = size / 2;
+                execute(batch.subBatch(0, half));
+                execute(batch.subBatch(half, size));
+                return;
+            }
+        } else if (!(t instanceof TimeoutException)) {
+            // rate limit and rate executor queue timeouts do not indicate the Cassandra load
+            batchSize.updateAndGet(current -> Math.max(minBatchSize, current / 2));
+        }
+        batch.futures.forEach(future -> future.setException(t));
+    }
+
+    private void adjustBatchSize(int size, long latencyNanos) {
+        if (latencyNanos > targetLatencyNanos) {
+            batchSize.updateAndGet(current -> Math.max(minBatchSize, current / 2));
+        } else if (size >= batchSize.get()) {
+            batchSize.updateAndGet(current -> Math.min(maxBatchSize, current + 1));
+        }
+    }
+
+    private static class PendingBatch {
+        private final TenantId tenantId;
+        private final List<BatchableStatement<?>> statements = new ArrayList<>();
+        private final List<SettableFuture<Void>> futures = new ArrayList<>();
+
+        private PendingBatch(TenantId tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        private PendingBatch subBatch(int fromIndex, int toIndex) {
+            PendingBatch batch = new PendingBatch(tenantId);
+            batch.statements.addAll(statements.subList(fromIndex, toIndex));
+            batch.futures.addAll(futures.subList(fromIndex, toIndex));
+            return batch;
+        }
+    }
+
+}
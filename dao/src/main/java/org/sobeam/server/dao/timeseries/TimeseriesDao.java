@@ -24,6 +24,7 @@ import org.sobeam.server.common.data.kv.ReadTsKvQueryResult;
 import org.sobeam.server.common.data.kv.TsKvEntry;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * @author Andrew Shvayka
@@ -32,6 +33,12 @@ public interface TimeseriesDao {
 
     ListenableFuture<List<ReadTsKvQueryResult>> findAllAsync(TenantId tenantId, EntityId entityId, List<ReadTsKvQuery> queries);
 
+    /**
+     * Passes raw values of the key within [startTs, endTs) to the consumer in ascending order of the timestamp.
+     * Values are fetched page by page, so memory usage does not depend on the size of the range.
+     */
+    void streamAll(TenantId tenantId, EntityId entityId, String key, long startTs, long endTs, Consumer<TsKvEntry> consumer);
+
     ListenableFuture<Integer> save(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry, long ttl);
 
     ListenableFuture<Integer> savePartition(TenantId tenantId, EntityId entityId, long tsKvEntryTs, String key);
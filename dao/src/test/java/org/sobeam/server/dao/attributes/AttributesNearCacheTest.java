@@ -0,0 +1,88 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.attributes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.sobeam.server.common.data.AttributeScope;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.kv.BaseAttributeKvEntry;
+import org.sobeam.server.common.data.kv.StringDataEntry;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AttributesNearCacheTest {
+
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final AttributeCacheKey key = new AttributeCacheKey(AttributeScope.SERVER_SCOPE, deviceId, "temperature");
+
+    private AttributesNearCache nearCache;
+
+    @BeforeEach
+    public void setUp() {
+        nearCache = new AttributesNearCache();
+        ReflectionTestUtils.setField(nearCache, "maxSize", 100);
+        ReflectionTestUtils.setField(nearCache, "timeToLiveSec", 60);
+        nearCache.init();
+    }
+
+    @Test
+    public void testPutAndInvalidate() {
+        var value = new BaseAttributeKvEntry(new StringDataEntry("temperature", "25"), 1L);
+        nearCache.put(key, value, nearCache.getVersion());
+        assertThat(nearCache.get(key).get()).isEqualTo(value);
+
+        nearCache.invalidate(deviceId, AttributeScope.SERVER_SCOPE, List.of("temperature"));
+        assertThat(nearCache.get(key)).isNull();
+    }
+
+    @Test
+    public void testNullValueIsCached() {
+        nearCache.put(key, null, nearCache.getVersion());
+        assertThat(nearCache.get(key)).isNotNull();
+        assertThat(nearCache.get(key).get()).isNull();
+    }
+
+    @Test
+    public void testValueReadBeforeInvalidationIsNotCached() {
+        long version = nearCache.getVersion();
+        nearCache.invalidate(key);
+        nearCache.put(key, new BaseAttributeKvEntry(new StringDataEntry("temperature", "stale"), 1L), version);
+        assertThat(nearCache.get(key)).isNull();
+    }
+
+    @Test
+    public void testInvalidationOfOtherKeyDoesNotCancelPut() {
+        long version = nearCache.getVersion();
+        nearCache.invalidate(new AttributeCacheKey(AttributeScope.SERVER_SCOPE, deviceId, "humidity"));
+        var value = new BaseAttributeKvEntry(new StringDataEntry("temperature", "25"), 1L);
+        nearCache.put(key, value, version);
+        assertThat(nearCache.get(key).get()).isEqualTo(value);
+    }
+
+    @Test
+    public void testValueReadAfterInvalidationIsCached() {
+        nearCache.invalidate(key);
+        var value = new BaseAttributeKvEntry(new StringDataEntry("temperature", "fresh"), 2L);
+        nearCache.put(key, value, nearCache.getVersion());
+        assertThat(nearCache.get(key).get()).isEqualTo(value);
+    }
+
+}
@@ -200,6 +200,34 @@ public abstract class BaseTimeseriesServiceTest extends AbstractServiceTest {
         Assert.assertEquals(toTsEntry(TS - 1, stringKvEntry), entries.get(2));
     }
 
+    @Test
+    public void testStreamAll() throws Exception {
+        DeviceId deviceId = new DeviceId(Uuids.timeBased());
+
+        saveEntries(deviceId, TS - 3);
+        saveEntries(deviceId, TS - 2);
+        saveEntries(deviceId, TS - 1);
+        saveEntries(deviceId, TS);
+
+        List<TsKvEntry> entries = new ArrayList<>();
+        tsService.streamAll(tenantId, deviceId, List.of(STRING_KEY, LONG_KEY), TS - 3, TS, entries::add);
+        Assert.assertEquals(6, entries.size());
+        Assert.assertEquals(toTsEntry(TS - 3, stringKvEntry), entries.get(0));
+        Assert.assertEquals(toTsEntry(TS - 2, stringKvEntry), entries.get(1));
+        Assert.assertEquals(toTsEntry(TS - 1, stringKvEntry), entries.get(2));
+        Assert.assertEquals(toTsEntry(TS - 3, longKvEntry), entries.get(3));
+        Assert.assertEquals(toTsEntry(TS - 2, longKvEntry), entries.get(4));
+        Assert.assertEquals(toTsEntry(TS - 1, longKvEntry), entries.get(5));
+
+        EntityView entityView = saveAndCreateEntityView(deviceId, List.of(STRING_KEY));
+
+        entries.clear();
+        tsService.streamAll(tenantId, entityView.getId(), List.of(STRING_KEY, LONG_KEY), TS - 3, TS, entries::add);
+        Assert.assertEquals(3, entries.size());
+        Assert.assertEquals(toTsEntry(TS - 3, stringKvEntry), entries.get(0));
+        Assert.assertEquals(toTsEntry(TS - 1, stringKvEntry), entries.get(2));
+    }
+
     @Test
     public void testFindByQuery_whenPeriodEqualsOneMilisecondPeriod() throws Exception {
         DeviceId deviceId = new DeviceId(Uuids.timeBased());
@@ -0,0 +1,203 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sql;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.stats.MessagesStats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class TbSqlRingBufferQueueTest {
+
+    private ScheduledLogExecutorComponent logExecutor;
+    private TbSqlRingBufferQueue<Integer> queue;
+
+    @BeforeEach
+    void setUp() {
+        logExecutor = new ScheduledLogExecutorComponent();
+        logExecutor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.destroy();
+        }
+        logExecutor.stop();
+    }
+
+    @Test
+    void testAllElementsSavedFromMultipleProducers() throws Exception {
+        List<Integer> saved = Collections.synchronizedList(new ArrayList<>());
+        queue = new TbSqlRingBufferQueue<>(params(100, 64, 0), mock(MessagesStats.class));
+        queue.init(logExecutor, saved::addAll, Comparator.naturalOrder(), 0);
+
+        int producers = 4;
+        int perProducer = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<ListenableFuture<Void>> futures = Collections.synchronizedList(new ArrayList<>());
+            for (int p = 0; p < producers; p++) {
+                int offset = p * perProducer;
+                executor.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        futures.add(queue.add(offset + i));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+            Futures.allAsList(futures).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(saved).hasSize(producers * perProducer);
+        assertThat(saved).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testBatchIsSortedAndLimitedBySize() throws Exception {
+        List<List<Integer>> packs = Collections.synchronizedList(new ArrayList<>());
+        queue = new TbSqlRingBufferQueue<>(params(10, 32, 0), mock(MessagesStats.class));
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 25; i > 0; i--) {
+            futures.add(queue.add(i));
+        }
+        queue.init(logExecutor, packs::add, Comparator.naturalOrder(), 0);
+        Futures.allAsList(futures).get(10, TimeUnit.SECONDS);
+
+        assertThat(packs).allSatisfy(pack -> {
+            assertThat(pack.size()).isLessThanOrEqualTo(10);
+            assertThat(pack).isSorted();
+        });
+        assertThat(packs.stream().mapToInt(List::size).sum()).isEqualTo(25);
+    }
+
+    @Test
+    void testFailedFlushFailsFutures() {
+        queue = new TbSqlRingBufferQueue<>(params(100, 16, 0), mock(MessagesStats.class));
+        queue.init(logExecutor, pack -> {
+            throw new RuntimeException("DB is down");
+        }, Comparator.naturalOrder(), 0);
+
+        ListenableFuture<Void> future = queue.add(1);
+
+        assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("DB is down");
+    }
+
+    @Test
+    void testBatchSizeAdaptsToFlushLatency() throws Exception {
+        AtomicInteger flushDelayMs = new AtomicInteger(20);
+        queue = new TbSqlRingBufferQueue<>(params(64, 1024, 10), mock(MessagesStats.class));
+        queue.init(logExecutor, pack -> {
+            try {
+                Thread.sleep(flushDelayMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, Comparator.naturalOrder(), 0);
+
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 512; i++) {
+            futures.add(queue.add(i));
+        }
+        Futures.allAsList(futures).get(30, TimeUnit.SECONDS);
+        assertThat(queue.getCurrentBatchSize()).isEqualTo(4);
+
+        flushDelayMs.set(0);
+        futures.clear();
+        for (int i = 0; i < 512; i++) {
+            futures.add(queue.add(i));
+        }
+        Futures.allAsList(futures).get(30, TimeUnit.SECONDS);
+        assertThat(queue.getCurrentBatchSize()).isGreaterThan(4);
+    }
+
+    @Test
+    void testFailedFlushDoesNotFailElementsSavedInPreviousPack() throws Exception {
+        List<Integer> saved = Collections.synchronizedList(new ArrayList<>());
+        queue = new TbSqlRingBufferQueue<>(params(32, 128, 0), mock(MessagesStats.class));
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(queue.add(i));
+        }
+        AtomicInteger flushes = new AtomicInteger();
+        queue.init(logExecutor, pack -> {
+            if (flushes.getAndIncrement() > 0) {
+                throw new RuntimeException("DB is down");
+            }
+            saved.addAll(pack);
+        }, Comparator.naturalOrder(), 0);
+        Futures.successfulAsList(futures).get(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < futures.size(); i++) {
+            ListenableFuture<Void> future = futures.get(i);
+            if (saved.contains(i)) {
+                assertThat(future.get()).isNull();
+            } else {
+                assertThatThrownBy(future::get)
+                        .isInstanceOf(ExecutionException.class)
+                        .hasRootCauseMessage("DB is down");
+            }
+        }
+        assertThat(saved).isNotEmpty();
+    }
+
+    @Test
+    void testAddIsRejectedWhenRingIsFullAfterTimeout() {
+        queue = new TbSqlRingBufferQueue<>(params(4, 4, 0), mock(MessagesStats.class));
+        for (int i = 0; i < 4; i++) {
+            assertThat(queue.add(i).isDone()).isFalse();
+        }
+
+        ListenableFuture<Void> future = queue.add(4);
+
+        assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("Queue [Test] is full!");
+    }
+
+    private static TbSqlBlockingQueueParams params(int batchSize, int ringBufferSize, long targetFlushLatencyMs) {
+        return TbSqlBlockingQueueParams.builder()
+                .logName("Test")
+                .batchSize(batchSize)
+                .maxDelay(5)
+                .statsPrintIntervalMs(60000)
+                .statsNamePrefix("test")
+                .batchSortEnabled(true)
+                .ringBuffer(new TbSqlRingBufferSettings(true, ringBufferSize, targetFlushLatencyMs, 100))
+                .build();
+    }
+}
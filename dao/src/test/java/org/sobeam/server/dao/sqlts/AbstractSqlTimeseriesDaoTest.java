@@ -0,0 +1,53 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts;
+
+import org.junit.Test;
+import org.sobeam.server.common.data.kv.Aggregation;
+import org.sobeam.server.common.data.kv.BaseReadTsKvQuery;
+import org.sobeam.server.dao.model.sqlts.timescale.ts.TimescaleTsKvEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AbstractSqlTimeseriesDaoTest {
+
+    @Test
+    public void givenRangeNotMultipleOfInterval_whenAddBuckets_thenTruncateLastBucket() {
+        List<TsKvBucket> buckets = new ArrayList<>();
+        AbstractSqlTimeseriesDao.addBuckets(1, new BaseReadTsKvQuery("key", 1000, 3500, 1000, 0, Aggregation.AVG), buckets);
+
+        assertThat(buckets).containsExactly(
+                new TsKvBucket(1, 1000, 2000),
+                new TsKvBucket(1, 2000, 3000),
+                new TsKvBucket(1, 3000, 3500));
+        assertThat(buckets).extracting(TsKvBucket::getTs).containsExactly(1500L, 2500L, 3250L);
+    }
+
+    @Test
+    public void givenTruncatedLastBucket_whenGetTs_thenSameAsTimescaleAggregation() {
+        List<TsKvBucket> buckets = new ArrayList<>();
+        AbstractSqlTimeseriesDao.addBuckets(1, new BaseReadTsKvQuery("key", 1000, 3501, 1000, 0, Aggregation.SUM), buckets);
+
+        // the Timescale DAO aggregates the remaining part with a bucket of the remaining part's size
+        TsKvBucket last = buckets.get(buckets.size() - 1);
+        TimescaleTsKvEntity timescaleEntity = new TimescaleTsKvEntity(3000L, 501L, 1L, null, 1L, 0L, null, "SUM", 3000L);
+        assertThat(last.getTs()).isEqualTo(timescaleEntity.getTs()).isEqualTo(3250L);
+    }
+
+}
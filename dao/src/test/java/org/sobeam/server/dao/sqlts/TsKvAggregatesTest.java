@@ -0,0 +1,77 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts;
+
+import org.junit.Test;
+import org.sobeam.server.common.data.kv.Aggregation;
+import org.sobeam.server.dao.model.sqlts.ts.TsKvEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsKvAggregatesTest {
+
+    @Test
+    public void givenLongAndDoubleValues_whenToEntity_thenAggregateBoth() {
+        TsKvAggregates aggregates = new TsKvAggregates();
+        aggregates.setLongCount(2);
+        aggregates.setLongSum(10L);
+        aggregates.setLongMin(4L);
+        aggregates.setLongMax(6L);
+        aggregates.setDoubleCount(2);
+        aggregates.setDoubleSum(5.0);
+        aggregates.setDoubleMin(1.5);
+        aggregates.setDoubleMax(3.5);
+        aggregates.setLastTs(100L);
+
+        assertThat(aggregates.toEntity(Aggregation.AVG).getDoubleValue()).isEqualTo(3.75);
+        assertThat(aggregates.toEntity(Aggregation.SUM).getDoubleValue()).isEqualTo(15.0);
+        assertThat(aggregates.toEntity(Aggregation.MIN).getDoubleValue()).isEqualTo(1.5);
+        assertThat(aggregates.toEntity(Aggregation.MAX).getDoubleValue()).isEqualTo(6.0);
+        TsKvEntity count = aggregates.toEntity(Aggregation.COUNT);
+        assertThat(count.getLongValue()).isEqualTo(4L);
+        assertThat(count.getAggValuesLastTs()).isEqualTo(100L);
+    }
+
+    @Test
+    public void givenLongValuesOnly_whenToEntity_thenKeepLongType() {
+        TsKvAggregates aggregates = new TsKvAggregates();
+        aggregates.setLongCount(3);
+        aggregates.setLongSum(9L);
+        aggregates.setLongMin(1L);
+        aggregates.setLongMax(5L);
+        aggregates.setLastTs(100L);
+
+        assertThat(aggregates.toEntity(Aggregation.SUM).getLongValue()).isEqualTo(9L);
+        assertThat(aggregates.toEntity(Aggregation.MIN).getLongValue()).isEqualTo(1L);
+        assertThat(aggregates.toEntity(Aggregation.MAX).getLongValue()).isEqualTo(5L);
+        assertThat(aggregates.toEntity(Aggregation.AVG).getDoubleValue()).isEqualTo(3.0);
+    }
+
+    @Test
+    public void givenStringValuesOnly_whenToEntity_thenMinMaxOfStrings() {
+        TsKvAggregates aggregates = new TsKvAggregates();
+        aggregates.setStrCount(2);
+        aggregates.setStrMin("a");
+        aggregates.setStrMax("b");
+        aggregates.setLastTs(100L);
+
+        assertThat(aggregates.toEntity(Aggregation.MIN).getStrValue()).isEqualTo("a");
+        assertThat(aggregates.toEntity(Aggregation.MAX).getStrValue()).isEqualTo("b");
+        assertThat(aggregates.toEntity(Aggregation.COUNT).getLongValue()).isEqualTo(2L);
+        assertThat(aggregates.toEntity(Aggregation.SUM).getLongValue()).isEqualTo(0L);
+    }
+
+}
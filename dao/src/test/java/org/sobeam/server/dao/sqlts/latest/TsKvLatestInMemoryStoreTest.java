@@ -0,0 +1,124 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts.latest;
+
+import org.junit.jupiter.api.Test;
+import org.sobeam.server.common.data.kv.TsKvEntry;
+import org.sobeam.server.dao.model.sqlts.latest.TsKvLatestEntity;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsKvLatestInMemoryStoreTest {
+
+    private final UUID entityId = UUID.randomUUID();
+
+    @Test
+    public void testFindWrittenValues() {
+        TsKvLatestInMemoryStore store = new TsKvLatestInMemoryStore(1024 * 1024, true);
+        assertThat(store.find(entityId, 1)).isNull();
+
+        store.put(latest(entityId, 1, 10L, 42L, null), "temperature");
+        store.put(latest(entityId, 2, 10L, null, 2.5), "humidity");
+
+        TsKvEntry temperature = store.find(entityId, 1).orElseThrow();
+        assertThat(temperature.getKey()).isEqualTo("temperature");
+        assertThat(temperature.getLongValue()).contains(42L);
+        assertThat(temperature.getTs()).isEqualTo(10L);
+        assertThat(store.find(entityId, 2).orElseThrow().getDoubleValue()).contains(2.5);
+
+        // the set of the keys is unknown until loaded from the database
+        assertThat(store.find(entityId, 3)).isNull();
+        assertThat(store.findAll(entityId)).isNull();
+    }
+
+    @Test
+    public void testLoadAllMakesEntityComplete() {
+        TsKvLatestInMemoryStore store = new TsKvLatestInMemoryStore(1024 * 1024, true);
+        store.put(latest(entityId, 1, 20L, 43L, null), "temperature");
+
+        TsKvLatestEntity loadedTemperature = latest(entityId, 1, 10L, 42L, null);
+        loadedTemperature.setStrKey("temperature");
+        TsKvLatestEntity loadedHumidity = latest(entityId, 2, 10L, null, 2.5);
+        loadedHumidity.setStrKey("humidity");
+        store.loadAll(entityId, List.of(loadedTemperature, loadedHumidity), store.getVersion());
+
+        List<TsKvEntry> all = store.findAll(entityId);
+        assertThat(all).hasSize(2);
+        // value written through the store is more recent than the one loaded from the database
+        assertThat(store.find(entityId, 1).orElseThrow().getLongValue()).contains(43L);
+        assertThat(store.find(entityId, 3)).isEqualTo(Optional.empty());
+
+        store.remove(entityId, 1);
+        assertThat(store.find(entityId, 1)).isEqualTo(Optional.empty());
+        assertThat(store.findAll(entityId)).hasSize(1);
+    }
+
+    @Test
+    public void testLoadReadBeforeRemoveIsRejected() {
+        TsKvLatestInMemoryStore store = new TsKvLatestInMemoryStore(1024 * 1024, true);
+        long version = store.getVersion();
+        TsKvLatestEntity loadedTemperature = latest(entityId, 1, 10L, 42L, null);
+        loadedTemperature.setStrKey("temperature");
+
+        // the key is deleted after the database read but before the loaded values reach the store
+        store.remove(entityId, 1);
+        store.loadAll(entityId, List.of(loadedTemperature), version);
+        store.load(loadedTemperature, "temperature", version);
+        assertThat(store.find(entityId, 1)).isNull();
+        assertThat(store.findAll(entityId)).isNull();
+
+        store.loadAll(entityId, List.of(), store.getVersion());
+        assertThat(store.findAll(entityId)).isEmpty();
+    }
+
+    @Test
+    public void testUpdateByLatestTs() {
+        TsKvLatestInMemoryStore store = new TsKvLatestInMemoryStore(1024 * 1024, true);
+        store.put(latest(entityId, 1, 20L, 2L, null), "temperature");
+        store.put(latest(entityId, 1, 10L, 1L, null), "temperature");
+        assertThat(store.find(entityId, 1).orElseThrow().getLongValue()).contains(2L);
+
+        store = new TsKvLatestInMemoryStore(1024 * 1024, false);
+        store.put(latest(entityId, 1, 20L, 2L, null), "temperature");
+        store.put(latest(entityId, 1, 10L, 1L, null), "temperature");
+        assertThat(store.find(entityId, 1).orElseThrow().getLongValue()).contains(1L);
+    }
+
+    @Test
+    public void testMemoryCap() {
+        TsKvLatestInMemoryStore store = new TsKvLatestInMemoryStore(64 * 1024, true);
+        for (int i = 0; i < 10_000; i++) {
+            store.put(latest(UUID.randomUUID(), 1, 10L, (long) i, null), "temperature");
+        }
+        store.cleanUp();
+        assertThat(store.getEstimatedSize()).isLessThan(1000);
+    }
+
+    private static TsKvLatestEntity latest(UUID entityId, int keyId, long ts, Long longValue, Double doubleValue) {
+        TsKvLatestEntity entity = new TsKvLatestEntity();
+        entity.setEntityId(entityId);
+        entity.setKey(keyId);
+        entity.setTs(ts);
+        entity.setLongValue(longValue);
+        entity.setDoubleValue(doubleValue);
+        return entity;
+    }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.sqlts.rollup;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sobeam.server.dao.sqlts.rollup.TsKvRollupPlanner.DAY;
+import static org.sobeam.server.dao.sqlts.rollup.TsKvRollupPlanner.HOUR;
+import static org.sobeam.server.dao.sqlts.rollup.TsKvRollupPlanner.MINUTE;
+
+public class TsKvRollupPlannerTest {
+
+    @Test
+    public void givenUnalignedRange_whenPlan_thenUseCoarsestRollupsAndRawEdges() {
+        long startTs = DAY - 2 * HOUR - 3 * MINUTE - 500;
+        long endTs = 3 * DAY + HOUR + MINUTE + 200;
+        List<TsKvRollupRange> ranges = TsKvRollupPlanner.plan(startTs, endTs, 0, Long.MAX_VALUE);
+        assertThat(ranges).containsExactly(
+                new TsKvRollupRange(0, startTs, DAY - 2 * HOUR - 3 * MINUTE),
+                new TsKvRollupRange(MINUTE, DAY - 2 * HOUR - 3 * MINUTE, DAY - 2 * HOUR),
+                new TsKvRollupRange(HOUR, DAY - 2 * HOUR, DAY),
+                new TsKvRollupRange(DAY, DAY, 3 * DAY),
+                new TsKvRollupRange(HOUR, 3 * DAY, 3 * DAY + HOUR),
+                new TsKvRollupRange(MINUTE, 3 * DAY + HOUR, 3 * DAY + HOUR + MINUTE),
+                new TsKvRollupRange(0, 3 * DAY + HOUR + MINUTE, endTs));
+        assertCovered(ranges, startTs, endTs);
+    }
+
+    @Test
+    public void givenRangeOutsideRollups_whenPlan_thenReadRawValues() {
+        List<TsKvRollupRange> ranges = TsKvRollupPlanner.plan(0, DAY, DAY, 2 * DAY);
+        assertThat(ranges).containsExactly(new TsKvRollupRange(0, 0, DAY));
+        assertThat(TsKvRollupPlanner.hasRollups(ranges)).isFalse();
+    }
+
+    @Test
+    public void givenRangeShorterThanMinute_whenPlan_thenReadRawValues() {
+        List<TsKvRollupRange> ranges = TsKvRollupPlanner.plan(MINUTE + 1, 2 * MINUTE - 1, 0, Long.MAX_VALUE);
+        assertThat(ranges).containsExactly(new TsKvRollupRange(0, MINUTE + 1, 2 * MINUTE - 1));
+    }
+
+    @Test
+    public void givenRangeCrossingRollupBounds_whenPlan_thenReadRawValuesOutsideOfRollups() {
+        long rollupStartTs = HOUR + 5 * MINUTE;
+        long rollupEndTs = 3 * HOUR + 30 * MINUTE + 10;
+        List<TsKvRollupRange> ranges = TsKvRollupPlanner.plan(0, DAY, rollupStartTs, rollupEndTs);
+        assertThat(ranges).containsExactly(
+                new TsKvRollupRange(0, 0, rollupStartTs),
+                new TsKvRollupRange(MINUTE, rollupStartTs, 2 * HOUR),
+                new TsKvRollupRange(HOUR, 2 * HOUR, 3 * HOUR),
+                new TsKvRollupRange(MINUTE, 3 * HOUR, 3 * HOUR + 30 * MINUTE),
+                new TsKvRollupRange(0, 3 * HOUR + 30 * MINUTE, DAY));
+        assertCovered(ranges, 0, DAY);
+    }
+
+    private static void assertCovered(List<TsKvRollupRange> ranges, long startTs, long endTs) {
+        long ts = startTs;
+        for (TsKvRollupRange range : ranges) {
+            assertThat(range.getStartTs()).isEqualTo(ts);
+            assertThat(range.getEndTs()).isGreaterThan(range.getStartTs());
+            ts = range.getEndTs();
+        }
+        assertThat(ts).isEqualTo(endTs);
+    }
+
+}
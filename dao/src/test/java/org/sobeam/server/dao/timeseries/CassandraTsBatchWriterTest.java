@@ -0,0 +1,176 @@
+/**
+ * Copyright © 2024 The Sobeam Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sobeam.server.dao.timeseries;
+
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.micrometer.core.instrument.Timer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sobeam.server.common.data.id.DeviceId;
+import org.sobeam.server.common.data.id.TenantId;
+import org.sobeam.server.common.stats.StatsCounter;
+import org.sobeam.server.common.stats.StatsFactory;
+import org.sobeam.server.dao.nosql.TbResultSet;
+import org.sobeam.server.dao.util.TenantRateLimitException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CassandraTsBatchWriterTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final List<Statement<?>> executed = new ArrayList<>();
+    private CassandraTsBatchWriter writer;
+    private Throwable writeFailure;
+    private long executionTimeNanos;
+    private int rateLimitCapacity = Integer.MAX_VALUE;
+
+    @Before
+    public void setUp() {
+        StatsFactory statsFactory = mock(StatsFactory.class);
+        when(statsFactory.createGauge(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(statsFactory.createStatsCounter(anyString(), anyString())).thenReturn(mock(StatsCounter.class));
+        when(statsFactory.createTimer(anyString())).thenReturn(mock(Timer.class));
+        writer = new CassandraTsBatchWriter(this::execute, statsFactory, 1, 3, 60000, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    public void givenStatementsOfSamePartition_whenBatchIsFull_thenSingleBatchExecuted() throws Exception {
+        CassandraPartitionCacheKey partitionKey = new CassandraPartitionCacheKey(deviceId, "temperature", 0L);
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(writer.add(tenantId, partitionKey, mock(BoundStatement.class)));
+        }
+
+        assertThat(executed).hasSize(1);
+        assertThat(executed.get(0)).isInstanceOf(BatchStatement.class);
+        assertThat(((BatchStatement) executed.get(0)).size()).isEqualTo(3);
+        assertThat(Futures.allAsList(futures).get()).hasSize(3);
+    }
+
+    @Test
+    public void givenStatementsOfDifferentPartitions_whenFlush_thenExecutedSeparately() {
+        writer.add(tenantId, new CassandraPartitionCacheKey(deviceId, "temperature", 0L), mock(BoundStatement.class));
+        writer.add(tenantId, new CassandraPartitionCacheKey(deviceId, "humidity", 0L), mock(BoundStatement.class));
+        writer.add(tenantId, new CassandraPartitionCacheKey(deviceId, "humidity", 0L), mock(BoundStatement.class));
+        assertThat(executed).isEmpty();
+
+        writer.flushAll();
+
+        assertThat(executed).hasSize(2);
+        assertThat(executed).filteredOn(statement -> statement instanceof BoundStatement).hasSize(1);
+        assertThat(executed).filteredOn(statement -> statement instanceof BatchStatement).hasSize(1);
+    }
+
+    @Test
+    public void givenFailedBatch_whenAdd_thenBatchSizeDecreasedAndFutureFailed() {
+        writeFailure = new RuntimeException("Write timeout");
+        CassandraPartitionCacheKey partitionKey = new CassandraPartitionCacheKey(deviceId, "temperature", 0L);
+        assertThat(writer.getBatchSize()).isEqualTo(3);
+        ListenableFuture<Void> future = writer.add(tenantId, partitionKey, mock(BoundStatement.class));
+
+        writer.flushAll();
+
+        assertThat(future.isDone()).isTrue();
+        assertThatThrownBy(future::get).hasMessageContaining("Write timeout");
+        assertThat(writer.getBatchSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenRateLimitedBatch_whenAdd_thenBatchSizeNotDecreased() {
+        writeFailure = new TenantRateLimitException();
+        ListenableFuture<Void> future = writer.add(tenantId, new CassandraPartitionCacheKey(deviceId, "temperature", 0L), mock(BoundStatement.class));
+
+        writer.flushAll();
+
+        assertThat(future.isDone()).isTrue();
+        assertThat(writer.getBatchSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenBatchLargerThanRateLimitCapacity_whenBatchIsFull_thenBatchSplitAndWritten() throws Exception {
+        rateLimitCapacity = 2;
+        CassandraPartitionCacheKey partitionKey = new CassandraPartitionCacheKey(deviceId, "temperature", 0L);
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(writer.add(tenantId, partitionKey, mock(BoundStatement.class)));
+        }
+
+        assertThat(executed).hasSize(2);
+        assertThat(executed.get(0)).isInstanceOf(BoundStatement.class);
+        assertThat(((BatchStatement) executed.get(1)).size()).isEqualTo(2);
+        assertThat(Futures.allAsList(futures).get()).hasSize(3);
+        assertThat(writer.getBatchSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenRateLimitExceededForSingleStatement_whenBatchIsFull_thenFuturesFailed() {
+        rateLimitCapacity = 0;
+        CassandraPartitionCacheKey partitionKey = new CassandraPartitionCacheKey(deviceId, "temperature", 0L);
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(writer.add(tenantId, partitionKey, mock(BoundStatement.class)));
+        }
+
+        assertThat(executed).isEmpty();
+        assertThat(futures).allSatisfy(future -> assertThatThrownBy(future::get).hasCauseInstanceOf(TenantRateLimitException.class));
+    }
+
+    @Test
+    public void givenSlowExecution_whenBatchWritten_thenBatchSizeDecreased() {
+        executionTimeNanos = TimeUnit.MINUTES.toNanos(2);
+        writer.add(tenantId, new CassandraPartitionCacheKey(deviceId, "temperature", 0L), mock(BoundStatement.class));
+
+        writer.flushAll();
+
+        assertThat(writer.getBatchSize()).isEqualTo(1);
+    }
+
+    private ListenableFuture<TbResultSet> execute(TenantId tenantId, Statement<?> statement) {
+        if (writeFailure != null) {
+            return Futures.immediateFailedFuture(writeFailure);
+        }
+        int permits = statement instanceof BatchStatement batch ? batch.size() : 1;
+        if (permits > rateLimitCapacity) {
+            return Futures.immediateFailedFuture(new TenantRateLimitException());
+        }
+        executed.add(statement);
+        TbResultSet resultSet = mock(TbResultSet.class);
+        when(resultSet.getExecutionTimeNanos()).thenReturn(executionTimeNanos);
+        return Futures.immediateFuture(resultSet);
+    }
+
+}
@@ -70,4 +70,7 @@ public @interface RuleNode {
 
     int version() default 0;
 
+    // TbNode.onMsg may be invoked concurrently for different originators, see the "parallelism" of the rule node
+    boolean threadSafe() default false;
+
 }
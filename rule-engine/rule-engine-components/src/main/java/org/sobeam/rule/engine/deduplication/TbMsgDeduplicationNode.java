@@ -237,7 +237,7 @@ public class TbMsgDeduplicationNode implements TbNode {
         ArrayNode mergedData = JacksonUtil.newArrayNode();
         msgs.forEach(msg -> {
             ObjectNode msgNode = JacksonUtil.newObjectNode();
-            msgNode.set("msg", JacksonUtil.toJsonNode(msg.getData()));
+            msgNode.set("msg", msg.getDataAsJsonNode());
             msgNode.set("metadata", JacksonUtil.valueToTree(msg.getMetaData().getData()));
             mergedData.add(msgNode);
         });
@@ -45,7 +45,8 @@ import static org.sobeam.common.util.DonAsynchron.withCallback;
                 "Message type can be accessed via <code>msgType</code> property.<br><br>" +
                 "Output connections: <code>True</code>, <code>False</code>, <code>Failure</code>",
         uiResources = {"static/rulenode/rulenode-core-config.js"},
-        configDirective = "tbFilterNodeScriptConfig"
+        configDirective = "tbFilterNodeScriptConfig",
+        threadSafe = true
 )
 public class TbJsFilterNode implements TbNode {
 
@@ -47,7 +47,8 @@ import java.util.Set;
                 "Message type can be accessed via <code>msgType</code> property.<br><br>" +
                 "Output connections: <i>Custom connection(s) defined by switch node</i> or <code>Failure</code>",
         uiResources = {"static/rulenode/rulenode-core-config.js"},
-        configDirective = "tbFilterNodeSwitchConfig")
+        configDirective = "tbFilterNodeSwitchConfig",
+        threadSafe = true)
 public class TbJsSwitchNode implements TbNode {
 
     private TbJsSwitchNodeConfiguration config;
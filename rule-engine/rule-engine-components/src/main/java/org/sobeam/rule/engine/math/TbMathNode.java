@@ -23,7 +23,6 @@ import lombok.extern.slf4j.Slf4j;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
 import org.springframework.util.ConcurrentReferenceHashMap;
-import org.sobeam.common.util.JacksonUtil;
 import org.sobeam.rule.engine.api.RuleNode;
 import org.sobeam.rule.engine.api.TbContext;
 import org.sobeam.rule.engine.api.TbNode;
@@ -74,7 +73,8 @@ import static org.sobeam.rule.engine.math.TbMathArgumentType.CONSTANT;
                 "If you have rule nodes in different rule chains, they will process messages from the same originator synchronously in the scope of the server node.",
         uiResources = {"static/rulenode/rulenode-core-config.js"},
         configDirective = "tbActionNodeMathFunctionConfig",
-        icon = "calculate"
+        icon = "calculate",
+        threadSafe = true
 
 )
 public class TbMathNode implements TbNode {
@@ -172,7 +172,7 @@ public class TbMathNode implements TbNode {
     private Optional<ObjectNode> convertMsgBodyIfRequired(TbMsg msg) {
         Optional<ObjectNode> msgBodyOpt;
         if (msgBodyToJsonConversionRequired) {
-            var jsonNode = JacksonUtil.toJsonNode(msg.getData());
+            var jsonNode = msg.getDataAsJsonNode();
             if (jsonNode.isObject()) {
                 msgBodyOpt = Optional.of((ObjectNode) jsonNode);
             } else {
@@ -196,13 +196,13 @@ public class TbMathNode implements TbNode {
     }
 
     private TbMsg addToBody(TbMsg msg, TbMathResult mathResultDef, String mathResultKey, Optional<ObjectNode> msgBodyOpt, double result) {
-        ObjectNode body = msgBodyOpt.get();
+        ObjectNode body = msgBodyOpt.get().deepCopy();
         if (isIntegerResult(mathResultDef, config.getOperation())) {
             body.put(mathResultKey, toIntValue(result));
         } else {
             body.put(mathResultKey, toDoubleValue(mathResultDef, result));
         }
-        return TbMsg.transformMsgData(msg, JacksonUtil.toString(body));
+        return TbMsg.transformMsgData(msg, body);
     }
 
     private TbMsg addToMeta(TbMsg msg, TbMathResult mathResultDef, String mathResultKey, double result) {
@@ -22,7 +22,6 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.ConcurrentReferenceHashMap;
-import org.sobeam.common.util.JacksonUtil;
 import org.sobeam.rule.engine.api.RuleNode;
 import org.sobeam.rule.engine.api.TbContext;
 import org.sobeam.rule.engine.api.TbNode;
@@ -86,7 +85,7 @@ public class CalculateDeltaNode implements TbNode {
             ctx.tellNext(msg, TbNodeConnectionType.OTHER);
             return;
         }
-        JsonNode msgData = JacksonUtil.toJsonNode(msg.getData());
+        JsonNode msgData = msg.getDataAsJsonNode();
         if (msgData == null || !msgData.has(config.getInputValueKey())) {
             ctx.tellNext(msg, TbNodeConnectionType.OTHER);
             return;
@@ -151,7 +150,7 @@ public class CalculateDeltaNode implements TbNode {
     protected ListenableFuture<TbMsg> processMsgAsync(TbContext ctx, TbMsg msg) {
         ListenableFuture<ValueWithTs> latestValueFuture = getLatestFromCacheOrFetchFromDb(ctx, msg);
         return Futures.transform(latestValueFuture, previousData -> {
-            ObjectNode json = (ObjectNode) JacksonUtil.toJsonNode(msg.getData());
+            ObjectNode json = (ObjectNode) msg.getDataAsJsonNode().deepCopy();
             double currentValue = json.get(config.getInputValueKey()).asDouble();
             if (config.isUseCache()) {
                 cache.put(msg.getOriginator(), new ValueWithTs(msg.getMetaDataTs(), currentValue));
@@ -175,7 +174,7 @@ public class CalculateDeltaNode implements TbNode {
                 long period = previousData != null ? msg.getMetaDataTs() - previousData.ts : 0;
                 json.put(config.getPeriodValueKey(), period);
             }
-            return TbMsg.transformMsgData(msg, JacksonUtil.toString(json));
+            return TbMsg.transformMsgData(msg, json);
         }, MoreExecutors.directExecutor());
     }
 
@@ -42,7 +42,8 @@ import java.util.List;
                 "All fields in resulting object are optional and will be taken from original message if not specified.<br><br>" +
                 "Output connections: <code>Success</code>, <code>Failure</code>.",
         uiResources = {"static/rulenode/rulenode-core-config.js"},
-        configDirective = "tbTransformationNodeScriptConfig"
+        configDirective = "tbTransformationNodeScriptConfig",
+        threadSafe = true
 )
 public class TbTransformMsgNode extends TbAbstractTransformNode<TbTransformMsgNodeConfiguration> {
 